@@ -217,6 +217,53 @@ namespace powerAuth
 	};
 
 	
+	/// The ECIESRequestStream class implements an incremental request encryption, suitable for
+	/// payloads which should not be kept in memory at once. The stream is prepared in
+	/// ECIESEncryptor::beginEncryptRequest() and produces the same cryptogram body and MAC
+	/// as ECIESEncryptor::encryptRequest() would produce for the whole data.
+	class ECIESRequestStream
+	{
+	public:
+		ECIESRequestStream();
+		~ECIESRequestStream();
+		
+		ECIESRequestStream(const ECIESRequestStream &) = delete;
+		ECIESRequestStream & operator=(const ECIESRequestStream &) = delete;
+		
+		/// Returns true if stream is prepared for encryption.
+		bool isValid() const;
+		
+		/// Encrypts next chunk of |data| and stores encrypted bytes into |out_body|. Note that
+		/// the returned bytes may be empty, if there's not enough data for one encrypted block.
+		///
+		/// Returns
+		///		EC_Ok 			- when everything's OK
+		///		EC_WrongState	- if stream is not prepared or is already finished
+		///		EC_Encryption	- if some cryptographic operation did fail
+		ErrorCode update(const cc7::ByteRange & data, cc7::ByteArray & out_body);
+		
+		/// Finishes the encryption, stores the last encrypted bytes into |out_body| and
+		/// the MAC calculated over the whole encrypted body into |out_mac|.
+		///
+		/// Returns
+		///		EC_Ok 			- when everything's OK
+		///		EC_WrongState	- if stream is not prepared or is already finished
+		///		EC_Encryption	- if some cryptographic operation did fail
+		ErrorCode finish(cc7::ByteArray & out_body, cc7::ByteArray & out_mac);
+		
+	private:
+		
+		friend class ECIESEncryptor;
+		
+		/// Prepares stream for encryption with given envelope key, IV and shared info2.
+		ErrorCode start(const ECIESEnvelopeKey & envelope_key, const cc7::ByteRange & iv, const cc7::ByteRange & shared_info2);
+		
+		struct PrivateData;
+		/// Private data, containing cipher and MAC state.
+		PrivateData * _pd;
+	};
+	
+	
 	/// The ECIESEncryptor class implements a request encryption and response decryption for our custom ECIES scheme.
 	class ECIESEncryptor
 	{
@@ -274,6 +321,16 @@ namespace powerAuth
 		///		EC_Encryption	- if some cryptographic operation did fail
 		ErrorCode encryptRequest(const cc7::ByteRange & data, ECIESCryptogram & out_cryptogram);
 		
+		/// Prepares |out_stream| for an incremental request encryption. Only |key| and |nonce| are set
+		/// to |out_cryptogram|, the body and MAC are produced later by the stream. Just like encryptRequest(),
+		/// each call for this method will regenerate an internal envelope key.
+		///
+		/// Returns
+		///		EC_Ok 			- when everything's OK and stream is prepared
+		///		EC_WrongState	- if instance can't encrypt data (e.g. public key is not present)
+		///		EC_Encryption	- if some cryptographic operation did fail
+		ErrorCode beginEncryptRequest(ECIESRequestStream & out_stream, ECIESCryptogram & out_cryptogram);
+		
 		/// Decrypts a |cryptogram| received from the server and stores the result into |out_data| reference.
 		///
 		/// Returns
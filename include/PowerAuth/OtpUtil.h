@@ -130,6 +130,106 @@ namespace powerAuth
 		static bool validateRecoveryPuk(const std::string & recovery_puk);
 	};
 	
+	
+	/**
+	 The `OtpValidator` class provides incremental validation of activation or recovery code,
+	 typed by the user, character by character. The object keeps the partially decoded data
+	 and CRC-16 state for each typed character, so appending or removing the character doesn't
+	 need to parse the whole code again.
+	 
+	 The validator accepts only characters from [A-Z2-7] range. The dash characters are not
+	 stored, so it doesn't matter whether the application inserts them to the input or not.
+	 The "R:" prefix and the signature part are not supported, because they're never typed
+	 by the user.
+	 */
+	class OtpValidator
+	{
+	public:
+		
+		/**
+		 The State enumeration defines result of the validation.
+		 */
+		enum State
+		{
+			/**
+			 The code is not complete yet.
+			 */
+			Incomplete	= 0,
+			/**
+			 The code is complete and valid.
+			 */
+			Valid		= 1,
+			/**
+			 The code is complete, but the checksum doesn't match, or the unused
+			 bits in the last character are not zero.
+			 */
+			Invalid		= 2
+		};
+		
+		/**
+		 Number of Base32 characters in the activation or recovery code.
+		 */
+		static const size_t CODE_LENGTH = 20;
+		
+		/**
+		 Constructs an empty validator.
+		 */
+		OtpValidator();
+		
+		/**
+		 Appends |utf_codepoint| at the end of the code. The character is autocorrected with
+		 `OtpUtil::validateAndCorrectTypedCharacter()` before it's appended. The dash character
+		 is accepted, but ignored.
+		 
+		 Returns false if character is not allowed, or if the code is already complete.
+		 */
+		bool appendCharacter(cc7::U32 utf_codepoint);
+		
+		/**
+		 Removes the last character from the code. Returns false if the code is empty.
+		 */
+		bool removeLastCharacter();
+		
+		/**
+		 Removes all characters from the code.
+		 */
+		void clear();
+		
+		/**
+		 Returns number of typed characters, without dashes.
+		 */
+		size_t length() const;
+		
+		/**
+		 Returns current validation state.
+		 */
+		State state() const;
+		
+		/**
+		 Returns typed code, formatted with dashes. For example, "ABCDE-FGH" is returned
+		 for 8 typed characters.
+		 */
+		std::string code() const;
+		
+	private:
+		
+		/**
+		 Decoder state captured after each typed character.
+		 */
+		struct DecoderState
+		{
+			cc7::U16 bits;			// Bits not decoded to bytes yet
+			cc7::U8  bits_count;	// Number of valid bits in 'bits'
+			cc7::U8  bytes_count;	// Number of already decoded bytes
+			cc7::U16 crc;			// CRC-16 calculated from the first 10 bytes
+			cc7::U16 checksum;		// Checksum decoded from the last 2 bytes
+		};
+		
+		char _chars[CODE_LENGTH];
+		DecoderState _states[CODE_LENGTH + 1];
+		size_t _length;
+	};
+	
 } // io::getlime::powerAuth
 } // io::getlime
 } // io
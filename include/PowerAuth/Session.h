@@ -179,6 +179,23 @@ namespace powerAuth
 		 */
 		ErrorCode startActivation(const ActivationStep1Param & param, ActivationStep1Result & result);
 		
+		/**
+		 Prepares cryptographic material for the upcoming activation in advance. The method imports
+		 master server public key and generates device's key pair, so the following 'startActivation'
+		 call doesn't need to perform these expensive operations. The method is typically called
+		 from a background thread, once the user enters a valid activation code.
+		 
+		 The prepared material is used only once, by the next successful 'startActivation' call.
+		 If the material is already prepared, then the method does nothing and returns EC_Ok.
+		 The heavy work is performed without holding the session's lock, so you can safely call
+		 other session methods while the preparation is in progress.
+		 
+		 Returns EC_Ok,         if operation succeeded
+				 EC_Encryption, if master server public key is invalid or key pair generation failed
+				 EC_WrongState, if called in wrong session's state
+		 */
+		ErrorCode prepareActivation();
+		
 		/**
 		 Validates activation respose received from the server. The session expects that the activation
 		 process was previously started with using 'startActivation' method. You have to provide
@@ -305,6 +322,16 @@ namespace powerAuth
 				 EC_WrongParam	if data structure doesn't contain signature
 		 */
 		ErrorCode verifyServerSignedData(const SignedData & data) const;
+		
+		/**
+		 Returns server's public key, used for validation of data signed with |signing_key|.
+		 You can use this key to validate a large amount of server signed data, without
+		 importing the key for each signature.
+		 
+		 Returns empty data if session contains invalid setup, or if personalized key is
+		 requested and there's no valid activation.
+		 */
+		cc7::ByteArray serverPublicKeyForSignedData(SignedData::SigningKey signing_key) const;
 
 		
 		// MARK: - Signature keys management -
@@ -664,6 +691,19 @@ namespace powerAuth
 		 */
 		protocol::ActivationData * _ad;
 		
+		/**
+		 Pointer to activation data prepared in advance by the 'prepareActivation' method.
+		 The structure contains only master server public key and device's key pair and
+		 it's moved to _ad once the activation is started.
+		 */
+		protocol::ActivationData * _preparedAd;
+		
+		/**
+		 Creates a new ActivationData structure with imported master server public key and with
+		 newly generated device's key pair. Returns nullptr in case of failure.
+		 */
+		protocol::ActivationData * createActivationData() const;
+		
 		/**
 		 Commits a |new_pd| and |new_state| as a new valid session state.
 		 Check documentation in method's implementation for details.
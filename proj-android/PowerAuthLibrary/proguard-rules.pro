@@ -26,6 +26,9 @@
     <init>(...);
     <fields>;
 }
+-keep class io.getlime.security.powerauth.util.otp.OtpValidator {
+    <fields>;
+}
 -keepclassmembers class io.getlime.core.rest.model.** {
     <fields>;
 }
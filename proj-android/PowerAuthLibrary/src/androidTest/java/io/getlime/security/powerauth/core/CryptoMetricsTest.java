@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.core;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class CryptoMetricsTest {
+
+    @Test
+    public void testJavaConstantsMatchNativeRegistry() throws Exception {
+        final CryptoOperationMetrics[] snapshot = CryptoMetrics.getSnapshot();
+        // The CryptoOperation constants must cover all operations measured by the native code.
+        assertEquals(CryptoOperation.AES_DECRYPT + 1, snapshot.length);
+        final long[] limits = CryptoOperationMetrics.HISTOGRAM_BUCKET_LIMITS;
+        assertTrue(limits.length > 0);
+        for (int i = 1; i < limits.length; i++) {
+            assertTrue(limits[i] > limits[i - 1]);
+        }
+        for (int i = 0; i < snapshot.length; i++) {
+            assertEquals(i, snapshot[i].operation);
+            assertEquals(limits.length + 1, snapshot[i].histogram.length);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.integration.tests;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.getlime.security.powerauth.integration.support.AsyncHelper;
+import io.getlime.security.powerauth.integration.support.PowerAuthTestHelper;
+import io.getlime.security.powerauth.integration.support.model.SignatureData;
+import io.getlime.security.powerauth.integration.support.model.SignatureInfo;
+import io.getlime.security.powerauth.integration.support.model.SignatureType;
+import io.getlime.security.powerauth.networking.response.IOfflineQueueDrainListener;
+import io.getlime.security.powerauth.networking.ssl.PA2ClientSslNoValidationStrategy;
+import io.getlime.security.powerauth.sdk.PowerAuthAuthentication;
+import io.getlime.security.powerauth.sdk.PowerAuthAuthorizationHttpHeader;
+import io.getlime.security.powerauth.sdk.PowerAuthClientConfiguration;
+import io.getlime.security.powerauth.sdk.PowerAuthOfflineQueue;
+import io.getlime.security.powerauth.sdk.PowerAuthOfflineRequest;
+import io.getlime.security.powerauth.sdk.PowerAuthSDK;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class OfflineQueueTest {
+
+    private PowerAuthTestHelper testHelper;
+    private PowerAuthSDK powerAuthSDK;
+    private ActivationHelper activationHelper;
+    private SignatureHelper signatureHelper;
+    private RecordingServer recordingServer;
+
+    @Before
+    public void setUp() throws Exception {
+        // Queued requests are delivered to the local server, so allow connection without TLS.
+        final PowerAuthClientConfiguration clientConfiguration = new PowerAuthClientConfiguration.Builder()
+                .allowUnsecuredConnection(true)
+                .clientValidationStrategy(new PA2ClientSslNoValidationStrategy())
+                .build();
+        testHelper = new PowerAuthTestHelper.Builder()
+                .sharedClientConfiguration(clientConfiguration)
+                .build();
+        powerAuthSDK = testHelper.getSharedSdk();
+        activationHelper = new ActivationHelper(testHelper);
+        signatureHelper = new SignatureHelper();
+        recordingServer = new RecordingServer();
+    }
+
+    @After
+    public void tearDown() {
+        if (recordingServer != null) {
+            recordingServer.close();
+        }
+        if (activationHelper != null) {
+            activationHelper.cleanupAfterTest();
+        }
+    }
+
+    @Test
+    public void testDrainPreservesCounterOrder() throws Exception {
+
+        final Context context = testHelper.getContext();
+
+        activationHelper.createStandardActivation(true, null);
+
+        final PowerAuthOfflineQueue queue = powerAuthSDK.getOfflineQueue();
+        queue.clear();
+
+        // Enqueue requests, alternately signed with possession only and with possession + knowledge.
+        final int requestCount = 6;
+        final String uriId = "/offline/queue";
+        final String[] bodies = new String[requestCount];
+        for (int i = 0; i < requestCount; i++) {
+            final PowerAuthAuthentication authentication = (i & 1) == 0 ? activationHelper.getPossessionAuthentication() : activationHelper.getValidAuthentication();
+            bodies[i] = "Offline request #" + i + "\n" + testHelper.getRandomGenerator().generateRandomString(10, 32);
+            final PowerAuthOfflineRequest request = new PowerAuthOfflineRequest(recordingServer.getUrl(), "POST", uriId, bodies[i].getBytes(Charset.defaultCharset()), null);
+            final PowerAuthOfflineRequest queuedRequest = queue.enqueue(context, request, authentication);
+            assertTrue(queuedRequest.getIdentifier() >= 0);
+        }
+        assertEquals(requestCount, queue.getCount());
+
+        // Drain the queue
+        final Integer sentCount = AsyncHelper.await(new AsyncHelper.Execution<Integer>() {
+            @Override
+            public void execute(@NonNull final AsyncHelper.ResultCatcher<Integer> resultCatcher) throws Exception {
+                queue.drain(context, new IOfflineQueueDrainListener() {
+                    @Override
+                    public void onOfflineRequestSent(@NonNull PowerAuthOfflineRequest request, int responseCode, @Nullable byte[] responseData) {
+                    }
+
+                    @Override
+                    public void onOfflineQueueDrained(int sentCount, int remainingCount, @Nullable Throwable error) {
+                        if (error != null) {
+                            resultCatcher.completeWithError(error);
+                        } else {
+                            resultCatcher.completeWithResult(sentCount);
+                        }
+                    }
+                });
+            }
+        });
+        assertEquals(requestCount, sentCount.intValue());
+        assertEquals(0, queue.getCount());
+
+        // Requests must arrive in the queue order and the server must accept all signatures
+        // in that order. If counters are out of the queue order, then a signature with
+        // an already used counter value is rejected.
+        final List<RecordedRequest> recordedRequests = recordingServer.getRecordedRequests();
+        assertEquals(requestCount, recordedRequests.size());
+        for (int i = 0; i < requestCount; i++) {
+            final RecordedRequest recordedRequest = recordedRequests.get(i);
+            assertEquals(bodies[i], recordedRequest.body);
+            assertNotNull(recordedRequest.authorizationHeader);
+
+            final Map<String, String> sigComponents = signatureHelper.parseAuthorizationHeader(PowerAuthAuthorizationHttpHeader.createAuthorizationHeader(recordedRequest.authorizationHeader));
+            final String sigVersion = sigComponents.get("pa_version");
+            final String sigNonce = Objects.requireNonNull(sigComponents.get("pa_nonce"));
+            final String sigType = Objects.requireNonNull(sigComponents.get("pa_signature_type")).toUpperCase();
+
+            final SignatureData signatureData = new SignatureData();
+            signatureData.setActivationId(sigComponents.get("pa_activation_id"));
+            signatureData.setData(signatureHelper.normalizeOnlineData(recordedRequest.body, "POST", uriId, sigNonce));
+            signatureData.setSignature(sigComponents.get("pa_signature"));
+            signatureData.setSignatureType(SignatureType.valueOf(sigType));
+            signatureData.setSignatureVersion(sigVersion);
+            signatureData.setApplicationKey(sigComponents.get("pa_application_key"));
+
+            final SignatureInfo verifyResult = testHelper.getServerApi().verifyOnlineSignature(signatureData);
+            assertNotNull(verifyResult);
+            assertTrue(verifyResult.isSignatureValid());
+            assertEquals((i & 1) == 0 ? SignatureType.POSSESSION : SignatureType.POSSESSION_KNOWLEDGE, verifyResult.getSignatureType());
+        }
+    }
+
+    /**
+     * Request received by {@link RecordingServer}.
+     */
+    private static class RecordedRequest {
+        final String authorizationHeader;
+        final String body;
+
+        RecordedRequest(String authorizationHeader, String body) {
+            this.authorizationHeader = authorizationHeader;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Minimal local HTTP server that records received requests in order of their arrival
+     * and responds with an empty 200 response.
+     */
+    private static class RecordingServer {
+
+        private final ServerSocket serverSocket;
+        private final List<RecordedRequest> recordedRequests = new ArrayList<>();
+
+        RecordingServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (!serverSocket.isClosed()) {
+                        try {
+                            final Socket socket = serverSocket.accept();
+                            try {
+                                final RecordedRequest request = readRequest(socket.getInputStream());
+                                synchronized (recordedRequests) {
+                                    recordedRequests.add(request);
+                                }
+                                final OutputStream outputStream = socket.getOutputStream();
+                                outputStream.write("HTTP/1.1 200 OK\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(Charset.defaultCharset()));
+                                outputStream.flush();
+                            } finally {
+                                socket.close();
+                            }
+                        } catch (IOException e) {
+                            // Server is closed, or the connection failed.
+                        }
+                    }
+                }
+            }, "OfflineQueueTest server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @NonNull String getUrl() {
+            return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/offline/queue";
+        }
+
+        @NonNull List<RecordedRequest> getRecordedRequests() {
+            synchronized (recordedRequests) {
+                return new ArrayList<>(recordedRequests);
+            }
+        }
+
+        void close() {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+            }
+        }
+
+        private static @NonNull RecordedRequest readRequest(@NonNull InputStream inputStream) throws IOException {
+            String authorizationHeader = null;
+            int contentLength = 0;
+            String line;
+            while (!(line = readLine(inputStream)).isEmpty()) {
+                final int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    continue;
+                }
+                final String key = line.substring(0, colon).trim();
+                final String value = line.substring(colon + 1).trim();
+                if (key.equalsIgnoreCase("X-PowerAuth-Authorization")) {
+                    authorizationHeader = value;
+                } else if (key.equalsIgnoreCase("Content-Length")) {
+                    contentLength = Integer.parseInt(value);
+                }
+            }
+            final byte[] body = new byte[contentLength];
+            int offset = 0;
+            while (offset < contentLength) {
+                final int read = inputStream.read(body, offset, contentLength - offset);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of stream.");
+                }
+                offset += read;
+            }
+            return new RecordedRequest(authorizationHeader, new String(body, Charset.defaultCharset()));
+        }
+
+        private static @NonNull String readLine(@NonNull InputStream inputStream) throws IOException {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int c;
+            while ((c = inputStream.read()) != -1 && c != '\n') {
+                if (c != '\r') {
+                    line.write(c);
+                }
+            }
+            if (c == -1 && line.size() == 0) {
+                throw new IOException("Unexpected end of stream.");
+            }
+            return new String(line.toByteArray(), Charset.defaultCharset());
+        }
+    }
+}
@@ -19,6 +19,7 @@ package io.getlime.security.powerauth.keychain.impl;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import androidx.annotation.NonNull;
 import androidx.test.platform.app.InstrumentationRegistry;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
@@ -26,6 +27,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.getlime.security.powerauth.keychain.IKeychainMigrationListener;
 import io.getlime.security.powerauth.keychain.KeychainFactory;
 import io.getlime.security.powerauth.keychain.KeychainProtection;
 import io.getlime.security.powerauth.keychain.SymmetricKeyProvider;
@@ -94,4 +100,86 @@ public class KeychainMigrationTest extends BaseKeychainTest {
         testFilledValues(encryptedKeychain, true);  // Empty string is treated as null after migration.
     }
 
+    @Test
+    public void testParallelKeychainMigration() throws Exception {
+
+        // Do not run this test, in case that device doesn't support enough protection level.
+        if (currentProtectionLevel == KeychainProtection.NONE) {
+            return;
+        }
+
+        // Prepare legacy keychain with enough entries to produce multiple chunks
+        final LegacyKeychain legacyKeychain = new LegacyKeychain(androidContext, KEYCHAIN_NAME);
+        legacyKeychain.removeAll();
+        fillTestValues(legacyKeychain);
+        final int additionalEntriesCount = 100;
+        for (int i = 0; i < additionalEntriesCount; i++) {
+            legacyKeychain.putString("value " + i, "additional.key." + i);
+        }
+        final int totalEntriesCount = backingSharedPreferences.getAll().size();
+
+        // Now try to migrate the keychain in parallel
+        final AtomicInteger lastProgress = new AtomicInteger();
+        final AtomicInteger lastTotal = new AtomicInteger();
+        final IKeychainMigrationListener listener = new IKeychainMigrationListener() {
+            @Override
+            public void onKeychainMigrationProgress(@NonNull String identifier, int migratedEntries, int totalEntries) {
+                assertEquals(KEYCHAIN_NAME, identifier);
+                lastTotal.set(totalEntries);
+                // Progress is reported from multiple threads, so keep only the highest value.
+                int current;
+                do {
+                    current = lastProgress.get();
+                } while (migratedEntries > current && !lastProgress.compareAndSet(current, migratedEntries));
+            }
+
+            @Override
+            public void onKeychainMigrationFinished(@NonNull String identifier, boolean encrypted) {
+                fail();
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final EncryptedKeychain encryptedKeychain = new EncryptedKeychain(androidContext, KEYCHAIN_NAME, symmetricKeyProvider);
+        assertTrue(encryptedKeychain.importFromLegacyKeychain(backingSharedPreferences, executor, listener));
+        executor.shutdown();
+        assertTrue(EncryptedKeychain.isEncryptedContentInSharedPreferences(backingSharedPreferences));
+        assertEquals(totalEntriesCount, lastTotal.get());
+        assertEquals(totalEntriesCount, lastProgress.get());
+
+        testFilledValues(encryptedKeychain, true);
+        for (int i = 0; i < additionalEntriesCount; i++) {
+            assertEquals("value " + i, encryptedKeychain.getString("additional.key." + i));
+        }
+    }
+
+    @Test
+    public void testKeychainMigrationWithStaleStagingData() throws Exception {
+
+        // Do not run this test, in case that device doesn't support enough protection level.
+        if (currentProtectionLevel == KeychainProtection.NONE) {
+            return;
+        }
+
+        // Prepare legacy keychain
+        final LegacyKeychain legacyKeychain = new LegacyKeychain(androidContext, KEYCHAIN_NAME);
+        legacyKeychain.removeAll();
+        fillTestValues(legacyKeychain);
+        legacyKeychain.putString("current value", "stale.key");
+
+        // Simulate staging data left by an interrupted migration. The values don't match
+        // the current legacy content, so they must not be used.
+        final SharedPreferences stagingPreferences = androidContext.getSharedPreferences("com.wultra.PowerAuthKeychain.Migration." + KEYCHAIN_NAME, Context.MODE_PRIVATE);
+        assertTrue(stagingPreferences.edit()
+                .clear()
+                .putString("stale.key", "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA")
+                .putString("test.string_NotEmpty", "not-base64:value")
+                .commit());
+
+        final EncryptedKeychain encryptedKeychain = new EncryptedKeychain(androidContext, KEYCHAIN_NAME, symmetricKeyProvider);
+        assertTrue(encryptedKeychain.importFromLegacyKeychain(backingSharedPreferences));
+        assertTrue(EncryptedKeychain.isEncryptedContentInSharedPreferences(backingSharedPreferences));
+
+        testFilledValues(encryptedKeychain, true);
+        assertEquals("current value", encryptedKeychain.getString("stale.key"));
+    }
 }
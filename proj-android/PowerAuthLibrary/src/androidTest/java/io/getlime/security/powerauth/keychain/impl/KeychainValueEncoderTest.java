@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.keychain.impl;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.getlime.security.powerauth.keychain.IllegalKeychainAccessException;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class KeychainValueEncoderTest {
+
+    private final KeychainValueEncoder encoder = new KeychainValueEncoder();
+
+    @Test
+    public void testEncodeDecodeWithPooledBuffer() throws Exception {
+        final byte[] data = new byte[] { 1, 2, 3, 4, 5 };
+        KeychainValueBuffer buffer = encoder.encodeToBuffer(data);
+        assertArrayEquals(data, encoder.decodeBytes(buffer));
+        buffer.recycle();
+
+        buffer = encoder.encodeToBuffer("Hello world!");
+        assertEquals("Hello world!", encoder.decodeString(buffer));
+        buffer.recycle();
+
+        buffer = encoder.encodeToBuffer(true);
+        assertTrue(encoder.decodeBoolean(buffer));
+        buffer.recycle();
+
+        buffer = encoder.encodeToBuffer(-7710177L);
+        assertEquals(-7710177L, encoder.decodeLong(buffer));
+        buffer.recycle();
+
+        buffer = encoder.encodeToBuffer(3.14159f);
+        assertEquals(3.14159f, encoder.decodeFloat(buffer), 0.0);
+        buffer.recycle();
+
+        final Set<String> set = new HashSet<>(Arrays.asList("This", "is", "test", "set"));
+        buffer = encoder.encodeToBuffer(set);
+        assertEquals(set, encoder.decodeStringSet(buffer));
+        buffer.recycle();
+    }
+
+    @Test
+    public void testBufferIsClearedAndReused() throws Exception {
+        final KeychainValueBuffer buffer = encoder.encodeToBuffer("Secret value");
+        final byte[] bytes = buffer.bytes;
+        final int length = buffer.length;
+        buffer.recycle();
+        for (int i = 0; i < length; i++) {
+            assertEquals(0, bytes[i]);
+        }
+        // The same thread receives the same pooled buffer.
+        final KeychainValueBuffer reusedBuffer = encoder.encodeToBuffer(100L);
+        assertSame(buffer, reusedBuffer);
+        // Nested request for buffer allocates a new one.
+        final KeychainValueBuffer nestedBuffer = encoder.encodeToBuffer(200L);
+        assertNotSame(reusedBuffer, nestedBuffer);
+        assertEquals(100L, encoder.decodeLong(reusedBuffer));
+        assertEquals(200L, encoder.decodeLong(nestedBuffer));
+        nestedBuffer.recycle();
+        reusedBuffer.recycle();
+    }
+
+    @Test
+    public void testEncodedArraysAreCompatible() throws Exception {
+        // Arrays produced by legacy encode() must be equal to the content of pooled buffer.
+        final KeychainValueBuffer buffer = encoder.encodeToBuffer(0x0102030405060708L);
+        final byte[] expected = Arrays.copyOf(buffer.bytes, buffer.length);
+        buffer.recycle();
+        assertArrayEquals(expected, encoder.encode(0x0102030405060708L));
+    }
+
+    @Test(expected = IllegalKeychainAccessException.class)
+    public void testDecodeWrongType() throws Exception {
+        final KeychainValueBuffer buffer = encoder.encodeToBuffer("String");
+        try {
+            encoder.decodeLong(buffer);
+        } finally {
+            buffer.recycle();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.keychain.impl;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.getlime.security.powerauth.keychain.KeychainFactory;
+import io.getlime.security.powerauth.keychain.KeychainProtection;
+import io.getlime.security.powerauth.keychain.SymmetricKeyProvider;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class MappedFileKeychainTest extends BaseKeychainTest {
+
+    private static final String KEYCHAIN_NAME = "com.wultra.test.mappedFileKeychain";
+
+    private Context androidContext;
+    private SymmetricKeyProvider symmetricKeyProvider;
+    private MappedFileKeychain keychain;
+    private @KeychainProtection int currentProtectionLevel;
+
+    @Before
+    public void setUp() throws Exception {
+
+        androidContext = InstrumentationRegistry.getInstrumentation().getContext();
+        assertNotNull(androidContext);
+
+        // At first test, whether the device supports at least SOFTWARE keychain protection.
+        currentProtectionLevel = KeychainFactory.getKeychainProtectionSupportedOnDevice(androidContext);
+        // Do not run this test, in case that device doesn't support enough protection level.
+        if (currentProtectionLevel == KeychainProtection.NONE) {
+            return;
+        }
+
+        symmetricKeyProvider = SymmetricKeyProvider.getAesGcmKeyProvider("com.wultra.test.symmetricAesGcmKey", 256, true, null);
+        assertNotNull(symmetricKeyProvider);
+        symmetricKeyProvider.deleteSecretKey();
+
+        keychain = new MappedFileKeychain(androidContext, KEYCHAIN_NAME, symmetricKeyProvider);
+        assertTrue(keychain.open());
+        keychain.removeAll();
+
+        setupTestData();
+    }
+
+    @Test
+    public void testKeychainUsage() throws Exception {
+
+        // Do not run this test, in case that device doesn't support enough protection level.
+        if (currentProtectionLevel > KeychainProtection.NONE) {
+            runAllStandardTests(keychain);
+        }
+    }
+
+    @Test
+    public void testReopenAfterCompaction() throws Exception {
+
+        // Do not run this test, in case that device doesn't support enough protection level.
+        if (currentProtectionLevel == KeychainProtection.NONE) {
+            return;
+        }
+        // Rewrite the same keys many times, so the log is compacted several times.
+        for (int i = 0; i < 2000; i++) {
+            keychain.putLong(i, "counter");
+            keychain.putString("value-" + i, "key-" + (i % 10));
+        }
+        keychain.remove("key-0");
+
+        final MappedFileKeychain reopenedKeychain = new MappedFileKeychain(androidContext, KEYCHAIN_NAME, symmetricKeyProvider);
+        assertTrue(reopenedKeychain.open());
+        assertEquals(1999, reopenedKeychain.getLong("counter", 0));
+        assertNull(reopenedKeychain.getString("key-0"));
+        assertEquals("value-1999", reopenedKeychain.getString("key-9"));
+        assertTrue(MappedFileKeychain.getKeychainFile(androidContext, KEYCHAIN_NAME).length() < 64 * 1024);
+    }
+
+    @Test
+    public void testMoveContentFromAndToPreferences() throws Exception {
+
+        // Do not run this test, in case that device doesn't support enough protection level.
+        if (currentProtectionLevel == KeychainProtection.NONE) {
+            return;
+        }
+        final SharedPreferences preferences = androidContext.getSharedPreferences(KEYCHAIN_NAME, Context.MODE_PRIVATE);
+        preferences.edit().clear().commit();
+        final EncryptedKeychain encryptedKeychain = new EncryptedKeychain(androidContext, KEYCHAIN_NAME, symmetricKeyProvider);
+        encryptedKeychain.removeAll();
+        fillTestValues(encryptedKeychain);
+
+        assertTrue(keychain.importFromEncryptedKeychain(preferences));
+        assertFalse(EncryptedKeychain.isEncryptedContentInSharedPreferences(preferences));
+        testFilledValues(keychain, false);
+
+        assertTrue(keychain.exportToEncryptedKeychain(preferences));
+        assertTrue(EncryptedKeychain.isEncryptedContentInSharedPreferences(preferences));
+        assertFalse(MappedFileKeychain.getKeychainFile(androidContext, KEYCHAIN_NAME).exists());
+        testFilledValues(encryptedKeychain, false);
+    }
+
+    @Test
+    public void testImportWithInvalidValue() throws Exception {
+
+        // Do not run this test, in case that device doesn't support enough protection level.
+        if (currentProtectionLevel == KeychainProtection.NONE) {
+            return;
+        }
+        final SharedPreferences preferences = androidContext.getSharedPreferences(KEYCHAIN_NAME, Context.MODE_PRIVATE);
+        preferences.edit().clear().commit();
+        final EncryptedKeychain encryptedKeychain = new EncryptedKeychain(androidContext, KEYCHAIN_NAME, symmetricKeyProvider);
+        encryptedKeychain.removeAll();
+        fillTestValues(encryptedKeychain);
+        assertTrue(preferences.edit().putString("invalid.value", "%%% not base64 %%%").commit());
+
+        // Import must fail and keep the content in preferences.
+        assertFalse(keychain.importFromEncryptedKeychain(preferences));
+        assertTrue(EncryptedKeychain.isEncryptedContentInSharedPreferences(preferences));
+        assertTrue(preferences.contains("invalid.value"));
+    }
+}
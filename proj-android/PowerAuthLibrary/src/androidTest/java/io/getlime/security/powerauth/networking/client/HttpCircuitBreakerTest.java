@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.getlime.security.powerauth.networking.interfaces.CircuitState;
+import io.getlime.security.powerauth.networking.metrics.EndpointMetrics;
+import io.getlime.security.powerauth.sdk.PowerAuthCircuitBreakerPolicy;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class HttpCircuitBreakerTest {
+
+    @Test
+    public void testOpenAfterFailures() throws Exception {
+        final PowerAuthCircuitBreakerPolicy policy = new PowerAuthCircuitBreakerPolicy.Builder()
+                .window(4, 4)
+                .thresholds(0.5, 1000)
+                .recovery(60 * 1000, 1)
+                .build();
+        final HttpCircuitBreaker breaker = new HttpCircuitBreaker(policy);
+        final HttpCircuitBreaker.Circuit circuit = breaker.getCircuit("/pa/test");
+        assertSame(circuit, breaker.getCircuit("/pa/test"));
+
+        // Not enough requests in the window
+        for (int i = 0; i < 3; i++) {
+            final HttpCircuitBreaker.Permit permit = circuit.tryAcquire();
+            assertNotNull(permit);
+            assertFalse(permit.isProbe());
+            circuit.onResult(permit, true, 10);
+        }
+        assertEquals(CircuitState.CLOSED, circuit.getSnapshot().circuitState);
+        // The window is full, failure rate is above the threshold
+        final HttpCircuitBreaker.Permit permit = circuit.tryAcquire();
+        assertNotNull(permit);
+        circuit.onResult(permit, false, 10);
+        assertEquals(CircuitState.OPEN, circuit.getSnapshot().circuitState);
+        assertNull(circuit.tryAcquire());
+
+        final EndpointMetrics[] metrics = breaker.getSnapshot();
+        assertEquals(1, metrics.length);
+        assertEquals("/pa/test", metrics[0].relativePath);
+        assertEquals(4, metrics[0].requestCount);
+        assertEquals(3, metrics[0].failureCount);
+        assertEquals(1, metrics[0].rejectedCount);
+        assertEquals(10, metrics[0].getAverageDuration());
+    }
+
+    @Test
+    public void testHalfOpenProbes() throws Exception {
+        final PowerAuthCircuitBreakerPolicy policy = new PowerAuthCircuitBreakerPolicy.Builder()
+                .window(2, 2)
+                .thresholds(0.5, 1000)
+                .recovery(0, 2)
+                .build();
+        final HttpCircuitBreaker.Circuit circuit = new HttpCircuitBreaker(policy).getCircuit("/pa/test");
+        circuit.onResult(HttpCircuitBreaker.Permit.REGULAR, true, 10);
+        circuit.onResult(HttpCircuitBreaker.Permit.REGULAR, true, 10);
+        // Open duration is zero, so the circuit is immediately half-open
+        assertEquals(CircuitState.HALF_OPEN, circuit.getSnapshot().circuitState);
+        final HttpCircuitBreaker.Permit probe1 = circuit.tryAcquire();
+        final HttpCircuitBreaker.Permit probe2 = circuit.tryAcquire();
+        assertNotNull(probe1);
+        assertNotNull(probe2);
+        assertTrue(probe1.isProbe());
+        assertNull(circuit.tryAcquire());
+        // Failed probe opens the circuit again. The cancel of the probe from the previous round is ignored.
+        circuit.onResult(probe1, true, 10);
+        circuit.onCancel(probe2);
+        HttpCircuitBreaker.Permit probe = circuit.tryAcquire();
+        assertNotNull(probe);
+        circuit.onResult(probe, false, 10);
+        probe = circuit.tryAcquire();
+        assertNotNull(probe);
+        circuit.onResult(probe, false, 10);
+        assertEquals(CircuitState.CLOSED, circuit.getSnapshot().circuitState);
+        // Slow request is evaluated as a failure
+        circuit.onResult(HttpCircuitBreaker.Permit.REGULAR, false, 2000);
+        circuit.onResult(HttpCircuitBreaker.Permit.REGULAR, false, 10);
+        assertEquals(CircuitState.HALF_OPEN, circuit.getSnapshot().circuitState);
+        assertEquals(1, circuit.getSnapshot().slowCount);
+    }
+
+    @Test
+    public void testRegularResultsIgnoredWhileHalfOpen() throws Exception {
+        final PowerAuthCircuitBreakerPolicy policy = new PowerAuthCircuitBreakerPolicy.Builder()
+                .window(2, 2)
+                .thresholds(0.5, 1000)
+                .recovery(0, 1)
+                .build();
+        final HttpCircuitBreaker.Circuit circuit = new HttpCircuitBreaker(policy).getCircuit("/pa/test");
+        // Three requests admitted while the circuit is closed
+        final HttpCircuitBreaker.Permit regular1 = circuit.tryAcquire();
+        final HttpCircuitBreaker.Permit regular2 = circuit.tryAcquire();
+        final HttpCircuitBreaker.Permit regular3 = circuit.tryAcquire();
+        assertNotNull(regular1);
+        assertNotNull(regular2);
+        assertNotNull(regular3);
+        circuit.onResult(regular1, true, 10);
+        circuit.onResult(regular2, true, 10);
+        // The circuit is half-open, so the next request is a probe
+        final HttpCircuitBreaker.Permit probe = circuit.tryAcquire();
+        assertNotNull(probe);
+        assertTrue(probe.isProbe());
+        // Late results of the regular requests don't affect the probe evaluation
+        circuit.onResult(regular3, false, 10);
+        assertEquals(CircuitState.HALF_OPEN, circuit.getSnapshot().circuitState);
+        assertNull(circuit.tryAcquire());
+        circuit.onCancel(regular3);
+        assertNull(circuit.tryAcquire());
+        // Only the successful probe closes the circuit
+        circuit.onResult(probe, false, 10);
+        assertEquals(CircuitState.CLOSED, circuit.getSnapshot().circuitState);
+        assertEquals(4, circuit.getSnapshot().requestCount);
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        final HttpCircuitBreaker.Circuit circuit = new HttpCircuitBreaker(PowerAuthCircuitBreakerPolicy.DISABLED).getCircuit("/pa/test");
+        for (int i = 0; i < 100; i++) {
+            final HttpCircuitBreaker.Permit permit = circuit.tryAcquire();
+            assertNotNull(permit);
+            circuit.onResult(permit, true, 10);
+        }
+        assertEquals(CircuitState.CLOSED, circuit.getSnapshot().circuitState);
+        assertEquals(100, circuit.getSnapshot().failureCount);
+    }
+}
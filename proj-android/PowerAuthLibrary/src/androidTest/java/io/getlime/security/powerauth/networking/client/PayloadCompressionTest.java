@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PayloadCompressionTest {
+
+    @Test
+    public void testCompressDecompress() throws Exception {
+        final StringBuilder sb = new StringBuilder("{\"attributes\":[");
+        for (int i = 0; i < 100; i++) {
+            sb.append("{\"key\":\"attribute\",\"value\":").append(i).append("},");
+        }
+        sb.append("{}]}");
+        final byte[] plainData = sb.toString().getBytes(Charset.defaultCharset());
+        assertFalse(PayloadCompression.isCompressed(plainData));
+
+        final byte[] compressedData = PayloadCompression.compress(plainData);
+        assertNotNull(compressedData);
+        assertTrue(compressedData.length < plainData.length);
+        assertTrue(PayloadCompression.isCompressed(compressedData));
+        assertArrayEquals(plainData, PayloadCompression.decompress(compressedData));
+    }
+
+    @Test
+    public void testIncompressibleData() throws Exception {
+        final byte[] plainData = "{}".getBytes(Charset.defaultCharset());
+        assertNull(PayloadCompression.compress(plainData));
+        assertFalse(PayloadCompression.isCompressed(null));
+        assertFalse(PayloadCompression.isCompressed(new byte[0]));
+    }
+}
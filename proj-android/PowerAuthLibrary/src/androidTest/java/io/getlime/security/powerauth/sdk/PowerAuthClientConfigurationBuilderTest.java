@@ -41,6 +41,19 @@ public class PowerAuthClientConfigurationBuilderTest {
         assertEquals(PowerAuthClientConfiguration.DEFAULT_READ_TIMEOUT, configuration.getReadTimeout());
         assertNull(configuration.getClientValidationStrategy());
         assertNull(configuration.getRequestInterceptors());
+        assertEquals(PowerAuthClientConfiguration.DEFAULT_EXECUTOR_POOL_SIZE, configuration.getExecutorPoolSize());
+        assertEquals(PowerAuthClientConfiguration.DEFAULT_EXECUTOR_QUEUE_CAPACITY, configuration.getExecutorQueueCapacity());
+        assertNotNull(configuration.getRetryPolicy());
+        assertEquals(PowerAuthRetryPolicy.DEFAULT_MAX_RETRY_COUNT, configuration.getRetryPolicy().getMaxRetryCount());
+        assertEquals(PowerAuthRetryPolicy.DEFAULT_INITIAL_DELAY, configuration.getRetryPolicy().getInitialDelay());
+        assertEquals(PowerAuthRetryPolicy.DEFAULT_MAX_DELAY, configuration.getRetryPolicy().getMaxDelay());
+        assertEquals(PowerAuthRetryPolicy.DEFAULT_BUDGET_CAPACITY, configuration.getRetryPolicy().getBudgetCapacity());
+        assertNotNull(configuration.getCircuitBreakerPolicy());
+        assertTrue(configuration.getCircuitBreakerPolicy().isEnabled());
+        assertEquals(PowerAuthCircuitBreakerPolicy.DEFAULT_WINDOW_SIZE, configuration.getCircuitBreakerPolicy().getWindowSize());
+        assertEquals(PowerAuthCircuitBreakerPolicy.DEFAULT_OPEN_DURATION, configuration.getCircuitBreakerPolicy().getOpenDuration());
+        assertFalse(configuration.isPayloadCompressionEnabled());
+        assertEquals(PowerAuthClientConfiguration.DEFAULT_PAYLOAD_COMPRESSION_MIN_SIZE, configuration.getPayloadCompressionMinSize());
     }
 
     @Test
@@ -61,6 +74,15 @@ public class PowerAuthClientConfigurationBuilderTest {
                     }
                 })
                 .clientValidationStrategy(new PA2ClientSslNoValidationStrategy())
+                .executorPool(2, 16)
+                .retryPolicy(new PowerAuthRetryPolicy.Builder()
+                        .maxRetryCount(3)
+                        .backoff(100, 1000, 3.0)
+                        .jitter(0.0)
+                        .retryBudget(0.5, 4)
+                        .build())
+                .circuitBreakerPolicy(PowerAuthCircuitBreakerPolicy.DISABLED)
+                .payloadCompression(true, 256)
                 .build();
         assertTrue(configuration.isUnsecuredConnectionAllowed());
         assertEquals(200, configuration.getConnectionTimeout());
@@ -68,5 +90,18 @@ public class PowerAuthClientConfigurationBuilderTest {
         assertNotNull(configuration.getClientValidationStrategy());
         assertNotNull(configuration.getRequestInterceptors());
         assertEquals(2, configuration.getRequestInterceptors().size());
+        assertEquals(2, configuration.getExecutorPoolSize());
+        assertEquals(16, configuration.getExecutorQueueCapacity());
+        final PowerAuthRetryPolicy retryPolicy = configuration.getRetryPolicy();
+        assertEquals(3, retryPolicy.getMaxRetryCount());
+        assertEquals(4, retryPolicy.getBudgetCapacity());
+        // Without jitter, the delay is exactly exponential and limited to the maximum
+        assertEquals(100, retryPolicy.getRetryDelay(1));
+        assertEquals(300, retryPolicy.getRetryDelay(2));
+        assertEquals(900, retryPolicy.getRetryDelay(3));
+        assertEquals(1000, retryPolicy.getRetryDelay(4));
+        assertFalse(configuration.getCircuitBreakerPolicy().isEnabled());
+        assertTrue(configuration.isPayloadCompressionEnabled());
+        assertEquals(256, configuration.getPayloadCompressionMinSize());
     }
 }
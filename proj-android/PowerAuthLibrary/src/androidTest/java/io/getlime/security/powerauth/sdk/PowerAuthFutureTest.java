@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.getlime.security.powerauth.sdk.impl.CancelableTask;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PowerAuthFutureTest {
+
+    @Test
+    public void testCompleteWithResult() throws Exception {
+        final PowerAuthFuture<String> future = new PowerAuthFuture<>();
+        assertFalse(future.isDone());
+        try {
+            future.get(10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException e) {
+            // Success
+        }
+        assertTrue(future.complete("result"));
+        assertFalse(future.fail(new Exception()));
+        assertFalse(future.cancel(true));
+        assertTrue(future.isDone());
+        assertFalse(future.isCancelled());
+        assertEquals("result", future.get());
+    }
+
+    @Test
+    public void testCompleteWithFailure() throws Exception {
+        final PowerAuthFuture<String> future = new PowerAuthFuture<>();
+        final Exception failure = new Exception("failure");
+        assertTrue(future.fail(failure));
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void testCancelPropagation() throws Exception {
+        final PowerAuthFuture<String> future = new PowerAuthFuture<>();
+        final CancelableTask operation = new CancelableTask();
+        future.setOperation(operation);
+        assertTrue(future.cancel(false));
+        assertTrue(operation.isCancelled());
+        assertTrue(future.isCancelled());
+        assertFalse(future.complete("result"));
+        try {
+            future.get();
+            fail();
+        } catch (CancellationException e) {
+            // Success
+        }
+        // Operation set after cancel must be cancelled immediately
+        final CancelableTask lateOperation = new CancelableTask();
+        future.setOperation(lateOperation);
+        assertTrue(lateOperation.isCancelled());
+    }
+
+    @Test
+    public void testCallbackExecutor() throws Exception {
+        final Executor executor = Executors.newSingleThreadExecutor();
+        final PowerAuthFuture<String> future = new PowerAuthFuture<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final AtomicReference<String> result = new AtomicReference<>();
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final PowerAuthFuture.Callback<String> callback = new PowerAuthFuture.Callback<String>() {
+            @Override
+            public void onSuccess(@Nullable String value) {
+                result.set(value);
+                thread.set(Thread.currentThread());
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                fail();
+            }
+        };
+        // Registered before and after completion
+        future.addCallback(callback, executor);
+        future.complete("result");
+        future.addCallback(callback, executor);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("result", result.get());
+        assertNotEquals(Thread.currentThread(), thread.get());
+    }
+}
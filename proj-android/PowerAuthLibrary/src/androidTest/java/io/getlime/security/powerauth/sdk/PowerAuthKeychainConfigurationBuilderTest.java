@@ -35,11 +35,13 @@ public class PowerAuthKeychainConfigurationBuilderTest {
         assertEquals(PowerAuthKeychainConfiguration.KEYCHAIN_ID_BIOMETRY, configuration.getKeychainBiometryId());
         assertEquals(PowerAuthKeychainConfiguration.KEYCHAIN_ID_STATUS, configuration.getKeychainStatusId());
         assertEquals(PowerAuthKeychainConfiguration.KEYCHAIN_ID_TOKEN_STORE, configuration.getKeychainTokenStoreId());
+        assertEquals(PowerAuthKeychainConfiguration.KEYCHAIN_ID_OFFLINE_QUEUE, configuration.getKeychainOfflineQueueId());
         assertEquals(PowerAuthKeychainConfiguration.KEYCHAIN_KEY_BIOMETRY_DEFAULT, configuration.getKeychainBiometryDefaultKey());
         assertEquals(KeychainProtection.NONE, configuration.getMinimalRequiredKeychainProtection());
         assertFalse(configuration.isConfirmBiometricAuthentication());
         assertTrue(configuration.isLinkBiometricItemsToCurrentSet());
         assertTrue(configuration.isAuthenticateOnBiometricKeySetup());
+        assertFalse(configuration.isStoreTokensInSingleEntry());
     }
 
     @Test
@@ -50,17 +52,21 @@ public class PowerAuthKeychainConfigurationBuilderTest {
                 .keychainBiometryId("keychain.biometry")
                 .keychainStatusId("keychain.status")
                 .keychainTokenStoreId("keychain.tokens")
+                .keychainOfflineQueueId("keychain.queue")
                 .keychainBiometryDefaultKey("biometryKey")
                 .minimalRequiredKeychainProtection(KeychainProtection.HARDWARE)
                 .authenticateOnBiometricKeySetup(false)
+                .storeTokensInSingleEntry(true)
                 .build();
         assertEquals("keychain.biometry", configuration.getKeychainBiometryId());
         assertEquals("keychain.status", configuration.getKeychainStatusId());
         assertEquals("keychain.tokens", configuration.getKeychainTokenStoreId());
+        assertEquals("keychain.queue", configuration.getKeychainOfflineQueueId());
         assertEquals("biometryKey", configuration.getKeychainBiometryDefaultKey());
         assertEquals(KeychainProtection.HARDWARE, configuration.getMinimalRequiredKeychainProtection());
         assertTrue(configuration.isConfirmBiometricAuthentication());
         assertFalse(configuration.isLinkBiometricItemsToCurrentSet());
         assertFalse(configuration.isAuthenticateOnBiometricKeySetup());
+        assertTrue(configuration.isStoreTokensInSingleEntry());
     }
 }
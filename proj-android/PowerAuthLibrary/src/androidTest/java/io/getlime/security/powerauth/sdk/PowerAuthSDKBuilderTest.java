@@ -28,6 +28,9 @@ import org.junit.runner.RunWith;
 import java.lang.reflect.Field;
 
 import io.getlime.security.powerauth.networking.client.HttpClient;
+import io.getlime.security.powerauth.networking.interfaces.IExecutorProvider;
+import io.getlime.security.powerauth.networking.interfaces.IPriorityExecutorProvider;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 
 import static org.junit.Assert.*;
 
@@ -127,4 +130,40 @@ public class PowerAuthSDKBuilderTest {
         assertNotNull(keychainConfiguration);
         assertEquals(srcKeychainConfiguration, keychainConfiguration);
     }
+
+    @Test
+    public void testSharedContext() throws Exception {
+        final PowerAuthSharedContext sharedContext = new PowerAuthSharedContext.Builder()
+                .executorPool(2, 8)
+                .build();
+        final PowerAuthConfiguration secondConfiguration = new PowerAuthConfiguration.Builder(
+                "com.wultra.android.powerauth.test2",
+                "http://wultra.com",
+                "aaa",
+                "bbb",
+                "ccc").build();
+        final PowerAuthSDK firstSDK = new PowerAuthSDK.Builder(powerAuthConfiguration)
+                .sharedContext(sharedContext)
+                .build(androidContext);
+        final PowerAuthSDK secondSDK = new PowerAuthSDK.Builder(secondConfiguration)
+                .sharedContext(sharedContext)
+                .build(androidContext);
+
+        final IExecutorProvider firstProvider = getExecutorProvider(firstSDK);
+        final IExecutorProvider secondProvider = getExecutorProvider(secondSDK);
+        // Each instance has its own serial queue, but the thread pool is shared.
+        assertNotSame(firstProvider, secondProvider);
+        assertNotSame(firstProvider.getSerialExecutor(), secondProvider.getSerialExecutor());
+        assertSame(firstProvider.getConcurrentExecutor(), secondProvider.getConcurrentExecutor());
+        assertSame(((IPriorityExecutorProvider) firstProvider).getConcurrentExecutor(TaskPriority.BACKGROUND), ((IPriorityExecutorProvider) secondProvider).getConcurrentExecutor(TaskPriority.BACKGROUND));
+        assertEquals(2, sharedContext.getPoolSize());
+        assertEquals(8, sharedContext.getQueueCapacity());
+    }
+
+    private static IExecutorProvider getExecutorProvider(PowerAuthSDK powerAuthSDK) throws Exception {
+        Field pa2ClientField = powerAuthSDK.getClass().getDeclaredField("mClient");
+        pa2ClientField.setAccessible(true);
+        HttpClient httpClient = (HttpClient) pa2ClientField.get(powerAuthSDK);
+        return httpClient.getExecutorProvider();
+    }
 }
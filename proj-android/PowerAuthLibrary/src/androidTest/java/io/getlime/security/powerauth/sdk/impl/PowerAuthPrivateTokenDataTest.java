@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk.impl;
+
+import android.util.Base64;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PowerAuthPrivateTokenDataTest {
+
+    private static final byte[] SECRET = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 };
+
+    @Test
+    public void testSerialization() throws Exception {
+        final PowerAuthPrivateTokenData token = new PowerAuthPrivateTokenData("MyToken-žluťoučký", "6d3b3a05-7ab6-4fa4-9c5c-51b64d6f2c30", SECRET);
+        final byte[] data = token.getSerializedData();
+        assertNotNull(data);
+        assertFalse(PowerAuthPrivateTokenData.isLegacySerializedData(data));
+        assertEquals(token, PowerAuthPrivateTokenData.deserializeWithData(data));
+        // Truncated or extended data must be rejected
+        assertNull(PowerAuthPrivateTokenData.deserializeWithData(Arrays.copyOf(data, data.length - 1)));
+        assertNull(PowerAuthPrivateTokenData.deserializeWithData(Arrays.copyOf(data, data.length + 1)));
+        // Invalid token produces no data
+        assertNull(new PowerAuthPrivateTokenData("", "id", SECRET).getSerializedData());
+    }
+
+    @Test
+    public void testLegacySerialization() throws Exception {
+        final String identifier = "6d3b3a05-7ab6-4fa4-9c5c-51b64d6f2c30";
+        final String legacyString = identifier + "," +
+                Base64.encodeToString(SECRET, Base64.NO_WRAP) + "," +
+                Base64.encodeToString("MyToken".getBytes(), Base64.NO_WRAP);
+        final byte[] legacyData = legacyString.getBytes("US-ASCII");
+        assertTrue(PowerAuthPrivateTokenData.isLegacySerializedData(legacyData));
+        final PowerAuthPrivateTokenData token = PowerAuthPrivateTokenData.deserializeWithData(legacyData);
+        assertNotNull(token);
+        assertEquals("MyToken", token.name);
+        assertEquals(identifier, token.identifier);
+        assertArrayEquals(SECRET, token.secret);
+        // Serialized again, in the current format
+        final byte[] data = token.getSerializedData();
+        assertNotNull(data);
+        assertTrue(data.length < legacyData.length);
+        assertEquals(token, PowerAuthPrivateTokenData.deserializeWithData(data));
+    }
+
+    @Test
+    public void testListSerialization() throws Exception {
+        final List<PowerAuthPrivateTokenData> tokens = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tokens.add(new PowerAuthPrivateTokenData("Token-" + i, "identifier-" + i, SECRET));
+        }
+        final byte[] data = PowerAuthPrivateTokenData.serializeList(tokens);
+        final List<PowerAuthPrivateTokenData> deserializedTokens = PowerAuthPrivateTokenData.deserializeList(data);
+        assertNotNull(deserializedTokens);
+        assertEquals(tokens, deserializedTokens);
+        // Data for list is not accepted as single token and vice versa
+        assertNull(PowerAuthPrivateTokenData.deserializeWithData(data));
+        assertNull(PowerAuthPrivateTokenData.deserializeList(tokens.get(0).getSerializedData()));
+        // Empty list
+        final List<PowerAuthPrivateTokenData> emptyList = PowerAuthPrivateTokenData.deserializeList(PowerAuthPrivateTokenData.serializeList(new ArrayList<PowerAuthPrivateTokenData>()));
+        assertNotNull(emptyList);
+        assertTrue(emptyList.isEmpty());
+    }
+}
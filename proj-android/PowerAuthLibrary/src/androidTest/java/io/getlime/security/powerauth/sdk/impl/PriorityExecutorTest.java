@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk.impl;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PriorityExecutorTest {
+
+    @Test
+    public void testPriorityOrder() throws Exception {
+        final PriorityExecutor executor = new PriorityExecutor(1, 16);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(4);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        // Block the only thread in the pool
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        executor.execute(createTask("B1", order, done), TaskPriority.BACKGROUND);
+        executor.execute(createTask("I1", order, done), TaskPriority.INTERACTIVE);
+        executor.execute(createTask("B2", order, done), TaskPriority.BACKGROUND);
+        executor.execute(createTask("I2", order, done), TaskPriority.INTERACTIVE);
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(4, order.size());
+        assertEquals("I1", order.get(0));
+        assertEquals("I2", order.get(1));
+        assertEquals("B1", order.get(2));
+        assertEquals("B2", order.get(3));
+    }
+
+    @Test
+    public void testPurgeCancelledTasks() throws Exception {
+        final PriorityExecutor executor = new PriorityExecutor(1, 2);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final FutureTask<Void> cancelled1 = new FutureTask<>(createTask("C1", order, null), null);
+        final FutureTask<Void> cancelled2 = new FutureTask<>(createTask("C2", order, null), null);
+        executor.execute(cancelled1, TaskPriority.BACKGROUND);
+        executor.execute(cancelled2, TaskPriority.BACKGROUND);
+        assertEquals(2, executor.getWaitingTasksCount(TaskPriority.BACKGROUND));
+        cancelled1.cancel(false);
+        // The lane is full, but one task is cancelled, so it's removed and the new task is accepted.
+        executor.execute(createTask("T1", order, done), TaskPriority.BACKGROUND);
+        assertEquals(2, executor.getWaitingTasksCount(TaskPriority.BACKGROUND));
+        try {
+            executor.execute(createTask("T2", order, null), TaskPriority.BACKGROUND);
+            fail("Task must be rejected");
+        } catch (RejectedExecutionException e) {
+            // Success
+        }
+        cancelled2.cancel(false);
+        assertEquals(1, executor.purge());
+        assertEquals(1, executor.getWaitingTasksCount(TaskPriority.BACKGROUND));
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, order.size());
+        assertEquals("T1", order.get(0));
+    }
+
+    private static Runnable createTask(final String name, final List<String> order, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+                if (done != null) {
+                    done.countDown();
+                }
+            }
+        };
+    }
+}
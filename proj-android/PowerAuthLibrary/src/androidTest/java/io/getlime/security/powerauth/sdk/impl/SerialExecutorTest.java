@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk.impl;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class SerialExecutorTest {
+
+    @Test
+    public void testSerialExecution() throws Exception {
+        final PriorityExecutor pool = new PriorityExecutor(4, 16);
+        final SerialExecutor executor = new SerialExecutor(pool, 1000, 4);
+        final int producersCount = 4;
+        final int tasksPerProducer = 200;
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(producersCount * tasksPerProducer);
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producersCount; p++) {
+            final int producer = p;
+            producers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < tasksPerProducer; i++) {
+                        final int value = producer * tasksPerProducer + i;
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (running.incrementAndGet() != 1) {
+                                    overlaps.incrementAndGet();
+                                }
+                                order.add(value);
+                                running.decrementAndGet();
+                                done.countDown();
+                            }
+                        });
+                    }
+                }
+            }));
+        }
+        for (Thread t : producers) {
+            t.start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        assertEquals(producersCount * tasksPerProducer, order.size());
+        // Tasks from the same producer must keep their order
+        final int[] last = new int[producersCount];
+        for (int i = 0; i < producersCount; i++) {
+            last[i] = -1;
+        }
+        for (int value : order) {
+            final int producer = value / tasksPerProducer;
+            assertTrue(value > last[producer]);
+            last[producer] = value;
+        }
+        assertEquals(0, executor.getQueueDepth());
+        assertTrue(executor.getPeakQueueDepth() > 0);
+        assertTrue(executor.getDrainBatchesCount() > 0);
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        final PriorityExecutor pool = new PriorityExecutor(1, 16);
+        final SerialExecutor executor = new SerialExecutor(pool, 2);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+        executor.execute(task);
+        executor.execute(task);
+        assertEquals(2, executor.getQueueDepth());
+        try {
+            executor.execute(task);
+            fail("Task must be rejected");
+        } catch (RejectedExecutionException e) {
+            // Success
+        }
+        assertEquals(1, executor.getRejectedTasksCount());
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
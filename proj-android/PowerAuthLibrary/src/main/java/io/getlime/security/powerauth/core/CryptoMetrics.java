@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * The <code>CryptoMetrics</code> class provides access to counters collected by the native
+ * code for each cryptographic primitive. The counters are global for the whole process and are
+ * updated without locking, so it's cheap to keep them running all the time.
+ */
+public class CryptoMetrics {
+
+    static {
+        System.loadLibrary("PowerAuth2Module");
+    }
+
+    /**
+     * Number of operations reported by the native code.
+     */
+    private static final int OPERATIONS_COUNT = getOperationsCount();
+
+    /**
+     * Upper bounds of histogram buckets defined in the native code. The array is kept in this class
+     * and {@link CryptoOperationMetrics#HISTOGRAM_BUCKET_LIMITS} only refers to it, so the static
+     * initialization doesn't depend on the order in which the classes are loaded.
+     */
+    static final long[] HISTOGRAM_BUCKET_LIMITS = loadHistogramBucketLimits();
+
+    /**
+     * Number of values describing one operation in data returned from {@link #getSnapshotData()}.
+     */
+    private static final int RECORD_SIZE = 3 + HISTOGRAM_BUCKET_LIMITS.length + 1;
+
+    /**
+     * Returns snapshot of counters for all measured operations. The array is indexed by
+     * the {@link CryptoOperation} constants.
+     *
+     * @return Array with metrics for all operations.
+     */
+    public static @NonNull CryptoOperationMetrics[] getSnapshot() {
+        final long[] data = getSnapshotData();
+        final int count = data != null ? Math.min(OPERATIONS_COUNT, data.length / RECORD_SIZE) : 0;
+        final CryptoOperationMetrics[] result = new CryptoOperationMetrics[count];
+        for (int i = 0; i < count; i++) {
+            final int offset = i * RECORD_SIZE;
+            final long[] histogram = Arrays.copyOfRange(data, offset + 3, offset + RECORD_SIZE);
+            result[i] = new CryptoOperationMetrics(i, data[offset], data[offset + 1], data[offset + 2], histogram);
+        }
+        return result;
+    }
+
+    /**
+     * Resets all counters to zero.
+     */
+    public static native void reset();
+
+    /**
+     * Returns upper bounds of histogram buckets defined in the native code.
+     *
+     * @return Array with bucket limits, in nanoseconds.
+     */
+    private static @NonNull long[] loadHistogramBucketLimits() {
+        final long[] limits = getHistogramBucketLimits();
+        return limits != null ? limits : new long[0];
+    }
+
+    /**
+     * @return Number of operations measured by the native code.
+     */
+    private static native int getOperationsCount();
+
+    /**
+     * @return Array with upper bounds of histogram buckets, or null in case of failure.
+     */
+    private static native long[] getHistogramBucketLimits();
+
+    /**
+     * Returns all counters flattened into one array, to cross the JNI boundary only once.
+     *
+     * @return Array with counters, or null in case of failure.
+     */
+    private static native long[] getSnapshotData();
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.core;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static io.getlime.security.powerauth.core.CryptoOperation.AES_DECRYPT;
+import static io.getlime.security.powerauth.core.CryptoOperation.AES_ENCRYPT;
+import static io.getlime.security.powerauth.core.CryptoOperation.ECC_KEYGEN;
+import static io.getlime.security.powerauth.core.CryptoOperation.ECDH;
+import static io.getlime.security.powerauth.core.CryptoOperation.ECDSA_SIGN;
+import static io.getlime.security.powerauth.core.CryptoOperation.ECDSA_VERIFY;
+import static io.getlime.security.powerauth.core.CryptoOperation.PBKDF2;
+
+/**
+ * The <code>CryptoOperation</code> defines cryptographic primitives measured by
+ * the native metrics registry. See {@link CryptoMetrics} for more details.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({PBKDF2, ECDH, ECDSA_SIGN, ECDSA_VERIFY, ECC_KEYGEN, AES_ENCRYPT, AES_DECRYPT})
+public @interface CryptoOperation {
+
+    /**
+     * PBKDF2 key derivation, used for the password-based key stretching.
+     */
+    int PBKDF2 = 0;
+
+    /**
+     * ECDH shared secret calculation.
+     */
+    int ECDH = 1;
+
+    /**
+     * ECDSA signature calculation.
+     */
+    int ECDSA_SIGN = 2;
+
+    /**
+     * ECDSA signature validation.
+     */
+    int ECDSA_VERIFY = 3;
+
+    /**
+     * EC key-pair generation.
+     */
+    int ECC_KEYGEN = 4;
+
+    /**
+     * AES-CBC encryption.
+     */
+    int AES_ENCRYPT = 5;
+
+    /**
+     * AES-CBC decryption.
+     */
+    int AES_DECRYPT = 6;
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.core;
+
+/**
+ * The <code>CryptoOperationMetrics</code> class contains counters collected for one
+ * cryptographic operation by the native metrics registry. You can obtain the object
+ * from {@link CryptoMetrics#getSnapshot()} method.
+ */
+public class CryptoOperationMetrics {
+
+    /**
+     * Upper bounds of histogram buckets, in nanoseconds. The last bucket in
+     * {@link #histogram} is unbounded, so it collects all slower operations.
+     * The limits are provided by the native code, so they always match the collected data.
+     */
+    public static final long[] HISTOGRAM_BUCKET_LIMITS = CryptoMetrics.HISTOGRAM_BUCKET_LIMITS;
+
+    /**
+     * Measured operation.
+     */
+    @CryptoOperation
+    public final int operation;
+
+    /**
+     * Number of recorded operations.
+     */
+    public final long count;
+
+    /**
+     * Total time spent in the operation, in nanoseconds.
+     */
+    public final long totalDuration;
+
+    /**
+     * The longest recorded operation, in nanoseconds.
+     */
+    public final long maxDuration;
+
+    /**
+     * Histogram of durations. Each item contains the number of operations
+     * faster than the limit at the same index in {@link #HISTOGRAM_BUCKET_LIMITS}.
+     */
+    public final long[] histogram;
+
+    CryptoOperationMetrics(@CryptoOperation int operation, long count, long totalDuration, long maxDuration, long[] histogram) {
+        this.operation = operation;
+        this.count = count;
+        this.totalDuration = totalDuration;
+        this.maxDuration = maxDuration;
+        this.histogram = histogram;
+    }
+
+    /**
+     * @return Average duration of the operation in nanoseconds, or 0 if no operation was recorded.
+     */
+    public long getAverageDuration() {
+        return count > 0 ? totalDuration / count : 0;
+    }
+}
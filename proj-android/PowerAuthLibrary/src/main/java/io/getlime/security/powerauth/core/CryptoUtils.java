@@ -28,7 +28,8 @@ public class CryptoUtils {
 
 
     /**
-     * Validates ECDSA signature for given data and EC public key.
+     * Validates ECDSA signature for given data and EC public key. If you need to validate
+     * multiple signatures with the same key, then use {@link EcdsaSignatureVerifier}.
      *
      * @param data signed data
      * @param signature signature calculated for data
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * The {@code EcdsaSignatureVerifier} class validates ECDSA signatures with one EC public key.
+ * Unlike {@link CryptoUtils#ecdsaValidateSignature(byte[], byte[], byte[])}, the key is imported
+ * only once, when the verifier is created, and the whole batch of signatures can be validated
+ * in one native call.
+ * <p>
+ * The verifier is not modified during the signature validation, so it's safe to validate
+ * signatures from multiple threads at the same time. You should call {@link #destroy()} once
+ * the object is no longer needed, but not while the validation is still in progress.
+ */
+public class EcdsaSignatureVerifier {
+
+    static {
+        System.loadLibrary("PowerAuth2Module");
+    }
+
+    /**
+     * Pointer to native underlying object
+     */
+    private long handle;
+
+    /**
+     * Create a new verifier for given EC public key.
+     *
+     * @param publicKey EC public key.
+     * @return verifier object, or null if the public key cannot be imported.
+     */
+    public static @Nullable EcdsaSignatureVerifier createWithPublicKey(@NonNull byte[] publicKey) {
+        final long handle = init(publicKey);
+        return handle != 0 ? new EcdsaSignatureVerifier(handle) : null;
+    }
+
+    /**
+     * Construct object with pointer to underlying C++ object.
+     *
+     * @param handle pointer to underlying C++ object.
+     */
+    private EcdsaSignatureVerifier(long handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Internal JNI initialization.
+     *
+     * @param publicKey EC public key.
+     * @return pointer to underlying C++ object, or 0 if key cannot be imported.
+     */
+    private static native long init(byte[] publicKey);
+
+    /**
+     * Destroys underlying native C++ object. You can call this method
+     * if you want to be sure that internal object is properly destroyed.
+     * You can't use instance of this java object anymore after this call.
+     */
+    public synchronized void destroy() {
+        if (this.handle != 0) {
+            destroy(this.handle);
+            this.handle = 0;
+        }
+    }
+
+    /**
+     * Make sure that the underlying C++ object is always destroyed.
+     */
+    protected void finalize() {
+        destroy();
+    }
+
+    /**
+     * Internal JNI destroy. You have to provide handle created during the initialization.
+     *
+     * @param handle pointer to underlying C++ object
+     */
+    private native void destroy(long handle);
+
+    /**
+     * Validates ECDSA signature for given data.
+     *
+     * @param data signed data
+     * @param signature signature calculated for data
+     * @return true if signature is valid
+     */
+    public native boolean verifySignature(@NonNull byte[] data, @NonNull byte[] signature);
+
+    /**
+     * Validates multiple ECDSA signatures in one native call.
+     *
+     * @param data array of signed data
+     * @param signatures array of signatures, calculated for data at the same index
+     * @return array with validation results, in the same order as the input data
+     * @throws IllegalArgumentException if arrays have different length
+     */
+    public @NonNull boolean[] verifySignatures(@NonNull byte[][] data, @NonNull byte[][] signatures) {
+        if (data.length != signatures.length) {
+            throw new IllegalArgumentException("Data and signatures must have the same length");
+        }
+        final boolean[] result = verifySignatures(data, signatures, 0, data.length);
+        return result != null ? result : new boolean[data.length];
+    }
+
+    /**
+     * Validates multiple ECDSA signatures in parallel. The input arrays are split into chunks
+     * and each chunk is validated in one native call, submitted to provided executor. The method
+     * blocks the calling thread until all chunks are processed, so you should not call it from
+     * the executor's thread.
+     *
+     * @param data array of signed data
+     * @param signatures array of signatures, calculated for data at the same index
+     * @param executor executor for parallel validation
+     * @param parallelism maximum number of chunks validated at the same time
+     * @return array with validation results, in the same order as the input data
+     * @throws IllegalArgumentException if arrays have different length, or parallelism is less than 1
+     * @throws InterruptedException if the calling thread is interrupted while waiting for results
+     */
+    public @NonNull boolean[] verifySignatures(@NonNull final byte[][] data, @NonNull final byte[][] signatures, @NonNull Executor executor, int parallelism) throws InterruptedException {
+        if (data.length != signatures.length) {
+            throw new IllegalArgumentException("Data and signatures must have the same length");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+        final int count = data.length;
+        final int chunkSize = (count + parallelism - 1) / parallelism;
+        if (chunkSize == 0 || chunkSize == count) {
+            // Not worth to split
+            return verifySignatures(data, signatures);
+        }
+        final boolean[] result = new boolean[count];
+        final int chunksCount = (count + chunkSize - 1) / chunkSize;
+        final CountDownLatch latch = new CountDownLatch(chunksCount);
+        for (int offset = 0; offset < count; offset += chunkSize) {
+            final int chunkOffset = offset;
+            final int chunkCount = Math.min(chunkSize, count - offset);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final boolean[] chunkResult = verifySignatures(data, signatures, chunkOffset, chunkCount);
+                        if (chunkResult != null) {
+                            System.arraycopy(chunkResult, 0, result, chunkOffset, chunkCount);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        latch.await();
+        return result;
+    }
+
+    /**
+     * Internal JNI batch validation.
+     *
+     * @param data array of signed data
+     * @param signatures array of signatures
+     * @param offset index of first element to validate
+     * @param count number of elements to validate
+     * @return array with {@code count} validation results, or null in case of failure.
+     */
+    private native boolean[] verifySignatures(byte[][] data, byte[][] signatures, int offset, int count);
+}
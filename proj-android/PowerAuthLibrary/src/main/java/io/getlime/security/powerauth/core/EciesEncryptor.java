@@ -218,6 +218,47 @@ public class EciesEncryptor {
         return null;
     }
 
+    /**
+     * Prepares a new {@link EciesRequestStream} for an incremental request encryption, or returns
+     * null in case of failure. The stream is useful for large payloads, which should not be kept
+     * in memory at once.
+     *
+     * <h2>Discussion</h2>
+     *
+     * Just like <code>encryptRequest</code>, each call for this method regenerates an internal
+     * envelope key, so the response decryption is possible only for the last prepared stream.
+     * Check <code>beginEncryptRequestStreamSynchronized</code> for a thread-safe alternative.
+     *
+     * @return stream for request encryption or null in case of failure
+     */
+    public native EciesRequestStream beginEncryptRequestStream();
+
+
+    /**
+     * Prepares a new {@link EciesRequestStream} for an incremental request encryption and returns
+     * it in pair with the future decryptor.
+     *
+     * <h2>Discussion</h2>
+     *
+     * This is a thread-safe version of <code>beginEncryptRequestStream</code>. The stream is
+     * prepared and the copy of the encryptor, suitable only for response decryption, is made in
+     * thread synchronized zone. The returned stream itself is not thread safe.
+     *
+     * @return pair with decryptor and stream, or null in case of failure.
+     */
+    public synchronized Pair<EciesEncryptor, EciesRequestStream> beginEncryptRequestStreamSynchronized() {
+        EciesRequestStream stream = this.beginEncryptRequestStream();
+        if (stream != null) {
+            EciesEncryptor decryptor = this.copyForDecryption();
+            if (decryptor != null) {
+                decryptor.setMetadata(this.metadata);
+                return new Pair<>(decryptor, stream);
+            }
+            stream.destroy();
+        }
+        return null;
+    }
+
     /**
      * Decrypts a cryptogram received from the server and returns decrypted data or null in case
      * of failure.
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.core;
+
+import android.util.Base64;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The <code>EciesRequestStream</code> class implements an incremental request encryption for
+ * our custom ECIES scheme. The stream is suitable for large payloads, which should not be kept
+ * in memory at once. The encrypted body and MAC are identical to a cryptogram produced by
+ * {@link EciesEncryptor#encryptRequest(byte[])} for the whole payload.
+ * <p>
+ * You can acquire the stream from {@link EciesEncryptor#beginEncryptRequestStream()}. The ephemeral
+ * key and nonce are available immediately, but the MAC is available only after the stream is
+ * finished.
+ */
+public class EciesRequestStream {
+
+    //
+    // Init & Destroy
+    //
+    static {
+        System.loadLibrary("PowerAuth2Module");
+    }
+
+    /**
+     * Default size of buffer for reading data from input stream.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Pointer to native underlying object
+     */
+    private long handle;
+
+    /**
+     * An ephemeral EC public key.
+     */
+    private final byte[] key;
+
+    /**
+     * Nonce for IV derivation.
+     */
+    private final byte[] nonce;
+
+    /**
+     * MAC computed for encrypted data, available after the stream is finished.
+     */
+    private byte[] mac;
+
+    /**
+     * Constructs a new stream with specific handle. This constructor is private and is used
+     * internally by the JNI code.
+     *
+     * @param handle A handle representing underlying native C++ object
+     * @param key An ephemeral EC public key
+     * @param nonce Nonce for IV derivation
+     */
+    private EciesRequestStream(long handle, byte[] key, byte[] nonce) {
+        this.handle = handle;
+        this.key = key;
+        this.nonce = nonce;
+    }
+
+    /**
+     * Destroys underlying native C++ object. You can call this method
+     * if you want to be sure that internal object is properly destroyed.
+     * You can't use instance of this java object anymore after this call.
+     */
+    public synchronized void destroy() {
+        if (this.handle != 0) {
+            destroy(this.handle);
+            this.handle = 0;
+        }
+    }
+
+    /**
+     Make sure that the underlying C++ object is always destroyed.
+     */
+    protected void finalize() {
+        destroy();
+    }
+
+    /**
+     * Internal JNI destroy.
+     *
+     * @param handle A handle representing underlying native C++ object
+     */
+    private native void destroy(long handle);
+
+    //
+    // Getters
+    //
+
+    /**
+     * @return true if stream can encrypt more data.
+     */
+    public native boolean isValid();
+
+    /**
+     * @return An ephemeral EC public key.
+     */
+    public byte[] getKey() {
+        return key;
+    }
+
+    /**
+     * @return Nonce for IV derivation.
+     */
+    public byte[] getNonce() {
+        return nonce;
+    }
+
+    /**
+     * @return MAC computed for encrypted data or null if stream is not finished yet.
+     */
+    public byte[] getMac() {
+        return mac;
+    }
+
+    /**
+     * @return content of key in Base64 formatted string
+     */
+    public String getKeyBase64() {
+        return key != null ? Base64.encodeToString(key, Base64.NO_WRAP) : null;
+    }
+
+    /**
+     * @return content of nonce in Base64 formatted string
+     */
+    public String getNonceBase64() {
+        return nonce != null ? Base64.encodeToString(nonce, Base64.NO_WRAP) : null;
+    }
+
+    /**
+     * @return content of mac in Base64 formatted string or null if stream is not finished yet.
+     */
+    public String getMacBase64() {
+        return mac != null ? Base64.encodeToString(mac, Base64.NO_WRAP) : null;
+    }
+
+    //
+    // Encryption
+    //
+
+    /**
+     * Encrypts next chunk of data. Note that the returned array may be empty, if there's
+     * not enough data for one encrypted block.
+     *
+     * @param data array with data to be encrypted
+     * @param offset offset to the first byte to be encrypted
+     * @param length number of bytes to be encrypted
+     * @return encrypted bytes or null in case of failure
+     */
+    public native byte[] update(byte[] data, int offset, int length);
+
+    /**
+     * Finishes the encryption and returns the last encrypted bytes. The MAC computed for the whole
+     * encrypted body is available in {@link #getMac()} after this call.
+     *
+     * @return last encrypted bytes or null in case of failure
+     */
+    public byte[] finish() {
+        final byte[][] result = finishImpl();
+        if (result == null) {
+            return null;
+        }
+        this.mac = result[1];
+        return result[0];
+    }
+
+    /**
+     * Encrypts all data available in input stream and writes encrypted bytes into output stream.
+     * The streams are not closed by this method.
+     *
+     * @param input stream with data to be encrypted
+     * @param output stream for encrypted data
+     * @return cryptogram with key, nonce and MAC, without the body, or null in case of encryption failure
+     * @throws IOException in case of I/O failure
+     */
+    public EciesCryptogram encrypt(InputStream input, OutputStream output) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = input.read(buffer)) != -1) {
+            if (!writeEncrypted(update(buffer, 0, count), output)) {
+                return null;
+            }
+        }
+        return finishCryptogram(output);
+    }
+
+    /**
+     * Encrypts all remaining data in buffer and writes encrypted bytes into output stream.
+     * The buffer's position is moved to its limit. The stream is not closed by this method.
+     *
+     * @param input buffer with data to be encrypted
+     * @param output stream for encrypted data
+     * @return cryptogram with key, nonce and MAC, without the body, or null in case of encryption failure
+     * @throws IOException in case of I/O failure
+     */
+    public EciesCryptogram encrypt(ByteBuffer input, OutputStream output) throws IOException {
+        if (input.hasArray()) {
+            // Encrypt directly from the backing array
+            final int offset = input.arrayOffset() + input.position();
+            final int length = input.remaining();
+            for (int processed = 0; processed < length; processed += BUFFER_SIZE) {
+                final int count = Math.min(BUFFER_SIZE, length - processed);
+                if (!writeEncrypted(update(input.array(), offset + processed, count), output)) {
+                    return null;
+                }
+            }
+            input.position(input.limit());
+        } else {
+            final byte[] buffer = new byte[Math.min(BUFFER_SIZE, input.remaining())];
+            while (input.hasRemaining()) {
+                final int count = Math.min(buffer.length, input.remaining());
+                input.get(buffer, 0, count);
+                if (!writeEncrypted(update(buffer, 0, count), output)) {
+                    return null;
+                }
+            }
+        }
+        return finishCryptogram(output);
+    }
+
+    /**
+     * Writes encrypted bytes into the output stream.
+     *
+     * @param encrypted encrypted bytes or null in case of failure
+     * @param output stream for encrypted data
+     * @return false if encrypted data is null
+     * @throws IOException in case of I/O failure
+     */
+    private static boolean writeEncrypted(byte[] encrypted, OutputStream output) throws IOException {
+        if (encrypted == null) {
+            return false;
+        }
+        if (encrypted.length > 0) {
+            output.write(encrypted);
+        }
+        return true;
+    }
+
+    /**
+     * Finishes the encryption, writes the last encrypted bytes into output stream and builds
+     * the cryptogram without the body.
+     *
+     * @param output stream for encrypted data
+     * @return cryptogram with key, nonce and MAC, or null in case of encryption failure
+     * @throws IOException in case of I/O failure
+     */
+    private EciesCryptogram finishCryptogram(OutputStream output) throws IOException {
+        if (!writeEncrypted(finish(), output)) {
+            return null;
+        }
+        return new EciesCryptogram(null, mac, key, nonce);
+    }
+
+    /**
+     * Internal JNI finish.
+     *
+     * @return array with two items, the last encrypted bytes and MAC, or null in case of failure.
+     */
+    private native byte[][] finishImpl();
+}
@@ -188,6 +188,23 @@ public class Session {
      */
     public native ActivationStep1Result startActivation(ActivationStep1Param param);
 
+    /**
+     * Prepares cryptographic material for the upcoming activation in advance. The method
+     * imports master server public key and generates device's key pair, so the following
+     * {@link #startActivation(ActivationStep1Param)} call doesn't need to perform these
+     * expensive operations.
+     * <p>
+     * The method is blocking and you should call it from a background thread, typically
+     * once the user enters a valid activation code. The prepared material is used only once,
+     * by the next successful activation start. If the material is already prepared, then
+     * the method does nothing.
+     *
+     * @return {@link ErrorCode#OK} on success, or {@link ErrorCode#WrongState} if the session
+     *         cannot start the activation, or {@link ErrorCode#Encryption} in case of failure.
+     */
+    @ErrorCode
+    public native int prepareActivation();
+
     /**
      * Validates activation response from the server. The Session expects that activation process
      * was previously started with using {@link #startActivation(ActivationStep1Param)} method. You have to provide
@@ -312,7 +329,36 @@ public class Session {
      * @return {@link SignatureResult} with signature calculation result. You need to check {@link SignatureResult#errorCode}
      *         whether the operation failed or not.
      */
-    public native SignatureResult signHTTPRequest(SignatureRequest request, SignatureUnlockKeys unlockKeys, @SignatureFactor int signatureFactor);
+    public SignatureResult signHTTPRequest(SignatureRequest request, SignatureUnlockKeys unlockKeys, @SignatureFactor int signatureFactor) {
+        if (request == null || unlockKeys == null || this.handle == 0) {
+            return null;
+        }
+        // Pass flat values to the native code, to avoid object marshalling in JNI.
+        final String[] output = new String[2];
+        final int errorCode = signHTTPRequestFlat(
+                request.body, request.method, request.uriIdentifier, request.offlineNonce,
+                unlockKeys.possessionUnlockKey, unlockKeys.biometryUnlockKey, unlockKeys.userPassword,
+                signatureFactor, output);
+        return new SignatureResult(errorCode, output[0], output[1]);
+    }
+
+    /**
+     * Internal JNI signature calculation, with flattened request and unlock keys.
+     *
+     * @param body request body or data prepared for signing
+     * @param method HTTP method
+     * @param uriIdentifier URI identifier
+     * @param offlineNonce optional nonce for offline signatures
+     * @param possessionUnlockKey key for possession factor
+     * @param biometryUnlockKey key for biometry factor
+     * @param userPassword password for knowledge factor
+     * @param signatureFactor integer with bitwise mask of factors
+     * @param output array with at least 2 items, where authorization header value and signature code is stored on success
+     * @return integer comparable to constants from {@link ErrorCode} class
+     */
+    private native int signHTTPRequestFlat(byte[] body, String method, String uriIdentifier, String offlineNonce,
+                                           byte[] possessionUnlockKey, byte[] biometryUnlockKey, Password userPassword,
+                                           int signatureFactor, String[] output);
 
     /**
      * @return name of authorization header. The value is constant and is equal to "X-PowerAuth-Authorization".
@@ -329,6 +375,17 @@ public class Session {
     @ErrorCode
     public native int verifyServerSignedData(SignedData signedData);
 
+    /**
+     * Returns server's public key, used for validation of server signed data. You can create
+     * {@link EcdsaSignatureVerifier} with this key to validate a large amount of signed data,
+     * without importing the key for each signature.
+     *
+     * @param useMasterKey If true, then returns master server's public key, otherwise personalized server's key.
+     * @return bytes with public key, or null if session has no valid setup, or if personalized
+     *         key is requested and there's no valid activation.
+     */
+    public native byte[] getServerPublicKeyForSignedData(boolean useMasterKey);
+
     //
     // Signature keys management
     //
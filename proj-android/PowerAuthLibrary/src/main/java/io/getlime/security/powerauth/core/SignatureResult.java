@@ -50,6 +50,19 @@ public class SignatureResult {
         this.signatureCode = null;
     }
 
+    /**
+     * Constructs result with error code, header value and signature code.
+     *
+     * @param errorCode error code
+     * @param authHeaderValue value for authorization header
+     * @param signatureCode calculated signature
+     */
+    SignatureResult(@ErrorCode int errorCode, String authHeaderValue, String signatureCode) {
+        this.errorCode = errorCode;
+        this.authHeaderValue = authHeaderValue;
+        this.signatureCode = signatureCode;
+    }
+
 
     /**
      * @return Always non-null authorization header value. If the error code is not Ok,
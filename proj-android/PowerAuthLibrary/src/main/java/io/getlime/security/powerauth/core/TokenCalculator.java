@@ -35,6 +35,20 @@ public class TokenCalculator {
      * @param tokenData token's private data
      * @return calculated header value or null in case of error.
      */
-    public static native String calculateTokenValue(PowerAuthPrivateTokenData tokenData);
+    public static String calculateTokenValue(PowerAuthPrivateTokenData tokenData) {
+        if (tokenData == null) {
+            return null;
+        }
+        return calculateTokenValueFlat(tokenData.identifier, tokenData.secret);
+    }
+
+    /**
+     * Internal JNI calculation, with flattened token data.
+     *
+     * @param identifier token identifier
+     * @param secret token secret
+     * @return calculated header value or null in case of error.
+     */
+    private static native String calculateTokenValueFlat(String identifier, byte[] secret);
 
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.ecies;
+
+import android.util.Base64;
+import android.util.Base64OutputStream;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import io.getlime.security.powerauth.core.EciesCryptogram;
+import io.getlime.security.powerauth.core.EciesEncryptor;
+import io.getlime.security.powerauth.core.EciesRequestStream;
+import io.getlime.security.powerauth.exception.PowerAuthErrorCodes;
+import io.getlime.security.powerauth.exception.PowerAuthErrorException;
+
+/**
+ * The {@code EciesEncryptedRequestWriter} class writes a standard JSON formatted ECIES request
+ * directly into the output stream, without keeping the whole payload, or its encrypted form,
+ * in memory. The written JSON has the same structure as {@code EciesEncryptedRequest} object:
+ * <pre>
+ * {
+ *    "ephemeralPublicKey" : "BASE64-DATA-BLOB",
+ *    "nonce" : "BASE64-NONCE",
+ *    "encryptedData": "BASE64-DATA-BLOB",
+ *    "mac" : "BASE64-DATA-BLOB"
+ * }
+ * </pre>
+ * The encrypted data is Base64 encoded on the fly, while the payload is encrypted. The MAC
+ * is written at the end, because it's known only after the whole payload is processed.
+ */
+public class EciesEncryptedRequestWriter {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final @NonNull EciesEncryptor encryptor;
+
+    /**
+     * @param encryptor encryptor for the request encryption, for example acquired from
+     *                  {@code PowerAuthSDK.getEciesEncryptorForActivationScope()}.
+     */
+    public EciesEncryptedRequestWriter(@NonNull EciesEncryptor encryptor) {
+        this.encryptor = encryptor;
+    }
+
+    /**
+     * Encrypts payload from input stream and writes JSON formatted ECIES request into output stream.
+     * The streams are not closed by this method.
+     *
+     * @param payload stream with data to be encrypted
+     * @param output stream for JSON formatted request
+     * @return encryptor suitable only for the response decryption
+     * @throws PowerAuthErrorException if encryption fails
+     * @throws IOException in case of I/O failure
+     */
+    public @NonNull EciesEncryptor write(@NonNull final InputStream payload, @NonNull OutputStream output) throws PowerAuthErrorException, IOException {
+        return write(new PayloadEncryptor() {
+            @Override
+            public EciesCryptogram encrypt(@NonNull EciesRequestStream stream, @NonNull OutputStream output) throws IOException {
+                return stream.encrypt(payload, output);
+            }
+        }, output);
+    }
+
+    /**
+     * Encrypts remaining payload from buffer and writes JSON formatted ECIES request into output stream.
+     * The buffer's position is moved to its limit. The stream is not closed by this method.
+     *
+     * @param payload buffer with data to be encrypted
+     * @param output stream for JSON formatted request
+     * @return encryptor suitable only for the response decryption
+     * @throws PowerAuthErrorException if encryption fails
+     * @throws IOException in case of I/O failure
+     */
+    public @NonNull EciesEncryptor write(@NonNull final ByteBuffer payload, @NonNull OutputStream output) throws PowerAuthErrorException, IOException {
+        return write(new PayloadEncryptor() {
+            @Override
+            public EciesCryptogram encrypt(@NonNull EciesRequestStream stream, @NonNull OutputStream output) throws IOException {
+                return stream.encrypt(payload, output);
+            }
+        }, output);
+    }
+
+    /**
+     * Internal interface hiding the type of payload's source.
+     */
+    private interface PayloadEncryptor {
+        EciesCryptogram encrypt(@NonNull EciesRequestStream stream, @NonNull OutputStream output) throws IOException;
+    }
+
+    /**
+     * Implements the JSON writing.
+     *
+     * @param payloadEncryptor object encrypting the payload into the stream
+     * @param output stream for JSON formatted request
+     * @return encryptor suitable only for the response decryption
+     * @throws PowerAuthErrorException if encryption fails
+     * @throws IOException in case of I/O failure
+     */
+    private @NonNull EciesEncryptor write(@NonNull PayloadEncryptor payloadEncryptor, @NonNull OutputStream output) throws PowerAuthErrorException, IOException {
+        final Pair<EciesEncryptor, EciesRequestStream> pair = encryptor.beginEncryptRequestStreamSynchronized();
+        if (pair == null) {
+            throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeEncryptionError, "Failed to prepare request encryption.");
+        }
+        final EciesRequestStream stream = pair.second;
+        try {
+            // All values are Base64 encoded, so no JSON escaping is required.
+            writeString(output, "{\"ephemeralPublicKey\":\"" + stream.getKeyBase64() + "\",\"nonce\":\"" + stream.getNonceBase64() + "\",\"encryptedData\":\"");
+            final Base64OutputStream base64Output = new Base64OutputStream(output, Base64.NO_WRAP | Base64.NO_CLOSE);
+            final EciesCryptogram cryptogram = payloadEncryptor.encrypt(stream, base64Output);
+            // Closing Base64 stream flushes the remaining characters, but keeps the output open.
+            base64Output.close();
+            if (cryptogram == null) {
+                throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeEncryptionError, "Failed to encrypt request data.");
+            }
+            writeString(output, "\",\"mac\":\"" + cryptogram.getMacBase64() + "\"}");
+            return pair.first;
+        } finally {
+            stream.destroy();
+        }
+    }
+
+    /**
+     * Writes string in UTF-8 encoding into the output stream.
+     *
+     * @param output output stream
+     * @param string string to write
+     * @throws IOException in case of I/O failure
+     */
+    private static void writeString(@NonNull OutputStream output, @NonNull String string) throws IOException {
+        output.write(string.getBytes(UTF8));
+    }
+}
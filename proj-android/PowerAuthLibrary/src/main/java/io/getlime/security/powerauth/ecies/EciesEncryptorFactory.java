@@ -36,6 +36,7 @@ public class EciesEncryptorFactory {
 
     private final Session mSession;
     private final byte[] mPossessionUnlockKey;
+    private final EciesMetadataCache mMetadataCache;
 
     /**
      * Initializes object with required session &amp; optional device related key.
@@ -46,8 +47,23 @@ public class EciesEncryptorFactory {
      *                            If not provided, then activation scoped encryptors cannot be constructed.
      */
     public EciesEncryptorFactory(@NonNull Session session, @Nullable byte[] possessionUnlockKey) {
+        this(session, possessionUnlockKey, null);
+    }
+
+    /**
+     * Initializes object with required session, optional device related key and optional
+     * metadata cache. If the cache is provided, then {@link EciesMetadata} objects are shared
+     * between encryptors created for the same session and activation.
+     *
+     * @param session instance of {@link Session} object
+     * @param possessionUnlockKey key for decrypting the possession factor, stored in the {@link Session}.
+     *                            If not provided, then activation scoped encryptors cannot be constructed.
+     * @param metadataCache optional {@link EciesMetadataCache} object associated with the session.
+     */
+    public EciesEncryptorFactory(@NonNull Session session, @Nullable byte[] possessionUnlockKey, @Nullable EciesMetadataCache metadataCache) {
         this.mSession = session;
         this.mPossessionUnlockKey = possessionUnlockKey;
+        this.mMetadataCache = metadataCache != null ? metadataCache : new EciesMetadataCache();
     }
 
 
@@ -96,7 +112,11 @@ public class EciesEncryptorFactory {
             throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeEncryptionError, "Failed to create ECIES encryptor.");
         }
         if (addMetaData) {
-            encryptor.setMetadata(new EciesMetadata(mSession.getSessionSetup().applicationKey, activationId));
+            final EciesMetadata metadata = mMetadataCache.getMetadata(mSession, scope, activationId);
+            if (metadata == null) {
+                throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeEncryptionError, "Failed to create ECIES metadata.");
+            }
+            encryptor.setMetadata(metadata);
         }
         return encryptor;
     }
@@ -28,6 +28,7 @@ public class EciesMetadata {
 
     private final @NonNull String applicationKey;
     private final @Nullable String activationIdentifier;
+    private final @NonNull String httpHeaderValue;
 
     /**
      * @param applicationKey Base64 string with an application key cryptographic constant
@@ -36,6 +37,7 @@ public class EciesMetadata {
     public EciesMetadata(@NonNull String applicationKey, @Nullable String activationIdentifier) {
         this.applicationKey = applicationKey;
         this.activationIdentifier = activationIdentifier;
+        this.httpHeaderValue = buildHttpHeaderValue(applicationKey, activationIdentifier);
     }
 
     // Getters
@@ -67,6 +69,29 @@ public class EciesMetadata {
      * @return String with HTTP request header's value.
      */
     public @NonNull String getHttpHeaderValue() {
+        return httpHeaderValue;
+    }
+
+    /**
+     * @param activationIdentifier String with an activation identifier to compare
+     * @return true if this metadata object was created for given activation identifier.
+     */
+    boolean hasActivationIdentifier(@Nullable String activationIdentifier) {
+        if (this.activationIdentifier == null) {
+            return activationIdentifier == null;
+        }
+        return this.activationIdentifier.equals(activationIdentifier);
+    }
+
+    /**
+     * Builds value for HTTP request header. The value is calculated only once, when the metadata
+     * object is created.
+     *
+     * @param applicationKey Base64 string with an application key cryptographic constant
+     * @param activationIdentifier String with an activation identifier
+     * @return String with HTTP request header's value.
+     */
+    private static @NonNull String buildHttpHeaderValue(@NonNull String applicationKey, @Nullable String activationIdentifier) {
         final String result = "PowerAuth version=\"3.1\" application_key=\"" + applicationKey + "\"";
         if (activationIdentifier != null) {
             return result + " activation_id=\"" + activationIdentifier + "\"";
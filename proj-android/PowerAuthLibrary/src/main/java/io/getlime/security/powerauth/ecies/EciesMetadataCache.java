@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.ecies;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import io.getlime.security.powerauth.core.EciesEncryptorScope;
+import io.getlime.security.powerauth.core.Session;
+import io.getlime.security.powerauth.core.SessionSetup;
+
+/**
+ * The {@code EciesMetadataCache} class keeps immutable {@link EciesMetadata} objects created
+ * for one {@link Session}. The application key is acquired from the session only once and
+ * the metadata for the activation scope is kept until the activation identifier changes,
+ * or until {@link #invalidate()} is called.
+ */
+public class EciesMetadataCache {
+
+    private String applicationKey;
+    private EciesMetadata applicationScopeMetadata;
+    private EciesMetadata activationScopeMetadata;
+
+    /**
+     * Returns metadata for given scope. The function may return a cached object, or create
+     * a new one, if there's no metadata for the scope yet.
+     *
+     * @param session instance of {@link Session} object
+     * @param scope scope of encryptor (application or activation)
+     * @param activationId activation identifier, required for the activation scope
+     * @return {@link EciesMetadata} object for given scope, or null if session has no valid setup.
+     */
+    public synchronized @Nullable EciesMetadata getMetadata(@NonNull Session session, @EciesEncryptorScope int scope, @Nullable String activationId) {
+        if (applicationKey == null) {
+            final SessionSetup setup = session.getSessionSetup();
+            if (setup == null || setup.applicationKey == null) {
+                return null;
+            }
+            applicationKey = setup.applicationKey;
+        }
+        if (scope == EciesEncryptorScope.ACTIVATION) {
+            if (activationScopeMetadata == null || !activationScopeMetadata.hasActivationIdentifier(activationId)) {
+                activationScopeMetadata = new EciesMetadata(applicationKey, activationId);
+            }
+            return activationScopeMetadata;
+        }
+        if (applicationScopeMetadata == null) {
+            applicationScopeMetadata = new EciesMetadata(applicationKey, null);
+        }
+        return applicationScopeMetadata;
+    }
+
+    /**
+     * Invalidates metadata for the activation scope. The function should be called when
+     * the activation is created, removed or the session's state is restored.
+     */
+    public synchronized void invalidate() {
+        activationScopeMetadata = null;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.keychain;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The {@code IKeychainMigrationListener} interface allows application to track the migration of
+ * the legacy keychain content to the encrypted keychain. The migration is performed only once,
+ * typically after the application is updated from the version that used an older PowerAuth SDK.
+ * <p>
+ * Note that the methods are called from the background threads.
+ */
+public interface IKeychainMigrationListener {
+
+    /**
+     * Called when the next portion of the keychain entries is encrypted.
+     *
+     * @param identifier Keychain identifier.
+     * @param migratedEntries Number of already encrypted entries.
+     * @param totalEntries Total number of entries in the keychain.
+     */
+    void onKeychainMigrationProgress(@NonNull String identifier, int migratedEntries, int totalEntries);
+
+    /**
+     * Called when the keychain is prepared for use.
+     *
+     * @param identifier Keychain identifier.
+     * @param encrypted {@code true} if keychain's content is encrypted, {@code false} if the legacy
+     *                  keychain is used, because the encryption is not available on the device.
+     */
+    void onKeychainMigrationFinished(@NonNull String identifier, boolean encrypted);
+}
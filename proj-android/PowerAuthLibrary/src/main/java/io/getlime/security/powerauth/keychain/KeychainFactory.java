@@ -20,6 +20,7 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.os.Build;
+import android.os.Process;
 import android.security.keystore.KeyInfo;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -27,6 +28,12 @@ import androidx.annotation.RequiresApi;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.crypto.SecretKey;
 
@@ -34,6 +41,7 @@ import io.getlime.security.powerauth.exception.PowerAuthErrorCodes;
 import io.getlime.security.powerauth.exception.PowerAuthErrorException;
 import io.getlime.security.powerauth.keychain.impl.EncryptedKeychain;
 import io.getlime.security.powerauth.keychain.impl.LegacyKeychain;
+import io.getlime.security.powerauth.keychain.impl.MappedFileKeychain;
 import io.getlime.security.powerauth.system.PA2Log;
 
 /**
@@ -56,22 +64,81 @@ public class KeychainFactory {
      */
     @NonNull
     public static Keychain getKeychain(@NonNull Context context, @NonNull String identifier, @KeychainProtection int minimumKeychainProtection) throws PowerAuthErrorException {
+        return getKeychain(context, identifier, minimumKeychainProtection, KeychainStorageType.SHARED_PREFERENCES);
+    }
+
+    /**
+     * Get {@link Keychain} object that implements simple and secure data storage, with the requested
+     * underlying storage. If the content of the keychain is currently stored in a different storage, then
+     * it's moved to the requested one. Note that the underlying implementation is using cache for an already
+     * created keychains, so the storage type is applied only when the keychain is accessed for the first time.
+     *
+     * @param context Android context object.
+     * @param identifier String with keychain identifier.
+     * @param minimumKeychainProtection Minimum required keychain protection that must be supported on the device to create the keychain.
+     * @param storageType {@link KeychainStorageType} constant with the requested underlying storage.
+     * @return Instance of {@link Keychain} object.
+     * @throws PowerAuthErrorException In case that device provides insufficient keychain protection than is required in {@code minimumKeychainProtection} parameter,
+     *                                 or if the keychain file with the existing content cannot be opened.
+     */
+    @NonNull
+    public static Keychain getKeychain(@NonNull Context context, @NonNull String identifier, @KeychainProtection int minimumKeychainProtection, @KeychainStorageType int storageType) throws PowerAuthErrorException {
         synchronized (SharedData.class) {
             final SharedData sharedData = getSharedData();
-            final Context appContext = context.getApplicationContext();
             if (minimumKeychainProtection > sharedData.getKeychainProtection(context)) {
                 throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeInsufficientKeychainProtection, "Device doesn't support required level of keychain protection.");
             }
-            Keychain keychain = sharedData.getKeychainMap().get(identifier);
-            if (keychain == null) {
-                keychain = createKeychain(appContext, sharedData, identifier);
-                PA2Log.d("KeychainFactory: " + identifier + ": Created " + (keychain.isEncrypted() ? "encrypted keychain." : "legacy keychain."));
-                sharedData.getKeychainMap().put(identifier, keychain);
-            }
-            return keychain;
+            return getOrCreateKeychain(context, sharedData, identifier, storageType, sharedData.getMigrationExecutor(), null);
         }
     }
 
+    /**
+     * Schedule preparation of {@link Keychain} object in the background. If the keychain contains
+     * content created by an older version of SDK, then the content is encrypted in the background,
+     * so the later call to {@link #getKeychain(Context, String, int)} doesn't block the calling thread.
+     * <p>
+     * The encryption of the legacy content is performed in chunks and its progress is persisted.
+     * If the application is terminated during the migration, then the next attempt continues
+     * where the previous one stopped.
+     *
+     * @param context Android context object.
+     * @param identifier String with keychain identifier.
+     * @param executor Executor for the background work.
+     * @param listener Optional listener that receives the migration progress.
+     */
+    public static void prepareKeychainInBackground(@NonNull Context context, @NonNull final String identifier, @NonNull final Executor executor, @Nullable final IKeychainMigrationListener listener) {
+        prepareKeychainInBackground(context, identifier, KeychainStorageType.SHARED_PREFERENCES, executor, listener);
+    }
+
+    /**
+     * Schedule preparation of {@link Keychain} object with the requested underlying storage in the background.
+     * The method is equal to {@link #prepareKeychainInBackground(Context, String, Executor, IKeychainMigrationListener)},
+     * but also moves the content of the keychain to the requested storage.
+     *
+     * @param context Android context object.
+     * @param identifier String with keychain identifier.
+     * @param storageType {@link KeychainStorageType} constant with the requested underlying storage.
+     * @param executor Executor for the background work.
+     * @param listener Optional listener that receives the migration progress.
+     */
+    public static void prepareKeychainInBackground(@NonNull Context context, @NonNull final String identifier, @KeychainStorageType final int storageType, @NonNull final Executor executor, @Nullable final IKeychainMigrationListener listener) {
+        final Context appContext = context.getApplicationContext();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (SharedData.class) {
+                    final SharedData sharedData = getSharedData();
+                    try {
+                        getOrCreateKeychain(appContext, sharedData, identifier, storageType, sharedData.getMigrationExecutor(), listener);
+                    } catch (PowerAuthErrorException e) {
+                        // The error is reported again from getKeychain().
+                        PA2Log.e("KeychainFactory: " + identifier + ": Failed to prepare keychain: " + e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Get current keychain protection level supported on the device.
      *
@@ -91,28 +158,59 @@ public class KeychainFactory {
         return SharedData.INSTANCE;
     }
 
+    /**
+     * Get an already created {@link Keychain} object, or create a new one. The method must be
+     * called while the {@link SharedData} class is locked.
+     *
+     * @param context Android context.
+     * @param sharedData Shared KeychainFactory data.
+     * @param identifier Keychain identifier.
+     * @param storageType Requested underlying storage.
+     * @param migrationExecutor Executor for parallel encryption of the legacy content.
+     * @param listener Optional listener that receives the migration progress.
+     * @return Instance of {@link Keychain}.
+     * @throws PowerAuthErrorException If the keychain file with the existing content cannot be opened.
+     */
+    @NonNull
+    private static Keychain getOrCreateKeychain(@NonNull Context context, @NonNull SharedData sharedData, @NonNull String identifier, @KeychainStorageType int storageType, @Nullable Executor migrationExecutor, @Nullable IKeychainMigrationListener listener) throws PowerAuthErrorException {
+        Keychain keychain = sharedData.getKeychainMap().get(identifier);
+        if (keychain == null) {
+            keychain = createKeychain(context.getApplicationContext(), sharedData, identifier, storageType, migrationExecutor, listener);
+            PA2Log.d("KeychainFactory: " + identifier + ": Created " + (keychain.isEncrypted() ? "encrypted keychain." : "legacy keychain."));
+            sharedData.getKeychainMap().put(identifier, keychain);
+        }
+        if (listener != null) {
+            listener.onKeychainMigrationFinished(identifier, keychain.isEncrypted());
+        }
+        return keychain;
+    }
+
     /**
      * Create a new instance of {@link Keychain} object with given identifier.
      *
      * @param context Android context.
      * @param sharedData Shared KeychainFactory data.
      * @param identifier Keychain identifier.
+     * @param storageType Requested underlying storage.
+     * @param migrationExecutor Executor for parallel encryption of the legacy content.
+     * @param listener Optional listener that receives the migration progress.
      * @return Instance of {@link Keychain}.
+     * @throws PowerAuthErrorException If the keychain file with the existing content cannot be opened.
      */
     @NonNull
-    private static Keychain createKeychain(@NonNull Context context, @NonNull SharedData sharedData, @NonNull String identifier) {
+    private static Keychain createKeychain(@NonNull Context context, @NonNull SharedData sharedData, @NonNull String identifier, @KeychainStorageType int storageType, @Nullable Executor migrationExecutor, @Nullable IKeychainMigrationListener listener) throws PowerAuthErrorException {
         final SharedPreferences preferences = context.getSharedPreferences(identifier, Context.MODE_PRIVATE);
         final boolean isAlreadyEncrypted = EncryptedKeychain.isEncryptedContentInSharedPreferences(preferences);
+        final boolean isInMappedFile = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && MappedFileKeychain.getKeychainFile(context, identifier).exists();
         final int keychainProtection = sharedData.getKeychainProtection(context);
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             if (keychainProtection != KeychainProtection.NONE) {
                 // If Android "M" and later, then create a secret key provider and try to create an encrypted keychain.
                 final SymmetricKeyProvider masterKeyProvider = sharedData.getMasterEncryptionKeyProvider();
                 if (masterKeyProvider != null) {
-                    final EncryptedKeychain encryptedKeychain = new EncryptedKeychain(context, identifier, masterKeyProvider);
-                    // Return encrypted keychain, if it's already encrypted or import is successful.
-                    if (isAlreadyEncrypted || encryptedKeychain.importFromLegacyKeychain(preferences)) {
-                        return encryptedKeychain;
+                    final Keychain keychain = createEncryptedKeychain(context, identifier, masterKeyProvider, preferences, isAlreadyEncrypted, isInMappedFile, storageType, migrationExecutor, listener);
+                    if (keychain != null) {
+                        return keychain;
                     }
                 }
             }
@@ -120,6 +218,13 @@ public class KeychainFactory {
 
         // Otherwise just return the legacy keychain.
         final Keychain keychain =  new LegacyKeychain(context, identifier);
+        if (isInMappedFile) {
+            // Print error in case that keychain was previously encrypted and now it's not.
+            PA2Log.e("KeychainFactory: " + identifier + ": The content was previously encrypted in file but the encryption is no longer available.");
+            if (!MappedFileKeychain.getKeychainFile(context, identifier).delete()) {
+                PA2Log.e("KeychainFactory: " + identifier + ": Failed to delete keychain file.");
+            }
+        }
         if (isAlreadyEncrypted) {
             // Print error in case that keychain was previously encrypted and now it's not.
             PA2Log.e("KeychainFactory: " + identifier + ": The content was previously encrypted but the encryption is no longer available.");
@@ -128,6 +233,65 @@ public class KeychainFactory {
         return keychain;
     }
 
+    /**
+     * Create a new instance of encrypted {@link Keychain} object with the requested underlying storage.
+     * If the content is stored in a different storage, then it's moved to the requested one.
+     *
+     * @param context Android context.
+     * @param identifier Keychain identifier.
+     * @param masterKeyProvider Provider of the master encryption key.
+     * @param preferences Shared preferences with the same identifier as the keychain.
+     * @param isAlreadyEncrypted If true, then the preferences contain encrypted content.
+     * @param isInMappedFile If true, then the content is stored in the mapped file.
+     * @param storageType Requested underlying storage.
+     * @param migrationExecutor Executor for parallel encryption of the legacy content.
+     * @param listener Optional listener that receives the migration progress.
+     * @return Instance of {@link Keychain} or {@code null} if the encrypted keychain cannot be created.
+     * @throws PowerAuthErrorException If the keychain file with the existing content cannot be opened.
+     */
+    @Nullable
+    @RequiresApi(api = Build.VERSION_CODES.M)
+    private static Keychain createEncryptedKeychain(@NonNull Context context, @NonNull String identifier, @NonNull SymmetricKeyProvider masterKeyProvider, @NonNull SharedPreferences preferences,
+                                                    boolean isAlreadyEncrypted, boolean isInMappedFile, @KeychainStorageType int storageType,
+                                                    @Nullable Executor migrationExecutor, @Nullable IKeychainMigrationListener listener) throws PowerAuthErrorException {
+        if (storageType == KeychainStorageType.MAPPED_FILE && isInMappedFile && !isAlreadyEncrypted) {
+            // The content is already in the mapped file.
+            final MappedFileKeychain mappedFileKeychain = new MappedFileKeychain(context, identifier, masterKeyProvider);
+            if (!mappedFileKeychain.open()) {
+                // Don't fall back to the legacy keychain, because it would delete the file with the content.
+                PA2Log.e("KeychainFactory: " + identifier + ": Failed to open keychain file. The file is kept for the next attempt.");
+                throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeEncryptionError, "Failed to open keychain file.");
+            }
+            return mappedFileKeychain;
+        }
+        final EncryptedKeychain encryptedKeychain = new EncryptedKeychain(context, identifier, masterKeyProvider);
+        // Continue with encrypted keychain, if it's already encrypted or import is successful.
+        if (!isAlreadyEncrypted && !encryptedKeychain.importFromLegacyKeychain(preferences, migrationExecutor, listener)) {
+            return null;
+        }
+        final MappedFileKeychain mappedFileKeychain = new MappedFileKeychain(context, identifier, masterKeyProvider);
+        if (storageType == KeychainStorageType.MAPPED_FILE) {
+            // Move content from preferences to the mapped file. If both preferences and file contain
+            // the content, then the previous move was interrupted and the preferences are still valid,
+            // because they're cleared only after the file is completely written.
+            if (mappedFileKeychain.importFromEncryptedKeychain(preferences)) {
+                return mappedFileKeychain;
+            }
+            PA2Log.e("KeychainFactory: " + identifier + ": Failed to move content to the keychain file.");
+        } else if (isInMappedFile) {
+            if (isAlreadyEncrypted) {
+                // The previous move to preferences was interrupted after the preferences were committed.
+                if (!MappedFileKeychain.getKeychainFile(context, identifier).delete()) {
+                    PA2Log.e("KeychainFactory: " + identifier + ": Failed to delete keychain file.");
+                }
+            } else if (!mappedFileKeychain.exportToEncryptedKeychain(preferences)) {
+                // Move content from the mapped file back to preferences.
+                PA2Log.e("KeychainFactory: " + identifier + ": Failed to move content from the keychain file.");
+            }
+        }
+        return encryptedKeychain;
+    }
+
     /**
      * The {@code SharedData} nested class contains shared data, required for the keychain management.
      */
@@ -154,6 +318,48 @@ public class KeychainFactory {
          */
         private @KeychainProtection int keychainProtection;
 
+        /**
+         * Maximum number of threads helping with the legacy content migration.
+         */
+        private static final int MIGRATION_THREADS = 3;
+
+        /**
+         * Number of seconds after which idle migration threads are terminated.
+         */
+        private static final int MIGRATION_KEEP_ALIVE_SECONDS = 10;
+
+        /**
+         * Executor for parallel encryption of the legacy content, created on demand.
+         */
+        private Executor migrationExecutor;
+
+        /**
+         * Returns executor for parallel encryption of the legacy content. The migration runs while
+         * this class is locked, so it must not wait for threads shared with the application. The
+         * executor doesn't queue tasks. If there's no free thread, then the task is rejected and
+         * the migration continues on the calling thread.
+         *
+         * @return Executor for parallel encryption of the legacy content.
+         */
+        @NonNull Executor getMigrationExecutor() {
+            if (migrationExecutor == null) {
+                final AtomicInteger threadCount = new AtomicInteger(1);
+                migrationExecutor = new ThreadPoolExecutor(0, MIGRATION_THREADS, MIGRATION_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(@NonNull final Runnable r) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                r.run();
+                            }
+                        }, "PowerAuth Keychain #" + threadCount.getAndIncrement());
+                    }
+                });
+            }
+            return migrationExecutor;
+        }
+
         /**
          * @return Map containing an already instantiated keychain objects.
          */
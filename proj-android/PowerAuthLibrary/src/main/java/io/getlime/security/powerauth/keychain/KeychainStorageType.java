@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.keychain;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+
+import static io.getlime.security.powerauth.keychain.KeychainStorageType.MAPPED_FILE;
+import static io.getlime.security.powerauth.keychain.KeychainStorageType.SHARED_PREFERENCES;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * The {@code KeychainStorageType} interface defines the underlying storage for the {@link Keychain}
+ * content. You can select the storage in {@link io.getlime.security.powerauth.sdk.PowerAuthKeychainConfiguration}.
+ */
+@Retention(SOURCE)
+@IntDef({SHARED_PREFERENCES, MAPPED_FILE})
+public @interface KeychainStorageType {
+    /**
+     * The content of the keychain is stored in {@code SharedPreferences}. This is the default storage.
+     */
+    int SHARED_PREFERENCES = 1;
+
+    /**
+     * The content of the keychain is stored in an append-only binary log, mapped into the memory.
+     * Each change appends only one record to the log, instead of rewriting the whole file. The log
+     * is compacted once it contains more obsolete records than the valid ones.
+     * <p>
+     * The storage is available only if the content of the keychain is encrypted. If it's not, then
+     * {@link #SHARED_PREFERENCES} is used instead.
+     */
+    int MAPPED_FILE = 2;
+}
@@ -62,17 +62,32 @@ public class AesGcmImpl {
      */
     @Nullable
     public static byte[] encrypt(@NonNull byte[] plaintext, @NonNull SecretKey key, @NonNull String identifier) {
+        return encrypt(plaintext, 0, plaintext.length, key, identifier);
+    }
+
+    /**
+     * Encrypt range of bytes from provided array with secret key.
+     *
+     * @param plaintext Array containing data to be encrypted.
+     * @param offset Offset to the first byte to be encrypted.
+     * @param length Number of bytes to be encrypted.
+     * @param key Encryption key
+     * @param identifier String identifier as a source for AAD.
+     * @return Encrypted data or {@code null} in case of failure.
+     */
+    @Nullable
+    public static byte[] encrypt(@NonNull byte[] plaintext, int offset, int length, @NonNull SecretKey key, @NonNull String identifier) {
         try {
-            if (plaintext.length > Integer.MAX_VALUE - IV_SIZE_IN_BYTES - TAG_SIZE_IN_BYTES) {
+            if (length > Integer.MAX_VALUE - IV_SIZE_IN_BYTES - TAG_SIZE_IN_BYTES) {
                 PA2Log.e("AesGcmImpl: " + identifier + ": Plaintext is too long.");
                 return null;
             }
-            final byte[] ciphertext = new byte[IV_SIZE_IN_BYTES + plaintext.length + TAG_SIZE_IN_BYTES];
+            final byte[] ciphertext = new byte[IV_SIZE_IN_BYTES + length + TAG_SIZE_IN_BYTES];
             final byte[] aad = identifier.getBytes(Charset.defaultCharset());
             final Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING);
             cipher.init(Cipher.ENCRYPT_MODE, key);
             cipher.updateAAD(aad);
-            cipher.doFinal(plaintext, 0, plaintext.length, ciphertext, IV_SIZE_IN_BYTES);
+            cipher.doFinal(plaintext, offset, length, ciphertext, IV_SIZE_IN_BYTES);
             // Copy generated IV back to the final ciphertext.
             System.arraycopy(cipher.getIV(), 0, ciphertext, 0, IV_SIZE_IN_BYTES);
             return ciphertext;
@@ -110,4 +125,43 @@ public class AesGcmImpl {
             return null;
         }
     }
+
+    /**
+     * Get size of plaintext for ciphertext with given length.
+     *
+     * @param ciphertextLength Length of ciphertext.
+     * @return Size of plaintext or negative value if the ciphertext is too short.
+     */
+    public static int getPlaintextSize(int ciphertextLength) {
+        return ciphertextLength - IV_SIZE_IN_BYTES - TAG_SIZE_IN_BYTES;
+    }
+
+    /**
+     * Decrypt previously encrypted data with secret key into provided output array.
+     *
+     * @param ciphertext Data to be decrypted.
+     * @param key Decryption key.
+     * @param identifier String identifier as a source for AAD.
+     * @param output Array that receives the decrypted data. The array must be large enough to keep
+     *               at least {@link #getPlaintextSize(int)} bytes.
+     * @return Number of decrypted bytes stored in output array, or {@code -1} in case of failure.
+     */
+    public static int decrypt(@NonNull byte[] ciphertext, @NonNull SecretKey key, @NonNull String identifier, @NonNull byte[] output) {
+        try {
+            if (ciphertext.length < IV_SIZE_IN_BYTES + TAG_SIZE_IN_BYTES) {
+                PA2Log.e("AesGcmImpl: " + identifier + ": Ciphertext is too short.");
+                return -1;
+            }
+            final byte[] aad = identifier.getBytes(Charset.defaultCharset());
+            final GCMParameterSpec spec = new GCMParameterSpec(8 * TAG_SIZE_IN_BYTES, ciphertext, 0, IV_SIZE_IN_BYTES);
+            final Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING);
+            cipher.init(Cipher.DECRYPT_MODE, key, spec);
+            cipher.updateAAD(aad);
+            return cipher.doFinal(ciphertext, IV_SIZE_IN_BYTES, ciphertext.length - IV_SIZE_IN_BYTES, output, 0);
+
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidAlgorithmParameterException | InvalidKeyException | BadPaddingException | IllegalBlockSizeException | ShortBufferException e) {
+            PA2Log.e("AesGcmImpl: " + identifier + ": Failed to decrypt keychain value. Exception: " + e.getMessage());
+            return -1;
+        }
+    }
 }
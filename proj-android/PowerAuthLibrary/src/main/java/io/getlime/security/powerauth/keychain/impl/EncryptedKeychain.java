@@ -26,13 +26,12 @@ import android.util.Base64;
 
 import java.nio.charset.Charset;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import javax.crypto.SecretKey;
 
+import io.getlime.security.powerauth.keychain.IKeychainMigrationListener;
 import io.getlime.security.powerauth.keychain.Keychain;
 import io.getlime.security.powerauth.keychain.SymmetricKeyProvider;
 import io.getlime.security.powerauth.system.PA2Log;
@@ -98,7 +97,12 @@ public class EncryptedKeychain implements Keychain {
 
     @Override
     public synchronized boolean contains(@NonNull String key) {
-        return getRawValue(key) != null;
+        final KeychainValueBuffer encoded = getRawValue(key);
+        if (encoded == null) {
+            return false;
+        }
+        encoded.recycle();
+        return true;
     }
 
     @Override
@@ -122,17 +126,21 @@ public class EncryptedKeychain implements Keychain {
     @Nullable
     @Override
     public synchronized byte[] getData(@NonNull String key) {
-        final byte[] encoded = getRawValue(key);
+        final KeychainValueBuffer encoded = getRawValue(key);
         if (encoded == null) {
             return null;
         }
-        final byte[] decoded = valueEncoder.decodeBytes(encoded);
-        return decoded.length > 0 ? decoded : null;
+        try {
+            final byte[] decoded = valueEncoder.decodeBytes(encoded);
+            return decoded.length > 0 ? decoded : null;
+        } finally {
+            encoded.recycle();
+        }
     }
 
     @Override
     public synchronized void putData(@Nullable byte[] data, @NonNull String key) {
-        setRawValue(key, (data != null && data.length > 0) ? valueEncoder.encode(data) : null);
+        setRawValue(key, (data != null && data.length > 0) ? valueEncoder.encodeToBuffer(data) : null);
     }
 
     // String accessors
@@ -140,26 +148,34 @@ public class EncryptedKeychain implements Keychain {
     @Nullable
     @Override
     public synchronized String getString(@NonNull String key) {
-        final byte[] encoded = getRawValue(key);
+        final KeychainValueBuffer encoded = getRawValue(key);
         if (encoded == null) {
             return null;
         }
-        return valueEncoder.decodeString(encoded);
+        try {
+            return valueEncoder.decodeString(encoded);
+        } finally {
+            encoded.recycle();
+        }
     }
 
     @NonNull
     @Override
     public synchronized String getString(@NonNull String key, @NonNull String defaultValue) {
-        final byte[] encoded = getRawValue(key);
+        final KeychainValueBuffer encoded = getRawValue(key);
         if (encoded == null) {
             return defaultValue;
         }
-        return valueEncoder.decodeString(encoded);
+        try {
+            return valueEncoder.decodeString(encoded);
+        } finally {
+            encoded.recycle();
+        }
     }
 
     @Override
     public synchronized void putString(@Nullable String string, @NonNull String key) {
-        setRawValue(key, string != null ? valueEncoder.encode(string) : null);
+        setRawValue(key, string != null ? valueEncoder.encodeToBuffer(string) : null);
     }
 
     // String Set accessors
@@ -167,64 +183,80 @@ public class EncryptedKeychain implements Keychain {
     @Nullable
     @Override
     public synchronized Set<String> getStringSet(@NonNull String key) {
-        final byte[] encoded = getRawValue(key);
+        final KeychainValueBuffer encoded = getRawValue(key);
         if (encoded == null) {
             return null;
         }
-        return valueEncoder.decodeStringSet(encoded);
+        try {
+            return valueEncoder.decodeStringSet(encoded);
+        } finally {
+            encoded.recycle();
+        }
     }
 
     @Override
     public synchronized void putStringSet(@Nullable Set<String> stringSet, @NonNull String key) {
-        setRawValue(key, stringSet != null ? valueEncoder.encode(stringSet) : null);
+        setRawValue(key, stringSet != null ? valueEncoder.encodeToBuffer(stringSet) : null);
     }
 
     // Boolean accessors
 
     @Override
     public synchronized boolean getBoolean(@NonNull String key, boolean defaultValue) {
-        final byte[] bytes = getRawValue(key);
+        final KeychainValueBuffer bytes = getRawValue(key);
         if (bytes == null) {
             return defaultValue;
         }
-        return valueEncoder.decodeBoolean(bytes);
+        try {
+            return valueEncoder.decodeBoolean(bytes);
+        } finally {
+            bytes.recycle();
+        }
     }
 
     @Override
     public synchronized void putBoolean(boolean value, @NonNull String key) {
-        setRawValue(key, valueEncoder.encode(value));
+        setRawValue(key, valueEncoder.encodeToBuffer(value));
     }
 
     // Long accessors
 
     @Override
     public synchronized long getLong(@NonNull String key, long defaultValue) {
-        final byte[] bytes = getRawValue(key);
+        final KeychainValueBuffer bytes = getRawValue(key);
         if (bytes == null) {
             return defaultValue;
         }
-        return valueEncoder.decodeLong(bytes);
+        try {
+            return valueEncoder.decodeLong(bytes);
+        } finally {
+            bytes.recycle();
+        }
     }
 
     @Override
     public synchronized void putLong(long value, @NonNull String key) {
-        setRawValue(key, valueEncoder.encode(value));
+        setRawValue(key, valueEncoder.encodeToBuffer(value));
     }
 
     // Float accessors
 
     @Override
-    public float getFloat(@NonNull String key, float defaultValue) {
-        final byte[] bytes = getRawValue(key);
+    public synchronized float getFloat(@NonNull String key, float defaultValue) {
+        final KeychainValueBuffer bytes = getRawValue(key);
         if (bytes == null) {
             return defaultValue;
         }
-        return valueEncoder.decodeFloat(bytes);
+        try {
+            return valueEncoder.decodeFloat(bytes);
+        } finally {
+            bytes.recycle();
+        }
     }
 
     @Override
-    public void putFloat(float value, @NonNull String key) {
-        setRawValue(key, valueEncoder.encode(value));
+    public synchronized void putFloat(float value, @NonNull String key) {
+        setRawValue(key, valueEncoder.encodeToBuffer(value));
     }
 
     // Import legacy keychain
@@ -299,83 +331,75 @@ public class EncryptedKeychain implements Keychain {
      * @return {@code true} if import was successful, otherwise {@code false}.
      */
     public boolean importFromLegacyKeychain(@NonNull SharedPreferences preferences) {
+        return importFromLegacyKeychain(preferences, null, null);
+    }
+
+    /**
+     * Import content from the legacy keychain. The method encrypts content stored in provided
+     * {@code SharedPreferences} object. The content is encrypted in chunks and the progress is
+     * persisted, so if the import is interrupted, then the next attempt continues where the previous
+     * one stopped. In case of import failure, the legacy content is kept intact.
+     *
+     * @param preferences {@link SharedPreferences} object that contains the legacy keychain content.
+     * @param executor Optional executor for parallel encryption. If {@code null}, then the content is encrypted on the current thread.
+     * @param listener Optional listener that receives the import progress.
+     * @return {@code true} if import was successful, otherwise {@code false}.
+     */
+    public synchronized boolean importFromLegacyKeychain(@NonNull SharedPreferences preferences, @Nullable Executor executor, @Nullable IKeychainMigrationListener listener) {
         // Acquire an encryption key. Return failure immediately, if the key is not available.
         // The key can be re-created in case of failure, only if this is the first content import attempt.
         final SecretKey encryptionKey = getMasterKey();
         if (encryptionKey == null) {
             return false;
         }
-        // Prepare hash map for encrypted content and set of keys with unsupported value types.
-        final Map<String, String> encryptedContent = new HashMap<>();
-        final Set<String> keysToRemove = new HashSet<>();
-        // Iterate over all entries stored in the shared preferences.
-        for (final Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
-            final Object value = entry.getValue();
-            final @NonNull byte[] encodedValue;
-            if (value instanceof String) {
-                final String string = (String)value;
-                if (string.isEmpty()) {
-                    // It's impossible to determine whether the stored value was string or Base64
-                    // encoded data. The most safe way to handle this situation is to remove such
-                    // value from the keychain.
-                    keysToRemove.add(entry.getKey());
-                    continue;
-                }
-                // Test whether the string is Base64 encoded sequence of bytes
-                final byte[] decodedBytes = tryDecodeBase64Data(string);
-                if (decodedBytes != null) {
-                    // String contains Base64 encoded sequence of bytes.
-                    encodedValue = valueEncoder.encode(decodedBytes);
-                } else {
-                    // Non-Base64 encoded string. Just encode string as it is.
-                    encodedValue = valueEncoder.encode(string);
-                }
-            } else if (value instanceof Boolean) {
-                // Boolean value
-                encodedValue = valueEncoder.encode((Boolean)value);
-            } else if (value instanceof Long) {
-                // Long value
-                encodedValue = valueEncoder.encode((Long)value);
-            } else if (value instanceof Float) {
-                // Float value
-                encodedValue = valueEncoder.encode((Float)value);
-            } else if (value instanceof Set<?>) {
-                // Set<String> value.
-                // We can suppress "unchecked" warning, because SharedPreferences doesn't use other
-                // type of set than Set<String>.
-                @SuppressWarnings("unchecked")
-                final Set<String> stringSet = (Set<String>)value;
-                encodedValue = valueEncoder.encode(stringSet);
-            } else {
-                // This type of object is not supported by the keychain, so remove it from shared preferences.
-                PA2Log.e("EncryptedKeychain: " + identifier + ": Removing unsupported value from key: " + entry.getKey());
-                keysToRemove.add(entry.getKey());
-                continue;
-            }
+        return new LegacyKeychainMigration(context, this, preferences, encryptionKey, executor, listener).migrate();
+    }
 
-            // Now encrypt the encoded value
-            final byte[] encryptedValue = AesGcmImpl.encrypt(encodedValue, encryptionKey, identifier);
-            if (encryptedValue == null) {
-                PA2Log.e("EncryptedKeychain: " + identifier + ": Failed to import value from key: " + entry.getKey());
-                return false;
+    /**
+     * Encode value stored in the legacy keychain into the format used by this keychain.
+     *
+     * @param key Key of the legacy value.
+     * @param value Value stored in the legacy keychain.
+     * @return Encoded value or {@code null} if the value should be removed from the keychain.
+     */
+    @Nullable
+    byte[] encodeLegacyValue(@NonNull String key, @Nullable Object value) {
+        if (value instanceof String) {
+            final String string = (String)value;
+            if (string.isEmpty()) {
+                // It's impossible to determine whether the stored value was string or Base64
+                // encoded data. The most safe way to handle this situation is to remove such
+                // value from the keychain.
+                return null;
             }
-            // Keep encrypted value, encoded to Base64, for later save.
-            encryptedContent.put(entry.getKey(), Base64.encodeToString(encryptedValue, Base64.NO_WRAP));
-        }
-
-        // Commit all changes to the underlying shared preferences
-        final SharedPreferences.Editor editor = getSharedPreferences().edit();
-        // Save all encrypted entries
-        for (Map.Entry<String, String> entry : encryptedContent.entrySet()) {
-            editor.putString(entry.getKey(), entry.getValue());
-        }
-        // Remove all unsupported values
-        for (String key : keysToRemove) {
-            editor.remove(key);
+            // Test whether the string is Base64 encoded sequence of bytes
+            final byte[] decodedBytes = tryDecodeBase64Data(string);
+            if (decodedBytes != null) {
+                // String contains Base64 encoded sequence of bytes.
+                return valueEncoder.encode(decodedBytes);
+            }
+            // Non-Base64 encoded string. Just encode string as it is.
+            return valueEncoder.encode(string);
+        } else if (value instanceof Boolean) {
+            // Boolean value
+            return valueEncoder.encode((Boolean)value);
+        } else if (value instanceof Long) {
+            // Long value
+            return valueEncoder.encode((Long)value);
+        } else if (value instanceof Float) {
+            // Float value
+            return valueEncoder.encode((Float)value);
+        } else if (value instanceof Set<?>) {
+            // Set<String> value.
+            // We can suppress "unchecked" warning, because SharedPreferences doesn't use other
+            // type of set than Set<String>.
+            @SuppressWarnings("unchecked")
+            final Set<String> stringSet = (Set<String>)value;
+            return valueEncoder.encode(stringSet);
         }
-        editor.putInt(ENCRYPTED_KEYCHAIN_VERSION_KEY, ENCRYPTED_KEYCHAIN_VERSION);
-        editor.apply();
-        return true;
+        // This type of object is not supported by the keychain, so remove it from shared preferences.
+        PA2Log.e("EncryptedKeychain: " + identifier + ": Removing unsupported value from key: " + key);
+        return null;
     }
 
     /**
@@ -410,10 +434,11 @@ public class EncryptedKeychain implements Keychain {
      * Return encoded raw value bytes stored in the shared preferences.
      *
      * @param key Key to be used for value retrieval.
-     * @return Encoded raw value in case there are some data under given key, {@code null} otherwise.
+     * @return Pooled buffer with encoded raw value in case there are some data under given key, {@code null} otherwise.
+     *         The returned buffer must be recycled.
      */
     @Nullable
-    private byte[] getRawValue(@NonNull String key) {
+    private KeychainValueBuffer getRawValue(@NonNull String key) {
         ReservedKeyImpl.failOnReservedKey(key);
         final String encodedValue = getSharedPreferences().getString(key, null);
         if (encodedValue == null) {
@@ -427,38 +452,46 @@ public class EncryptedKeychain implements Keychain {
         if (secretKey == null) {
             return null;
         }
-        return AesGcmImpl.decrypt(encryptedBytes, secretKey, identifier);
+        return KeychainValueBuffer.decrypt(encryptedBytes, secretKey, identifier);
     }
 
     /**
      * Put encoded raw value to the shared preferences.
      *
      * @param key Key to be used for storing the encoded raw value.
-     * @param value Encoded raw value to be stored. If value is {@code null} then it's equal to {@link #remove(String)}.
+     * @param value Pooled buffer with encoded raw value to be stored. The buffer is always recycled. If value is
+     *              {@code null} then it's equal to {@link #remove(String)}.
      */
-    private void setRawValue(@NonNull String key, @Nullable byte[] value) {
-        ReservedKeyImpl.failOnReservedKey(key);
-        final SecretKey secretKey = getMasterKey();
-        if (secretKey == null) {
-            // Do not modify entry in case that the secret key is not available.
-            return;
-        }
-        final String encryptedString;
-        if (value == null) {
-            // null value is equal to remove data.
-            encryptedString = null;
-        } else {
-            final byte[] encryptedValue = AesGcmImpl.encrypt(value, secretKey, identifier);
-            if (encryptedValue == null) {
-                // Do not delete entry if encryption failed.
+    private void setRawValue(@NonNull String key, @Nullable KeychainValueBuffer value) {
+        try {
+            ReservedKeyImpl.failOnReservedKey(key);
+            final SecretKey secretKey = getMasterKey();
+            if (secretKey == null) {
+                // Do not modify entry in case that the secret key is not available.
                 return;
             }
-            encryptedString = Base64.encodeToString(encryptedValue, Base64.NO_WRAP);
+            final String encryptedString;
+            if (value == null) {
+                // null value is equal to remove data.
+                encryptedString = null;
+            } else {
+                final byte[] encryptedValue = AesGcmImpl.encrypt(value.bytes, 0, value.length, secretKey, identifier);
+                if (encryptedValue == null) {
+                    // Do not delete entry if encryption failed.
+                    return;
+                }
+                encryptedString = Base64.encodeToString(encryptedValue, Base64.NO_WRAP);
+            }
+            getSharedPreferences()
+                    .edit()
+                    .putString(key, encryptedString)
+                    .apply();
+        } finally {
+            if (value != null) {
+                // Clear the plaintext value and return the buffer back to the pool.
+                value.recycle();
+            }
         }
-        getSharedPreferences()
-                .edit()
-                .putString(key, encryptedString)
-                .apply();
     }
 
     /**
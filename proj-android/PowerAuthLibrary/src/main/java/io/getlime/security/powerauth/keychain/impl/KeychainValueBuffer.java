@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.keychain.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+import javax.crypto.SecretKey;
+
+/**
+ * The {@code KeychainValueBuffer} is a reusable buffer that keeps an encoded keychain value before
+ * the encryption, or after the decryption. Each thread has its own pooled buffer, so the keychain
+ * round-trip doesn't allocate an intermediate array for the encoded value. The content of the buffer
+ * is always cleared when the buffer is recycled, so the plaintext value doesn't stay in the memory.
+ * <p>
+ * The buffer must be recycled by calling {@link #recycle()} once it's no longer needed.
+ */
+class KeychainValueBuffer {
+
+    /**
+     * Initial capacity of the pooled buffer.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * Maximum capacity of the pooled buffer. If larger buffer is required, then it's allocated
+     * temporarily and released when the buffer is recycled.
+     */
+    private static final int MAX_POOLED_CAPACITY = 4096;
+
+    /**
+     * Buffers pooled per thread.
+     */
+    private static final ThreadLocal<KeychainValueBuffer> POOL = new ThreadLocal<KeychainValueBuffer>() {
+        @Override
+        protected KeychainValueBuffer initialValue() {
+            return new KeychainValueBuffer();
+        }
+    };
+
+    /**
+     * If true, then the pooled object is obtained and not recycled yet.
+     */
+    private boolean inUse;
+    /**
+     * Array with the content.
+     */
+    byte[] bytes;
+    /**
+     * Number of valid bytes in the array.
+     */
+    int length;
+
+    private KeychainValueBuffer() {
+        this.bytes = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Obtain buffer with at least required capacity. The pooled buffer is returned, if it's not
+     * used by the current thread. Otherwise a new buffer is allocated.
+     *
+     * @param capacity Required capacity.
+     * @return Buffer with at least required capacity and zero length.
+     */
+    static @NonNull KeychainValueBuffer obtain(int capacity) {
+        KeychainValueBuffer buffer = POOL.get();
+        if (buffer.inUse) {
+            buffer = new KeychainValueBuffer();
+        }
+        buffer.inUse = true;
+        buffer.length = 0;
+        if (buffer.bytes.length < capacity) {
+            buffer.bytes = new byte[capacity];
+        }
+        return buffer;
+    }
+
+    /**
+     * Clear the content of the buffer and return the buffer back to the pool.
+     */
+    void recycle() {
+        Arrays.fill(bytes, 0, length, (byte) 0);
+        length = 0;
+        if (bytes.length > MAX_POOLED_CAPACITY) {
+            bytes = new byte[INITIAL_CAPACITY];
+        }
+        inUse = false;
+    }
+
+    /**
+     * Copy the content of the buffer into a new array and recycle the buffer.
+     *
+     * @return Copy of the buffer's content.
+     */
+    @NonNull byte[] toArrayAndRecycle() {
+        final byte[] result = Arrays.copyOf(bytes, length);
+        recycle();
+        return result;
+    }
+
+    /**
+     * Decrypt data into the pooled buffer. The returned buffer must be recycled.
+     *
+     * @param ciphertext Data to be decrypted.
+     * @param key Decryption key.
+     * @param identifier String identifier as a source for AAD.
+     * @return Buffer with decrypted data or {@code null} in case of failure.
+     */
+    static @Nullable KeychainValueBuffer decrypt(@NonNull byte[] ciphertext, @NonNull SecretKey key, @NonNull String identifier) {
+        final KeychainValueBuffer buffer = obtain(Math.max(0, AesGcmImpl.getPlaintextSize(ciphertext.length)));
+        final int plaintextLength = AesGcmImpl.decrypt(ciphertext, key, identifier, buffer.bytes);
+        if (plaintextLength < 0) {
+            buffer.recycle();
+            return null;
+        }
+        buffer.length = plaintextLength;
+        return buffer;
+    }
+}
@@ -71,10 +71,7 @@ class KeychainValueEncoder {
      * @return Encoded array of bytes.
      */
     @NonNull byte[] encode(@NonNull byte[] value) {
-        final byte[] encoded = new byte[1 + value.length];
-        encoded[0] = TYPE_DATA;
-        System.arraycopy(value, 0, encoded, 1, value.length);
-        return encoded;
+        return encodeToBuffer(value).toArrayAndRecycle();
     }
 
     /**
@@ -84,11 +81,7 @@ class KeychainValueEncoder {
      * @return Encoded array of bytes.
      */
     @NonNull byte[] encode(@NonNull String value) {
-        final byte[] encodedString = value.getBytes(Charset.defaultCharset());
-        final byte[] encoded = new byte[1 + encodedString.length];
-        encoded[0] = TYPE_STRING;
-        System.arraycopy(encodedString, 0, encoded, 1, encodedString.length);
-        return encoded;
+        return encodeToBuffer(value).toArrayAndRecycle();
     }
 
     /**
@@ -98,10 +91,7 @@ class KeychainValueEncoder {
      * @return Encoded array of bytes.
      */
     @NonNull byte[] encode(boolean value) {
-        final byte[] encoded = new byte[2];
-        encoded[0] = TYPE_BOOLEAN;
-        encoded[1] = value ? (byte)1 : (byte)0;
-        return encoded;
+        return encodeToBuffer(value).toArrayAndRecycle();
     }
 
     /**
@@ -111,10 +101,7 @@ class KeychainValueEncoder {
      * @return Encoded array of bytes.
      */
     @NonNull byte[] encode(long value) {
-        final ByteBuffer buffer = ByteBuffer.allocate(1 + 8);
-        buffer.put(TYPE_LONG);
-        buffer.putLong(value);
-        return buffer.array();
+        return encodeToBuffer(value).toArrayAndRecycle();
     }
 
     /**
@@ -124,10 +111,7 @@ class KeychainValueEncoder {
      * @return Encoded array of bytes.
      */
     @NonNull byte[] encode(float value) {
-        final ByteBuffer buffer = ByteBuffer.allocate(1 + 4);
-        buffer.put(TYPE_FLOAT);
-        buffer.putFloat(value);
-        return buffer.array();
+        return encodeToBuffer(value).toArrayAndRecycle();
     }
 
     /**
@@ -137,6 +121,88 @@ class KeychainValueEncoder {
      * @return Encoded array of bytes.
      */
     @NonNull byte[] encode(@NonNull Set<String> strings) {
+        return encodeToBuffer(strings).toArrayAndRecycle();
+    }
+
+
+    // Encode to pooled buffer
+
+    /**
+     * Encode array of bytes into pooled buffer. The returned buffer must be recycled.
+     *
+     * @param value Array of bytes to encode.
+     * @return Pooled buffer with encoded value.
+     */
+    @NonNull KeychainValueBuffer encodeToBuffer(@NonNull byte[] value) {
+        final KeychainValueBuffer buffer = KeychainValueBuffer.obtain(1 + value.length);
+        buffer.bytes[0] = TYPE_DATA;
+        System.arraycopy(value, 0, buffer.bytes, 1, value.length);
+        buffer.length = 1 + value.length;
+        return buffer;
+    }
+
+    /**
+     * Encode {@code String} into pooled buffer. The returned buffer must be recycled.
+     *
+     * @param value {@code String} value to encode.
+     * @return Pooled buffer with encoded value.
+     */
+    @NonNull KeychainValueBuffer encodeToBuffer(@NonNull String value) {
+        final byte[] encodedString = value.getBytes(Charset.defaultCharset());
+        final KeychainValueBuffer buffer = KeychainValueBuffer.obtain(1 + encodedString.length);
+        buffer.bytes[0] = TYPE_STRING;
+        System.arraycopy(encodedString, 0, buffer.bytes, 1, encodedString.length);
+        buffer.length = 1 + encodedString.length;
+        return buffer;
+    }
+
+    /**
+     * Encode {@code boolean} value into pooled buffer. The returned buffer must be recycled.
+     *
+     * @param value {@code boolean} value to encode.
+     * @return Pooled buffer with encoded value.
+     */
+    @NonNull KeychainValueBuffer encodeToBuffer(boolean value) {
+        final KeychainValueBuffer buffer = KeychainValueBuffer.obtain(2);
+        buffer.bytes[0] = TYPE_BOOLEAN;
+        buffer.bytes[1] = value ? (byte)1 : (byte)0;
+        buffer.length = 2;
+        return buffer;
+    }
+
+    /**
+     * Encode {@code long} value into pooled buffer. The returned buffer must be recycled.
+     *
+     * @param value {@code long} value to encode.
+     * @return Pooled buffer with encoded value.
+     */
+    @NonNull KeychainValueBuffer encodeToBuffer(long value) {
+        final KeychainValueBuffer buffer = KeychainValueBuffer.obtain(1 + 8);
+        ByteBuffer.wrap(buffer.bytes).put(TYPE_LONG).putLong(value);
+        buffer.length = 1 + 8;
+        return buffer;
+    }
+
+    /**
+     * Encode {@code float} value into pooled buffer. The returned buffer must be recycled.
+     *
+     * @param value {@code float} value to encode.
+     * @return Pooled buffer with encoded value.
+     */
+    @NonNull KeychainValueBuffer encodeToBuffer(float value) {
+        final KeychainValueBuffer buffer = KeychainValueBuffer.obtain(1 + 4);
+        ByteBuffer.wrap(buffer.bytes).put(TYPE_FLOAT).putFloat(value);
+        buffer.length = 1 + 4;
+        return buffer;
+    }
+
+    /**
+     * Encode set of strings into pooled buffer. The returned buffer must be recycled.
+     *
+     * @param strings Set of strings to encode.
+     * @return Pooled buffer with encoded value.
+     */
+    @NonNull KeychainValueBuffer encodeToBuffer(@NonNull Set<String> strings) {
         final int count = strings.size();
         // Convert all strings into bytes and estimate the total bytes required for all strings.
         List<byte[]> encodedStrings = new ArrayList<>(count);
@@ -153,7 +219,8 @@ class KeychainValueEncoder {
         // - all encoded strings content.
         int totalLength = 1 + 4 + 4 * count + stringsLength;
         // Encode content
-        final ByteBuffer buffer = ByteBuffer.allocate(totalLength);
+        final KeychainValueBuffer valueBuffer = KeychainValueBuffer.obtain(totalLength);
+        final ByteBuffer buffer = ByteBuffer.wrap(valueBuffer.bytes, 0, totalLength);
         buffer.put(TYPE_STRING_SET);
         buffer.putInt(count);
         for (int index = 0; index < count; index++) {
@@ -162,94 +229,97 @@ class KeychainValueEncoder {
             buffer.putInt(encodedStringLength);
             buffer.put(encodedString);
         }
-        return buffer.array();
+        valueBuffer.length = totalLength;
+        return valueBuffer;
     }
 
 
-    // Decode from bytes
+    // Decode from pooled buffer
 
     /**
-     * Decode array of bytes from encoded sequence of bytes. The {@link IllegalKeychainAccessException}
-     * is thrown in case that encoded sequence contains a different type of value.
+     * Decode array of bytes from encoded value. The {@link IllegalKeychainAccessException}
+     * is thrown in case that encoded value contains a different type of value.
      *
-     * @param encoded Sequence of bytes containing encoded {@code String} value.
-     * @return Decoded {@code String} value.
+     * @param encoded Buffer containing encoded array of bytes.
+     * @return Decoded array of bytes.
      */
-    @NonNull byte[] decodeBytes(@NonNull byte[] encoded) {
+    @NonNull byte[] decodeBytes(@NonNull KeychainValueBuffer encoded) {
         checkEncodedType(encoded, TYPE_DATA);
-        return Arrays.copyOfRange(encoded, 1, encoded.length);
+        return Arrays.copyOfRange(encoded.bytes, 1, encoded.length);
     }
 
     /**
-     * Decode {@code String} value from encoded sequence of bytes. The {@link IllegalKeychainAccessException}
-     * is thrown in case that encoded sequence contains a different type of value.
+     * Decode {@code String} value from encoded value. The {@link IllegalKeychainAccessException}
+     * is thrown in case that encoded value contains a different type of value.
      *
-     * @param encoded Sequence of bytes containing encoded {@code String} value.
+     * @param encoded Buffer containing encoded {@code String} value.
      * @return Decoded {@code String} value.
      */
-    @NonNull String decodeString(@NonNull byte[] encoded) {
+    @NonNull String decodeString(@NonNull KeychainValueBuffer encoded) {
         checkEncodedType(encoded, TYPE_STRING);
-        return new String(encoded, 1, encoded.length - 1, Charset.defaultCharset());
+        return new String(encoded.bytes, 1, encoded.length - 1, Charset.defaultCharset());
     }
 
     /**
-     * Decode {@code boolean} value from encoded sequence of bytes. The {@link IllegalKeychainAccessException}
-     * is thrown in case that encoded sequence contains a different type of value, or there's not
+     * Decode {@code boolean} value from encoded value. The {@link IllegalKeychainAccessException}
+     * is thrown in case that encoded value contains a different type of value, or there's not
      * enough bytes to decode the value.
      *
-     * @param encoded Sequence of bytes containing encoded {@code boolean} value.
+     * @param encoded Buffer containing encoded {@code boolean} value.
      * @return Decoded {@code boolean} value.
      */
-    boolean decodeBoolean(@NonNull byte[] encoded) {
+    boolean decodeBoolean(@NonNull KeychainValueBuffer encoded) {
         checkEncodedType(encoded, TYPE_BOOLEAN);
-        return encoded[1] != 0;
+        return encoded.bytes[1] != 0;
     }
 
     /**
-     * Decode {@code long} value from encoded sequence of bytes. The {@link IllegalKeychainAccessException}
-     * is thrown in case that encoded sequence contains a different type of value, or there's not
+     * Decode {@code long} value from encoded value. The {@link IllegalKeychainAccessException}
+     * is thrown in case that encoded value contains a different type of value, or there's not
      * enough bytes to decode the value.
      *
-     * @param encoded Sequence of bytes containing encoded {@code long} value.
+     * @param encoded Buffer containing encoded {@code long} value.
      * @return Decoded {@code long} value.
      */
-    long decodeLong(@NonNull byte[] encoded) {
+    long decodeLong(@NonNull KeychainValueBuffer encoded) {
         checkEncodedType(encoded, TYPE_LONG);
-        return ByteBuffer.wrap(encoded,1, 8).getLong();
+        return ByteBuffer.wrap(encoded.bytes, 1, 8).getLong();
     }
 
     /**
-     * Decode {@code float} value from encoded sequence of bytes. The {@link IllegalKeychainAccessException}
-     * is thrown in case that encoded sequence contains a different type of value, or there's not
+     * Decode {@code float} value from encoded value. The {@link IllegalKeychainAccessException}
+     * is thrown in case that encoded value contains a different type of value, or there's not
      * enough bytes to decode the value.
      *
-     * @param encoded Sequence of bytes containing encoded {@code float} value.
+     * @param encoded Buffer containing encoded {@code float} value.
      * @return Decoded {@code float} value.
      */
-    float decodeFloat(@NonNull byte[] encoded) {
+    float decodeFloat(@NonNull KeychainValueBuffer encoded) {
         checkEncodedType(encoded, TYPE_FLOAT);
-        return ByteBuffer.wrap(encoded, 1, 4).getFloat();
+        return ByteBuffer.wrap(encoded.bytes, 1, 4).getFloat();
     }
 
     /**
-     * Decode {@code Set<String>} from encoded sequence of bytes. The {@link IllegalKeychainAccessException}
-     * is thrown in case that encoded sequence contains a different type of value, or there's not
+     * Decode {@code Set<String>} from encoded value. The {@link IllegalKeychainAccessException}
+     * is thrown in case that encoded value contains a different type of value, or there's not
      * enough bytes to decode the value.
      *
-     * @param encoded Sequence of bytes containing encoded {@code Set<String>}.
+     * @param encoded Buffer containing encoded {@code Set<String>}.
      * @return Decoded {@code Set<String>}.
      */
-    @NonNull Set<String> decodeStringSet(@NonNull byte[] encoded) {
+    @NonNull Set<String> decodeStringSet(@NonNull KeychainValueBuffer encoded) {
         checkEncodedType(encoded, TYPE_STRING_SET);
         try {
-            final ByteBuffer buffer = ByteBuffer.wrap(encoded, 1, encoded.length - 1);
+            final ByteBuffer buffer = ByteBuffer.wrap(encoded.bytes, 1, encoded.length - 1);
             final int count = buffer.getInt();
             final Set<String> stringSet = new HashSet<>(count);
             for (int index = 0; index < count; index++) {
                 final int encodedLength = buffer.getInt();
-                final byte[] encodedString = new byte[encodedLength];
-                buffer.get(encodedString);
-                stringSet.add(new String(encodedString, Charset.defaultCharset()));
+                if (encodedLength < 0 || encodedLength > buffer.remaining()) {
+                    throw new BufferUnderflowException();
+                }
+                stringSet.add(new String(encoded.bytes, buffer.position(), encodedLength, Charset.defaultCharset()));
+                buffer.position(buffer.position() + encodedLength);
             }
             return stringSet;
         } catch (BufferUnderflowException e) {
@@ -265,11 +335,13 @@ class KeychainValueEncoder {
      * sequence of bytes contains enough bytes to decode such value. The {@link IllegalKeychainAccessException}
      * is thrown in case that the expected type is different, or there's not enough bytes to decode the value.
      *
-     * @param encoded Encoded keychain value.
+     * @param encodedValue Encoded keychain value.
      * @param expected Expected value type.
      */
-    private void checkEncodedType(@NonNull byte[] encoded, byte expected) {
-        if (encoded.length == 0) {
+    private void checkEncodedType(@NonNull KeychainValueBuffer encodedValue, byte expected) {
+        final byte[] encoded = encodedValue.bytes;
+        final int encodedLength = encodedValue.length;
+        if (encodedLength == 0) {
             throw new IllegalKeychainAccessException("Invalid encoded keychain content");
         }
         if (encoded[0] != expected) {
@@ -281,22 +353,22 @@ class KeychainValueEncoder {
                 // DATA and STRING can be always decoded with a zero length.
                 return;
             case TYPE_BOOLEAN:
-                if (encoded.length != 2) {
+                if (encodedLength != 2) {
                     throw new IllegalKeychainAccessException("Not enough bytes for Boolean value");
                 }
                 return;
             case TYPE_LONG:
-                if (encoded.length != 9) {
+                if (encodedLength != 9) {
                     throw new IllegalKeychainAccessException("Not enough bytes for Long value");
                 }
                 return;
             case TYPE_FLOAT:
-                if (encoded.length != 5) {
+                if (encodedLength != 5) {
                     throw new IllegalKeychainAccessException("Not enough bytes for Float value");
                 }
                 return;
             case TYPE_STRING_SET:
-                if (encoded.length < 5) {
+                if (encodedLength < 5) {
                     throw new IllegalKeychainAccessException("Not enough bytes for Set<String> value");
                 }
             default:
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.keychain.impl;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.SecretKey;
+
+import io.getlime.security.powerauth.keychain.IKeychainMigrationListener;
+import io.getlime.security.powerauth.system.PA2Log;
+
+/**
+ * The {@code LegacyKeychainMigration} class implements migration of the legacy keychain content
+ * to {@link EncryptedKeychain}.
+ * <p>
+ * The entries are encrypted in chunks, in parallel if an executor is provided. Each finished chunk
+ * is stored to a separate staging {@code SharedPreferences}, so an interrupted migration continues
+ * where it stopped. The staging preferences contain only the encrypted values. The legacy content is replaced with the encrypted content in one final commit,
+ * so the legacy keychain is kept intact until the whole migration succeeds.
+ */
+@RequiresApi(api = Build.VERSION_CODES.M)
+class LegacyKeychainMigration {
+
+    /**
+     * Number of entries encrypted in one chunk.
+     */
+    private static final int CHUNK_SIZE = 16;
+    /**
+     * Maximum number of threads encrypting chunks at the same time.
+     */
+    private static final int MAX_PARALLELISM = 4;
+    /**
+     * Prefix for the name of staging {@code SharedPreferences}.
+     */
+    private static final String STAGING_PREFIX = "com.wultra.PowerAuthKeychain.Migration.";
+    private final @NonNull EncryptedKeychain keychain;
+    private final @NonNull String identifier;
+    private final @NonNull SharedPreferences legacyPreferences;
+    private final @NonNull SharedPreferences stagingPreferences;
+    private final @NonNull SecretKey encryptionKey;
+    private final @Nullable Executor executor;
+    private final @Nullable IKeychainMigrationListener listener;
+
+    private final AtomicInteger migratedEntries = new AtomicInteger();
+    private int totalEntries;
+
+    /**
+     * @param context Android context.
+     * @param keychain Target encrypted keychain.
+     * @param legacyPreferences {@link SharedPreferences} object that contains the legacy keychain content.
+     * @param encryptionKey Key for the content encryption.
+     * @param executor Optional executor for parallel encryption. If {@code null}, then all chunks are encrypted on the current thread.
+     * @param listener Optional listener that receives the migration progress.
+     */
+    LegacyKeychainMigration(
+            @NonNull Context context,
+            @NonNull EncryptedKeychain keychain,
+            @NonNull SharedPreferences legacyPreferences,
+            @NonNull SecretKey encryptionKey,
+            @Nullable Executor executor,
+            @Nullable IKeychainMigrationListener listener) {
+        this.keychain = keychain;
+        this.identifier = keychain.getIdentifier();
+        this.legacyPreferences = legacyPreferences;
+        this.stagingPreferences = context.getSharedPreferences(STAGING_PREFIX + identifier, Context.MODE_PRIVATE);
+        this.encryptionKey = encryptionKey;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    /**
+     * Run the migration. The method blocks the current thread until all chunks are processed.
+     *
+     * @return {@code true} if migration was successful, otherwise {@code false}.
+     */
+    boolean migrate() {
+        final Map<String, ?> legacyContent = legacyPreferences.getAll();
+        final Map<String, ?> stagedContent = stagingPreferences.getAll();
+
+        // Skip entries already encrypted in the previous, interrupted migration. The entry is reused
+        // only if the legacy value was not changed since then.
+        final List<Map.Entry<String, ?>> pendingEntries = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : legacyContent.entrySet()) {
+            if (isStagedValueValid(entry.getKey(), entry.getValue(), stagedContent.get(entry.getKey()))) {
+                continue;
+            }
+            pendingEntries.add(entry);
+        }
+        totalEntries = legacyContent.size();
+        migratedEntries.set(totalEntries - pendingEntries.size());
+        if (pendingEntries.size() < totalEntries) {
+            PA2Log.d("LegacyKeychainMigration: " + identifier + ": Resuming migration at " + migratedEntries.get() + " of " + totalEntries + " entries.");
+        }
+        reportProgress();
+
+        if (!encryptChunks(pendingEntries)) {
+            return false;
+        }
+        return commitMigration(legacyContent);
+    }
+
+    /**
+     * Encrypt all pending entries in chunks. The current thread always participates on the
+     * work, so the migration cannot deadlock even if the executor has no free thread.
+     *
+     * @param pendingEntries Entries to encrypt.
+     * @return {@code true} if all chunks were encrypted.
+     */
+    private boolean encryptChunks(@NonNull final List<Map.Entry<String, ?>> pendingEntries) {
+        final int chunksCount = (pendingEntries.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunksCount == 0) {
+            return true;
+        }
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final CountDownLatch processedChunks = new CountDownLatch(chunksCount);
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                int chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunksCount) {
+                    try {
+                        if (!failed.get() && !encryptChunk(pendingEntries, chunk)) {
+                            failed.set(true);
+                        }
+                    } catch (RuntimeException e) {
+                        PA2Log.e("LegacyKeychainMigration: " + identifier + ": Chunk encryption failed: " + e.getMessage());
+                        failed.set(true);
+                    } finally {
+                        processedChunks.countDown();
+                    }
+                }
+            }
+        };
+        if (executor != null) {
+            final int helpersCount = Math.min(chunksCount, Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors())) - 1;
+            for (int i = 0; i < helpersCount; i++) {
+                try {
+                    executor.execute(worker);
+                } catch (RejectedExecutionException e) {
+                    break;
+                }
+            }
+        }
+        worker.run();
+
+        // Wait for chunks processed by other threads.
+        boolean interrupted = false;
+        while (true) {
+            try {
+                processedChunks.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return !failed.get();
+    }
+
+    /**
+     * Encrypt one chunk of entries and store the result to the staging preferences.
+     *
+     * @param pendingEntries All entries to encrypt.
+     * @param chunk Index of chunk to process.
+     * @return {@code true} if chunk was encrypted and stored.
+     */
+    private boolean encryptChunk(@NonNull List<Map.Entry<String, ?>> pendingEntries, int chunk) {
+        final int begin = chunk * CHUNK_SIZE;
+        final int end = Math.min(begin + CHUNK_SIZE, pendingEntries.size());
+        final Map<String, String> stagedValues = new HashMap<>(end - begin);
+        for (int i = begin; i < end; i++) {
+            final Map.Entry<String, ?> entry = pendingEntries.get(i);
+            final byte[] encodedValue = keychain.encodeLegacyValue(entry.getKey(), entry.getValue());
+            final String encryptedString;
+            if (encodedValue != null) {
+                final byte[] encryptedValue = AesGcmImpl.encrypt(encodedValue, encryptionKey, identifier);
+                if (encryptedValue == null) {
+                    PA2Log.e("LegacyKeychainMigration: " + identifier + ": Failed to import value from key: " + entry.getKey());
+                    return false;
+                }
+                encryptedString = Base64.encodeToString(encryptedValue, Base64.NO_WRAP);
+            } else {
+                // Empty encrypted value means that the entry will be removed.
+                encryptedString = "";
+            }
+            stagedValues.put(entry.getKey(), encryptedString);
+        }
+        // Store the checkpoint. SharedPreferences are thread safe, but commit() is synchronized
+        // to keep the number of concurrent disk writes low.
+        synchronized (stagingPreferences) {
+            final SharedPreferences.Editor editor = stagingPreferences.edit();
+            for (Map.Entry<String, String> entry : stagedValues.entrySet()) {
+                editor.putString(entry.getKey(), entry.getValue());
+            }
+            if (!editor.commit()) {
+                PA2Log.e("LegacyKeychainMigration: " + identifier + ": Failed to store migration checkpoint.");
+                return false;
+            }
+        }
+        migratedEntries.addAndGet(end - begin);
+        reportProgress();
+        return true;
+    }
+
+    /**
+     * Replace the legacy content with the encrypted content and remove the staging preferences.
+     *
+     * @param legacyContent Legacy content captured at the beginning of migration.
+     * @return {@code true} if the encrypted content was stored.
+     */
+    private boolean commitMigration(@NonNull Map<String, ?> legacyContent) {
+        final Map<String, ?> stagedContent = stagingPreferences.getAll();
+        final SharedPreferences.Editor editor = legacyPreferences.edit();
+        for (String key : legacyContent.keySet()) {
+            final Object staged = stagedContent.get(key);
+            if (!(staged instanceof String)) {
+                PA2Log.e("LegacyKeychainMigration: " + identifier + ": Missing encrypted value for key: " + key);
+                return false;
+            }
+            final String encryptedString = (String) staged;
+            if (encryptedString.isEmpty()) {
+                editor.remove(key);
+            } else {
+                editor.putString(key, encryptedString);
+            }
+        }
+        editor.putInt(EncryptedKeychain.ENCRYPTED_KEYCHAIN_VERSION_KEY, EncryptedKeychain.ENCRYPTED_KEYCHAIN_VERSION);
+        if (!editor.commit()) {
+            PA2Log.e("LegacyKeychainMigration: " + identifier + ": Failed to store encrypted content.");
+            return false;
+        }
+        // The migration is complete, so the staging data is no longer required.
+        stagingPreferences.edit().clear().apply();
+        return true;
+    }
+
+    /**
+     * Notify listener about the current progress.
+     */
+    private void reportProgress() {
+        if (listener != null) {
+            listener.onKeychainMigrationProgress(identifier, migratedEntries.get(), totalEntries);
+        }
+    }
+
+    /**
+     * Determine whether the value staged in the previous, interrupted migration matches the current
+     * legacy value. The staged value is decrypted and compared with the encoded legacy value, so
+     * the staging data never contains anything derived from the plaintext.
+     *
+     * @param key Key of the entry.
+     * @param value Value stored in the legacy keychain.
+     * @param staged Value stored in the staging preferences.
+     * @return {@code true} if the staged value can be reused.
+     */
+    private boolean isStagedValueValid(@NonNull String key, @Nullable Object value, @Nullable Object staged) {
+        if (!(staged instanceof String)) {
+            return false;
+        }
+        final String stagedString = (String) staged;
+        final byte[] encodedValue = keychain.encodeLegacyValue(key, value);
+        if (stagedString.isEmpty()) {
+            // Empty staged value means that the entry will be removed.
+            return encodedValue == null;
+        }
+        if (encodedValue == null) {
+            return false;
+        }
+        final byte[] decryptedValue;
+        try {
+            decryptedValue = AesGcmImpl.decrypt(Base64.decode(stagedString, Base64.NO_WRAP), encryptionKey, identifier);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Note that the encoded Set<String> may differ in the items order. Such entry is simply encrypted again.
+        return decryptedValue != null && Arrays.equals(decryptedValue, encodedValue);
+    }
+}
@@ -0,0 +1,846 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.keychain.impl;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Process;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import android.util.Base64;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import javax.crypto.SecretKey;
+
+import io.getlime.security.powerauth.keychain.Keychain;
+import io.getlime.security.powerauth.keychain.SymmetricKeyProvider;
+import io.getlime.security.powerauth.system.PA2Log;
+
+/**
+ * The {@code MappedFileKeychain} class implements {@link Keychain} interface with content
+ * encryption, stored in an append-only binary log, mapped into the memory. The values are
+ * encrypted exactly in the same way as in {@link EncryptedKeychain}, so the content can be
+ * moved between both implementations without decryption.
+ * <p>
+ * The log has the following layout:
+ * <pre>
+ *   Header: [magic:4][version:1][reserved:3][end offset:4][reserved:4]
+ *   Record: [body length:4][CRC32 of body:4][body]
+ *   Body:   [operation:1][key length:2][key:UTF-8][encrypted value]
+ * </pre>
+ * Each change appends one record and then updates the end offset in the header. The end offset
+ * is the commit point, so a record that was not completely written is ignored after the restart.
+ * Changes written to the mapped memory survive the application's crash immediately. The mapped
+ * memory is then flushed to the disk in the background. Once the log contains more obsolete
+ * records than the valid ones, it's compacted into a temporary file that atomically replaces
+ * the original one.
+ */
+@RequiresApi(api = Build.VERSION_CODES.M)
+public class MappedFileKeychain implements Keychain {
+
+    /**
+     * Keychain identifier.
+     */
+    private final @NonNull String identifier;
+    /**
+     * Android application context.
+     */
+    private final @NonNull Context context;
+    /**
+     * Secret key provider.
+     */
+    private final @NonNull SymmetricKeyProvider keyProvider;
+    /**
+     * Encoder that helps with the keychain value serialization and deserialization.
+     */
+    private final @NonNull KeychainValueEncoder valueEncoder;
+    /**
+     * File containing the log.
+     */
+    private final @NonNull File file;
+    /**
+     * Map with encrypted values, loaded from the log.
+     */
+    private final @NonNull Map<String, byte[]> records;
+
+    /**
+     * Channel to the opened file.
+     */
+    private FileChannel channel;
+    /**
+     * Memory mapped content of the file.
+     */
+    private MappedByteBuffer buffer;
+    /**
+     * Offset to the end of the last committed record.
+     */
+    private int endOffset;
+    /**
+     * Number of bytes occupied by valid records.
+     */
+    private int liveBytes;
+    /**
+     * If true, then the flush of mapped memory is already scheduled.
+     */
+    private boolean flushScheduled;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int FILE_MAGIC = 0x50414B4C;   // "PAKL"
+    private static final byte FILE_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int HEADER_END_OFFSET_POSITION = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int RECORD_BODY_MIN_SIZE = 3;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final int COMPACTION_MIN_GARBAGE = 16 * 1024;
+    private static final String KEYCHAIN_DIRECTORY = "PowerAuthKeychain";
+    private static final String KEYCHAIN_FILE_EXTENSION = ".keychain";
+    private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+    private static final int FLUSH_KEEP_ALIVE_SECONDS = 10;
+
+    /**
+     * Executor that flushes the mapped memory of all keychains. The executor has only one thread,
+     * so the flushes don't compete with each other, nor with the tasks submitted by the application.
+     */
+    private static final Executor FLUSH_EXECUTOR = createFlushExecutor();
+
+    /**
+     * Default constructor, initialize keychain with given identifier and symmetric key provider.
+     * You have to call {@link #open()} before the keychain is used.
+     *
+     * @param context Android application context.
+     * @param identifier String with the keychain identifier.
+     * @param secretKeyProvider Object that provides secret encryption and decryption key.
+     */
+    public MappedFileKeychain(@NonNull Context context, @NonNull String identifier, @NonNull SymmetricKeyProvider secretKeyProvider) {
+        this.identifier = identifier;
+        this.context = context;
+        this.keyProvider = secretKeyProvider;
+        this.valueEncoder = new KeychainValueEncoder();
+        this.file = getKeychainFile(context, identifier);
+        this.records = new HashMap<>();
+    }
+
+    /**
+     * Get file that contains content of the keychain with given identifier.
+     *
+     * @param context Android context.
+     * @param identifier String with the keychain identifier.
+     * @return File with keychain content. The file may not exist.
+     */
+    public static @NonNull File getKeychainFile(@NonNull Context context, @NonNull String identifier) {
+        final File directory = new File(context.getNoBackupFilesDir(), KEYCHAIN_DIRECTORY);
+        final String fileName = Base64.encodeToString(identifier.getBytes(UTF8), Base64.NO_WRAP | Base64.URL_SAFE | Base64.NO_PADDING);
+        return new File(directory, fileName + KEYCHAIN_FILE_EXTENSION);
+    }
+
+    /**
+     * Open the keychain file and load its content. If the file doesn't exist, then the new, empty
+     * file is created.
+     *
+     * @return {@code true} if the keychain file is ready for use.
+     */
+    public synchronized boolean open() {
+        if (buffer != null) {
+            return true;
+        }
+        try {
+            if (!file.exists()) {
+                final File directory = file.getParentFile();
+                if (directory != null && !directory.exists() && !directory.mkdirs()) {
+                    PA2Log.e("MappedFileKeychain: " + identifier + ": Failed to create keychain directory.");
+                    return false;
+                }
+                writeFile(INITIAL_CAPACITY);
+            }
+            mapFile();
+            loadRecords();
+            return true;
+        } catch (IOException e) {
+            PA2Log.e("MappedFileKeychain: " + identifier + ": Failed to open keychain file. Exception: " + e.getMessage());
+            closeFile();
+            return false;
+        }
+    }
+
+    /**
+     * Import content from {@link SharedPreferences} that contains the content of {@link EncryptedKeychain}
+     * with the same identifier. The encrypted values are copied as they are and replace the current
+     * content of the file. Once the content is committed to the file, the preferences are cleared.
+     *
+     * @param preferences {@link SharedPreferences} object with the encrypted keychain content.
+     * @return {@code true} if import was successful, otherwise {@code false}.
+     */
+    public synchronized boolean importFromEncryptedKeychain(@NonNull SharedPreferences preferences) {
+        if (!open()) {
+            return false;
+        }
+        // Preferences are always the valid source of content, so replace all records in the file.
+        records.clear();
+        liveBytes = 0;
+        for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+            final String key = entry.getKey();
+            if (key.equals(EncryptedKeychain.ENCRYPTED_KEYCHAIN_VERSION_KEY) || !(entry.getValue() instanceof String)) {
+                continue;
+            }
+            final byte[] encryptedValue;
+            try {
+                encryptedValue = Base64.decode((String) entry.getValue(), Base64.NO_WRAP);
+            } catch (IllegalArgumentException e) {
+                PA2Log.e("MappedFileKeychain: " + identifier + ": Failed to import value for key: " + key);
+                return false;
+            }
+            if (encryptedValue.length > 0) {
+                putRecord(key, encryptedValue);
+            }
+        }
+        // Write complete file, so the content is on the disk before the preferences are cleared.
+        if (!compact(getCapacityFor(0))) {
+            return false;
+        }
+        return preferences.edit().clear().commit();
+    }
+
+    /**
+     * Export content of this keychain to {@link SharedPreferences}, so it can be used by {@link EncryptedKeychain}
+     * with the same identifier. Once the content is committed to the preferences, the keychain file
+     * is deleted and this object can no longer be used.
+     *
+     * @param preferences {@link SharedPreferences} object that receives the encrypted keychain content.
+     * @return {@code true} if export was successful, otherwise {@code false}.
+     */
+    public synchronized boolean exportToEncryptedKeychain(@NonNull SharedPreferences preferences) {
+        if (!open()) {
+            return false;
+        }
+        final SharedPreferences.Editor editor = preferences.edit().clear();
+        for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+            editor.putString(entry.getKey(), Base64.encodeToString(entry.getValue(), Base64.NO_WRAP));
+        }
+        editor.putInt(EncryptedKeychain.ENCRYPTED_KEYCHAIN_VERSION_KEY, EncryptedKeychain.ENCRYPTED_KEYCHAIN_VERSION);
+        if (!editor.commit()) {
+            return false;
+        }
+        closeFile();
+        records.clear();
+        return file.delete();
+    }
+
+    @NonNull
+    @Override
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public boolean isEncrypted() {
+        return true;
+    }
+
+    @Override
+    public boolean isReservedKey(@NonNull String key) {
+        return ReservedKeyImpl.isReservedKey(key);
+    }
+
+    // Byte array accessors
+
+    @Override
+    public synchronized boolean contains(@NonNull String key) {
+        final KeychainValueBuffer encoded = getRawValue(key);
+        if (encoded == null) {
+            return false;
+        }
+        encoded.recycle();
+        return true;
+    }
+
+    @Override
+    public synchronized void remove(@NonNull String key) {
+        ReservedKeyImpl.failOnReservedKey(key);
+        setEncryptedValue(key, null);
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        if (buffer == null) {
+            return;
+        }
+        records.clear();
+        liveBytes = 0;
+        compact(INITIAL_CAPACITY);
+    }
+
+    @Nullable
+    @Override
+    public synchronized byte[] getData(@NonNull String key) {
+        final KeychainValueBuffer encoded = getRawValue(key);
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            final byte[] decoded = valueEncoder.decodeBytes(encoded);
+            return decoded.length > 0 ? decoded : null;
+        } finally {
+            encoded.recycle();
+        }
+    }
+
+    @Override
+    public synchronized void putData(@Nullable byte[] data, @NonNull String key) {
+        setRawValue(key, (data != null && data.length > 0) ? valueEncoder.encodeToBuffer(data) : null);
+    }
+
+    // String accessors
+
+    @Nullable
+    @Override
+    public synchronized String getString(@NonNull String key) {
+        final KeychainValueBuffer encoded = getRawValue(key);
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            return valueEncoder.decodeString(encoded);
+        } finally {
+            encoded.recycle();
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized String getString(@NonNull String key, @NonNull String defaultValue) {
+        final KeychainValueBuffer encoded = getRawValue(key);
+        if (encoded == null) {
+            return defaultValue;
+        }
+        try {
+            return valueEncoder.decodeString(encoded);
+        } finally {
+            encoded.recycle();
+        }
+    }
+
+    @Override
+    public synchronized void putString(@Nullable String string, @NonNull String key) {
+        setRawValue(key, string != null ? valueEncoder.encodeToBuffer(string) : null);
+    }
+
+    // String Set accessors
+
+    @Nullable
+    @Override
+    public synchronized Set<String> getStringSet(@NonNull String key) {
+        final KeychainValueBuffer encoded = getRawValue(key);
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            return valueEncoder.decodeStringSet(encoded);
+        } finally {
+            encoded.recycle();
+        }
+    }
+
+    @Override
+    public synchronized void putStringSet(@Nullable Set<String> stringSet, @NonNull String key) {
+        setRawValue(key, stringSet != null ? valueEncoder.encodeToBuffer(stringSet) : null);
+    }
+
+    // Boolean accessors
+
+    @Override
+    public synchronized boolean getBoolean(@NonNull String key, boolean defaultValue) {
+        final KeychainValueBuffer bytes = getRawValue(key);
+        if (bytes == null) {
+            return defaultValue;
+        }
+        try {
+            return valueEncoder.decodeBoolean(bytes);
+        } finally {
+            bytes.recycle();
+        }
+    }
+
+    @Override
+    public synchronized void putBoolean(boolean value, @NonNull String key) {
+        setRawValue(key, valueEncoder.encodeToBuffer(value));
+    }
+
+    // Long accessors
+
+    @Override
+    public synchronized long getLong(@NonNull String key, long defaultValue) {
+        final KeychainValueBuffer bytes = getRawValue(key);
+        if (bytes == null) {
+            return defaultValue;
+        }
+        try {
+            return valueEncoder.decodeLong(bytes);
+        } finally {
+            bytes.recycle();
+        }
+    }
+
+    @Override
+    public synchronized void putLong(long value, @NonNull String key) {
+        setRawValue(key, valueEncoder.encodeToBuffer(value));
+    }
+
+    // Float accessors
+
+    @Override
+    public synchronized float getFloat(@NonNull String key, float defaultValue) {
+        final KeychainValueBuffer bytes = getRawValue(key);
+        if (bytes == null) {
+            return defaultValue;
+        }
+        try {
+            return valueEncoder.decodeFloat(bytes);
+        } finally {
+            bytes.recycle();
+        }
+    }
+
+    @Override
+    public synchronized void putFloat(float value, @NonNull String key) {
+        setRawValue(key, valueEncoder.encodeToBuffer(value));
+    }
+
+    // Private methods
+
+    /**
+     * Return encoded raw value bytes stored in the keychain file.
+     *
+     * @param key Key to be used for value retrieval.
+     * @return Pooled buffer with encoded raw value in case there are some data under given key, {@code null} otherwise.
+     *         The returned buffer must be recycled.
+     */
+    @Nullable
+    private KeychainValueBuffer getRawValue(@NonNull String key) {
+        ReservedKeyImpl.failOnReservedKey(key);
+        final byte[] encryptedBytes = records.get(key);
+        if (encryptedBytes == null) {
+            return null;
+        }
+        final SecretKey secretKey = getMasterKey();
+        if (secretKey == null) {
+            return null;
+        }
+        return KeychainValueBuffer.decrypt(encryptedBytes, secretKey, identifier);
+    }
+
+    /**
+     * Put encoded raw value to the keychain file.
+     *
+     * @param key Key to be used for storing the encoded raw value.
+     * @param value Pooled buffer with encoded raw value to be stored. The buffer is always recycled. If value is
+     *              {@code null} then it's equal to {@link #remove(String)}.
+     */
+    private void setRawValue(@NonNull String key, @Nullable KeychainValueBuffer value) {
+        try {
+            ReservedKeyImpl.failOnReservedKey(key);
+            final SecretKey secretKey = getMasterKey();
+            if (secretKey == null) {
+                // Do not modify entry in case that the secret key is not available.
+                return;
+            }
+            final byte[] encryptedValue;
+            if (value == null) {
+                // null value is equal to remove data.
+                encryptedValue = null;
+            } else {
+                encryptedValue = AesGcmImpl.encrypt(value.bytes, 0, value.length, secretKey, identifier);
+                if (encryptedValue == null) {
+                    // Do not delete entry if encryption failed.
+                    return;
+                }
+            }
+            setEncryptedValue(key, encryptedValue);
+        } finally {
+            if (value != null) {
+                // Clear the plaintext value and return the buffer back to the pool.
+                value.recycle();
+            }
+        }
+    }
+
+    /**
+     * Append record with encrypted value to the log and update the map of records.
+     *
+     * @param key Key to be used for storing the encrypted value.
+     * @param encryptedValue Encrypted value to be stored, or {@code null} to remove the value.
+     */
+    private void setEncryptedValue(@NonNull String key, @Nullable byte[] encryptedValue) {
+        if (buffer == null) {
+            PA2Log.e("MappedFileKeychain: " + identifier + ": Keychain file is not opened.");
+            return;
+        }
+        if (encryptedValue == null && !records.containsKey(key)) {
+            return;
+        }
+        final byte[] body = encodeRecordBody(encryptedValue != null ? OP_PUT : OP_REMOVE, key, encryptedValue);
+        final int recordSize = RECORD_HEADER_SIZE + body.length;
+        if (endOffset + recordSize > buffer.capacity()) {
+            // Not enough space in the file. Apply the change in memory and write the compacted log.
+            final byte[] previousValue = encryptedValue != null ? putRecord(key, encryptedValue) : removeRecord(key);
+            if (!compact(getCapacityFor(0))) {
+                // Revert the change
+                if (previousValue != null) {
+                    putRecord(key, previousValue);
+                } else {
+                    removeRecord(key);
+                }
+            }
+            return;
+        }
+        // Write the record and then move the end offset, which commits the record.
+        final CRC32 crc = new CRC32();
+        crc.update(body);
+        buffer.position(endOffset);
+        buffer.putInt(body.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(body);
+        endOffset += recordSize;
+        buffer.putInt(HEADER_END_OFFSET_POSITION, endOffset);
+
+        if (encryptedValue != null) {
+            putRecord(key, encryptedValue);
+        } else {
+            removeRecord(key);
+        }
+        final int garbageBytes = endOffset - HEADER_SIZE - liveBytes;
+        if (garbageBytes > COMPACTION_MIN_GARBAGE && garbageBytes > liveBytes) {
+            compact(getCapacityFor(0));
+        } else {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Put encrypted value to the map of records and update the number of live bytes.
+     *
+     * @return Previous encrypted value or {@code null} if there was no such value.
+     */
+    @Nullable
+    private byte[] putRecord(@NonNull String key, @NonNull byte[] encryptedValue) {
+        final byte[] previousValue = records.put(key, encryptedValue);
+        if (previousValue != null) {
+            liveBytes -= getRecordSize(key, previousValue);
+        }
+        liveBytes += getRecordSize(key, encryptedValue);
+        return previousValue;
+    }
+
+    /**
+     * Remove encrypted value from the map of records and update the number of live bytes.
+     *
+     * @return Previous encrypted value or {@code null} if there was no such value.
+     */
+    @Nullable
+    private byte[] removeRecord(@NonNull String key) {
+        final byte[] previousValue = records.remove(key);
+        if (previousValue != null) {
+            liveBytes -= getRecordSize(key, previousValue);
+        }
+        return previousValue;
+    }
+
+    /**
+     * @return Size of record that keeps given key and value in the log.
+     */
+    private static int getRecordSize(@NonNull String key, @NonNull byte[] encryptedValue) {
+        return RECORD_HEADER_SIZE + RECORD_BODY_MIN_SIZE + key.getBytes(UTF8).length + encryptedValue.length;
+    }
+
+    /**
+     * Calculate capacity of the file, required for all live records and the additional number of bytes.
+     * The capacity is twice as large as required, so the log can grow before the next compaction.
+     *
+     * @param additionalBytes Number of additional bytes required in the file.
+     * @return Capacity of the file.
+     */
+    private int getCapacityFor(int additionalBytes) {
+        final int required = HEADER_SIZE + liveBytes + additionalBytes;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 2 * required) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    /**
+     * Serialize body of the record.
+     */
+    @NonNull
+    private static byte[] encodeRecordBody(byte operation, @NonNull String key, @Nullable byte[] encryptedValue) {
+        final byte[] keyBytes = key.getBytes(UTF8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Key is too long.");
+        }
+        final int valueLength = encryptedValue != null ? encryptedValue.length : 0;
+        final ByteBuffer body = ByteBuffer.allocate(RECORD_BODY_MIN_SIZE + keyBytes.length + valueLength);
+        body.put(operation);
+        body.putShort((short) keyBytes.length);
+        body.put(keyBytes);
+        if (encryptedValue != null) {
+            body.put(encryptedValue);
+        }
+        return body.array();
+    }
+
+    /**
+     * Map the keychain file into the memory.
+     *
+     * @throws IOException In case of I/O failure.
+     */
+    private void mapFile() throws IOException {
+        closeFile();
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        final long size = channel.size();
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid file size.");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Close the keychain file. If the flush of the mapped memory is pending, then it's performed
+     * before the file is closed.
+     */
+    private void closeFile() {
+        if (flushScheduled && buffer != null) {
+            buffer.force();
+        }
+        flushScheduled = false;
+        buffer = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                PA2Log.e("MappedFileKeychain: " + identifier + ": Failed to close keychain file. Exception: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Load all committed records from the mapped file.
+     *
+     * @throws IOException In case that file has an invalid header.
+     */
+    private void loadRecords() throws IOException {
+        records.clear();
+        liveBytes = 0;
+        if (buffer.getInt(0) != FILE_MAGIC || buffer.get(4) != FILE_VERSION) {
+            throw new IOException("Invalid file header.");
+        }
+        final int committedEndOffset = buffer.getInt(HEADER_END_OFFSET_POSITION);
+        if (committedEndOffset < HEADER_SIZE || committedEndOffset > buffer.capacity()) {
+            throw new IOException("Invalid end offset.");
+        }
+        int offset = HEADER_SIZE;
+        final CRC32 crc = new CRC32();
+        while (offset + RECORD_HEADER_SIZE <= committedEndOffset) {
+            final int bodyLength = buffer.getInt(offset);
+            final int bodyCrc = buffer.getInt(offset + 4);
+            if (bodyLength < RECORD_BODY_MIN_SIZE || bodyLength > committedEndOffset - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            final byte[] body = new byte[bodyLength];
+            buffer.position(offset + RECORD_HEADER_SIZE);
+            buffer.get(body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != bodyCrc) {
+                break;
+            }
+            final ByteBuffer bodyBuffer = ByteBuffer.wrap(body);
+            final byte operation = bodyBuffer.get();
+            final int keyLength = bodyBuffer.getShort() & 0xFFFF;
+            if (keyLength > bodyBuffer.remaining()) {
+                break;
+            }
+            final String key = new String(body, RECORD_BODY_MIN_SIZE, keyLength, UTF8);
+            if (operation == OP_PUT) {
+                final int valueOffset = RECORD_BODY_MIN_SIZE + keyLength;
+                final byte[] encryptedValue = new byte[bodyLength - valueOffset];
+                System.arraycopy(body, valueOffset, encryptedValue, 0, encryptedValue.length);
+                putRecord(key, encryptedValue);
+            } else if (operation == OP_REMOVE) {
+                removeRecord(key);
+            } else {
+                break;
+            }
+            offset += RECORD_HEADER_SIZE + bodyLength;
+        }
+        if (offset != committedEndOffset) {
+            PA2Log.e("MappedFileKeychain: " + identifier + ": Ignoring damaged records at the end of keychain file.");
+            buffer.putInt(HEADER_END_OFFSET_POSITION, offset);
+        }
+        endOffset = offset;
+    }
+
+    /**
+     * Write all live records into a new file with given capacity.
+     *
+     * @param capacity Capacity of the new file.
+     * @throws IOException In case of I/O failure.
+     */
+    private void writeFile(int capacity) throws IOException {
+        final File temporaryFile = new File(file.getPath() + TEMPORARY_FILE_EXTENSION);
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(temporaryFile, "rw");
+        try {
+            final ByteBuffer content = ByteBuffer.allocate(HEADER_SIZE + liveBytes);
+            content.putInt(FILE_MAGIC);
+            content.put(FILE_VERSION);
+            content.position(HEADER_SIZE);
+            final CRC32 crc = new CRC32();
+            for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+                final byte[] body = encodeRecordBody(OP_PUT, entry.getKey(), entry.getValue());
+                crc.reset();
+                crc.update(body);
+                content.putInt(body.length);
+                content.putInt((int) crc.getValue());
+                content.put(body);
+            }
+            content.putInt(HEADER_END_OFFSET_POSITION, content.position());
+            content.flip();
+            randomAccessFile.setLength(capacity);
+            final FileChannel temporaryChannel = randomAccessFile.getChannel();
+            while (content.hasRemaining()) {
+                temporaryChannel.write(content);
+            }
+            temporaryChannel.force(true);
+        } finally {
+            randomAccessFile.close();
+        }
+        if (!temporaryFile.renameTo(file)) {
+            throw new IOException("Failed to replace keychain file.");
+        }
+    }
+
+    /**
+     * Write all live records into a new file and map that file into the memory.
+     *
+     * @param capacity Capacity of the new file.
+     * @return {@code true} if operation succeeded.
+     */
+    private boolean compact(int capacity) {
+        try {
+            // Flush the current content, so the pending background flush is no longer required.
+            if (buffer != null) {
+                buffer.force();
+                flushScheduled = false;
+            }
+            writeFile(capacity);
+            mapFile();
+            endOffset = buffer.getInt(HEADER_END_OFFSET_POSITION);
+            return true;
+        } catch (IOException e) {
+            PA2Log.e("MappedFileKeychain: " + identifier + ": Failed to compact keychain file. Exception: " + e.getMessage());
+            // Try to restore the mapping of the previous file.
+            try {
+                mapFile();
+                loadRecords();
+            } catch (IOException e1) {
+                closeFile();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Schedule flush of the mapped memory to the disk. The change is already visible in the file
+     * and survives the application's crash, so the flush only protects the content against
+     * the system failure.
+     * <p>
+     * The flush is performed while this object is locked. If the buffer is replaced or closed
+     * in the meantime, then the pending flush is already done and the scheduled task does nothing.
+     */
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        final MappedByteBuffer bufferToFlush = buffer;
+        FLUSH_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (MappedFileKeychain.this) {
+                    if (flushScheduled && buffer == bufferToFlush) {
+                        flushScheduled = false;
+                        bufferToFlush.force();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return Executor for flushing the mapped memory in the background.
+     */
+    @NonNull
+    private static Executor createFlushExecutor() {
+        final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, FLUSH_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "PowerAuth Keychain Flush");
+            }
+        });
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+    /**
+     * Acquire {@link SecretKey} for encryption and decryption purposes, from the symmetric key provider.
+     * @return Instance of {@link SecretKey} or {@code null} in case of failure.
+     */
+    @Nullable
+    private SecretKey getMasterKey() {
+        final SecretKey masterSecretKey = keyProvider.getOrCreateSecretKey(context, false);
+        if (masterSecretKey == null) {
+            PA2Log.e("MappedFileKeychain: " + identifier + ": Unable to acquire master key.");
+        }
+        return masterSecretKey;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.getlime.security.powerauth.networking.interfaces.CircuitState;
+import io.getlime.security.powerauth.networking.metrics.EndpointMetrics;
+import io.getlime.security.powerauth.sdk.PowerAuthCircuitBreakerPolicy;
+
+/**
+ * The {@code HttpCircuitBreaker} class keeps circuits for all endpoints at one base URL.
+ * Each circuit evaluates results of the recent requests to the endpoint and decides whether
+ * the next request can be executed. The class is package-private.
+ */
+class HttpCircuitBreaker {
+
+    private final @NonNull PowerAuthCircuitBreakerPolicy policy;
+    private final @NonNull ConcurrentHashMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * @param policy circuit breaker policy
+     */
+    HttpCircuitBreaker(@NonNull PowerAuthCircuitBreakerPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Returns circuit for the endpoint. If circuit doesn't exist yet, then creates a new one.
+     *
+     * @param relativePath relative path to the endpoint
+     * @return {@link Circuit} object for the endpoint.
+     */
+    @NonNull Circuit getCircuit(@NonNull String relativePath) {
+        Circuit circuit = circuits.get(relativePath);
+        if (circuit == null) {
+            circuit = new Circuit(relativePath, policy);
+            final Circuit previous = circuits.putIfAbsent(relativePath, circuit);
+            if (previous != null) {
+                circuit = previous;
+            }
+        }
+        return circuit;
+    }
+
+    /**
+     * @return Array with metrics for all endpoints, used at least once.
+     */
+    @NonNull EndpointMetrics[] getSnapshot() {
+        final ArrayList<EndpointMetrics> result = new ArrayList<>(circuits.size());
+        for (Circuit circuit : circuits.values()) {
+            result.add(circuit.getSnapshot());
+        }
+        return result.toArray(new EndpointMetrics[result.size()]);
+    }
+
+    /**
+     * @return Current time in milliseconds, from monotonic clock.
+     */
+    static long now() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    /**
+     * The {@code Circuit} nested class implements the circuit breaker state machine for
+     * one endpoint. All methods are synchronized, so the object can be used from multiple
+     * threads.
+     */
+    static class Circuit {
+
+        private final @NonNull String relativePath;
+        private final @NonNull PowerAuthCircuitBreakerPolicy policy;
+
+        // State machine
+
+        private @CircuitState int state = CircuitState.CLOSED;
+        private long openedAt;
+        private int probesInFlight;
+        private int probesSucceeded;
+        private int halfOpenRound;
+
+        // Ring buffer with outcomes of the recent requests. True means failure.
+
+        private final boolean[] window;
+        private int windowCount;
+        private int windowIndex;
+        private int windowFailures;
+
+        // Metrics
+
+        private long requestCount;
+        private long failureCount;
+        private long slowCount;
+        private long rejectedCount;
+        private long totalDuration;
+        private long maxDuration;
+
+        Circuit(@NonNull String relativePath, @NonNull PowerAuthCircuitBreakerPolicy policy) {
+            this.relativePath = relativePath;
+            this.policy = policy;
+            this.window = new boolean[policy.getWindowSize()];
+        }
+
+        /**
+         * @return Relative path to the endpoint.
+         */
+        @NonNull String getRelativePath() {
+            return relativePath;
+        }
+
+        /**
+         * Determines whether the request can be executed. If the method returns a permit, then
+         * the caller must report the result with {@link #onResult(Permit, boolean, long)}, or release
+         * the permit with {@link #onCancel(Permit)}.
+         *
+         * @return Permit for the request, or null if request should fail immediately.
+         */
+        synchronized @Nullable Permit tryAcquire() {
+            if (!policy.isEnabled()) {
+                return Permit.REGULAR;
+            }
+            if (state == CircuitState.OPEN) {
+                if (now() - openedAt < policy.getOpenDuration()) {
+                    ++rejectedCount;
+                    return null;
+                }
+                // Open period elapsed, let the probes through.
+                state = CircuitState.HALF_OPEN;
+                probesInFlight = 0;
+                probesSucceeded = 0;
+                ++halfOpenRound;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (probesInFlight + probesSucceeded >= policy.getProbeCount()) {
+                    ++rejectedCount;
+                    return null;
+                }
+                ++probesInFlight;
+                return new Permit(halfOpenRound);
+            }
+            return Permit.REGULAR;
+        }
+
+        /**
+         * Reports result of the executed request. In the half-open state, only the results of
+         * probes admitted in the current half-open round are evaluated.
+         *
+         * @param permit permit acquired for the request.
+         * @param failed true if request failed due to network, or server error.
+         * @param duration duration of the request in milliseconds.
+         */
+        synchronized void onResult(@NonNull Permit permit, boolean failed, long duration) {
+            final boolean slow = duration >= policy.getSlowCallThreshold();
+            ++requestCount;
+            totalDuration += duration;
+            maxDuration = Math.max(maxDuration, duration);
+            if (failed) {
+                ++failureCount;
+            }
+            if (slow) {
+                ++slowCount;
+            }
+            if (!policy.isEnabled()) {
+                return;
+            }
+            final boolean unhealthy = failed || slow;
+            if (state == CircuitState.HALF_OPEN) {
+                if (!isCurrentProbe(permit)) {
+                    // Request admitted before the circuit was opened, or in the previous round.
+                    return;
+                }
+                --probesInFlight;
+                if (unhealthy) {
+                    open();
+                } else if (++probesSucceeded >= policy.getProbeCount()) {
+                    close();
+                }
+                return;
+            }
+            if (state == CircuitState.CLOSED) {
+                // Put outcome to the window
+                if (windowCount == window.length) {
+                    if (window[windowIndex]) {
+                        --windowFailures;
+                    }
+                } else {
+                    ++windowCount;
+                }
+                window[windowIndex] = unhealthy;
+                if (unhealthy) {
+                    ++windowFailures;
+                }
+                windowIndex = (windowIndex + 1) % window.length;
+                // Evaluate failure rate
+                if (windowCount >= policy.getMinimumRequests() && windowFailures >= policy.getFailureRateThreshold() * windowCount) {
+                    open();
+                }
+            }
+        }
+
+        /**
+         * Releases permit acquired in {@link #tryAcquire()} when the request was cancelled.
+         *
+         * @param permit permit acquired for the request.
+         */
+        synchronized void onCancel(@NonNull Permit permit) {
+            if (isCurrentProbe(permit)) {
+                --probesInFlight;
+            }
+        }
+
+        /**
+         * @param permit permit acquired for the request.
+         * @return true if permit belongs to a probe in flight in the current half-open round.
+         */
+        private boolean isCurrentProbe(@NonNull Permit permit) {
+            return state == CircuitState.HALF_OPEN && permit.isProbe() && permit.halfOpenRound == halfOpenRound && probesInFlight > 0;
+        }
+
+        /**
+         * @return Snapshot of metrics collected for the endpoint.
+         */
+        synchronized @NonNull EndpointMetrics getSnapshot() {
+            @CircuitState int reportedState = state;
+            if (state == CircuitState.OPEN && now() - openedAt >= policy.getOpenDuration()) {
+                // The next request will be a probe
+                reportedState = CircuitState.HALF_OPEN;
+            }
+            return new EndpointMetrics(relativePath, reportedState, requestCount, failureCount, slowCount, rejectedCount, totalDuration, maxDuration);
+        }
+
+        private void open() {
+            state = CircuitState.OPEN;
+            openedAt = now();
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+
+        private void close() {
+            state = CircuitState.CLOSED;
+            windowCount = 0;
+            windowIndex = 0;
+            windowFailures = 0;
+        }
+    }
+
+    /**
+     * The {@code Permit} nested class is returned from {@link Circuit#tryAcquire()} and keeps
+     * the state of the circuit at the time when the request was admitted.
+     */
+    static class Permit {
+
+        /**
+         * Permit for request admitted while the circuit is closed, or disabled.
+         */
+        static final Permit REGULAR = new Permit(0);
+
+        /**
+         * Half-open round in which the probe was admitted, or 0 for the regular request.
+         */
+        final int halfOpenRound;
+
+        private Permit(int halfOpenRound) {
+            this.halfOpenRound = halfOpenRound;
+        }
+
+        /**
+         * @return true if the request was admitted as a probe in the half-open state.
+         */
+        boolean isProbe() {
+            return halfOpenRound != 0;
+        }
+    }
+}
@@ -19,14 +19,34 @@ package io.getlime.security.powerauth.networking.client;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSocketFactory;
+
+import io.getlime.security.powerauth.networking.interceptors.HttpRequestInterceptor;
 import io.getlime.security.powerauth.networking.interfaces.ICancelable;
 import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
 import io.getlime.security.powerauth.networking.interfaces.IExecutorProvider;
 import io.getlime.security.powerauth.networking.interfaces.INetworkResponseListener;
+import io.getlime.security.powerauth.networking.interfaces.IPrioritizedEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IPriorityExecutorProvider;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
+import io.getlime.security.powerauth.networking.metrics.EndpointMetrics;
+import io.getlime.security.powerauth.networking.ssl.PA2ClientValidationStrategy;
 import io.getlime.security.powerauth.sdk.PowerAuthAuthentication;
 import io.getlime.security.powerauth.sdk.PowerAuthClientConfiguration;
+import io.getlime.security.powerauth.sdk.impl.DefaultCallbackDispatcher;
+import io.getlime.security.powerauth.sdk.impl.DefaultExecutorProvider;
+import io.getlime.security.powerauth.sdk.impl.ICallbackDispatcher;
 import io.getlime.security.powerauth.sdk.impl.IPrivateCryptoHelper;
 
 /**
@@ -42,8 +62,15 @@ public class HttpClient {
     private final @NonNull PowerAuthClientConfiguration configuration;
     private final @NonNull String baseUrl;
     private final @NonNull IExecutorProvider executorProvider;
+    private final @NonNull ICallbackDispatcher callbackDispatcher;
+    private final @NonNull HttpRequestTemplate.Cache requestTemplates;
+    private final @NonNull HttpRetryBudget retryBudget;
+    private final @NonNull HttpCircuitBreaker circuitBreaker;
+    private final @Nullable Runnable purgeCancelledTasks;
 
     /**
+     * Construct HTTP client that reports all responses to the main thread.
+     *
      * @param configuration HTTP client configuration
      * @param baseUrl String with base URL to PowerAuth Server REST API
      * @param executorProvider object providing serial or concurrent thread executors
@@ -52,9 +79,39 @@ public class HttpClient {
             @NonNull PowerAuthClientConfiguration configuration,
             @NonNull String baseUrl,
             @NonNull IExecutorProvider executorProvider) {
+        this(configuration, baseUrl, executorProvider, new DefaultCallbackDispatcher());
+    }
+
+    /**
+     * @param configuration HTTP client configuration
+     * @param baseUrl String with base URL to PowerAuth Server REST API
+     * @param executorProvider object providing serial or concurrent thread executors
+     * @param callbackDispatcher default dispatcher for response listeners
+     */
+    public HttpClient(
+            @NonNull PowerAuthClientConfiguration configuration,
+            @NonNull String baseUrl,
+            @NonNull IExecutorProvider executorProvider,
+            @NonNull ICallbackDispatcher callbackDispatcher) {
         this.configuration = configuration;
         this.baseUrl = baseUrl;
         this.executorProvider = executorProvider;
+        this.callbackDispatcher = callbackDispatcher;
+        this.requestTemplates = new HttpRequestTemplate.Cache(baseUrl, configuration.isPayloadCompressionEnabled() ? configuration.getPayloadCompressionMinSize() : -1);
+        this.retryBudget = new HttpRetryBudget(configuration.getRetryPolicy());
+        this.circuitBreaker = new HttpCircuitBreaker(configuration.getCircuitBreakerPolicy());
+        // Cancelled tasks can be removed from the queue only if the SDK owns the thread pool.
+        if (executorProvider instanceof DefaultExecutorProvider) {
+            final DefaultExecutorProvider defaultExecutorProvider = (DefaultExecutorProvider) executorProvider;
+            this.purgeCancelledTasks = new Runnable() {
+                @Override
+                public void run() {
+                    defaultExecutorProvider.purgeCancelledTasks();
+                }
+            };
+        } else {
+            this.purgeCancelledTasks = null;
+        }
     }
 
     /**
@@ -79,6 +136,110 @@ public class HttpClient {
         return executorProvider;
     }
 
+    /**
+     * Returns executor for concurrent tasks with the requested priority. If the executor provider
+     * doesn't support priorities, then its regular concurrent executor is returned.
+     *
+     * @param priority priority of tasks submitted to the returned executor.
+     * @return {@link Executor} for concurrent task execution.
+     */
+    public @NonNull Executor getConcurrentExecutor(@TaskPriority int priority) {
+        if (executorProvider instanceof IPriorityExecutorProvider) {
+            return ((IPriorityExecutorProvider) executorProvider).getConcurrentExecutor(priority);
+        }
+        return executorProvider.getConcurrentExecutor();
+    }
+
+    /**
+     * Returns priority of requests to the endpoint. If the endpoint doesn't define the priority,
+     * then {@link TaskPriority#INTERACTIVE} is returned.
+     *
+     * @param endpoint object defining the endpoint
+     * @return Priority of requests to the endpoint.
+     */
+    private static @TaskPriority int getPriority(@NonNull IEndpointDefinition<?> endpoint) {
+        if (endpoint instanceof IPrioritizedEndpointDefinition) {
+            return ((IPrioritizedEndpointDefinition<?>) endpoint).getPriority();
+        }
+        return TaskPriority.INTERACTIVE;
+    }
+
+    /**
+     * @return {@link ICallbackDispatcher} used for response listeners by default.
+     */
+    public @NonNull ICallbackDispatcher getCallbackDispatcher() {
+        return callbackDispatcher;
+    }
+
+    /**
+     * Returns snapshot of metrics collected for endpoints at the base URL, together with
+     * the state of their circuit breakers.
+     *
+     * @return Array with metrics for all endpoints used at least once.
+     */
+    public @NonNull EndpointMetrics[] getEndpointMetrics() {
+        return circuitBreaker.getSnapshot();
+    }
+
+    /**
+     * Creates a new URL connection and applies HTTP client configuration to the connection,
+     * including timeouts, TLS validation strategy and request interceptors. The connection is
+     * not connected yet.
+     *
+     * @param url full URL
+     * @param method HTTP method
+     * @param httpHeaders HTTP headers
+     * @param configuration HTTP client configuration
+     * @return {@link HttpURLConnection} prepared for the request.
+     * @throws IOException if connection cannot be created, or if the configuration doesn't allow the connection.
+     */
+    public static @NonNull HttpURLConnection openConnection(
+            @NonNull URL url,
+            @NonNull String method,
+            @NonNull Map<String, String> httpHeaders,
+            @NonNull PowerAuthClientConfiguration configuration) throws IOException {
+        final HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+
+        // Setup the connection
+        urlConnection.setRequestMethod(method);
+        urlConnection.setDoOutput(true);
+        urlConnection.setUseCaches(false);
+        urlConnection.setConnectTimeout(configuration.getConnectionTimeout());
+        urlConnection.setReadTimeout(configuration.getReadTimeout());
+        for (Map.Entry<String, String> header : httpHeaders.entrySet()) {
+            urlConnection.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        // ssl validation strategy
+        if (urlConnection instanceof HttpsURLConnection) {
+            final PA2ClientValidationStrategy clientValidationStrategy = configuration.getClientValidationStrategy();
+            if (clientValidationStrategy != null) {
+                final HttpsURLConnection sslConnection = (HttpsURLConnection) urlConnection;
+                final SSLSocketFactory sslSocketFactory = clientValidationStrategy.getSSLSocketFactory();
+                if (sslSocketFactory != null) {
+                    sslConnection.setSSLSocketFactory(sslSocketFactory);
+                }
+                final HostnameVerifier hostnameVerifier = clientValidationStrategy.getHostnameVerifier();
+                if (hostnameVerifier != null) {
+                    sslConnection.setHostnameVerifier(hostnameVerifier);
+                }
+            }
+        } else {
+            if (!configuration.isUnsecuredConnectionAllowed()) {
+                throw new SSLException("Connection to non-TLS endpoint is not allowed.");
+            }
+        }
+
+        // Apply request interceptors
+        final List<HttpRequestInterceptor> requestInterceptors = configuration.getRequestInterceptors();
+        if (requestInterceptors != null) {
+            for (HttpRequestInterceptor interceptor: requestInterceptors) {
+                interceptor.processRequestConnection(urlConnection);
+            }
+        }
+        return urlConnection;
+    }
+
     /**
      * Posts a HTTP request with provided object to the REST endpoint.
      *
@@ -118,12 +279,75 @@ public class HttpClient {
             @NonNull IPrivateCryptoHelper helper,
             @Nullable PowerAuthAuthentication authentication,
             @NonNull INetworkResponseListener<TResponse> listener) {
+        return post(object, endpoint, helper, authentication, callbackDispatcher, listener);
+    }
+
+    /**
+     * Posts a HTTP request with provided object to the REST endpoint.
+     *
+     * @param object object to be serialized into POST request
+     * @param endpoint object defining the endpoint
+     * @param helper cryptographic helper
+     * @param authentication optional authentication object, if request has to be signed with PowerAuth signature.
+     * @param callbackDispatcher dispatcher for listener's callbacks
+     * @param listener response listener
+     * @param <TRequest> type of request object
+     * @param <TResponse> type of response object
+     * @return {@link ICancelable} object which allows application cancel the pending operation
+     */
+    @NonNull
+    public <TRequest, TResponse> ICancelable post(
+            @Nullable TRequest object,
+            @NonNull IEndpointDefinition<TResponse> endpoint,
+            @NonNull IPrivateCryptoHelper helper,
+            @Nullable PowerAuthAuthentication authentication,
+            @NonNull ICallbackDispatcher callbackDispatcher,
+            @NonNull INetworkResponseListener<TResponse> listener) {
 
         final HttpRequestHelper<TRequest, TResponse> request = new HttpRequestHelper<>(object, endpoint, authentication);
-        final HttpClientTask<TRequest, TResponse> task = new HttpClientTask<>(request, baseUrl, configuration, helper, listener);
+        final HttpClientTask<TRequest, TResponse> task = new HttpClientTask<>(request, requestTemplates, retryBudget, circuitBreaker, configuration, helper, callbackDispatcher, purgeCancelledTasks, listener);
+
+        final Executor executor = endpoint.isSynchronized() ? executorProvider.getSerialExecutor() : getConcurrentExecutor(getPriority(endpoint));
+        try {
+            task.start(executor);
+        } catch (RejectedExecutionException e) {
+            task.reportExecutionRejected(e);
+        }
+        return task;
+    }
+
+    /**
+     * Sends HTTP request with already prepared headers and body to the full URL. The request is
+     * typically signed in advance, so the client doesn't modify its content. Like other requests,
+     * it's executed in the serial queue and it's subject of the retry policy and the circuit breaker.
+     * The response with 5xx status code is reported as an error.
+     *
+     * @param url full URL
+     * @param method HTTP method
+     * @param httpHeaders HTTP headers, including the authorization header
+     * @param body optional HTTP request body
+     * @param helper cryptographic helper
+     * @param callbackDispatcher dispatcher for listener's callbacks
+     * @param listener response listener
+     * @return {@link ICancelable} object which allows application cancel the pending operation
+     */
+    @NonNull
+    public ICancelable sendRawRequest(
+            @NonNull String url,
+            @NonNull String method,
+            @NonNull Map<String, String> httpHeaders,
+            @Nullable byte[] body,
+            @NonNull IPrivateCryptoHelper helper,
+            @NonNull ICallbackDispatcher callbackDispatcher,
+            @NonNull INetworkResponseListener<HttpRawResponse> listener) {
 
-        final Executor executor = endpoint.isSynchronized() ? executorProvider.getSerialExecutor() : executorProvider.getConcurrentExecutor();
-        task.executeOnExecutor(executor, null, null);
+        final HttpRawRequestHelper request = new HttpRawRequestHelper(url, method, httpHeaders, body);
+        final HttpClientTask<Void, HttpRawResponse> task = new HttpClientTask<>(request, requestTemplates, retryBudget, circuitBreaker, configuration, helper, callbackDispatcher, purgeCancelledTasks, listener);
+        try {
+            task.start(executorProvider.getSerialExecutor());
+        } catch (RejectedExecutionException e) {
+            task.reportExecutionRejected(e);
+        }
         return task;
     }
 }
@@ -18,68 +18,123 @@ package io.getlime.security.powerauth.networking.client;
 
 import android.net.TrafficStats;
 import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLException;
-import javax.net.ssl.SSLSocketFactory;
 
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
+import io.getlime.security.powerauth.networking.exceptions.CircuitOpenException;
 import io.getlime.security.powerauth.networking.exceptions.FailedApiException;
-import io.getlime.security.powerauth.networking.interceptors.HttpRequestInterceptor;
 import io.getlime.security.powerauth.networking.interfaces.ICancelable;
 import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
 import io.getlime.security.powerauth.networking.interfaces.INetworkResponseListener;
-import io.getlime.security.powerauth.networking.ssl.PA2ClientValidationStrategy;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
 import io.getlime.security.powerauth.sdk.PowerAuthClientConfiguration;
+import io.getlime.security.powerauth.sdk.impl.ICallbackDispatcher;
 import io.getlime.security.powerauth.sdk.impl.IPrivateCryptoHelper;
 import io.getlime.security.powerauth.system.PA2Log;
 
 /**
  * The {@code ClientTask} class implements an actual HTTP request & response processing, with using
- * {@link AsyncTask} infrastructure.
+ * {@link AsyncTask} infrastructure. The result is reported to the listener via {@link ICallbackDispatcher}
+ * directly from the worker thread, so the task doesn't depend on {@code onPostExecute()} which is
+ * always executed on the main thread.
  */
 class HttpClientTask<TRequest, TResponse> extends AsyncTask<TRequest, Void, TResponse> implements ICancelable {
 
     private static final int THREAD_STATS_TAG = 0x3456;
 
     private final HttpRequestHelper<TRequest, TResponse> httpRequestHelper;
-    private final String baseUrl;
+    private final HttpRequestTemplate.Cache requestTemplates;
+    private final HttpRetryBudget retryBudget;
+    private final HttpCircuitBreaker circuitBreaker;
     private final IPrivateCryptoHelper cryptoHelper;
     private final INetworkResponseListener<TResponse> listener;
     private final PowerAuthClientConfiguration clientConfiguration;
+    private final ICallbackDispatcher callbackDispatcher;
+    private final Runnable cancelHandler;
 
     /**
-     * If not null, then the task ended with an error.
+     * Handler used for delaying the repeated attempts. The handler only re-submits the attempt
+     * to the task's executor, so it never blocks the main thread.
      */
-    private Throwable error;
+    private static final Handler RETRY_HANDLER = new Handler(Looper.getMainLooper());
+
+    /**
+     * Executor used for the task execution and for the repeated attempts.
+     */
+    private volatile Executor executor;
+
+    /**
+     * Number of retries already made for this request. The attempts never run concurrently.
+     */
+    private volatile int retryNumber;
+
+    /**
+     * Scheduled attempt waiting for its delay, or null if there's no such attempt.
+     */
+    private volatile Runnable pendingRetry;
+
+    /**
+     * Contains true once the current attempt started sending the request to the server.
+     */
+    private volatile boolean requestSent;
+
+    /**
+     * Connection used by the current attempt, or null if there's no attempt in progress.
+     */
+    private volatile HttpURLConnection activeConnection;
+
+    /**
+     * Contains true once the listener has been notified about the result or the cancel.
+     */
+    private final AtomicBoolean listenerNotified = new AtomicBoolean(false);
 
     /**
      * @param httpRequestHelper request helper responsible for object serialization and deserialization
-     * @param baseUrl base URL
+     * @param requestTemplates cache with precompiled request templates
+     * @param retryBudget budget limiting the number of retries
+     * @param circuitBreaker circuit breaker for the base URL
      * @param clientConfiguration client configuration
      * @param cryptoHelper cryptographic helper
+     * @param callbackDispatcher dispatcher for listener's callbacks
+     * @param cancelHandler optional handler executed after the task is cancelled
      * @param listener response listener
      */
     HttpClientTask(
             @NonNull HttpRequestHelper<TRequest, TResponse> httpRequestHelper,
-            @NonNull String baseUrl,
+            @NonNull HttpRequestTemplate.Cache requestTemplates,
+            @NonNull HttpRetryBudget retryBudget,
+            @NonNull HttpCircuitBreaker circuitBreaker,
             @NonNull PowerAuthClientConfiguration clientConfiguration,
             @NonNull IPrivateCryptoHelper cryptoHelper,
+            @NonNull ICallbackDispatcher callbackDispatcher,
+            @Nullable Runnable cancelHandler,
             @NonNull INetworkResponseListener<TResponse> listener) {
         this.httpRequestHelper = httpRequestHelper;
-        this.baseUrl = baseUrl;
+        this.requestTemplates = requestTemplates;
+        this.retryBudget = retryBudget;
+        this.circuitBreaker = circuitBreaker;
         this.cryptoHelper = cryptoHelper;
         this.clientConfiguration = clientConfiguration;
+        this.callbackDispatcher = callbackDispatcher;
+        this.cancelHandler = cancelHandler;
         this.listener = listener;
     }
 
@@ -105,69 +160,252 @@ class HttpClientTask<TRequest, TResponse> extends AsyncTask<TRequest, Void, TRes
         return result.toByteArray();
     }
 
+    /**
+     * Start the task on the provided executor. The executor is also used for the repeated attempts.
+     *
+     * @param executor executor for the task execution.
+     * @throws RejectedExecutionException if the executor cannot accept the task.
+     */
+    void start(@NonNull Executor executor) {
+        this.executor = executor;
+        executeOnExecutor(executor);
+    }
+
     @Override
     protected TResponse doInBackground(TRequest... tRequests) {
         setThreadStatsTag();
 
-        InputStream inputStream = null;
-        HttpURLConnection urlConnection = null;
+        if (isCancelled()) {
+            return null;
+        }
+
+        // Check the circuit before the request data is prepared, so the rejected request
+        // doesn't consume the signature counter.
+        final HttpCircuitBreaker.Circuit circuit = circuitBreaker.getCircuit(httpRequestHelper.getEndpoint().getRelativePath());
+        final HttpCircuitBreaker.Permit permit = circuit.tryAcquire();
+        if (permit == null) {
+            PA2Log.e("HttpClientTask: Circuit is open for %s", circuit.getRelativePath());
+            reportResult(null, new CircuitOpenException(circuit.getRelativePath()));
+            return null;
+        }
+        retryBudget.onRequest();
+        executeAttempt(circuit, permit, null);
+        return null;
+    }
+
+    /**
+     * Execute one attempt of HTTP request and report the result to the listener. If the attempt
+     * failed and can be repeated according to the retry policy and endpoint's retry mode, then
+     * the next attempt is scheduled instead.
+     *
+     * @param circuit circuit for the endpoint.
+     * @param permit permit acquired from the circuit for this attempt.
+     * @param preparedData request data prepared by the previous attempt, or null if the data has to be prepared.
+     */
+    private void executeAttempt(@NonNull HttpCircuitBreaker.Circuit circuit, @NonNull HttpCircuitBreaker.Permit permit, @Nullable HttpRequestHelper.RequestData preparedData) {
+        final HttpRequestHelper.RequestData requestData;
+        if (preparedData != null) {
+            requestData = preparedData;
+        } else {
+            try {
+                requestData = httpRequestHelper.buildRequest(httpRequestHelper.getTemplate(requestTemplates), cryptoHelper);
+            } catch (Throwable e) {
+                PA2Log.e("HttpClientTask: Failed to prepare request: %s", e.getMessage());
+                circuit.onCancel(permit);
+                reportResult(null, e);
+                return;
+            }
+        }
+
+        requestSent = false;
+        final long startTime = HttpCircuitBreaker.now();
         try {
+            final TResponse response = sendRequest(requestData);
             if (isCancelled()) {
-                return null;
+                circuit.onCancel(permit);
+            } else {
+                circuit.onResult(permit, false, HttpCircuitBreaker.now() - startTime);
+                reportResult(response, null);
             }
-
-            // Prepare request data
-            HttpRequestHelper.RequestData requestData = httpRequestHelper.buildRequest(baseUrl, cryptoHelper);
-
-            // Create an URL connection
-            urlConnection = (HttpURLConnection) requestData.url.openConnection();
-            final boolean securedUrlConnection = urlConnection instanceof HttpsURLConnection;
-
-            // Setup the connection
-            urlConnection.setRequestMethod(requestData.method);
-            urlConnection.setDoOutput(true);
-            urlConnection.setUseCaches(false);
-            urlConnection.setConnectTimeout(clientConfiguration.getConnectionTimeout());
-            urlConnection.setReadTimeout(clientConfiguration.getReadTimeout());
-            for (Map.Entry<String, String> header : requestData.httpHeaders.entrySet()) {
-                urlConnection.setRequestProperty(header.getKey(), header.getValue());
+        } catch (Throwable e) {
+            if (isCancelled()) {
+                circuit.onCancel(permit);
+                return;
+            }
+            circuit.onResult(permit, isServerFailure(e), HttpCircuitBreaker.now() - startTime);
+            if (canRetry(e, retryNumber)) {
+                // Signed request is signed again in the next attempt, because other signed
+                // requests may be sent while this request waits for the retry.
+                final boolean reuseData = httpRequestHelper.getEndpoint().getAuthorizationUriId() == null;
+                scheduleRetry(reuseData ? requestData : null);
+            } else {
+                reportResult(null, e);
             }
+        }
+    }
 
-            // ssl validation strategy
-            if (securedUrlConnection) {
-                final PA2ClientValidationStrategy clientValidationStrategy = clientConfiguration.getClientValidationStrategy();
-                if (clientValidationStrategy != null) {
-                    final HttpsURLConnection sslConnection = (HttpsURLConnection) urlConnection;
-                    final SSLSocketFactory sslSocketFactory = clientValidationStrategy.getSSLSocketFactory();
-                    if (sslSocketFactory != null) {
-                        sslConnection.setSSLSocketFactory(sslSocketFactory);
-                    }
-                    final HostnameVerifier hostnameVerifier = clientValidationStrategy.getHostnameVerifier();
-                    if (hostnameVerifier != null) {
-                        sslConnection.setHostnameVerifier(hostnameVerifier);
-                    }
+    /**
+     * Schedule the next attempt after the delay defined by the retry policy. The worker thread
+     * is not blocked while the task waits, so other tasks, including requests in the serial
+     * queue, can be executed in the meantime.
+     *
+     * @param requestData request data to be reused, or null if the data has to be prepared again.
+     */
+    private void scheduleRetry(@Nullable final HttpRequestHelper.RequestData requestData) {
+        ++retryNumber;
+        final long delay = clientConfiguration.getRetryPolicy().getRetryDelay(retryNumber);
+        PA2Log.d("HttpClientTask: Retry #%d after %d ms", retryNumber, delay);
+        final Runnable attempt = new Runnable() {
+            @Override
+            public void run() {
+                setThreadStatsTag();
+                if (isCancelled()) {
+                    return;
                 }
-            } else {
-                if (!clientConfiguration.isUnsecuredConnectionAllowed()) {
-                    throw new SSLException("Connection to non-TLS endpoint is not allowed.");
+                final HttpCircuitBreaker.Circuit circuit = circuitBreaker.getCircuit(httpRequestHelper.getEndpoint().getRelativePath());
+                final HttpCircuitBreaker.Permit permit = circuit.tryAcquire();
+                if (permit == null) {
+                    // The circuit has been opened in the meantime.
+                    reportResult(null, new CircuitOpenException(circuit.getRelativePath()));
+                    return;
                 }
+                executeAttempt(circuit, permit, requestData);
             }
+        };
+        final Runnable scheduledAttempt = new Runnable() {
+            @Override
+            public void run() {
+                pendingRetry = null;
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    executor.execute(attempt);
+                } catch (RejectedExecutionException e) {
+                    PA2Log.e("HttpClientTask: Retry rejected: %s", e.getMessage());
+                    reportResult(null, e);
+                }
+            }
+        };
+        pendingRetry = scheduledAttempt;
+        RETRY_HANDLER.postDelayed(scheduledAttempt, delay);
+    }
 
-            // Apply request interceptors
-            final List<HttpRequestInterceptor> requestInterceptors = clientConfiguration.getRequestInterceptors();
-            if (requestInterceptors != null) {
-                for (HttpRequestInterceptor interceptor: requestInterceptors) {
-                    interceptor.processRequestConnection(urlConnection);
+    /**
+     * Report the result of the task to the listener, if the task is not cancelled.
+     *
+     * @param response response object, or null in case of error.
+     * @param error error, or null in case of success.
+     */
+    private void reportResult(@Nullable final TResponse response, @Nullable final Throwable error) {
+        if (isCancelled()) {
+            return;
+        }
+        notifyListener(new Runnable() {
+            @Override
+            public void run() {
+                if (error == null) {
+                    listener.onNetworkResponse(response);
+                } else {
+                    listener.onNetworkError(error);
                 }
             }
+        }, true);
+    }
+
+    /**
+     * Determine whether the failure should be reported to the circuit breaker as a failed request.
+     *
+     * @param failure exception produced by the failed attempt.
+     * @return true if network failed or the server responded with 5xx status code.
+     */
+    private static boolean isServerFailure(@NonNull Throwable failure) {
+        if (failure instanceof SSLException) {
+            return false;
+        }
+        if (failure instanceof IOException) {
+            return true;
+        }
+        if (failure instanceof FailedApiException) {
+            return ((FailedApiException) failure).getResponseCode() >= 500;
+        }
+        return false;
+    }
+
+    /**
+     * Determine whether the failed attempt can be repeated.
+     *
+     * @param failure exception produced by the failed attempt.
+     * @param retryNumber number of retries already made for this request.
+     * @return true if request can be repeated.
+     */
+    private boolean canRetry(@NonNull Throwable failure, int retryNumber) {
+        if (retryNumber >= clientConfiguration.getRetryPolicy().getMaxRetryCount()) {
+            return false;
+        }
+        final @RetryMode int retryMode = getRetryMode(httpRequestHelper.getEndpoint());
+        final boolean retryable;
+        if (failure instanceof SSLException) {
+            // TLS failures are not temporary
+            retryable = false;
+        } else if (failure instanceof IOException) {
+            // Network failure. If body has been already sent, then the server might process the request.
+            retryable = (retryMode == RetryMode.BEFORE_SEND && !requestSent) || retryMode == RetryMode.IDEMPOTENT;
+        } else if (failure instanceof FailedApiException) {
+            // Server or gateway is temporarily unavailable
+            final int responseCode = ((FailedApiException) failure).getResponseCode();
+            retryable = retryMode == RetryMode.IDEMPOTENT && (responseCode == 502 || responseCode == 503 || responseCode == 504);
+        } else {
+            retryable = false;
+        }
+        return retryable && retryBudget.tryAcquireRetry();
+    }
+
+    /**
+     * Returns retry mode of the endpoint. If the endpoint doesn't define the retry mode,
+     * then {@link RetryMode#BEFORE_SEND} is returned.
+     *
+     * @param endpoint endpoint definition.
+     * @return Retry mode of the endpoint.
+     */
+    private static @RetryMode int getRetryMode(@NonNull IEndpointDefinition<?> endpoint) {
+        if (endpoint instanceof IRetryableEndpointDefinition) {
+            return ((IRetryableEndpointDefinition<?>) endpoint).getRetryMode();
+        }
+        return RetryMode.BEFORE_SEND;
+    }
+
+    /**
+     * Send HTTP request and process the response.
+     *
+     * @param requestData prepared request data.
+     * @return Response object or null in case of cancel.
+     * @throws Throwable in case of failure.
+     */
+    private TResponse sendRequest(@NonNull HttpRequestHelper.RequestData requestData) throws Throwable {
+
+        InputStream inputStream = null;
+        HttpURLConnection urlConnection = null;
+        try {
+            // Create and setup an URL connection
+            urlConnection = HttpClient.openConnection(requestData.url, requestData.method, requestData.httpHeaders, clientConfiguration);
+            activeConnection = urlConnection;
+            if (isCancelled()) {
+                // The task has been cancelled before the connection was published.
+                return null;
+            }
             // Log request
             logRequest(urlConnection, requestData.body);
 
-            // Connect to endpoint
+            // Connect to endpoint. Acquiring the output stream also opens the connection,
+            // so the request is considered as sent only after the stream is available.
             if (requestData.body != null) {
-                urlConnection.getOutputStream().write(requestData.body);
+                final OutputStream outputStream = urlConnection.getOutputStream();
+                requestSent = true;
+                outputStream.write(requestData.body);
             }
             urlConnection.connect();
+            requestSent = true;
 
             if (isCancelled()) {
                 return null;
@@ -175,14 +413,14 @@ class HttpClientTask<TRequest, TResponse> extends AsyncTask<TRequest, Void, TRes
 
             // Get response code & try to get response body
             final int responseCode = urlConnection.getResponseCode();
-            final boolean responseOk = (responseCode == 200);
+            final boolean responseOk = (responseCode < 400);
 
             if (isCancelled()) {
                 return null;
             }
 
             // Get response bytes from input stream
-            inputStream = responseOk ? urlConnection.getInputStream() : urlConnection.getErrorStream();
+            inputStream = PayloadCompression.openResponseStream(urlConnection, responseOk);
             final byte[] responseData = loadBytesFromInputStream(inputStream);
 
             if (isCancelled()) {
@@ -198,9 +436,12 @@ class HttpClientTask<TRequest, TResponse> extends AsyncTask<TRequest, Void, TRes
 
         } catch (Throwable e) {
             // Log response with error
-            logResponse(urlConnection, null, e);
-            // Keep an exception for later reporting.
-            error = e;
+            if (urlConnection != null) {
+                logResponse(urlConnection, null, e);
+            } else {
+                PA2Log.e("HttpClientTask: Failed to open connection: %s", e.getMessage());
+            }
+            throw e;
 
         } finally {
             // Close input stream and disconnect the URL connection
@@ -211,31 +452,79 @@ class HttpClientTask<TRequest, TResponse> extends AsyncTask<TRequest, Void, TRes
                 }
             }
             if (urlConnection != null) {
+                activeConnection = null;
                 urlConnection.disconnect();
             }
         }
-        return null;
     }
 
     @Override
-    protected void onCancelled() {
-        super.onCancelled();
-        listener.onCancel();
+    public void cancel() {
+        this.cancel(true);
+        // Remove the attempt waiting for its delay.
+        final Runnable retry = pendingRetry;
+        if (retry != null) {
+            RETRY_HANDLER.removeCallbacks(retry);
+        }
+        // Report the cancel directly via callback dispatcher. The AsyncTask's onCancelled() is always
+        // called on the main thread, so it would ignore the dispatcher configured for this task.
+        notifyListener(new Runnable() {
+            @Override
+            public void run() {
+                listener.onCancel();
+            }
+        }, false);
+        // Abort the connection in progress, so the blocked worker thread doesn't wait for
+        // the read timeout. The pending I/O operation fails immediately with an exception.
+        final HttpURLConnection connection = activeConnection;
+        if (connection != null) {
+            connection.disconnect();
+        }
+        // Let the owner remove the task from the executor's queue, if the task didn't start yet.
+        if (cancelHandler != null) {
+            cancelHandler.run();
+        }
     }
 
-    @Override
-    protected void onPostExecute(TResponse response) {
-        super.onPostExecute(response);
-        if (error == null) {
-            listener.onNetworkResponse(response);
-        } else {
-            listener.onNetworkError(error);
-        }
+    /**
+     * Reports error to the listener when the task cannot be scheduled for execution. The listener
+     * is notified via callback dispatcher, like in the regular task completion.
+     *
+     * @param e exception thrown from the executor.
+     */
+    void reportExecutionRejected(@NonNull final RejectedExecutionException e) {
+        PA2Log.e("HttpClientTask: Request rejected: %s", e.getMessage());
+        notifyListener(new Runnable() {
+            @Override
+            public void run() {
+                listener.onNetworkError(e);
+            }
+        }, true);
     }
 
-    @Override
-    public void cancel() {
-        this.cancel(true);
+    /**
+     * Notify listener via callback dispatcher. The listener is notified only once, so the result
+     * is never reported together with the cancel.
+     *
+     * @param notification runnable that notifies the listener.
+     * @param isResult if true, then the notification reports the result of the task. If the task is
+     *                 cancelled before the dispatcher executes the notification, then the cancel
+     *                 is reported instead.
+     */
+    private void notifyListener(@NonNull final Runnable notification, final boolean isResult) {
+        callbackDispatcher.dispatchCallback(new Runnable() {
+            @Override
+            public void run() {
+                if (!listenerNotified.compareAndSet(false, true)) {
+                    return;
+                }
+                if (isResult && isCancelled()) {
+                    listener.onCancel();
+                } else {
+                    notification.run();
+                }
+            }
+        });
     }
 
     /**
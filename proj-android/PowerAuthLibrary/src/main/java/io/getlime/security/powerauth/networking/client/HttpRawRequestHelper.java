@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.reflect.TypeToken;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.getlime.security.powerauth.ecies.EciesEncryptorId;
+import io.getlime.security.powerauth.networking.exceptions.FailedApiException;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
+import io.getlime.security.powerauth.sdk.impl.IPrivateCryptoHelper;
+
+/**
+ * The {@code HttpRawRequestHelper} class implements a request to the full URL, with already
+ * prepared headers and body. The request is sent as it is and the response is not deserialized.
+ * The class is package-private.
+ */
+class HttpRawRequestHelper extends HttpRequestHelper<Void, HttpRawResponse> {
+
+    private final @NonNull Map<String, String> httpHeaders;
+    private final @Nullable byte[] body;
+
+    /**
+     * @param url Full URL
+     * @param method HTTP method
+     * @param httpHeaders HTTP headers, including the authorization header
+     * @param body Optional HTTP request body
+     */
+    HttpRawRequestHelper(
+            @NonNull String url,
+            @NonNull String method,
+            @NonNull Map<String, String> httpHeaders,
+            @Nullable byte[] body) {
+        super(null, new Endpoint(url, method), null);
+        this.httpHeaders = httpHeaders;
+        this.body = body;
+    }
+
+    @NonNull
+    @Override
+    HttpRequestTemplate getTemplate(@NonNull HttpRequestTemplate.Cache templates) throws MalformedURLException {
+        return HttpRequestTemplate.createForUrl(new URL(getEndpoint().getRelativePath()), getEndpoint());
+    }
+
+    @NonNull
+    @Override
+    RequestData buildRequest(@NonNull HttpRequestTemplate template, @NonNull IPrivateCryptoHelper helper) {
+        final HashMap<String, String> requestHeaders = template.createHttpHeaders();
+        requestHeaders.putAll(httpHeaders);
+        return new RequestData(template.url, template.method, requestHeaders, body);
+    }
+
+    @Nullable
+    @Override
+    HttpRawResponse buildResponse(int responseCode, @Nullable byte[] responseData) throws Throwable {
+        if (responseCode >= 500) {
+            // The server failed to process the request.
+            throw new FailedApiException(responseCode, responseData != null ? new String(responseData, Charset.defaultCharset()) : null, null);
+        }
+        return new HttpRawResponse(responseCode, responseData);
+    }
+
+    /**
+     * The {@code Endpoint} nested class defines the raw request. The full URL is used as
+     * the relative path, so each URL has its own circuit breaker.
+     */
+    private static class Endpoint implements IRetryableEndpointDefinition<HttpRawResponse> {
+
+        private final @NonNull String url;
+        private final @NonNull String method;
+
+        Endpoint(@NonNull String url, @NonNull String method) {
+            this.url = url;
+            this.method = method;
+        }
+
+        @NonNull
+        @Override
+        public String getRelativePath() {
+            return url;
+        }
+
+        @NonNull
+        @Override
+        public String getHttpMethod() {
+            return method;
+        }
+
+        @Nullable
+        @Override
+        public String getAuthorizationUriId() {
+            return null;
+        }
+
+        @NonNull
+        @Override
+        public EciesEncryptorId getEncryptorId() {
+            return EciesEncryptorId.NONE;
+        }
+
+        @Nullable
+        @Override
+        public TypeToken<HttpRawResponse> getResponseType() {
+            return null;
+        }
+
+        @Override
+        public boolean isSynchronized() {
+            return true;
+        }
+
+        @Override
+        public boolean isAvailableInProtocolUpgrade() {
+            return false;
+        }
+
+        @Override
+        public int getRetryMode() {
+            return RetryMode.BEFORE_SEND;
+        }
+    }
+}
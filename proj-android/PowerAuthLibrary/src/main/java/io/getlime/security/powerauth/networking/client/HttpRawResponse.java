@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.annotation.Nullable;
+
+/**
+ * The {@code HttpRawResponse} class contains response to the request sent with
+ * {@link HttpClient#sendRawRequest(String, String, java.util.Map, byte[], io.getlime.security.powerauth.sdk.impl.IPrivateCryptoHelper, io.getlime.security.powerauth.sdk.impl.ICallbackDispatcher, io.getlime.security.powerauth.networking.interfaces.INetworkResponseListener)}.
+ * The response data is not processed by the SDK.
+ */
+public class HttpRawResponse {
+
+    private final int responseCode;
+    private final @Nullable byte[] responseData;
+
+    /**
+     * @param responseCode HTTP response status code
+     * @param responseData Response bytes
+     */
+    HttpRawResponse(int responseCode, @Nullable byte[] responseData) {
+        this.responseCode = responseCode;
+        this.responseData = responseData;
+    }
+
+    /**
+     * @return HTTP response status code.
+     */
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /**
+     * @return Response bytes, may be null.
+     */
+    public @Nullable byte[] getResponseData() {
+        return responseData;
+    }
+}
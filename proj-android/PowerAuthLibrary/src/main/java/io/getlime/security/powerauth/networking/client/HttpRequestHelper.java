@@ -24,6 +24,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
@@ -32,7 +33,6 @@ import java.util.Map;
 
 import io.getlime.core.rest.model.base.entity.Error;
 import io.getlime.security.powerauth.core.EciesEncryptor;
-import io.getlime.security.powerauth.ecies.EciesEncryptorId;
 import io.getlime.security.powerauth.ecies.EciesMetadata;
 import io.getlime.security.powerauth.exception.PowerAuthErrorCodes;
 import io.getlime.security.powerauth.exception.PowerAuthErrorException;
@@ -99,6 +99,18 @@ class HttpRequestHelper<TRequest, TResponse> {
         return endpoint;
     }
 
+    /**
+     * Returns precompiled template for the request.
+     *
+     * @param templates cache with precompiled request templates
+     * @return {@link HttpRequestTemplate} for the endpoint.
+     * @throws MalformedURLException if cannot construct full request URL
+     */
+    @NonNull
+    HttpRequestTemplate getTemplate(@NonNull HttpRequestTemplate.Cache templates) throws MalformedURLException {
+        return templates.get(endpoint);
+    }
+
     // Request data object
 
     /**
@@ -146,28 +158,25 @@ class HttpRequestHelper<TRequest, TResponse> {
      * Build data for HTTP request. The method also updates {@link #encryptor} property when the ECIES encryption
      * is used. The encryptor can be later used for response decryption.
      *
-     * @param baseUrl String with base URL
+     * @param template Precompiled template for the endpoint
      * @param helper Private cryptographic helper
      * @return {@link RequestData} object with all information needed for request execution
      * @throws PowerAuthErrorException if encryption or signature calculation fails.
-     * @throws MalformedURLException if cannot construct full request URL
      */
     @NonNull
-    RequestData buildRequest(@NonNull String baseUrl, @NonNull IPrivateCryptoHelper helper) throws PowerAuthErrorException, MalformedURLException {
+    RequestData buildRequest(@NonNull HttpRequestTemplate template, @NonNull IPrivateCryptoHelper helper) throws PowerAuthErrorException {
 
         // Sanity checks
-        final boolean needsSignature = endpoint.getAuthorizationUriId() != null;
-        final boolean needsEncryption = endpoint.getEncryptorId() != EciesEncryptorId.NONE;
+        final boolean needsSignature = template.needsSignature;
+        final boolean needsEncryption = template.needsEncryption;
 
         if (needsSignature && authentication == null) {
             throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeWrongParameter, "Authentication object is missing.");
         }
 
-        // Prepare data for a new RequestData object
+        // Prepare data for a new RequestData object. The fixed headers are already in the template.
 
-        final URL requestUrl = new URL(baseUrl + endpoint.getRelativePath());
-        final String requestMethod = endpoint.getHttpMethod();
-        final HashMap<String, String> requestHeaders = new HashMap<>();
+        final HashMap<String, String> requestHeaders = template.createHttpHeaders();
         final byte[] requestData;
 
         // Encrypt the request data if the endpoint has encryptor specified
@@ -178,9 +187,18 @@ class HttpRequestHelper<TRequest, TResponse> {
         } else {
             // Acquire the encryptor from the helper and keep it locally.
             // We will use it later for the response decryption.
-            encryptor = helper.getEciesEncryptor(endpoint.getEncryptorId());
-            // Then encrypt the request object.
-            requestData = serialization.encryptObject(requestObject, encryptor);
+            encryptor = helper.getEciesEncryptor(template.encryptorId);
+            // Serialize the request object and compress the plaintext, if the template allows that.
+            byte[] plainData = serialization.serializeObject(requestObject);
+            if (template.compressionMinSize >= 0 && plainData.length >= template.compressionMinSize) {
+                final byte[] compressedData = PayloadCompression.compress(plainData);
+                if (compressedData != null) {
+                    plainData = compressedData;
+                    requestHeaders.put(PayloadCompression.HTTP_HEADER_PAYLOAD_ENCODING, PayloadCompression.ENCODING_GZIP);
+                }
+            }
+            // Then encrypt the request data.
+            requestData = serialization.serializeObject(serialization.encryptDataToRequest(plainData, encryptor));
 
             // Set encryption HTTP header, only if this doesn't collide with the signature.
             // We don't send the encryption header together with the signature header. The reason
@@ -194,8 +212,7 @@ class HttpRequestHelper<TRequest, TResponse> {
 
         // Sign data if requested
         if (needsSignature) {
-            final boolean available = endpoint.isAvailableInProtocolUpgrade();
-            final PowerAuthAuthorizationHttpHeader header = helper.getAuthorizationHeader(available, requestData, requestMethod, endpoint.getAuthorizationUriId(), authentication);
+            final PowerAuthAuthorizationHttpHeader header = helper.getAuthorizationHeader(template.availableInProtocolUpgrade, requestData, template.method, template.authorizationUriId, authentication);
             if (header.getPowerAuthErrorCode() != PowerAuthErrorCodes.PA2Succeed) {
                 if (header.getPowerAuthErrorCode() == PowerAuthErrorCodes.PA2ErrorCodePendingProtocolUpgrade) {
                     throw new PowerAuthErrorException(header.getPowerAuthErrorCode(), "Request is temporarily unavailable, due to pending protocol upgrade.");
@@ -206,12 +223,8 @@ class HttpRequestHelper<TRequest, TResponse> {
             requestHeaders.put(header.getKey(), header.getValue());
         }
 
-        // Finalize headers
-        requestHeaders.put("Content-Type", "application/json");
-        requestHeaders.put("Accept", "application/json");
-
         // Return object with all information prepared for request processing.
-        return new RequestData(requestUrl, requestMethod, requestHeaders, requestData);
+        return new RequestData(template.url, template.method, requestHeaders, requestData);
     }
 
 
@@ -263,7 +276,7 @@ class HttpRequestHelper<TRequest, TResponse> {
         if (encryptor != null) {
             // Encrypted response. The expected object is never wrapper in ObjectResponse<T>
             unwrapResponse = false;
-            objectData = serialization.decryptData(responseData, encryptor);
+            objectData = decompressIfNeeded(serialization.decryptData(responseData, encryptor));
         } else {
             // Regular response. It's always wrapped in ObjectResponse<T>
             unwrapResponse = true;
@@ -317,6 +330,27 @@ class HttpRequestHelper<TRequest, TResponse> {
     }
 
 
+    /**
+     * Decompress the decrypted response plaintext, if the server sent it compressed. The compression
+     * is detected by GZIP magic bytes, because the JSON document never starts with such sequence.
+     *
+     * @param plainData Decrypted response data.
+     * @return Decompressed data, or the same data if the response is not compressed.
+     * @throws PowerAuthErrorException if the compressed data is not valid.
+     */
+    @NonNull
+    private byte[] decompressIfNeeded(@NonNull byte[] plainData) throws PowerAuthErrorException {
+        if (!PayloadCompression.isCompressed(plainData)) {
+            return plainData;
+        }
+        try {
+            return PayloadCompression.decompress(plainData);
+        } catch (IOException e) {
+            throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeEncryptionError, "Failed to decompress response data.");
+        }
+    }
+
+
     /**
      * Constructs a {@link ErrorResponseApiException} or {@link FailedApiException} exceptions, depending
      * on data received from the server. The method is package-private.
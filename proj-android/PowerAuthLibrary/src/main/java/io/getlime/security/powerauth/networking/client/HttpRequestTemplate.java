@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.getlime.security.powerauth.ecies.EciesEncryptorId;
+import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
+
+/**
+ * The {@code HttpRequestTemplate} class contains a precompiled, immutable part of HTTP request
+ * for one endpoint. The template keeps a resolved URL, fixed HTTP headers and information about
+ * the signature and the encryption, so only the dynamic parts of the request are calculated
+ * in {@link HttpRequestHelper#buildRequest(HttpRequestTemplate, io.getlime.security.powerauth.sdk.impl.IPrivateCryptoHelper)}.
+ * The class is package-private.
+ */
+class HttpRequestTemplate {
+
+    /**
+     * Full URL
+     */
+    final @NonNull URL url;
+    /**
+     * HTTP method
+     */
+    final @NonNull String method;
+    /**
+     * URI identifier for PowerAuth signature, or null if request is not signed.
+     */
+    final @Nullable String authorizationUriId;
+    /**
+     * Type of encryptor, or {@link EciesEncryptorId#NONE} if request is not encrypted.
+     */
+    final @NonNull EciesEncryptorId encryptorId;
+    /**
+     * Contains true if request needs PowerAuth signature.
+     */
+    final boolean needsSignature;
+    /**
+     * Contains true if request needs ECIES encryption.
+     */
+    final boolean needsEncryption;
+    /**
+     * Contains true if endpoint is available during the protocol upgrade.
+     */
+    final boolean availableInProtocolUpgrade;
+    /**
+     * Minimum size of the plaintext compressed before the encryption, or -1 if compression is not used.
+     */
+    final int compressionMinSize;
+    /**
+     * Unmodifiable map with HTTP headers, common for all requests to the endpoint.
+     */
+    private final @NonNull Map<String, String> fixedHeaders;
+
+    /**
+     * @param url Full URL
+     * @param compressionMinSize Minimum size of the encrypted plaintext to compress, or -1 if compression is disabled
+     * @param endpoint endpoint definition
+     */
+    private HttpRequestTemplate(@NonNull URL url, int compressionMinSize, @NonNull IEndpointDefinition<?> endpoint) {
+        this.url = url;
+        this.method = endpoint.getHttpMethod();
+        this.authorizationUriId = endpoint.getAuthorizationUriId();
+        this.encryptorId = endpoint.getEncryptorId();
+        this.needsSignature = authorizationUriId != null;
+        this.needsEncryption = encryptorId != EciesEncryptorId.NONE;
+        this.availableInProtocolUpgrade = endpoint.isAvailableInProtocolUpgrade();
+        this.compressionMinSize = needsEncryption ? compressionMinSize : -1;
+        final HashMap<String, String> headers = new HashMap<>(3);
+        headers.put("Content-Type", "application/json");
+        headers.put("Accept", "application/json");
+        if (this.compressionMinSize >= 0) {
+            headers.put(PayloadCompression.HTTP_HEADER_ACCEPT_PAYLOAD_ENCODING, PayloadCompression.ENCODING_GZIP);
+        }
+        this.fixedHeaders = Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Creates a template for request to the full URL, outside of the PowerAuth REST API. Such
+     * template is not cached, because the URL is not bound to the endpoint's class.
+     *
+     * @param url Full URL
+     * @param endpoint endpoint definition
+     * @return {@link HttpRequestTemplate} for given URL.
+     */
+    static @NonNull HttpRequestTemplate createForUrl(@NonNull URL url, @NonNull IEndpointDefinition<?> endpoint) {
+        return new HttpRequestTemplate(url, -1, endpoint);
+    }
+
+    /**
+     * @return New mutable map with fixed HTTP headers, with a room for dynamic headers.
+     */
+    @NonNull HashMap<String, String> createHttpHeaders() {
+        final HashMap<String, String> headers = new HashMap<>(8);
+        headers.putAll(fixedHeaders);
+        return headers;
+    }
+
+    /**
+     * The {@code Cache} nested class keeps compiled templates for one base URL. The templates
+     * are stored per {@link IEndpointDefinition} class, so the endpoint implementation must
+     * return the same values for all its instances.
+     */
+    static class Cache {
+
+        private final @NonNull String baseUrl;
+        private final int compressionMinSize;
+        private final @NonNull ConcurrentHashMap<Class<?>, HttpRequestTemplate> templates = new ConcurrentHashMap<>();
+
+        /**
+         * @param baseUrl String with base URL
+         * @param compressionMinSize Minimum size of the encrypted plaintext to compress, or -1 if compression is disabled
+         */
+        Cache(@NonNull String baseUrl, int compressionMinSize) {
+            this.baseUrl = baseUrl;
+            this.compressionMinSize = compressionMinSize;
+        }
+
+        /**
+         * Returns template for given endpoint. If template doesn't exist yet, then compiles
+         * a new one and keeps it for the later use.
+         *
+         * @param endpoint endpoint definition
+         * @return {@link HttpRequestTemplate} for given endpoint.
+         * @throws MalformedURLException if cannot construct full request URL
+         */
+        @NonNull HttpRequestTemplate get(@NonNull IEndpointDefinition<?> endpoint) throws MalformedURLException {
+            final Class<?> endpointClass = endpoint.getClass();
+            HttpRequestTemplate template = templates.get(endpointClass);
+            if (template == null) {
+                // The race is harmless here, both threads compile an equal template.
+                template = new HttpRequestTemplate(new URL(baseUrl + endpoint.getRelativePath()), compressionMinSize, endpoint);
+                final HttpRequestTemplate previous = templates.putIfAbsent(endpointClass, template);
+                if (previous != null) {
+                    template = previous;
+                }
+            }
+            return template;
+        }
+    }
+}
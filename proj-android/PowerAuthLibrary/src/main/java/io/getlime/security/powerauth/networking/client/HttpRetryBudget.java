@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.annotation.NonNull;
+
+import io.getlime.security.powerauth.sdk.PowerAuthRetryPolicy;
+
+/**
+ * The {@code HttpRetryBudget} class limits the number of retries made by all requests
+ * in one {@link HttpClient}. Each executed request earns a fraction of retry and each retry
+ * consumes one whole retry from the budget. The class is package-private.
+ */
+class HttpRetryBudget {
+
+    private final double ratio;
+    private final double capacity;
+    private double available;
+
+    /**
+     * @param policy retry policy with budget parameters
+     */
+    HttpRetryBudget(@NonNull PowerAuthRetryPolicy policy) {
+        this.ratio = policy.getBudgetRatio();
+        this.capacity = policy.getBudgetCapacity();
+        this.available = capacity;
+    }
+
+    /**
+     * Adds a fraction of retry to the budget. The method should be called once per request.
+     */
+    synchronized void onRequest() {
+        available = Math.min(capacity, available + ratio);
+    }
+
+    /**
+     * Tries to consume one retry from the budget.
+     *
+     * @return true if retry is allowed, false if budget is exhausted.
+     */
+    synchronized boolean tryAcquireRetry() {
+        if (available < 1.0) {
+            return false;
+        }
+        available -= 1.0;
+        return true;
+    }
+}
@@ -225,11 +225,26 @@ public class JsonSerialization {
         // 1. Serialize object into JSON
         final byte[] plainData = serializeObject(object);
         // 2. Encrypt serialized JSON data
+        return encryptDataToRequest(plainData, encryptor);
+    }
+
+    /**
+     * Encrypt provided bytes into {@link EciesEncryptedRequest} object. Unlike {@link #encryptObjectToRequest(Object, EciesEncryptor)},
+     * the data may contain an already serialized, or compressed object.
+     *
+     * @param plainData data to encrypt
+     * @param encryptor the ECIES encryptor
+     * @return {@link EciesEncryptedRequest} object with encrypted content
+     * @throws PowerAuthErrorException if encryption fails
+     */
+    @NonNull
+    public EciesEncryptedRequest encryptDataToRequest(@NonNull byte[] plainData, @NonNull EciesEncryptor encryptor) throws PowerAuthErrorException {
+        // 1. Encrypt data
         final EciesCryptogram cryptogram = encryptor.encryptRequest(plainData);
         if (cryptogram == null) {
             throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeEncryptionError, "Failed to encrypt object data.");
         }
-        // 3. Construct final request object from the cryptogram
+        // 2. Construct final request object from the cryptogram
         final EciesEncryptedRequest request = new EciesEncryptedRequest();
         request.setEncryptedData(cryptogram.getBodyBase64());
         request.setEphemeralPublicKey(cryptogram.getKeyBase64());
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.client;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The {@code PayloadCompression} class implements GZIP compression of plaintext payloads, encrypted
+ * with ECIES scheme, and a transparent GZIP decoding of HTTP responses.
+ * <p>
+ * The compressed request plaintext is marked with {@link #HTTP_HEADER_PAYLOAD_ENCODING} header.
+ * The client also sends {@link #HTTP_HEADER_ACCEPT_PAYLOAD_ENCODING} header to let the server know
+ * that the response plaintext can be compressed. The compressed response is then detected by the
+ * GZIP magic bytes, because a JSON document never starts with such sequence.
+ */
+public class PayloadCompression {
+
+    /**
+     * HTTP header marking the request whose plaintext is compressed before the encryption.
+     */
+    public static final String HTTP_HEADER_PAYLOAD_ENCODING = "X-PowerAuth-Payload-Encoding";
+
+    /**
+     * HTTP header announcing that the client accepts the compressed response plaintext.
+     */
+    public static final String HTTP_HEADER_ACCEPT_PAYLOAD_ENCODING = "X-PowerAuth-Accept-Payload-Encoding";
+
+    /**
+     * Value for both payload encoding headers.
+     */
+    public static final String ENCODING_GZIP = "gzip";
+
+    /**
+     * Compress data with GZIP.
+     *
+     * @param data Data to compress.
+     * @return Compressed data, or null if the compressed data is not smaller than the original.
+     */
+    public static @Nullable byte[] compress(@NonNull byte[] data) {
+        try {
+            final ByteArrayOutputStream byteStream = new ByteArrayOutputStream(data.length / 2 + 32);
+            final GZIPOutputStream gzipStream = new GZIPOutputStream(byteStream);
+            gzipStream.write(data);
+            gzipStream.close();
+            final byte[] result = byteStream.toByteArray();
+            return result.length < data.length ? result : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Check whether data begins with GZIP magic bytes.
+     *
+     * @param data Data to check.
+     * @return true if data looks like a GZIP stream.
+     */
+    public static boolean isCompressed(@Nullable byte[] data) {
+        return data != null && data.length >= 2 && data[0] == (byte) 0x1F && data[1] == (byte) 0x8B;
+    }
+
+    /**
+     * Decompress data compressed with GZIP.
+     *
+     * @param data Compressed data.
+     * @return Decompressed data.
+     * @throws IOException if data is not a valid GZIP stream.
+     */
+    public static @NonNull byte[] decompress(@NonNull byte[] data) throws IOException {
+        final InputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(data));
+        try {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream(data.length * 4);
+            final byte[] buffer = new byte[1024];
+            int length;
+            while ((length = gzipStream.read(buffer)) != -1) {
+                result.write(buffer, 0, length);
+            }
+            return result.toByteArray();
+        } finally {
+            gzipStream.close();
+        }
+    }
+
+    /**
+     * Open a stream with the response body. The system implementation of {@link HttpURLConnection}
+     * decodes GZIP responses transparently, but only if the {@code Accept-Encoding} header was not set
+     * by the application, for example in a request interceptor. In this case, the stream is decoded here.
+     *
+     * @param urlConnection Connection with a received response.
+     * @param success If true, then the regular input stream is opened, otherwise the error stream.
+     * @return Stream with the response body, or null if there's no body available.
+     * @throws IOException if stream cannot be opened.
+     */
+    public static @Nullable InputStream openResponseStream(@NonNull HttpURLConnection urlConnection, boolean success) throws IOException {
+        final InputStream inputStream = success ? urlConnection.getInputStream() : urlConnection.getErrorStream();
+        if (inputStream != null && ENCODING_GZIP.equalsIgnoreCase(urlConnection.getContentEncoding())) {
+            return new GZIPInputStream(inputStream);
+        }
+        return inputStream;
+    }
+}
@@ -22,10 +22,13 @@ import androidx.annotation.Nullable;
 import com.google.gson.reflect.TypeToken;
 
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
-import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IPrioritizedEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 import io.getlime.security.powerauth.networking.model.response.ConfirmRecoveryResponsePayload;
 
-public class ConfirmRecoveryCodeEndpoint implements IEndpointDefinition<ConfirmRecoveryResponsePayload> {
+public class ConfirmRecoveryCodeEndpoint implements IPrioritizedEndpointDefinition<ConfirmRecoveryResponsePayload>, IRetryableEndpointDefinition<ConfirmRecoveryResponsePayload> {
     @NonNull
     @Override
     public String getRelativePath() {
@@ -65,4 +68,14 @@ public class ConfirmRecoveryCodeEndpoint implements IEndpointDefinition<ConfirmR
     public boolean isAvailableInProtocolUpgrade() {
         return false;
     }
+
+    @Override
+    public int getPriority() {
+        return TaskPriority.INTERACTIVE;
+    }
+
+    @Override
+    public int getRetryMode() {
+        return RetryMode.BEFORE_SEND;
+    }
 }
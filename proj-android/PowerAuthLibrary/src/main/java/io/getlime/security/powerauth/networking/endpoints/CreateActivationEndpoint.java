@@ -22,10 +22,13 @@ import androidx.annotation.Nullable;
 import com.google.gson.reflect.TypeToken;
 
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
-import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IPrioritizedEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 import io.getlime.security.powerauth.networking.model.response.ActivationLayer1Response;
 
-public class CreateActivationEndpoint implements IEndpointDefinition<ActivationLayer1Response> {
+public class CreateActivationEndpoint implements IPrioritizedEndpointDefinition<ActivationLayer1Response>, IRetryableEndpointDefinition<ActivationLayer1Response> {
 
     @NonNull
     @Override
@@ -66,4 +69,14 @@ public class CreateActivationEndpoint implements IEndpointDefinition<ActivationL
     public boolean isAvailableInProtocolUpgrade() {
         return true;
     }
+
+    @Override
+    public int getPriority() {
+        return TaskPriority.INTERACTIVE;
+    }
+
+    @Override
+    public int getRetryMode() {
+        return RetryMode.BEFORE_SEND;
+    }
 }
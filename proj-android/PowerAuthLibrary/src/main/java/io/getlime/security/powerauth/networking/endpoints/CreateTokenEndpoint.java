@@ -22,10 +22,13 @@ import androidx.annotation.Nullable;
 import com.google.gson.reflect.TypeToken;
 
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
-import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IPrioritizedEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 import io.getlime.security.powerauth.networking.model.entity.TokenResponsePayload;
 
-public class CreateTokenEndpoint implements IEndpointDefinition<TokenResponsePayload> {
+public class CreateTokenEndpoint implements IPrioritizedEndpointDefinition<TokenResponsePayload>, IRetryableEndpointDefinition<TokenResponsePayload> {
 
     @NonNull
     @Override
@@ -66,4 +69,14 @@ public class CreateTokenEndpoint implements IEndpointDefinition<TokenResponsePay
     public boolean isAvailableInProtocolUpgrade() {
         return false;
     }
+
+    @Override
+    public int getPriority() {
+        return TaskPriority.INTERACTIVE;
+    }
+
+    @Override
+    public int getRetryMode() {
+        return RetryMode.BEFORE_SEND;
+    }
 }
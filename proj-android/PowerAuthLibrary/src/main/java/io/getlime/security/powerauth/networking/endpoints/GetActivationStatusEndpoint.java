@@ -22,10 +22,13 @@ import androidx.annotation.Nullable;
 import com.google.gson.reflect.TypeToken;
 
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
-import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IPrioritizedEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 import io.getlime.security.powerauth.networking.model.response.ActivationStatusResponse;
 
-public class GetActivationStatusEndpoint implements IEndpointDefinition<ActivationStatusResponse> {
+public class GetActivationStatusEndpoint implements IPrioritizedEndpointDefinition<ActivationStatusResponse>, IRetryableEndpointDefinition<ActivationStatusResponse> {
 
     @NonNull
     @Override
@@ -66,4 +69,14 @@ public class GetActivationStatusEndpoint implements IEndpointDefinition<Activati
     public boolean isAvailableInProtocolUpgrade() {
         return true;
     }
+
+    @Override
+    public int getPriority() {
+        return TaskPriority.BACKGROUND;
+    }
+
+    @Override
+    public int getRetryMode() {
+        return RetryMode.IDEMPOTENT;
+    }
 }
@@ -22,9 +22,12 @@ import androidx.annotation.Nullable;
 import com.google.gson.reflect.TypeToken;
 
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
-import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IPrioritizedEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 
-public class RemoveActivationEndpoint implements IEndpointDefinition<Void> {
+public class RemoveActivationEndpoint implements IPrioritizedEndpointDefinition<Void>, IRetryableEndpointDefinition<Void> {
 
     @NonNull
     @Override
@@ -65,4 +68,14 @@ public class RemoveActivationEndpoint implements IEndpointDefinition<Void> {
     public boolean isAvailableInProtocolUpgrade() {
         return false;
     }
+
+    @Override
+    public int getPriority() {
+        return TaskPriority.INTERACTIVE;
+    }
+
+    @Override
+    public int getRetryMode() {
+        return RetryMode.BEFORE_SEND;
+    }
 }
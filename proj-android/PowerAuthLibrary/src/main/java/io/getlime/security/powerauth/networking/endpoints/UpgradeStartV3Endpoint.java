@@ -22,10 +22,13 @@ import androidx.annotation.Nullable;
 import com.google.gson.reflect.TypeToken;
 
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
-import io.getlime.security.powerauth.networking.interfaces.IEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IPrioritizedEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition;
+import io.getlime.security.powerauth.networking.interfaces.RetryMode;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 import io.getlime.security.powerauth.networking.model.response.UpgradeResponsePayload;
 
-public class UpgradeStartV3Endpoint implements IEndpointDefinition<UpgradeResponsePayload> {
+public class UpgradeStartV3Endpoint implements IPrioritizedEndpointDefinition<UpgradeResponsePayload>, IRetryableEndpointDefinition<UpgradeResponsePayload> {
     @NonNull
     @Override
     public String getRelativePath() {
@@ -65,4 +68,14 @@ public class UpgradeStartV3Endpoint implements IEndpointDefinition<UpgradeRespon
     public boolean isAvailableInProtocolUpgrade() {
         return true;
     }
+
+    @Override
+    public int getPriority() {
+        return TaskPriority.INTERACTIVE;
+    }
+
+    @Override
+    public int getRetryMode() {
+        return RetryMode.BEFORE_SEND;
+    }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.exceptions;
+
+/**
+ * Signals that a REST request was not sent to the server, because the circuit breaker
+ * protecting the endpoint is open. The server failed to process too many recent requests,
+ * so you should try the operation later.
+ */
+public class CircuitOpenException extends Exception {
+
+    /**
+     * Relative path to the endpoint.
+     */
+    private final String relativePath;
+
+    /**
+     * Constructs an exception with relative path to the endpoint.
+     *
+     * @param relativePath relative path to the endpoint
+     */
+    public CircuitOpenException(String relativePath) {
+        super("Circuit breaker is open for endpoint " + relativePath);
+        this.relativePath = relativePath;
+    }
+
+    /**
+     * @return Relative path to the endpoint.
+     */
+    public String getRelativePath() {
+        return relativePath;
+    }
+}
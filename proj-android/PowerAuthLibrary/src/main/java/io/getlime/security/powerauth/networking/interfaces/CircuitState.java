@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.interfaces;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static io.getlime.security.powerauth.networking.interfaces.CircuitState.CLOSED;
+import static io.getlime.security.powerauth.networking.interfaces.CircuitState.HALF_OPEN;
+import static io.getlime.security.powerauth.networking.interfaces.CircuitState.OPEN;
+
+/**
+ * The {@code CircuitState} defines states of the circuit breaker, protecting one endpoint
+ * of the PowerAuth server.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({CLOSED, OPEN, HALF_OPEN})
+public @interface CircuitState {
+
+    /**
+     * Requests are executed normally.
+     */
+    int CLOSED = 0;
+
+    /**
+     * Too many requests failed recently, so all requests fail immediately.
+     */
+    int OPEN = 1;
+
+    /**
+     * A limited number of probe requests is executed, to test whether the server has recovered.
+     */
+    int HALF_OPEN = 2;
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.interfaces;
+
+/**
+ * The {@code IPrioritizedEndpointDefinition} interface extends {@link IEndpointDefinition} with
+ * the priority of the request. If the endpoint doesn't implement this interface, then its
+ * requests are executed with {@link TaskPriority#INTERACTIVE} priority.
+ */
+public interface IPrioritizedEndpointDefinition<TResponse> extends IEndpointDefinition<TResponse> {
+
+    /**
+     * @return Priority of the request. The value is applied only when the request is not synchronized.
+     */
+    @TaskPriority int getPriority();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.interfaces;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The {@code IPriorityExecutorProvider} interface extends {@link IExecutorProvider} with
+ * executors for the prioritized concurrent task execution. If the executor provider doesn't
+ * implement this interface, then all concurrent tasks are submitted to the executor returned
+ * from {@link IExecutorProvider#getConcurrentExecutor()}.
+ * <p>
+ * Note that the returned executors may have a bounded queue, so they may throw
+ * {@link java.util.concurrent.RejectedExecutionException} when the queue is full.
+ */
+public interface IPriorityExecutorProvider extends IExecutorProvider {
+
+    /**
+     * @param priority priority of tasks submitted to the returned executor.
+     * @return {@link Executor} for concurrent task execution with the requested priority.
+     */
+    @NonNull Executor getConcurrentExecutor(@TaskPriority int priority);
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.interfaces;
+
+/**
+ * The {@code IRetryableEndpointDefinition} interface extends {@link IEndpointDefinition} with
+ * the mode that defines which failed attempts of the request can be repeated. If the endpoint
+ * doesn't implement this interface, then its requests are repeated only in
+ * {@link RetryMode#BEFORE_SEND} mode.
+ */
+public interface IRetryableEndpointDefinition<TResponse> extends IEndpointDefinition<TResponse> {
+
+    /**
+     * @return Mode that defines which failed attempts of the request can be repeated.
+     */
+    @RetryMode int getRetryMode();
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.interfaces;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static io.getlime.security.powerauth.networking.interfaces.RetryMode.BEFORE_SEND;
+import static io.getlime.security.powerauth.networking.interfaces.RetryMode.IDEMPOTENT;
+import static io.getlime.security.powerauth.networking.interfaces.RetryMode.NONE;
+
+/**
+ * The {@code RetryMode} defines which failed attempts of HTTP request can be repeated
+ * by the SDK, according to {@link io.getlime.security.powerauth.sdk.PowerAuthRetryPolicy}.
+ * The request without signature is repeated with the same, already encrypted data. The signed
+ * request is signed again before each repeated attempt, because other signed requests may be
+ * sent while the attempt waits for its delay.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({NONE, BEFORE_SEND, IDEMPOTENT})
+public @interface RetryMode {
+
+    /**
+     * The request is never repeated.
+     */
+    int NONE = 0;
+
+    /**
+     * The request is repeated only if the attempt failed before the request body was
+     * sent to the server. For example, if the connection cannot be established.
+     */
+    int BEFORE_SEND = 1;
+
+    /**
+     * The request is idempotent, so it can be repeated also when the network failed
+     * after the body was sent, or when the server or gateway is temporarily unavailable.
+     */
+    int IDEMPOTENT = 2;
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.interfaces;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static io.getlime.security.powerauth.networking.interfaces.TaskPriority.BACKGROUND;
+import static io.getlime.security.powerauth.networking.interfaces.TaskPriority.INTERACTIVE;
+
+/**
+ * The {@code TaskPriority} defines priority lanes available in the executor provided
+ * by {@link IPriorityExecutorProvider}. Tasks in the lane with the lower numeric value are always
+ * started before tasks from the lane with the higher value.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({INTERACTIVE, BACKGROUND})
+public @interface TaskPriority {
+
+    /**
+     * Priority for operations initiated by the user, where the user is waiting for the result.
+     * For example, signing a payment or the activation creation.
+     */
+    int INTERACTIVE = 0;
+
+    /**
+     * Priority for operations executed in the background, like the activation status refresh
+     * or the token prefetch.
+     */
+    int BACKGROUND = 1;
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.metrics;
+
+import androidx.annotation.NonNull;
+
+import io.getlime.security.powerauth.networking.interfaces.CircuitState;
+
+/**
+ * The {@code EndpointMetrics} class contains a snapshot of counters collected for one
+ * PowerAuth endpoint, together with the current state of its circuit breaker. You can
+ * obtain the object from {@link io.getlime.security.powerauth.sdk.PowerAuthSDK#getEndpointMetrics()}
+ * method.
+ */
+public class EndpointMetrics {
+
+    /**
+     * Relative path to the endpoint.
+     */
+    public final @NonNull String relativePath;
+
+    /**
+     * Current state of the circuit breaker.
+     */
+    @CircuitState
+    public final int circuitState;
+
+    /**
+     * Number of executed requests.
+     */
+    public final long requestCount;
+
+    /**
+     * Number of failed requests. The request is failed when the network failed,
+     * or when the server responded with 5xx status code.
+     */
+    public final long failureCount;
+
+    /**
+     * Number of requests slower than the configured threshold.
+     */
+    public final long slowCount;
+
+    /**
+     * Number of requests rejected immediately, because the circuit was open.
+     */
+    public final long rejectedCount;
+
+    /**
+     * Total time spent in executed requests, in milliseconds.
+     */
+    public final long totalDuration;
+
+    /**
+     * The longest executed request, in milliseconds.
+     */
+    public final long maxDuration;
+
+    public EndpointMetrics(@NonNull String relativePath, @CircuitState int circuitState, long requestCount, long failureCount, long slowCount, long rejectedCount, long totalDuration, long maxDuration) {
+        this.relativePath = relativePath;
+        this.circuitState = circuitState;
+        this.requestCount = requestCount;
+        this.failureCount = failureCount;
+        this.slowCount = slowCount;
+        this.rejectedCount = rejectedCount;
+        this.totalDuration = totalDuration;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * @return Average duration of the request in milliseconds, or 0 if no request was executed.
+     */
+    public long getAverageDuration() {
+        return requestCount > 0 ? totalDuration / requestCount : 0;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.networking.response;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import io.getlime.security.powerauth.sdk.PowerAuthOfflineRequest;
+
+/**
+ * Listener for draining the offline request queue.
+ */
+public interface IOfflineQueueDrainListener {
+
+    /**
+     * Called when the queued request was delivered to the server and removed from the queue.
+     * Note that the server may still reject the request, so you should check the response code.
+     *
+     * @param request request removed from the queue
+     * @param responseCode HTTP response status code
+     * @param responseData response bytes, may be null
+     */
+    @MainThread
+    void onOfflineRequestSent(@NonNull PowerAuthOfflineRequest request, int responseCode, @Nullable byte[] responseData);
+
+    /**
+     * Called when the draining is finished, because the queue is empty, the operation was
+     * cancelled, or the request cannot be delivered.
+     *
+     * @param sentCount number of requests delivered during the draining
+     * @param remainingCount number of requests remaining in the queue
+     * @param error error that stopped the draining, or null if the queue is empty
+     */
+    @MainThread
+    void onOfflineQueueDrained(int sentCount, int remainingCount, @Nullable Throwable error);
+}
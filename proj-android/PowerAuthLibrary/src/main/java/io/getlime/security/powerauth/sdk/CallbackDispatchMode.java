@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static io.getlime.security.powerauth.sdk.CallbackDispatchMode.EXECUTOR;
+import static io.getlime.security.powerauth.sdk.CallbackDispatchMode.MAIN_THREAD;
+import static io.getlime.security.powerauth.sdk.CallbackDispatchMode.WORKER_THREAD;
+
+/**
+ * The {@code CallbackDispatchMode} defines how {@link PowerAuthSDK} delivers results of asynchronous
+ * operations to the application's listeners.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({MAIN_THREAD, WORKER_THREAD, EXECUTOR})
+public @interface CallbackDispatchMode {
+
+    /**
+     * Listeners are called on the main thread. This is the default mode.
+     */
+    int MAIN_THREAD = 0;
+
+    /**
+     * Listeners are called directly on the worker thread that completed the operation. Use this mode
+     * only if your listeners are thread safe and don't block the thread for a long time.
+     */
+    int WORKER_THREAD = 1;
+
+    /**
+     * Listeners are called on the executor provided by the application.
+     */
+    int EXECUTOR = 2;
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The {@code PowerAuthCircuitBreakerPolicy} class defines parameters of the circuit breaker,
+ * protecting the PowerAuth server from requests sent while the server is degraded. The breaker
+ * tracks results of the recent requests for each endpoint. If too many of them failed, or were
+ * too slow, then the circuit opens and all requests to the endpoint fail immediately. After a while,
+ * the circuit lets a few probe requests through, and closes again if all of them succeed.
+ */
+public class PowerAuthCircuitBreakerPolicy {
+
+    /**
+     * Default fraction of failed requests in the window, that opens the circuit.
+     */
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+
+    /**
+     * Default duration of request (in ms), considered as a slow call.
+     */
+    public static final int DEFAULT_SLOW_CALL_THRESHOLD = 10 * 1000;
+
+    /**
+     * Default number of recent requests evaluated for the failure rate.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+
+    /**
+     * Default minimum number of requests in the window, required for opening the circuit.
+     */
+    public static final int DEFAULT_MINIMUM_REQUESTS = 10;
+
+    /**
+     * Default time (in ms) the circuit stays open before the probe requests are allowed.
+     */
+    public static final int DEFAULT_OPEN_DURATION = 30 * 1000;
+
+    /**
+     * Default number of successful probe requests, required for closing the circuit.
+     */
+    public static final int DEFAULT_PROBE_COUNT = 2;
+
+    /**
+     * Policy that turns the circuit breaker off.
+     */
+    public static final PowerAuthCircuitBreakerPolicy DISABLED = new Builder().enabled(false).build();
+
+    private final boolean enabled;
+    private final double failureRateThreshold;
+    private final int slowCallThreshold;
+    private final int windowSize;
+    private final int minimumRequests;
+    private final int openDuration;
+    private final int probeCount;
+
+    /**
+     * @return {@code true} if circuit breaker is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return fraction of failed requests in the window, that opens the circuit
+     */
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * @return duration of request in milliseconds, considered as a slow call
+     */
+    public int getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    /**
+     * @return number of recent requests evaluated for the failure rate
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @return minimum number of requests in the window, required for opening the circuit
+     */
+    public int getMinimumRequests() {
+        return minimumRequests;
+    }
+
+    /**
+     * @return time in milliseconds the circuit stays open before the probe requests are allowed
+     */
+    public int getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * @return number of successful probe requests, required for closing the circuit
+     */
+    public int getProbeCount() {
+        return probeCount;
+    }
+
+    /**
+     * Default private constructor. Use {@link Builder} to create a new instance of this class.
+     *
+     * @param enabled Defines whether the circuit breaker is enabled.
+     * @param failureRateThreshold Fraction of failed requests in the window, that opens the circuit.
+     * @param slowCallThreshold Duration of request in ms, considered as a slow call.
+     * @param windowSize Number of recent requests evaluated for the failure rate.
+     * @param minimumRequests Minimum number of requests in the window, required for opening the circuit.
+     * @param openDuration Time in ms the circuit stays open before the probe requests are allowed.
+     * @param probeCount Number of successful probe requests, required for closing the circuit.
+     */
+    private PowerAuthCircuitBreakerPolicy(
+            boolean enabled,
+            double failureRateThreshold,
+            int slowCallThreshold,
+            int windowSize,
+            int minimumRequests,
+            int openDuration,
+            int probeCount) {
+        this.enabled = enabled;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.windowSize = windowSize;
+        this.minimumRequests = minimumRequests;
+        this.openDuration = openDuration;
+        this.probeCount = probeCount;
+    }
+
+    /**
+     * A builder that collects arguments for {@link PowerAuthCircuitBreakerPolicy}.
+     */
+    public static class Builder {
+        private boolean enabled = true;
+        private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+        private int slowCallThreshold = DEFAULT_SLOW_CALL_THRESHOLD;
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+        private int minimumRequests = DEFAULT_MINIMUM_REQUESTS;
+        private int openDuration = DEFAULT_OPEN_DURATION;
+        private int probeCount = DEFAULT_PROBE_COUNT;
+
+        /**
+         * Creates a builder for {@link PowerAuthCircuitBreakerPolicy}.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Enables or disables the circuit breaker.
+         *
+         * @param enabled true if circuit breaker should be enabled.
+         * @return The same {@link Builder} object instance
+         */
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * Sets thresholds opening the circuit to the future policy.
+         *
+         * @param failureRate fraction of failed requests in the window, in range from 0.0 to 1.0
+         * @param slowCallThreshold duration of request in milliseconds, considered as a slow call
+         * @return The same {@link Builder} object instance
+         */
+        public Builder thresholds(double failureRate, int slowCallThreshold) {
+            this.failureRateThreshold = failureRate;
+            this.slowCallThreshold = slowCallThreshold;
+            return this;
+        }
+
+        /**
+         * Sets size of the evaluated window to the future policy.
+         *
+         * @param windowSize number of recent requests evaluated for the failure rate
+         * @param minimumRequests minimum number of requests in the window, required for opening the circuit
+         * @return The same {@link Builder} object instance
+         */
+        public Builder window(int windowSize, int minimumRequests) {
+            this.windowSize = windowSize;
+            this.minimumRequests = minimumRequests;
+            return this;
+        }
+
+        /**
+         * Sets parameters of the recovery to the future policy.
+         *
+         * @param openDuration time in milliseconds the circuit stays open before the probe requests are allowed
+         * @param probeCount number of successful probe requests, required for closing the circuit
+         * @return The same {@link Builder} object instance
+         */
+        public Builder recovery(int openDuration, int probeCount) {
+            this.openDuration = openDuration;
+            this.probeCount = probeCount;
+            return this;
+        }
+
+        /**
+         * Build a final policy.
+         *
+         * @return Final {@link PowerAuthCircuitBreakerPolicy} instance.
+         */
+        public @NonNull PowerAuthCircuitBreakerPolicy build() {
+            final int windowSize = Math.max(1, this.windowSize);
+            return new PowerAuthCircuitBreakerPolicy(
+                    enabled,
+                    Math.min(1.0, Math.max(0.0, failureRateThreshold)),
+                    Math.max(0, slowCallThreshold),
+                    windowSize,
+                    Math.min(windowSize, Math.max(1, minimumRequests)),
+                    Math.max(0, openDuration),
+                    Math.max(1, probeCount));
+        }
+    }
+}
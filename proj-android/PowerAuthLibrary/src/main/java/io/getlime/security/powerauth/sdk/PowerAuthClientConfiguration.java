@@ -25,6 +25,7 @@ import java.util.List;
 
 import io.getlime.security.powerauth.networking.interceptors.HttpRequestInterceptor;
 import io.getlime.security.powerauth.networking.ssl.PA2ClientValidationStrategy;
+import io.getlime.security.powerauth.sdk.impl.DefaultExecutorProvider;
 import io.getlime.security.powerauth.system.PA2Log;
 
 /**
@@ -47,6 +48,26 @@ public class PowerAuthClientConfiguration {
      */
     public static final boolean DEFAULT_ALLOW_UNSECURED_CONNECTION = false;
 
+    /**
+     * Default number of threads in the SDK's thread pool.
+     */
+    public static final int DEFAULT_EXECUTOR_POOL_SIZE = DefaultExecutorProvider.DEFAULT_POOL_SIZE;
+
+    /**
+     * Default maximum number of requests waiting for execution in one priority lane.
+     */
+    public static final int DEFAULT_EXECUTOR_QUEUE_CAPACITY = DefaultExecutorProvider.DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Default value for payload compression flag.
+     */
+    public static final boolean DEFAULT_PAYLOAD_COMPRESSION = false;
+
+    /**
+     * Default minimum size of payload in bytes, that is compressed before the encryption.
+     */
+    public static final int DEFAULT_PAYLOAD_COMPRESSION_MIN_SIZE = 1024;
+
     /**
      * Property that specifies the default HTTP client connection timeout. The default value is 20.0 (seconds).
      */
@@ -74,6 +95,36 @@ public class PowerAuthClientConfiguration {
      */
     private final List<HttpRequestInterceptor> requestInterceptors;
 
+    /**
+     * Property that specifies the number of threads in the SDK's thread pool.
+     */
+    private final int executorPoolSize;
+
+    /**
+     * Property that specifies the maximum number of requests waiting for execution in one priority lane.
+     */
+    private final int executorQueueCapacity;
+
+    /**
+     * Property that specifies the policy applied to failed HTTP requests.
+     */
+    private final @NonNull PowerAuthRetryPolicy retryPolicy;
+
+    /**
+     * Property that specifies the circuit breaker policy, protecting the server from requests sent while it's degraded.
+     */
+    private final @NonNull PowerAuthCircuitBreakerPolicy circuitBreakerPolicy;
+
+    /**
+     * Property that specifies whether the plaintext is compressed before ECIES encryption.
+     */
+    private final boolean payloadCompression;
+
+    /**
+     * Property that specifies minimum size of the plaintext in bytes, that is compressed before ECIES encryption.
+     */
+    private final int payloadCompressionMinSize;
+
     /**
      * @return connection timeout in milliseconds
      */
@@ -107,6 +158,48 @@ public class PowerAuthClientConfiguration {
         return requestInterceptors;
     }
 
+    /**
+     * @return number of threads in the SDK's thread pool
+     */
+    public int getExecutorPoolSize() {
+        return executorPoolSize;
+    }
+
+    /**
+     * @return maximum number of requests waiting for execution in one priority lane
+     */
+    public int getExecutorQueueCapacity() {
+        return executorQueueCapacity;
+    }
+
+    /**
+     * @return {@link PowerAuthRetryPolicy} applied to failed HTTP requests
+     */
+    public @NonNull PowerAuthRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * @return {@link PowerAuthCircuitBreakerPolicy} applied to requests
+     */
+    public @NonNull PowerAuthCircuitBreakerPolicy getCircuitBreakerPolicy() {
+        return circuitBreakerPolicy;
+    }
+
+    /**
+     * @return {@code true} if the plaintext is compressed before ECIES encryption
+     */
+    public boolean isPayloadCompressionEnabled() {
+        return payloadCompression;
+    }
+
+    /**
+     * @return minimum size of the plaintext in bytes, that is compressed before ECIES encryption
+     */
+    public int getPayloadCompressionMinSize() {
+        return payloadCompressionMinSize;
+    }
+
     /**
      * Default private constructor. Use {@link Builder} to create a new instance of this class.
      *
@@ -115,18 +208,36 @@ public class PowerAuthClientConfiguration {
      * @param allowUnsecuredConnection Defines whether unsecured connection is allowed.
      * @param clientValidationStrategy {@link PA2ClientValidationStrategy} object that implements TLS validation strategy.
      * @param requestInterceptors Array of {@link HttpRequestInterceptor} objects or {@code null} if there's none.
+     * @param executorPoolSize Number of threads in the SDK's thread pool.
+     * @param executorQueueCapacity Maximum number of requests waiting for execution in one priority lane.
+     * @param retryPolicy Policy applied to failed HTTP requests.
+     * @param circuitBreakerPolicy Circuit breaker policy applied to requests.
+     * @param payloadCompression Defines whether the plaintext is compressed before ECIES encryption.
+     * @param payloadCompressionMinSize Minimum size of the plaintext that is compressed.
      */
     private PowerAuthClientConfiguration(
             int connectionTimeout,
             int readTimeout,
             boolean allowUnsecuredConnection,
             PA2ClientValidationStrategy clientValidationStrategy,
-            List<HttpRequestInterceptor> requestInterceptors) {
+            List<HttpRequestInterceptor> requestInterceptors,
+            int executorPoolSize,
+            int executorQueueCapacity,
+            @NonNull PowerAuthRetryPolicy retryPolicy,
+            @NonNull PowerAuthCircuitBreakerPolicy circuitBreakerPolicy,
+            boolean payloadCompression,
+            int payloadCompressionMinSize) {
         this.connectionTimeout = connectionTimeout;
         this.readTimeout = readTimeout;
         this.allowUnsecuredConnection = allowUnsecuredConnection;
         this.clientValidationStrategy = clientValidationStrategy;
         this.requestInterceptors = requestInterceptors;
+        this.executorPoolSize = executorPoolSize;
+        this.executorQueueCapacity = executorQueueCapacity;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        this.payloadCompression = payloadCompression;
+        this.payloadCompressionMinSize = payloadCompressionMinSize;
     }
 
     /**
@@ -138,6 +249,12 @@ public class PowerAuthClientConfiguration {
         private boolean allowUnsecuredConnection = DEFAULT_ALLOW_UNSECURED_CONNECTION;
         private PA2ClientValidationStrategy clientValidationStrategy;
         private ArrayList<HttpRequestInterceptor> requestInterceptors;
+        private int executorPoolSize = DEFAULT_EXECUTOR_POOL_SIZE;
+        private int executorQueueCapacity = DEFAULT_EXECUTOR_QUEUE_CAPACITY;
+        private boolean payloadCompression = DEFAULT_PAYLOAD_COMPRESSION;
+        private int payloadCompressionMinSize = DEFAULT_PAYLOAD_COMPRESSION_MIN_SIZE;
+        private PowerAuthRetryPolicy retryPolicy;
+        private PowerAuthCircuitBreakerPolicy circuitBreakerPolicy;
 
         /**
          * Creates a builder for {@link PowerAuthClientConfiguration}.
@@ -197,6 +314,60 @@ public class PowerAuthClientConfiguration {
             return this;
         }
 
+        /**
+         * Sets parameters of the SDK's thread pool to the future configuration. Values lower than 1
+         * are replaced with 1 in {@link #build()}. The parameters are ignored if the SDK instance is
+         * created with {@link PowerAuthSDK.Builder#sharedContext(PowerAuthSharedContext)}.
+         *
+         * @param poolSize number of threads in the pool
+         * @param queueCapacity maximum number of requests waiting for execution in one priority lane
+         * @return The same {@link Builder} object instance
+         */
+        public Builder executorPool(int poolSize, int queueCapacity) {
+            this.executorPoolSize = poolSize;
+            this.executorQueueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets policy applied to failed HTTP requests to the future configuration. If not set,
+         * then the policy with the default parameters is used.
+         *
+         * @param retryPolicy policy to be set. Use {@link PowerAuthRetryPolicy#NO_RETRY} to disable retries.
+         * @return The same {@link Builder} object instance
+         */
+        public Builder retryPolicy(@NonNull PowerAuthRetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets circuit breaker policy to the future configuration. If not set, then the policy
+         * with the default parameters is used.
+         *
+         * @param circuitBreakerPolicy policy to be set. Use {@link PowerAuthCircuitBreakerPolicy#DISABLED} to turn the circuit breaker off.
+         * @return The same {@link Builder} object instance
+         */
+        public Builder circuitBreakerPolicy(@NonNull PowerAuthCircuitBreakerPolicy circuitBreakerPolicy) {
+            this.circuitBreakerPolicy = circuitBreakerPolicy;
+            return this;
+        }
+
+        /**
+         * Sets whether the plaintext should be compressed with GZIP before ECIES encryption. The compressed
+         * request is marked with {@code X-PowerAuth-Payload-Encoding} header, so your server must support
+         * this extension before you turn the feature on. The compressed response is detected automatically.
+         *
+         * @param enabled If true, then the plaintext is compressed before the encryption.
+         * @param minSize Minimum size of the plaintext in bytes, that is compressed. Smaller payloads are sent as they are.
+         * @return The same {@link Builder} object instance
+         */
+        public Builder payloadCompression(boolean enabled, int minSize) {
+            this.payloadCompression = enabled;
+            this.payloadCompressionMinSize = minSize;
+            return this;
+        }
+
         /**
          * Build a final configuration.
          *
@@ -208,7 +379,13 @@ public class PowerAuthClientConfiguration {
                     readTimeout,
                     allowUnsecuredConnection,
                     clientValidationStrategy,
-                    requestInterceptors != null ? Collections.unmodifiableList(requestInterceptors) : null);
+                    requestInterceptors != null ? Collections.unmodifiableList(requestInterceptors) : null,
+                    Math.max(1, executorPoolSize),
+                    Math.max(1, executorQueueCapacity),
+                    retryPolicy != null ? retryPolicy : new PowerAuthRetryPolicy.Builder().build(),
+                    circuitBreakerPolicy != null ? circuitBreakerPolicy : new PowerAuthCircuitBreakerPolicy.Builder().build(),
+                    payloadCompression,
+                    Math.max(0, payloadCompressionMinSize));
         }
     }
 }
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.getlime.security.powerauth.networking.interfaces.ICancelable;
+
+/**
+ * The {@code PowerAuthFuture} class represents a result of an asynchronous operation started in
+ * {@link PowerAuthSDK} or {@link PowerAuthTokenStore}. The class is an alternative to the listener
+ * based API, which allows you to compose SDK operations with other asynchronous tasks.
+ * <p>
+ * You can block the current thread with {@link #get()} (never do this on the main thread), or
+ * register a {@link Callback} with {@link #addCallback(Callback, Executor)}. The callback is
+ * executed on the provided executor, so you can continue with the next step of your call chain
+ * without switching to the main thread.
+ * <p>
+ * Cancelling the future also cancels the underlying operation, typically the running HTTP request.
+ *
+ * @param <T> type of result.
+ */
+public class PowerAuthFuture<T> implements Future<T>, ICancelable {
+
+    /**
+     * The {@code Callback} interface receives the result of the asynchronous operation.
+     *
+     * @param <T> type of result.
+     */
+    public interface Callback<T> {
+        /**
+         * Called when the operation succeeded.
+         *
+         * @param result result of the operation.
+         */
+        void onSuccess(@Nullable T result);
+
+        /**
+         * Called when the operation failed. If the future has been cancelled, then
+         * the error is {@link CancellationException}.
+         *
+         * @param t error that occurred during the operation.
+         */
+        void onFailure(@NonNull Throwable t);
+    }
+
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_SUCCEEDED = 1;
+    private static final int STATE_FAILED = 2;
+    private static final int STATE_CANCELLED = 3;
+
+    private int state = STATE_PENDING;
+    private T result;
+    private Throwable failure;
+    private ICancelable operation;
+    private List<Runnable> pendingCallbacks;
+
+    /**
+     * Create future in pending state. The future is completed by the SDK.
+     */
+    PowerAuthFuture() {
+    }
+
+    /**
+     * Register callback that is notified once the future is completed. If the future is already
+     * completed, then the callback is submitted to the executor immediately.
+     *
+     * @param callback callback to be notified.
+     * @param executor executor in which the callback will be executed.
+     */
+    public void addCallback(@NonNull final Callback<? super T> callback, @NonNull final Executor executor) {
+        final Runnable notification = new Runnable() {
+            @Override
+            public void run() {
+                final int state;
+                final T result;
+                final Throwable failure;
+                synchronized (PowerAuthFuture.this) {
+                    state = PowerAuthFuture.this.state;
+                    result = PowerAuthFuture.this.result;
+                    failure = PowerAuthFuture.this.failure;
+                }
+                if (state == STATE_SUCCEEDED) {
+                    callback.onSuccess(result);
+                } else if (state == STATE_FAILED) {
+                    callback.onFailure(failure);
+                } else {
+                    callback.onFailure(new CancellationException("Operation has been cancelled."));
+                }
+            }
+        };
+        final Runnable wrapped = new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(notification);
+            }
+        };
+        synchronized (this) {
+            if (state == STATE_PENDING) {
+                if (pendingCallbacks == null) {
+                    pendingCallbacks = new ArrayList<>(1);
+                }
+                pendingCallbacks.add(wrapped);
+                return;
+            }
+        }
+        wrapped.run();
+    }
+
+    // Completion, used by SDK
+
+    /**
+     * Set underlying operation that will be cancelled together with this future. If the future
+     * is already cancelled, then the operation is cancelled immediately.
+     *
+     * @param operation underlying operation, may be null if the operation was completed synchronously.
+     */
+    void setOperation(@Nullable ICancelable operation) {
+        if (operation == null) {
+            return;
+        }
+        synchronized (this) {
+            if (state != STATE_CANCELLED) {
+                this.operation = operation;
+                return;
+            }
+        }
+        operation.cancel();
+    }
+
+    /**
+     * Complete future with result.
+     *
+     * @param result result of the operation.
+     * @return true if the future has been completed by this call.
+     */
+    boolean complete(@Nullable T result) {
+        return finish(STATE_SUCCEEDED, result, null);
+    }
+
+    /**
+     * Complete future with failure.
+     *
+     * @param t error that occurred during the operation.
+     * @return true if the future has been completed by this call.
+     */
+    boolean fail(@NonNull Throwable t) {
+        return finish(STATE_FAILED, null, t);
+    }
+
+    /**
+     * Move the future to the final state and notify all callbacks. If the new state is
+     * cancelled, then also the underlying operation is cancelled.
+     *
+     * @param newState final state.
+     * @param result result, in case of success.
+     * @param failure error, in case of failure.
+     * @return true if the state has been changed.
+     */
+    private boolean finish(int newState, T result, Throwable failure) {
+        final List<Runnable> callbacks;
+        final ICancelable operation;
+        synchronized (this) {
+            if (state != STATE_PENDING) {
+                return false;
+            }
+            this.state = newState;
+            this.result = result;
+            this.failure = failure;
+            operation = this.operation;
+            this.operation = null;
+            callbacks = pendingCallbacks;
+            pendingCallbacks = null;
+            notifyAll();
+        }
+        if (newState == STATE_CANCELLED && operation != null) {
+            operation.cancel();
+        }
+        if (callbacks != null) {
+            for (Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+        return true;
+    }
+
+    // ICancelable & Future
+
+    @Override
+    public void cancel() {
+        cancel(true);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return finish(STATE_CANCELLED, null, null);
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == STATE_CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != STATE_PENDING;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        while (state == STATE_PENDING) {
+            wait();
+        }
+        return getResult();
+    }
+
+    @Override
+    public synchronized T get(long timeout, @NonNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long remaining = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + remaining;
+        while (state == STATE_PENDING) {
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return getResult();
+    }
+
+    /**
+     * @return Result of completed future.
+     * @throws ExecutionException if the operation failed.
+     * @throws CancellationException if the future has been cancelled.
+     */
+    private T getResult() throws ExecutionException {
+        if (state == STATE_SUCCEEDED) {
+            return result;
+        } else if (state == STATE_FAILED) {
+            throw new ExecutionException(failure);
+        }
+        throw new CancellationException("Operation has been cancelled.");
+    }
+}
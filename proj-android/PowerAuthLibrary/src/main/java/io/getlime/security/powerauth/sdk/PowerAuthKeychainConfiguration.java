@@ -19,6 +19,7 @@ package io.getlime.security.powerauth.sdk;
 import androidx.annotation.NonNull;
 
 import io.getlime.security.powerauth.keychain.KeychainProtection;
+import io.getlime.security.powerauth.keychain.KeychainStorageType;
 
 /**
  * Class representing the keychain settings.
@@ -28,20 +29,26 @@ public class PowerAuthKeychainConfiguration {
     public static final String KEYCHAIN_ID_STATUS = "io.getlime.PowerAuthKeychain.StatusKeychain";
     public static final String KEYCHAIN_ID_BIOMETRY = "io.getlime.PowerAuthKeychain.BiometryKeychain";
     public static final String KEYCHAIN_ID_TOKEN_STORE = "io.getlime.PowerAuthKeychain.TokenStoreKeychain";
+    public static final String KEYCHAIN_ID_OFFLINE_QUEUE = "io.getlime.PowerAuthKeychain.OfflineQueueKeychain";
     public static final String KEYCHAIN_KEY_BIOMETRY_DEFAULT = "io.getlime.PowerAuthKeychain.BiometryKeychain.DefaultKey";
     public static final boolean DEFAULT_LINK_BIOMETRY_ITEMS_TO_CURRENT_SET = true;
     public static final boolean DEFAULT_CONFIRM_BIOMETRIC_AUTHENTICATION = false;
     public static final boolean DEFAULT_AUTHENTICATE_ON_BIOMETRIC_KEY_SETUP = true;
     public static final @KeychainProtection int DEFAULT_REQUIRED_KEYCHAIN_PROTECTION = KeychainProtection.NONE;
+    public static final boolean DEFAULT_STORE_TOKENS_IN_SINGLE_ENTRY = false;
+    public static final @KeychainStorageType int DEFAULT_KEYCHAIN_STORAGE_TYPE = KeychainStorageType.SHARED_PREFERENCES;
 
     private final @NonNull String keychainIdStatus;
     private final @NonNull String keychainIdBiometry;
     private final @NonNull String keychainIdTokenStore;
+    private final @NonNull String keychainIdOfflineQueue;
     private final @NonNull String keychainKeyBiometryDefault;
     private final boolean linkBiometricItemsToCurrentSet;
     private final boolean confirmBiometricAuthentication;
     private final boolean authenticateOnBiometricKeySetup;
     private final @KeychainProtection int minimalRequiredKeychainProtection;
+    private final boolean storeTokensInSingleEntry;
+    private final @KeychainStorageType int keychainStorageType;
 
     /**
      * Get name of the Keychain file used for storing status information.
@@ -75,6 +82,14 @@ public class PowerAuthKeychainConfiguration {
         return keychainIdTokenStore;
     }
 
+    /**
+     * Get name of the Keychain file used for storing requests in the offline queue.
+     * @return Name of the Keychain file.
+     */
+    public @NonNull String getKeychainOfflineQueueId() {
+        return keychainIdOfflineQueue;
+    }
+
     /**
      * Get information whether item protected with the biometry is invalidated when the biometric
      * configuration changes in the system.
@@ -123,6 +138,26 @@ public class PowerAuthKeychainConfiguration {
         return minimalRequiredKeychainProtection;
     }
 
+    /**
+     * Get whether all access tokens are stored in one keychain entry. If {@code false}, then each
+     * token is stored in its own entry. The default value is {@code false}.
+     *
+     * @return {@code true} if all access tokens are stored in one keychain entry.
+     */
+    public boolean isStoreTokensInSingleEntry() {
+        return storeTokensInSingleEntry;
+    }
+
+    /**
+     * Get underlying storage for the content of all keychains used by the SDK. If not configured,
+     * then {@link KeychainStorageType#SHARED_PREFERENCES} is used as a default value.
+     *
+     * @return {@link KeychainStorageType} constant with the underlying storage.
+     */
+    public @KeychainStorageType int getKeychainStorageType() {
+        return keychainStorageType;
+    }
+
     /**
      * Private constructor. Use {@link Builder} to create a new instance of this class.
      *
@@ -130,6 +165,7 @@ public class PowerAuthKeychainConfiguration {
      * @param keychainIdBiometry                Name of the Keychain file used for storing the biometry key information.
      * @param keychainKeyBiometryDefault        Name of the Keychain key used to store the default biometry key.
      * @param keychainIdTokenStore              Name of the Keychain file used for storing the access tokens.
+     * @param keychainIdOfflineQueue            Name of the Keychain file used for storing the offline queue.
      * @param linkBiometricItemsToCurrentSet    If set, then the item protected with the biometry is invalidated
      *                                          if fingers are added or removed, or if the user re-enrolls for face.
      * @param confirmBiometricAuthentication    If set, then the user's confirmation will be required after the successful
@@ -139,24 +175,32 @@ public class PowerAuthKeychainConfiguration {
      *                                          If not set, then only usage of biometric key require biometric authentication.
      * @param minimalRequiredKeychainProtection {@link KeychainProtection} constant with minimal required keychain
      *                                          protection level that must be supported on the current device.
+     * @param storeTokensInSingleEntry          If set, then all access tokens are stored in one keychain entry.
+     * @param keychainStorageType               {@link KeychainStorageType} constant with the underlying storage.
      */
     private PowerAuthKeychainConfiguration(
             @NonNull String keychainIdStatus,
             @NonNull String keychainIdBiometry,
             @NonNull String keychainKeyBiometryDefault,
             @NonNull String keychainIdTokenStore,
+            @NonNull String keychainIdOfflineQueue,
             boolean linkBiometricItemsToCurrentSet,
             boolean confirmBiometricAuthentication,
             boolean authenticateOnBiometricKeySetup,
-            @KeychainProtection int minimalRequiredKeychainProtection) {
+            @KeychainProtection int minimalRequiredKeychainProtection,
+            boolean storeTokensInSingleEntry,
+            @KeychainStorageType int keychainStorageType) {
         this.keychainIdStatus = keychainIdStatus;
         this.keychainIdBiometry = keychainIdBiometry;
         this.keychainKeyBiometryDefault = keychainKeyBiometryDefault;
         this.keychainIdTokenStore = keychainIdTokenStore;
+        this.keychainIdOfflineQueue = keychainIdOfflineQueue;
         this.linkBiometricItemsToCurrentSet = linkBiometricItemsToCurrentSet;
         this.confirmBiometricAuthentication = confirmBiometricAuthentication;
         this.authenticateOnBiometricKeySetup = authenticateOnBiometricKeySetup;
         this.minimalRequiredKeychainProtection = minimalRequiredKeychainProtection;
+        this.storeTokensInSingleEntry = storeTokensInSingleEntry;
+        this.keychainStorageType = keychainStorageType;
     }
 
     /**
@@ -167,11 +211,14 @@ public class PowerAuthKeychainConfiguration {
         private @NonNull String keychainStatusId = KEYCHAIN_ID_STATUS;
         private @NonNull String keychainBiometryId = KEYCHAIN_ID_BIOMETRY;
         private @NonNull String keychainTokenStoreId = KEYCHAIN_ID_TOKEN_STORE;
+        private @NonNull String keychainOfflineQueueId = KEYCHAIN_ID_OFFLINE_QUEUE;
         private @NonNull String keychainBiometryDefaultKey = KEYCHAIN_KEY_BIOMETRY_DEFAULT;
         private boolean linkBiometricItemsToCurrentSet = DEFAULT_LINK_BIOMETRY_ITEMS_TO_CURRENT_SET;
         private boolean confirmBiometricAuthentication = DEFAULT_CONFIRM_BIOMETRIC_AUTHENTICATION;
         private boolean authenticateOnBiometricKeySetup = DEFAULT_AUTHENTICATE_ON_BIOMETRIC_KEY_SETUP;
         private @KeychainProtection int minimalRequiredKeychainProtection = DEFAULT_REQUIRED_KEYCHAIN_PROTECTION;
+        private boolean storeTokensInSingleEntry = DEFAULT_STORE_TOKENS_IN_SINGLE_ENTRY;
+        private @KeychainStorageType int keychainStorageType = DEFAULT_KEYCHAIN_STORAGE_TYPE;
 
         /**
          * Creates a builder for {@link PowerAuthKeychainConfiguration}.
@@ -212,6 +259,17 @@ public class PowerAuthKeychainConfiguration {
             return this;
         }
 
+        /**
+         * Set name of the Keychain file used for storing requests in the offline queue.
+         *
+         * @param keychainOfflineQueueId Name of the Keychain file used for storing the offline queue.
+         * @return {@link Builder}
+         */
+        public @NonNull Builder keychainOfflineQueueId(@NonNull String keychainOfflineQueueId) {
+            this.keychainOfflineQueueId = keychainOfflineQueueId;
+            return this;
+        }
+
         /**
          * Set name of the Keychain key used to store the default biometry key.
          *
@@ -285,6 +343,39 @@ public class PowerAuthKeychainConfiguration {
             return this;
         }
 
+        /**
+         * (Optional) Set whether all access tokens are stored in one keychain entry. This is useful
+         * when your application holds many tokens and loads them all at once, because only one
+         * entry has to be decrypted and parsed. Tokens already stored in the keychain are migrated
+         * to the new layout when the token store is accessed for the first time.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param storeTokensInSingleEntry If set, then all access tokens are stored in one keychain entry.
+         * @return {@link Builder}
+         */
+        public @NonNull Builder storeTokensInSingleEntry(boolean storeTokensInSingleEntry) {
+            this.storeTokensInSingleEntry = storeTokensInSingleEntry;
+            return this;
+        }
+
+        /**
+         * (Optional) Set underlying storage for the content of all keychains used by the SDK. The
+         * {@link KeychainStorageType#MAPPED_FILE} storage appends each change to the memory mapped
+         * file, instead of rewriting the whole {@code SharedPreferences} file. This is useful, because
+         * the status keychain is updated after each signature calculation. The content is moved to
+         * the configured storage when the keychain is accessed for the first time.
+         * <p>
+         * The default value is {@link KeychainStorageType#SHARED_PREFERENCES}.
+         *
+         * @param keychainStorageType {@link KeychainStorageType} constant with the underlying storage.
+         * @return {@link Builder}
+         */
+        public @NonNull Builder keychainStorageType(@KeychainStorageType int keychainStorageType) {
+            this.keychainStorageType = keychainStorageType;
+            return this;
+        }
+
         /**
          * Build final {@link PowerAuthKeychainConfiguration} object.
          *
@@ -296,10 +387,13 @@ public class PowerAuthKeychainConfiguration {
                     keychainBiometryId,
                     keychainBiometryDefaultKey,
                     keychainTokenStoreId,
+                    keychainOfflineQueueId,
                     linkBiometricItemsToCurrentSet,
                     confirmBiometricAuthentication,
                     authenticateOnBiometricKeySetup,
-                    minimalRequiredKeychainProtection);
+                    minimalRequiredKeychainProtection,
+                    storeTokensInSingleEntry,
+                    keychainStorageType);
         }
     }
 }
@@ -0,0 +1,507 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.getlime.security.powerauth.exception.PowerAuthErrorCodes;
+import io.getlime.security.powerauth.exception.PowerAuthErrorException;
+import io.getlime.security.powerauth.keychain.Keychain;
+import io.getlime.security.powerauth.keychain.impl.MappedFileKeychain;
+import io.getlime.security.powerauth.networking.client.HttpClient;
+import io.getlime.security.powerauth.networking.client.HttpRawResponse;
+import io.getlime.security.powerauth.networking.interfaces.ICancelable;
+import io.getlime.security.powerauth.networking.interfaces.INetworkResponseListener;
+import io.getlime.security.powerauth.networking.response.IOfflineQueueDrainListener;
+import io.getlime.security.powerauth.sdk.impl.CompositeCancelableTask;
+import io.getlime.security.powerauth.system.PA2Log;
+
+/**
+ * The {@code PowerAuthOfflineQueue} class implements a persistent, ordered queue of HTTP requests
+ * signed with PowerAuth signature. The application can enqueue requests while the device is offline
+ * and drain the queue later, when the connectivity returns. The requests are stored in the encrypted
+ * {@link Keychain}, so the queue survives the application restart.
+ * <p>
+ * The signature is always calculated immediately in {@link #enqueue(Context, PowerAuthOfflineRequest, PowerAuthAuthentication)},
+ * so the counter values follow the order of requests in the queue. The queued requests are delivered
+ * in the same order as they were enqueued, one by one, so the server receives the signatures in order
+ * of their counter values. Note that if you send another signed request before the queue is drained,
+ * then the server may reject the queued requests.
+ */
+public class PowerAuthOfflineQueue {
+
+    /**
+     * Version of data format stored in the keychain.
+     */
+    private static final int STORAGE_VERSION = 1;
+    /**
+     * A prefix for all data stored to the keychain.
+     */
+    private static final String QUEUE_KEY_PREFIX = "offlineQueue";
+
+    /**
+     * Reference to parent {@link PowerAuthSDK} object
+     */
+    private final PowerAuthSDK sdk;
+    /**
+     * Reference to {@link Keychain} for persistent storage purposes
+     */
+    private final Keychain keychain;
+    /**
+     * Reference to {@link HttpClient} for networking
+     */
+    private final HttpClient httpClient;
+    /**
+     * A prefix for all data stored to the keychain.
+     */
+    private final String keychainKeyPrefix;
+    /**
+     * Contains true if the queue is being drained.
+     */
+    private boolean drainInProgress;
+    /**
+     * Network callback registered in {@link #startAutoDrain(Context, IOfflineQueueDrainListener)}.
+     * The type is not declared, because the class is not available on all supported platforms.
+     */
+    private Object networkCallback;
+
+    /**
+     * Constructs a new offline queue with references to parent {@link PowerAuthSDK}, {@link Keychain}
+     * as storage and {@link HttpClient} for networking.
+     *
+     * @param sdk a parent object which created this instance
+     * @param keychain a keychain as persistent storage
+     * @param httpClient a HTTP client for networking
+     */
+    public PowerAuthOfflineQueue(
+            @NonNull PowerAuthSDK sdk,
+            @NonNull Keychain keychain,
+            @NonNull HttpClient httpClient) {
+        this.sdk = sdk;
+        this.keychain = keychain;
+        this.httpClient = httpClient;
+        this.keychainKeyPrefix = getKeychainKeyPrefix(sdk.getConfiguration().getInstanceId());
+    }
+
+    /**
+     * Removes all requests stored for the SDK instance directly from the underlying storage, without
+     * opening the keychain. The method is package-private and is used when the queue was not created yet.
+     *
+     * @param context Android context.
+     * @param keychainIdentifier Identifier of the keychain for the queue.
+     * @param instanceId Identifier of the SDK instance.
+     * @return false if the content is stored in the mapped file, so it cannot be removed without opening the keychain.
+     */
+    static boolean removeStoredRequests(@NonNull Context context, @NonNull String keychainIdentifier, @NonNull String instanceId) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && MappedFileKeychain.getKeychainFile(context, keychainIdentifier).exists()) {
+            return false;
+        }
+        // Both encrypted and legacy keychains store the values in shared preferences, under the original keys.
+        final String keyPrefix = getKeychainKeyPrefix(instanceId);
+        final SharedPreferences preferences = context.getSharedPreferences(keychainIdentifier, Context.MODE_PRIVATE);
+        final SharedPreferences.Editor editor = preferences.edit();
+        boolean modified = false;
+        for (String key : preferences.getAll().keySet()) {
+            if (key.startsWith(keyPrefix)) {
+                editor.remove(key);
+                modified = true;
+            }
+        }
+        if (modified) {
+            editor.apply();
+        }
+        return true;
+    }
+
+    /**
+     * @param instanceId Identifier of the SDK instance.
+     * @return Prefix for all keys stored to the keychain for the SDK instance.
+     */
+    private static @NonNull String getKeychainKeyPrefix(@NonNull String instanceId) {
+        return QUEUE_KEY_PREFIX + "__" + instanceId + "__";
+    }
+
+    // Queue content
+
+    /**
+     * Adds request to the end of the queue. The signature is calculated immediately, while
+     * the queue is locked, so the counter values follow the order of requests in the queue.
+     *
+     * @param context Context
+     * @param request Request to be stored in the queue.
+     * @param authentication An authentication instance specifying what factors should be used to sign the request.
+     * @return Copy of the request, with the assigned queue identifier.
+     * @throws PowerAuthErrorException if there's no activation, or the signature calculation failed.
+     */
+    public synchronized @NonNull PowerAuthOfflineRequest enqueue(@NonNull Context context, @NonNull PowerAuthOfflineRequest request, @NonNull PowerAuthAuthentication authentication) throws PowerAuthErrorException {
+        if (!sdk.hasValidActivation()) {
+            throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeMissingActivation);
+        }
+        final PowerAuthAuthorizationHttpHeader header = sdk.requestSignatureWithAuthentication(context, authentication, request.getMethod(), request.getUriId(), request.getBody());
+        if (!header.isValid()) {
+            throw new PowerAuthErrorException(header.getPowerAuthErrorCode(), "Failed to sign queued request.");
+        }
+        final long tail = getTail();
+        final PowerAuthOfflineRequest queuedRequest = new PowerAuthOfflineRequest(tail, request.getUrl(), request.getMethod(), request.getUriId(), request.getBody(), request.getHttpHeaders());
+        final byte[] data = serializeEntry(new Entry(queuedRequest, header.getValue()));
+        if (data == null) {
+            throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeWrongParameter, "Failed to serialize queued request.");
+        }
+        // Store the entry before the tail is moved, so the interrupted write never produces an empty slot.
+        keychain.putData(data, getEntryKey(tail));
+        keychain.putLong(tail + 1, getTailKey());
+        return queuedRequest;
+    }
+
+    /**
+     * @return Number of requests in the queue.
+     */
+    public synchronized int getCount() {
+        return (int) (getTail() - getHead());
+    }
+
+    /**
+     * @return The first request in the queue, or null if the queue is empty.
+     */
+    public synchronized @Nullable PowerAuthOfflineRequest peek() {
+        final Entry entry = loadHeadEntry();
+        return entry != null ? entry.request : null;
+    }
+
+    /**
+     * Removes all requests from the queue.
+     */
+    public synchronized void clear() {
+        final long tail = getTail();
+        for (long index = getHead(); index < tail; index++) {
+            keychain.remove(getEntryKey(index));
+        }
+        keychain.remove(getHeadKey());
+        keychain.remove(getTailKey());
+    }
+
+    // Draining
+
+    /**
+     * Sends all queued requests to the server, in the same order as they were enqueued.
+     * The requests are sent one by one in the SDK's serial queue, so they're also synchronized
+     * with signed requests created internally in the SDK. The draining stops when the queue
+     * is empty, or when the request cannot be delivered due to a network or server failure.
+     * In this case, the failed request stays in the queue.
+     *
+     * @param context Context
+     * @param listener Listener with callbacks.
+     * @return {@link ICancelable} object allowing to stop the draining, or null if draining cannot be started.
+     */
+    public @Nullable ICancelable drain(@NonNull final Context context, @NonNull final IOfflineQueueDrainListener listener) {
+        final int remainingCount;
+        Throwable error = null;
+        synchronized (this) {
+            remainingCount = getCount();
+            if (drainInProgress) {
+                error = new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeWrongParameter, "Queue is already being drained.");
+            } else if (remainingCount > 0 && !sdk.hasValidActivation()) {
+                error = new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeMissingActivation);
+            } else if (remainingCount > 0) {
+                drainInProgress = true;
+            }
+        }
+        if (error != null || remainingCount == 0) {
+            final Throwable err = error;
+            sdk.dispatchCallback(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onOfflineQueueDrained(0, remainingCount, err);
+                }
+            });
+            return null;
+        }
+        final CompositeCancelableTask task = new CompositeCancelableTask(true);
+        sendHead(context, task, listener, 0);
+        return task;
+    }
+
+    /**
+     * Starts draining the queue automatically, each time the device connects to the network.
+     * The network monitoring requires Android 5.0 and newer. On older systems, you have to call
+     * {@link #drain(Context, IOfflineQueueDrainListener)} on your own.
+     *
+     * @param context Context
+     * @param listener Listener with callbacks, used for each automatic draining.
+     */
+    public synchronized void startAutoDrain(@NonNull Context context, @NonNull final IOfflineQueueDrainListener listener) {
+        if (networkCallback != null || Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        final ConnectivityManager connectivityManager = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return;
+        }
+        final ConnectivityManager.NetworkCallback callback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                if (getCount() > 0) {
+                    drain(appContext, listener);
+                }
+            }
+        };
+        final NetworkRequest request = new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build();
+        connectivityManager.registerNetworkCallback(request, callback);
+        networkCallback = callback;
+    }
+
+    /**
+     * Stops draining the queue automatically.
+     *
+     * @param context Context
+     */
+    public synchronized void stopAutoDrain(@NonNull Context context) {
+        if (networkCallback == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+        final ConnectivityManager connectivityManager = (ConnectivityManager) context.getApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager != null) {
+            connectivityManager.unregisterNetworkCallback((ConnectivityManager.NetworkCallback) networkCallback);
+        }
+        networkCallback = null;
+    }
+
+    /**
+     * Sends the first request in the queue. Once the request is delivered, then it's removed
+     * from the queue and the next one is sent. The requests are processed by {@link HttpClient},
+     * so each request is a separate task in the serial queue and the draining doesn't block
+     * other requests for a long time.
+     */
+    private void sendHead(@NonNull final Context context, @NonNull final CompositeCancelableTask task, @NonNull final IOfflineQueueDrainListener listener, final int sentCount) {
+        if (task.isCancelled()) {
+            finishDrain(listener, sentCount, new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeOperationCancelled));
+            return;
+        }
+        final Entry entry;
+        synchronized (this) {
+            entry = loadHeadEntry();
+        }
+        if (entry == null) {
+            finishDrain(listener, sentCount, null);
+            return;
+        }
+        final PowerAuthOfflineRequest request = entry.request;
+        final HashMap<String, String> httpHeaders = new HashMap<>(request.getHttpHeaders());
+        final PowerAuthAuthorizationHttpHeader authorizationHeader = PowerAuthAuthorizationHttpHeader.createAuthorizationHeader(entry.authorizationHeaderValue);
+        httpHeaders.put(authorizationHeader.key, authorizationHeader.value);
+
+        // The listener is called from the worker thread, so the next request is scheduled
+        // without switching to the main thread.
+        final ICancelable sendTask = httpClient.sendRawRequest(request.getUrl(), request.getMethod(), httpHeaders, request.getBody(), sdk.getCryptoHelper(context), sdk.getWorkerCallbackDispatcher(), new INetworkResponseListener<HttpRawResponse>() {
+            @Override
+            public void onNetworkResponse(final HttpRawResponse response) {
+                synchronized (PowerAuthOfflineQueue.this) {
+                    removeHead(request.getIdentifier());
+                }
+                sdk.dispatchCallback(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onOfflineRequestSent(request, response.getResponseCode(), response.getResponseData());
+                    }
+                });
+                sendHead(context, task, listener, sentCount + 1);
+            }
+
+            @Override
+            public void onNetworkError(Throwable throwable) {
+                PA2Log.e("PowerAuthOfflineQueue: Failed to send request: %s", throwable.getMessage());
+                finishDrain(listener, sentCount, throwable);
+            }
+
+            @Override
+            public void onCancel() {
+                finishDrain(listener, sentCount, new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeOperationCancelled));
+            }
+        });
+        task.addCancelable(sendTask);
+    }
+
+    /**
+     * Marks the draining as finished and notifies the listener.
+     */
+    private void finishDrain(@NonNull final IOfflineQueueDrainListener listener, final int sentCount, @Nullable final Throwable error) {
+        final int remainingCount;
+        synchronized (this) {
+            drainInProgress = false;
+            remainingCount = getCount();
+        }
+        sdk.dispatchCallback(new Runnable() {
+            @Override
+            public void run() {
+                listener.onOfflineQueueDrained(sentCount, remainingCount, error);
+            }
+        });
+    }
+
+    // Storage
+
+    /**
+     * The {@code Entry} nested class contains a queued request together with its
+     * precalculated signature.
+     */
+    private static class Entry {
+        final @NonNull PowerAuthOfflineRequest request;
+        final @NonNull String authorizationHeaderValue;
+
+        Entry(@NonNull PowerAuthOfflineRequest request, @NonNull String authorizationHeaderValue) {
+            this.request = request;
+            this.authorizationHeaderValue = authorizationHeaderValue;
+        }
+    }
+
+    private @NonNull String getHeadKey() {
+        return keychainKeyPrefix + "head";
+    }
+
+    private @NonNull String getTailKey() {
+        return keychainKeyPrefix + "tail";
+    }
+
+    private @NonNull String getEntryKey(long index) {
+        return keychainKeyPrefix + index;
+    }
+
+    private long getHead() {
+        return keychain.getLong(getHeadKey(), 0);
+    }
+
+    private long getTail() {
+        return keychain.getLong(getTailKey(), 0);
+    }
+
+    /**
+     * Loads the first entry in the queue. The entries that cannot be deserialized are removed.
+     *
+     * @return The first valid entry, or null if the queue is empty.
+     */
+    private @Nullable Entry loadHeadEntry() {
+        final long tail = getTail();
+        for (long index = getHead(); index < tail; index++) {
+            final Entry entry = deserializeEntry(index, keychain.getData(getEntryKey(index)));
+            if (entry != null) {
+                return entry;
+            }
+            PA2Log.e("PowerAuthOfflineQueue: Dropping invalid entry %d", index);
+            removeHead(index);
+        }
+        return null;
+    }
+
+    /**
+     * Removes entry from the head of the queue.
+     *
+     * @param index Index of entry at the head of the queue.
+     */
+    private void removeHead(long index) {
+        if (index != getHead()) {
+            return;
+        }
+        keychain.remove(getEntryKey(index));
+        if (index + 1 >= getTail()) {
+            // Queue is empty, so reset the indexes.
+            keychain.remove(getHeadKey());
+            keychain.remove(getTailKey());
+        } else {
+            keychain.putLong(index + 1, getHeadKey());
+        }
+    }
+
+    private static @Nullable byte[] serializeEntry(@NonNull Entry entry) {
+        try {
+            final PowerAuthOfflineRequest request = entry.request;
+            final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+            final DataOutputStream stream = new DataOutputStream(byteStream);
+            stream.writeInt(STORAGE_VERSION);
+            stream.writeUTF(request.getUrl());
+            stream.writeUTF(request.getMethod());
+            stream.writeUTF(request.getUriId());
+            final byte[] body = request.getBody();
+            stream.writeInt(body != null ? body.length : -1);
+            if (body != null) {
+                stream.write(body);
+            }
+            final Map<String, String> httpHeaders = request.getHttpHeaders();
+            stream.writeInt(httpHeaders.size());
+            for (Map.Entry<String, String> header : httpHeaders.entrySet()) {
+                stream.writeUTF(header.getKey());
+                stream.writeUTF(header.getValue());
+            }
+            stream.writeUTF(entry.authorizationHeaderValue);
+            stream.flush();
+            return byteStream.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable Entry deserializeEntry(long index, @Nullable byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            final DataInputStream stream = new DataInputStream(new ByteArrayInputStream(data));
+            if (stream.readInt() != STORAGE_VERSION) {
+                return null;
+            }
+            final String url = stream.readUTF();
+            final String method = stream.readUTF();
+            final String uriId = stream.readUTF();
+            final int bodyLength = stream.readInt();
+            final byte[] body;
+            if (bodyLength >= 0) {
+                body = new byte[bodyLength];
+                stream.readFully(body);
+            } else {
+                body = null;
+            }
+            final int headersCount = stream.readInt();
+            final HashMap<String, String> httpHeaders = new HashMap<>();
+            for (int i = 0; i < headersCount; i++) {
+                final String key = stream.readUTF();
+                httpHeaders.put(key, stream.readUTF());
+            }
+            final String authorizationHeaderValue = stream.readUTF();
+            return new Entry(new PowerAuthOfflineRequest(index, url, method, uriId, body, httpHeaders), authorizationHeaderValue);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
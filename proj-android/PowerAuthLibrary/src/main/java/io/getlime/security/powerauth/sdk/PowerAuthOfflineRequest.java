@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code PowerAuthOfflineRequest} class describes an HTTP request signed with PowerAuth
+ * signature and stored in {@link PowerAuthOfflineQueue} until it can be sent to the server.
+ */
+public class PowerAuthOfflineRequest {
+
+    /**
+     * Identifier of request in the queue, or -1 if the request is not queued yet.
+     */
+    private final long identifier;
+    private final @NonNull String url;
+    private final @NonNull String method;
+    private final @NonNull String uriId;
+    private final @Nullable byte[] body;
+    private final @NonNull Map<String, String> httpHeaders;
+
+    /**
+     * Constructs a new request object.
+     *
+     * @param url Full URL to the application's server endpoint.
+     * @param method HTTP method.
+     * @param uriId URI identifier, required for the signature calculation.
+     * @param body Optional HTTP request body.
+     * @param httpHeaders Optional additional HTTP headers.
+     */
+    public PowerAuthOfflineRequest(
+            @NonNull String url,
+            @NonNull String method,
+            @NonNull String uriId,
+            @Nullable byte[] body,
+            @Nullable Map<String, String> httpHeaders) {
+        this(-1, url, method, uriId, body, httpHeaders);
+    }
+
+    /**
+     * Package-private constructor, allowing to set identifier of request in the queue.
+     */
+    PowerAuthOfflineRequest(
+            long identifier,
+            @NonNull String url,
+            @NonNull String method,
+            @NonNull String uriId,
+            @Nullable byte[] body,
+            @Nullable Map<String, String> httpHeaders) {
+        this.identifier = identifier;
+        this.url = url;
+        this.method = method;
+        this.uriId = uriId;
+        this.body = body;
+        this.httpHeaders = httpHeaders != null ? Collections.unmodifiableMap(new HashMap<>(httpHeaders)) : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * @return Identifier of request in the queue, or -1 if the request is not queued yet.
+     */
+    public long getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return Full URL to the application's server endpoint.
+     */
+    public @NonNull String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return HTTP method.
+     */
+    public @NonNull String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return URI identifier, required for the signature calculation.
+     */
+    public @NonNull String getUriId() {
+        return uriId;
+    }
+
+    /**
+     * @return HTTP request body, may be null.
+     */
+    public @Nullable byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return Immutable map with additional HTTP headers.
+     */
+    public @NonNull Map<String, String> getHttpHeaders() {
+        return httpHeaders;
+    }
+}
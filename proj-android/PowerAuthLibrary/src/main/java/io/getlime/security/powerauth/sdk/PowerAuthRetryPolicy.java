@@ -0,0 +1,265 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+
+/**
+ * The {@code PowerAuthRetryPolicy} class defines how the SDK repeats HTTP requests that failed
+ * due to a network error. Each retry is delayed with an exponential backoff and a random jitter,
+ * and the total number of retries is limited by the retry budget, shared by all requests created
+ * in one {@link PowerAuthSDK} instance. The budget prevents the retries from amplifying the load
+ * when the server is not available for a longer period of time.
+ * <p>
+ * Which failures can be repeated is defined per endpoint, by
+ * {@link io.getlime.security.powerauth.networking.interfaces.IRetryableEndpointDefinition#getRetryMode()}.
+ */
+public class PowerAuthRetryPolicy {
+
+    /**
+     * Default maximum number of retries for one request.
+     */
+    public static final int DEFAULT_MAX_RETRY_COUNT = 2;
+
+    /**
+     * Default delay before the first retry (in ms).
+     */
+    public static final int DEFAULT_INITIAL_DELAY = 500;
+
+    /**
+     * Default maximum delay between two attempts (in ms).
+     */
+    public static final int DEFAULT_MAX_DELAY = 5 * 1000;
+
+    /**
+     * Default multiplier applied to the delay after each retry.
+     */
+    public static final double DEFAULT_BACKOFF_MULTIPLIER = 2.0;
+
+    /**
+     * Default jitter, as a fraction of the calculated delay.
+     */
+    public static final double DEFAULT_JITTER = 0.5;
+
+    /**
+     * Default number of retries earned by one request.
+     */
+    public static final double DEFAULT_BUDGET_RATIO = 0.1;
+
+    /**
+     * Default maximum number of retries available in the budget.
+     */
+    public static final int DEFAULT_BUDGET_CAPACITY = 10;
+
+    /**
+     * Policy that never repeats a failed request.
+     */
+    public static final PowerAuthRetryPolicy NO_RETRY = new Builder().maxRetryCount(0).build();
+
+    private final int maxRetryCount;
+    private final int initialDelay;
+    private final int maxDelay;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final double budgetRatio;
+    private final int budgetCapacity;
+    private final Random random = new Random();
+
+    /**
+     * @return maximum number of retries for one request
+     */
+    public int getMaxRetryCount() {
+        return maxRetryCount;
+    }
+
+    /**
+     * @return delay before the first retry in milliseconds
+     */
+    public int getInitialDelay() {
+        return initialDelay;
+    }
+
+    /**
+     * @return maximum delay between two attempts in milliseconds
+     */
+    public int getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * @return multiplier applied to the delay after each retry
+     */
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    /**
+     * @return jitter, as a fraction of the calculated delay
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * @return number of retries earned by one request
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * @return maximum number of retries available in the budget
+     */
+    public int getBudgetCapacity() {
+        return budgetCapacity;
+    }
+
+    /**
+     * Calculates delay before the retry. The exponential delay is randomly shortened by up to
+     * {@link #getJitter()} fraction, so the clients failed at the same time don't repeat their
+     * requests at the same time.
+     *
+     * @param retryNumber number of the retry, starting at 1
+     * @return delay in milliseconds
+     */
+    public long getRetryDelay(int retryNumber) {
+        double delay = initialDelay * Math.pow(backoffMultiplier, Math.max(0, retryNumber - 1));
+        delay = Math.min(delay, maxDelay);
+        final double randomValue;
+        synchronized (random) {
+            randomValue = random.nextDouble();
+        }
+        return (long) (delay * (1.0 - jitter * randomValue));
+    }
+
+    /**
+     * Default private constructor. Use {@link Builder} to create a new instance of this class.
+     *
+     * @param maxRetryCount Maximum number of retries for one request.
+     * @param initialDelay Delay before the first retry in ms.
+     * @param maxDelay Maximum delay between two attempts in ms.
+     * @param backoffMultiplier Multiplier applied to the delay after each retry.
+     * @param jitter Jitter, as a fraction of the calculated delay.
+     * @param budgetRatio Number of retries earned by one request.
+     * @param budgetCapacity Maximum number of retries available in the budget.
+     */
+    private PowerAuthRetryPolicy(
+            int maxRetryCount,
+            int initialDelay,
+            int maxDelay,
+            double backoffMultiplier,
+            double jitter,
+            double budgetRatio,
+            int budgetCapacity) {
+        this.maxRetryCount = maxRetryCount;
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.backoffMultiplier = backoffMultiplier;
+        this.jitter = jitter;
+        this.budgetRatio = budgetRatio;
+        this.budgetCapacity = budgetCapacity;
+    }
+
+    /**
+     * A builder that collects arguments for {@link PowerAuthRetryPolicy}.
+     */
+    public static class Builder {
+        private int maxRetryCount = DEFAULT_MAX_RETRY_COUNT;
+        private int initialDelay = DEFAULT_INITIAL_DELAY;
+        private int maxDelay = DEFAULT_MAX_DELAY;
+        private double backoffMultiplier = DEFAULT_BACKOFF_MULTIPLIER;
+        private double jitter = DEFAULT_JITTER;
+        private double budgetRatio = DEFAULT_BUDGET_RATIO;
+        private int budgetCapacity = DEFAULT_BUDGET_CAPACITY;
+
+        /**
+         * Creates a builder for {@link PowerAuthRetryPolicy}.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Sets maximum number of retries for one request to the future policy.
+         *
+         * @param maxRetryCount maximum number of retries. Use 0 to disable retries.
+         * @return The same {@link Builder} object instance
+         */
+        public Builder maxRetryCount(int maxRetryCount) {
+            this.maxRetryCount = maxRetryCount;
+            return this;
+        }
+
+        /**
+         * Sets parameters of the exponential backoff to the future policy.
+         *
+         * @param initialDelay delay before the first retry in milliseconds
+         * @param maxDelay maximum delay between two attempts in milliseconds
+         * @param multiplier multiplier applied to the delay after each retry
+         * @return The same {@link Builder} object instance
+         */
+        public Builder backoff(int initialDelay, int maxDelay, double multiplier) {
+            this.initialDelay = initialDelay;
+            this.maxDelay = maxDelay;
+            this.backoffMultiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Sets jitter to the future policy.
+         *
+         * @param jitter fraction of the delay, in range from 0.0 to 1.0
+         * @return The same {@link Builder} object instance
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Sets parameters of the retry budget to the future policy. Each request adds {@code ratio}
+         * to the budget and each retry consumes one. The budget never contains more than
+         * {@code capacity} retries.
+         *
+         * @param ratio number of retries earned by one request
+         * @param capacity maximum number of retries available in the budget
+         * @return The same {@link Builder} object instance
+         */
+        public Builder retryBudget(double ratio, int capacity) {
+            this.budgetRatio = ratio;
+            this.budgetCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Build a final policy.
+         *
+         * @return Final {@link PowerAuthRetryPolicy} instance.
+         */
+        public @NonNull PowerAuthRetryPolicy build() {
+            return new PowerAuthRetryPolicy(
+                    Math.max(0, maxRetryCount),
+                    Math.max(0, initialDelay),
+                    Math.max(0, maxDelay),
+                    Math.max(1.0, backoffMultiplier),
+                    Math.min(1.0, Math.max(0.0, jitter)),
+                    Math.max(0.0, budgetRatio),
+                    Math.max(0, budgetCapacity));
+        }
+    }
+}
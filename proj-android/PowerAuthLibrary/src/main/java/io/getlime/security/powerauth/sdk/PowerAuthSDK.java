@@ -29,6 +29,7 @@ import com.google.gson.reflect.TypeToken;
 
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import io.getlime.security.powerauth.biometry.BiometricAuthentication;
 import io.getlime.security.powerauth.biometry.BiometricAuthenticationRequest;
@@ -43,6 +44,7 @@ import io.getlime.security.powerauth.core.ActivationStep1Param;
 import io.getlime.security.powerauth.core.ActivationStep1Result;
 import io.getlime.security.powerauth.core.ActivationStep2Param;
 import io.getlime.security.powerauth.core.ActivationStep2Result;
+import io.getlime.security.powerauth.core.EcdsaSignatureVerifier;
 import io.getlime.security.powerauth.core.EciesEncryptor;
 import io.getlime.security.powerauth.core.ErrorCode;
 import io.getlime.security.powerauth.core.Password;
@@ -56,6 +58,7 @@ import io.getlime.security.powerauth.core.SignatureUnlockKeys;
 import io.getlime.security.powerauth.core.SignedData;
 import io.getlime.security.powerauth.ecies.EciesEncryptorFactory;
 import io.getlime.security.powerauth.ecies.EciesEncryptorId;
+import io.getlime.security.powerauth.ecies.EciesMetadataCache;
 import io.getlime.security.powerauth.exception.PowerAuthErrorCodes;
 import io.getlime.security.powerauth.exception.PowerAuthErrorException;
 import io.getlime.security.powerauth.exception.PowerAuthMissingConfigException;
@@ -71,6 +74,8 @@ import io.getlime.security.powerauth.networking.endpoints.ValidateSignatureEndpo
 import io.getlime.security.powerauth.networking.endpoints.VaultUnlockEndpoint;
 import io.getlime.security.powerauth.networking.interfaces.ICancelable;
 import io.getlime.security.powerauth.networking.interfaces.INetworkResponseListener;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
+import io.getlime.security.powerauth.networking.metrics.EndpointMetrics;
 import io.getlime.security.powerauth.networking.model.entity.ActivationRecovery;
 import io.getlime.security.powerauth.networking.model.request.ActivationLayer1Request;
 import io.getlime.security.powerauth.networking.model.request.ActivationLayer2Request;
@@ -96,6 +101,7 @@ import io.getlime.security.powerauth.sdk.impl.DefaultCallbackDispatcher;
 import io.getlime.security.powerauth.sdk.impl.DefaultExecutorProvider;
 import io.getlime.security.powerauth.sdk.impl.DefaultSavePowerAuthStateListener;
 import io.getlime.security.powerauth.sdk.impl.DummyCancelable;
+import io.getlime.security.powerauth.sdk.impl.ExecutorCallbackDispatcher;
 import io.getlime.security.powerauth.sdk.impl.GetActivationStatusTask;
 import io.getlime.security.powerauth.sdk.impl.ICallbackDispatcher;
 import io.getlime.security.powerauth.sdk.impl.IPrivateCryptoHelper;
@@ -118,10 +124,20 @@ public class PowerAuthSDK {
     private final @NonNull PowerAuthKeychainConfiguration mKeychainConfiguration;
     private final @NonNull HttpClient mClient;
     private final @NonNull ISavePowerAuthStateListener mStateListener;
-    private final @NonNull Keychain mBiometryKeychain;
+    private final @NonNull Context mAppContext;
+    private Keychain mBiometryKeychain;
     private final @NonNull Keychain mTokenStoreKeychain;
     private final @NonNull ICallbackDispatcher mCallbackDispatcher;
+    private final @NonNull ICallbackDispatcher mWorkerCallbackDispatcher = new ExecutorCallbackDispatcher(null);
     private PowerAuthTokenStore mTokenStore;
+    private PowerAuthOfflineQueue mOfflineQueue;
+    private final @NonNull EciesMetadataCache mEciesMetadataCache = new EciesMetadataCache();
+
+    /**
+     * Contains ECIES encryptor for activation payload, prepared in advance in
+     * {@link #prepareActivation()}. The object is used only once.
+     */
+    private EciesEncryptor mPreparedActivationEncryptor;
 
     /**
      * A builder that collects configurations and arguments for {@link PowerAuthSDK}.
@@ -132,6 +148,9 @@ public class PowerAuthSDK {
         private PowerAuthClientConfiguration mClientConfiguration;
         private PowerAuthKeychainConfiguration mKeychainConfiguration;
         private ISavePowerAuthStateListener mStateListener;
+        private @CallbackDispatchMode int mCallbackDispatchMode = CallbackDispatchMode.MAIN_THREAD;
+        private Executor mCallbackExecutor;
+        private PowerAuthSharedContext mSharedContext;
 
         /**
          * Creates a builder for {@link PowerAuthSDK}.
@@ -172,6 +191,45 @@ public class PowerAuthSDK {
             return this;
         }
 
+        /**
+         * Set how the results of asynchronous operations are delivered to the listeners. By default,
+         * all listeners are called on the main thread. If {@link CallbackDispatchMode#EXECUTOR} mode
+         * is used, then you have to provide an executor with {@link #callbackExecutor(Executor)}.
+         *
+         * @param mode Callback dispatch mode.
+         * @return {@link Builder}
+         */
+        public @NonNull Builder callbackDispatchMode(@CallbackDispatchMode int mode) {
+            this.mCallbackDispatchMode = mode;
+            return this;
+        }
+
+        /**
+         * Set executor for delivering results of asynchronous operations. The method also sets
+         * the dispatch mode to {@link CallbackDispatchMode#EXECUTOR}.
+         *
+         * @param executor Executor for listener callbacks.
+         * @return {@link Builder}
+         */
+        public @NonNull Builder callbackExecutor(@NonNull Executor executor) {
+            this.mCallbackDispatchMode = CallbackDispatchMode.EXECUTOR;
+            this.mCallbackExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Set context shared with other {@link PowerAuthSDK} instances. If set, then the instance executes
+         * its HTTP requests in the shared thread pool, and the thread pool parameters from
+         * {@link PowerAuthClientConfiguration} are ignored.
+         *
+         * @param sharedContext Context shared by multiple instances.
+         * @return {@link Builder}
+         */
+        public @NonNull Builder sharedContext(@NonNull PowerAuthSharedContext sharedContext) {
+            this.mSharedContext = sharedContext;
+            return this;
+        }
+
         /**
          * Build instance of {@link PowerAuthSDK}.
          *
@@ -193,7 +251,81 @@ public class PowerAuthSDK {
          */
         public PowerAuthSDK build(@NonNull Context context) throws PowerAuthErrorException {
             final Context appContext = context.getApplicationContext();
+            final ICallbackDispatcher callbackDispatcher = prepareConfiguration();
+            final DefaultExecutorProvider executorProvider = createExecutorProvider(mClientConfiguration);
+            return buildInstance(appContext, mKeychainConfiguration, mClientConfiguration, mStateListener, executorProvider, callbackDispatcher);
+        }
+
+        /**
+         * Build instance of {@link PowerAuthSDK} asynchronously. Unlike {@link #build(Context)}, the method
+         * returns immediately and the time consuming tasks, like the keychain initialization and the activation
+         * state restoration, are performed in the background thread. The returned future is completed once
+         * the instance is ready to use.
+         * <p>
+         * The returned future fails with the same {@link PowerAuthErrorException} as {@link #build(Context)}
+         * would throw, or with {@link RejectedExecutionException} if the executor cannot accept the task.
+         *
+         * @param context Android context
+         * @return {@link PowerAuthFuture} completed with instance of {@link PowerAuthSDK} class.
+         */
+        public @NonNull PowerAuthFuture<PowerAuthSDK> buildAsync(@NonNull Context context) {
+            final PowerAuthFuture<PowerAuthSDK> future = new PowerAuthFuture<>();
+            final Context appContext = context.getApplicationContext();
+            final ICallbackDispatcher callbackDispatcher;
+            try {
+                callbackDispatcher = prepareConfiguration();
+            } catch (PowerAuthErrorException e) {
+                future.fail(e);
+                return future;
+            }
+            // Capture the current configuration, so the builder can be reused while the instance is being created.
+            final PowerAuthKeychainConfiguration keychainConfiguration = mKeychainConfiguration;
+            final PowerAuthClientConfiguration clientConfiguration = mClientConfiguration;
+            final ISavePowerAuthStateListener stateListener = mStateListener;
+            final DefaultExecutorProvider executorProvider = createExecutorProvider(clientConfiguration);
+            try {
+                executorProvider.getConcurrentExecutor(TaskPriority.INTERACTIVE).execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            future.complete(buildInstance(appContext, keychainConfiguration, clientConfiguration, stateListener, executorProvider, callbackDispatcher));
+                        } catch (Throwable t) {
+                            future.fail(t);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                PA2Log.e("PowerAuthSDK.Builder: Asynchronous build rejected: %s", e.getMessage());
+                future.fail(e);
+            }
+            return future;
+        }
 
+        /**
+         * Create executor provider for a new instance. If the shared context is set, then
+         * the provider uses the shared thread pool.
+         *
+         * @param clientConfiguration Configuration for RESTful API client.
+         * @return Executor provider for a new instance.
+         */
+        private @NonNull DefaultExecutorProvider createExecutorProvider(@NonNull PowerAuthClientConfiguration clientConfiguration) {
+            if (mSharedContext != null) {
+                if (clientConfiguration.getExecutorPoolSize() != PowerAuthClientConfiguration.DEFAULT_EXECUTOR_POOL_SIZE ||
+                        clientConfiguration.getExecutorQueueCapacity() != PowerAuthClientConfiguration.DEFAULT_EXECUTOR_QUEUE_CAPACITY) {
+                    PA2Log.e("PowerAuthSDK.Builder: Thread pool parameters from PowerAuthClientConfiguration are ignored, because the shared context is set.");
+                }
+                return mSharedContext.createExecutorProvider();
+            }
+            return new DefaultExecutorProvider(clientConfiguration.getExecutorPoolSize(), clientConfiguration.getExecutorQueueCapacity());
+        }
+
+        /**
+         * Validate configuration and create default configuration objects.
+         *
+         * @return Callback dispatcher for the new {@link PowerAuthSDK} instance.
+         * @throws PowerAuthErrorException In case of invalid configuration.
+         */
+        private @NonNull ICallbackDispatcher prepareConfiguration() throws PowerAuthErrorException {
             if (!mConfiguration.validateConfiguration()) {
                 throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeWrongParameter, "Invalid PowerAuthConfiguration.");
             }
@@ -206,17 +338,49 @@ public class PowerAuthSDK {
                 mClientConfiguration = new PowerAuthClientConfiguration.Builder().build();
             }
 
+            // Prepare callback dispatcher
+            if (mCallbackDispatchMode == CallbackDispatchMode.WORKER_THREAD) {
+                return new ExecutorCallbackDispatcher(null);
+            } else if (mCallbackDispatchMode == CallbackDispatchMode.EXECUTOR) {
+                if (mCallbackExecutor == null) {
+                    throw new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeWrongParameter, "Missing executor for callbacks.");
+                }
+                return new ExecutorCallbackDispatcher(mCallbackExecutor);
+            }
+            return new DefaultCallbackDispatcher();
+        }
+
+        /**
+         * Create a new instance of {@link PowerAuthSDK} and restore its state. The status and token store
+         * keychains are opened in this method, other keychains are opened on demand.
+         *
+         * @param appContext Android application context
+         * @param keychainConfiguration Keychain configuration.
+         * @param clientConfiguration Configuration for RESTful API client.
+         * @param customStateListener Optional state listener provided by the application.
+         * @param executorProvider Executor provider for HTTP client.
+         * @param callbackDispatcher Dispatcher for listener callbacks.
+         * @return Instance of {@link PowerAuthSDK} class.
+         * @throws PowerAuthErrorException In case that the keychain cannot be created.
+         */
+        private @NonNull PowerAuthSDK buildInstance(
+                @NonNull Context appContext,
+                @NonNull PowerAuthKeychainConfiguration keychainConfiguration,
+                @NonNull PowerAuthClientConfiguration clientConfiguration,
+                @Nullable ISavePowerAuthStateListener customStateListener,
+                @NonNull DefaultExecutorProvider executorProvider,
+                @NonNull ICallbackDispatcher callbackDispatcher) throws PowerAuthErrorException {
+
             // Prepare HTTP client
-            final HttpClient httpClient = new HttpClient(mClientConfiguration, mConfiguration.getBaseEndpointUrl(), new DefaultExecutorProvider());
+            final HttpClient httpClient = new HttpClient(clientConfiguration, mConfiguration.getBaseEndpointUrl(), executorProvider, callbackDispatcher);
 
-            // Prepare keychains
-            final @KeychainProtection int minRequiredKeychainProtection = mKeychainConfiguration.getMinimalRequiredKeychainProtection();
-            final Keychain statusKeychain = KeychainFactory.getKeychain(appContext, mKeychainConfiguration.getKeychainStatusId(), minRequiredKeychainProtection);
-            final Keychain biometryKeychain = KeychainFactory.getKeychain(appContext, mKeychainConfiguration.getKeychainBiometryId(), minRequiredKeychainProtection);
-            final Keychain tokenStoreKeychain = KeychainFactory.getKeychain(appContext, mKeychainConfiguration.getKeychainTokenStoreId(), minRequiredKeychainProtection);
+            // Prepare status keychain. The keychain also validates whether the device supports the required keychain protection.
+            final Keychain statusKeychain = KeychainFactory.getKeychain(appContext, keychainConfiguration.getKeychainStatusId(), keychainConfiguration.getMinimalRequiredKeychainProtection(), keychainConfiguration.getKeychainStorageType());
+            // Prepare token store keychain. The token store getter cannot report an error, so the keychain is opened in advance.
+            final Keychain tokenStoreKeychain = KeychainFactory.getKeychain(appContext, keychainConfiguration.getKeychainTokenStoreId(), keychainConfiguration.getMinimalRequiredKeychainProtection(), keychainConfiguration.getKeychainStorageType());
 
-            // Prepare state listener and callback dispatcher
-            final ISavePowerAuthStateListener stateListener = mStateListener != null ? mStateListener : new DefaultSavePowerAuthStateListener(statusKeychain);
+            // Prepare state listener
+            final ISavePowerAuthStateListener stateListener = customStateListener != null ? customStateListener : new DefaultSavePowerAuthStateListener(statusKeychain);
 
             // Prepare low-level Session object.
             final SessionSetup sessionSetup = new SessionSetup(
@@ -230,13 +394,14 @@ public class PowerAuthSDK {
 
             // Create a final PowerAuthSDK instance
             final PowerAuthSDK instance = new PowerAuthSDK(
+                    appContext,
                     session,
                     mConfiguration,
-                    mKeychainConfiguration,
+                    keychainConfiguration,
                     httpClient,
                     stateListener,
-                    biometryKeychain,
-                    tokenStoreKeychain);
+                    tokenStoreKeychain,
+                    callbackDispatcher);
 
             // Restore state of this SDK instance.
             boolean b = instance.restoreState(instance.mStateListener.serializedState(mConfiguration.getInstanceId()));
@@ -247,30 +412,32 @@ public class PowerAuthSDK {
     /**
      * Private class constructor. Use {@link Builder} to create an instance of this class.
      *
+     * @param appContext                Android application context.
      * @param session                   Low-level {@link Session} instance.
      * @param configuration             Main {@link PowerAuthConfiguration}.
      * @param keychainConfiguration     Keychain configuration.
      * @param client                    HTTP client implementation.
      * @param stateListener             State listener.
-     * @param biometryKeychain          Keychain that store biometry-related key.
      * @param tokenStoreKeychain        Keychain that store tokens.
+     * @param callbackDispatcher        Dispatcher for listener callbacks.
      */
     private PowerAuthSDK(
+            @NonNull Context appContext,
             @NonNull Session session,
             @NonNull PowerAuthConfiguration configuration,
             @NonNull PowerAuthKeychainConfiguration keychainConfiguration,
             @NonNull HttpClient client,
             @NonNull ISavePowerAuthStateListener stateListener,
-            @NonNull Keychain biometryKeychain,
-            @NonNull Keychain tokenStoreKeychain) {
+            @NonNull Keychain tokenStoreKeychain,
+            @NonNull ICallbackDispatcher callbackDispatcher) {
+        this.mAppContext = appContext;
         this.mSession = session;
         this.mConfiguration = configuration;
         this.mKeychainConfiguration = keychainConfiguration;
         this.mClient = client;
         this.mStateListener = stateListener;
-        this.mBiometryKeychain = biometryKeychain;
         this.mTokenStoreKeychain = tokenStoreKeychain;
-        this.mCallbackDispatcher = new DefaultCallbackDispatcher();
+        this.mCallbackDispatcher = callbackDispatcher;
     }
 
     /**
@@ -285,7 +452,7 @@ public class PowerAuthSDK {
             @Override
             public EciesEncryptor getEciesEncryptor(@NonNull EciesEncryptorId identifier) throws PowerAuthErrorException {
                 final byte[] deviceRelatedKey = context == null ? null : deviceRelatedKey(context);
-                EciesEncryptorFactory factory = new EciesEncryptorFactory(mSession, deviceRelatedKey);
+                EciesEncryptorFactory factory = new EciesEncryptorFactory(mSession, deviceRelatedKey, mEciesMetadataCache);
                 return factory.getEncryptor(identifier);
             }
 
@@ -390,7 +557,7 @@ public class PowerAuthSDK {
     }
 
     /**
-     * Private, defines callback interface for {@link #fetchEncryptedVaultUnlockKey(Context, PowerAuthAuthentication, String, IFetchEncryptedVaultUnlockKeyListener)}
+     * Private, defines callback interface for {@link #fetchEncryptedVaultUnlockKey(Context, PowerAuthAuthentication, String, ICallbackDispatcher, IFetchEncryptedVaultUnlockKeyListener)}
      * method.
      */
     private interface IFetchEncryptedVaultUnlockKeyListener {
@@ -417,15 +584,16 @@ public class PowerAuthSDK {
      * @param context android context object
      * @param authentication authentication object, with at least 2 factors defined.
      * @param reason reason for vault unlock operation (See {@link VaultUnlockReason})
+     * @param callbackDispatcher dispatcher for the listener callbacks.
      * @param listener private listener called with the operation result.
      * @return {@link ICancelable} object with asynchronous operation.
      */
     private @Nullable
-    ICancelable fetchEncryptedVaultUnlockKey(@NonNull final Context context, @NonNull final PowerAuthAuthentication authentication, @NonNull @VaultUnlockReason final String reason, @NonNull final IFetchEncryptedVaultUnlockKeyListener listener) {
+    ICancelable fetchEncryptedVaultUnlockKey(@NonNull final Context context, @NonNull final PowerAuthAuthentication authentication, @NonNull @VaultUnlockReason final String reason, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IFetchEncryptedVaultUnlockKeyListener listener) {
         // Input validations
         checkForValidSetup();
         if (!mSession.hasValidActivation()) {
-            dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onFetchEncryptedVaultUnlockKeyFailed(new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeMissingActivation));
@@ -441,6 +609,7 @@ public class PowerAuthSDK {
                 new VaultUnlockEndpoint(),
                 getCryptoHelper(context),
                 authentication,
+                callbackDispatcher,
                 new INetworkResponseListener<VaultUnlockResponsePayload>() {
                     @Override
                     public void onNetworkResponse(VaultUnlockResponsePayload response) {
@@ -466,11 +635,76 @@ public class PowerAuthSDK {
      */
     public synchronized @NonNull PowerAuthTokenStore getTokenStore() {
         if (mTokenStore == null) {
-            mTokenStore = new PowerAuthTokenStore(this, mTokenStoreKeychain, mClient);
+            mTokenStore = new PowerAuthTokenStore(this, mTokenStoreKeychain, mClient, mKeychainConfiguration.isStoreTokensInSingleEntry());
         }
         return mTokenStore;
     }
 
+    /**
+     * Returns reference to {@code PowerAuthOfflineQueue} instance. The internal instance is created on demand, when
+     * the getter is called for first time.
+     *
+     * @return Reference to {@code PowerAuthOfflineQueue} instance.
+     * @throws PowerAuthErrorException if the keychain for the queue cannot be opened.
+     */
+    public synchronized @NonNull PowerAuthOfflineQueue getOfflineQueue() throws PowerAuthErrorException {
+        if (mOfflineQueue == null) {
+            mOfflineQueue = new PowerAuthOfflineQueue(this, openKeychain(mKeychainConfiguration.getKeychainOfflineQueueId()), mClient);
+        }
+        return mOfflineQueue;
+    }
+
+    /**
+     * Removes all requests from the offline queue. If the queue was not created yet, then the requests
+     * are removed from the underlying storage directly, so the keychain is not opened only to be cleared.
+     */
+    private void removeOfflineQueueContent() {
+        final PowerAuthOfflineQueue offlineQueue;
+        synchronized (this) {
+            offlineQueue = mOfflineQueue;
+        }
+        if (offlineQueue != null) {
+            offlineQueue.clear();
+            return;
+        }
+        final String keychainId = mKeychainConfiguration.getKeychainOfflineQueueId();
+        if (PowerAuthOfflineQueue.removeStoredRequests(mAppContext, keychainId, mConfiguration.getInstanceId())) {
+            return;
+        }
+        // The content is stored in the mapped file, so the keychain must be opened.
+        try {
+            getOfflineQueue().clear();
+        } catch (PowerAuthErrorException e) {
+            PA2Log.e("PowerAuthSDK: Failed to clear offline queue: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns keychain for biometry-related key. The keychain is opened on demand, when the getter
+     * is called for first time.
+     *
+     * @return Keychain for biometry-related key.
+     * @throws PowerAuthErrorException if the keychain cannot be opened.
+     */
+    private synchronized @NonNull Keychain getBiometryKeychain() throws PowerAuthErrorException {
+        if (mBiometryKeychain == null) {
+            mBiometryKeychain = openKeychain(mKeychainConfiguration.getKeychainBiometryId());
+        }
+        return mBiometryKeychain;
+    }
+
+    /**
+     * Open keychain with required level of protection.
+     *
+     * @param identifier Keychain identifier.
+     * @return Keychain with requested identifier.
+     * @throws PowerAuthErrorException if the keychain cannot be opened. The keychain protection is validated
+     *         in the Builder, so this happens only if the keychain file cannot be opened.
+     */
+    private @NonNull Keychain openKeychain(@NonNull String identifier) throws PowerAuthErrorException {
+        return KeychainFactory.getKeychain(mAppContext, identifier, mKeychainConfiguration.getMinimalRequiredKeychainProtection(), mKeychainConfiguration.getKeychainStorageType());
+    }
+
     /**
      * Reference to the low-level Session class.
      * <p>
@@ -508,6 +742,16 @@ public class PowerAuthSDK {
         return mConfiguration;
     }
 
+    /**
+     * Returns snapshot of metrics collected for PowerAuth endpoints, together with the state
+     * of their circuit breakers.
+     *
+     * @return Array with metrics for all endpoints used at least once.
+     */
+    public @NonNull EndpointMetrics[] getEndpointMetrics() {
+        return mClient.getEndpointMetrics();
+    }
+
     /**
      * The method is used for saving serialized state of Session, for example after password change method called directly via Session instance. See {@link PowerAuthSDK#getSession()} method.
      */
@@ -525,6 +769,7 @@ public class PowerAuthSDK {
     @CheckResult
     public boolean restoreState(byte[] state) {
         mSession.resetSession();
+        mEciesMetadataCache.invalidate();
         final int result = mSession.deserializeState(state);
         return result == ErrorCode.OK;
     }
@@ -587,22 +832,118 @@ public class PowerAuthSDK {
         mSession.destroy();
     }
 
+    /**
+     * Prepare cryptographic material for the upcoming activation in the background. The method
+     * generates device's key pair and prepares ECIES encryptor for the activation payload, so
+     * the following {@link #createActivation(PowerAuthActivation, ICreateActivationListener)}
+     * call doesn't need to perform these expensive operations. You can call this method for
+     * example once the user enters a valid activation code.
+     * <p>
+     * If the activation cannot be started, then the method does nothing. The prepared material
+     * is used only once, by the next activation creation.
+     *
+     * @throws PowerAuthMissingConfigException thrown in case configuration is not present.
+     */
+    public void prepareActivation() {
+        checkForValidSetup();
+        if (!mSession.canStartActivation()) {
+            return;
+        }
+        try {
+            mClient.getConcurrentExecutor(TaskPriority.INTERACTIVE).execute(new Runnable() {
+                @Override
+                public void run() {
+                    final int result = mSession.prepareActivation();
+                    if (result != ErrorCode.OK) {
+                        PA2Log.e("PowerAuthSDK: Failed to prepare activation keys. Error: " + result);
+                        return;
+                    }
+                    try {
+                        final EciesEncryptor encryptor = getCryptoHelper(null).getEciesEncryptor(EciesEncryptorId.ACTIVATION_PAYLOAD);
+                        synchronized (PowerAuthSDK.this) {
+                            mPreparedActivationEncryptor = encryptor;
+                        }
+                    } catch (PowerAuthErrorException e) {
+                        PA2Log.e("PowerAuthSDK: Failed to prepare activation encryptor: " + e.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Nothing has started yet, so the material is simply prepared later, in createActivation().
+            PA2Log.e("PowerAuthSDK: Activation preparation rejected: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Return ECIES encryptor for activation payload. If encryptor was prepared in advance,
+     * then returns the prepared object and clears it, so it cannot be used twice.
+     *
+     * @param cryptoHelper Cryptographic helper used when there's no prepared encryptor.
+     * @return ECIES encryptor for activation payload.
+     * @throws PowerAuthErrorException In case that encryptor cannot be created.
+     */
+    private @NonNull EciesEncryptor getActivationEncryptor(@NonNull IPrivateCryptoHelper cryptoHelper) throws PowerAuthErrorException {
+        synchronized (this) {
+            final EciesEncryptor encryptor = mPreparedActivationEncryptor;
+            mPreparedActivationEncryptor = null;
+            if (encryptor != null) {
+                return encryptor;
+            }
+        }
+        return cryptoHelper.getEciesEncryptor(EciesEncryptorId.ACTIVATION_PAYLOAD);
+    }
+
     /**
      * Create a new activation by calling a PowerAuth Standard RESTful API.
+     * <p>
+     * The activation is started on the calling thread, so the SDK is in the pending activation state
+     * after this method returns. The payload encryption and the HTTP request are then processed
+     * in the background. To make the activation start faster, you can call {@link #prepareActivation()}
+     * in advance.
+     * <p>
+     * If the returned {@link ICancelable} object is cancelled, then the pending activation is reset
+     * and the listener is not called, regardless of whether the request has been already sent.
      *
      * @param activation {@link PowerAuthActivation} object containing all information required for the activation creation.
      * @param listener   A callback listener called when the process finishes - it contains an activation fingerprint in case of success or error in case of failure.
-     * @return {@link ICancelable} object associated with the running HTTP request.
+     * @return {@link ICancelable} object associated with the running activation process.
      * @throws PowerAuthMissingConfigException thrown in case configuration is not present.
      */
     public @Nullable ICancelable createActivation(@NonNull final PowerAuthActivation activation, @NonNull final ICreateActivationListener listener) {
+        return createActivation(activation, mCallbackDispatcher, listener);
+    }
+
+    /**
+     * Same as {@link #createActivation(PowerAuthActivation, ICreateActivationListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param activation {@link PowerAuthActivation} object containing all information required for the activation creation.
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener   A callback listener called when the process finishes - it contains an activation fingerprint in case of success or error in case of failure.
+     * @return {@link ICancelable} object associated with the running activation process.
+     */
+    public @Nullable ICancelable createActivation(@NonNull final PowerAuthActivation activation, @NonNull Executor callbackExecutor, @NonNull final ICreateActivationListener listener) {
+        return createActivation(activation, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #createActivation(PowerAuthActivation, ICreateActivationListener)} with explicit callback dispatcher.
+     *
+     * @param activation {@link PowerAuthActivation} object containing all information required for the activation creation.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener   A callback listener called when the process finishes - it contains an activation fingerprint in case of success or error in case of failure.
+     * @return {@link ICancelable} object associated with the running activation process.
+     */
+    private @Nullable ICancelable createActivation(@NonNull final PowerAuthActivation activation, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final ICreateActivationListener listener) {
 
         // Initial validation
         checkForValidSetup();
 
         // Check if activation may be started
         if (!canStartActivation()) {
-            dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onActivationCreateFailed(new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeInvalidActivationState));
@@ -611,37 +952,84 @@ public class PowerAuthSDK {
             return null;
         }
 
+        // Prepare low level activation parameters
+        final ActivationStep1Param step1Param;
+        if (activation.activationCode != null) {
+            step1Param = new ActivationStep1Param(activation.activationCode.activationCode, activation.activationCode.activationSignature);
+        } else {
+            step1Param = null;
+        }
+
+        // Start the activation. If keys were prepared in advance, then this step is fast.
+        final ActivationStep1Result step1Result = mSession.startActivation(step1Param);
+        if (step1Result.errorCode != ErrorCode.OK) {
+            // Looks like create activation failed
+            final int errorCode = step1Result.errorCode == ErrorCode.Encryption
+                    ? PowerAuthErrorCodes.PA2ErrorCodeSignatureError
+                    : PowerAuthErrorCodes.PA2ErrorCodeInvalidActivationData;
+            callbackDispatcher.dispatchCallback(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onActivationCreateFailed(new PowerAuthErrorException(errorCode));
+                }
+            });
+            return null;
+        }
+
+        // The rest of the activation continues in the background.
+        final CompositeCancelableTask compositeCancelableTask = new CompositeCancelableTask(true);
+        try {
+            mClient.getConcurrentExecutor(TaskPriority.INTERACTIVE).execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (compositeCancelableTask.isCancelled()) {
+                        // Cancelled before the request was sent. Like the cancel of the HTTP request,
+                        // this only resets the session and the listener is not called.
+                        mSession.resetSession();
+                        return;
+                    }
+                    final ICancelable httpRequest = postActivationRequest(activation, step1Result, callbackDispatcher, listener);
+                    if (httpRequest != null) {
+                        compositeCancelableTask.addCancelable(httpRequest);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // The activation was already started, so the session must be reset.
+            PA2Log.e("PowerAuthSDK: Activation request rejected: " + e.getMessage());
+            mSession.resetSession();
+            callbackDispatcher.dispatchCallback(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onActivationCreateFailed(e);
+                }
+            });
+            return null;
+        }
+        return compositeCancelableTask;
+    }
+
+    /**
+     * Encrypt activation payload and send the activation request to the server.
+     *
+     * @param activation {@link PowerAuthActivation} object containing all information required for the activation creation.
+     * @param step1Result Result from the activation start.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener A callback listener called when the process finishes.
+     * @return {@link ICancelable} object associated with the running HTTP request or {@code null} in case of failure.
+     */
+    private @Nullable ICancelable postActivationRequest(@NonNull final PowerAuthActivation activation,
+                                                        @NonNull final ActivationStep1Result step1Result,
+                                                        @NonNull final ICallbackDispatcher callbackDispatcher,
+                                                        @NonNull final ICreateActivationListener listener) {
+
         final IPrivateCryptoHelper cryptoHelper = getCryptoHelper(null);
         final JsonSerialization serialization = new JsonSerialization();
         final EciesEncryptor encryptor;
 
         try {
-            // Prepare cryptographic helper & Layer2 ECIES encryptor
-            encryptor = cryptoHelper.getEciesEncryptor(EciesEncryptorId.ACTIVATION_PAYLOAD);
-
-            // Prepare low level activation parameters
-            final ActivationStep1Param step1Param;
-            if (activation.activationCode != null) {
-                step1Param = new ActivationStep1Param(activation.activationCode.activationCode, activation.activationCode.activationSignature);
-            } else {
-                step1Param = null;
-            }
-
-            // Start the activation
-            final ActivationStep1Result step1Result = mSession.startActivation(step1Param);
-            if (step1Result.errorCode != ErrorCode.OK) {
-                // Looks like create activation failed
-                final int errorCode = step1Result.errorCode == ErrorCode.Encryption
-                        ? PowerAuthErrorCodes.PA2ErrorCodeSignatureError
-                        : PowerAuthErrorCodes.PA2ErrorCodeInvalidActivationData;
-                dispatchCallback(new Runnable() {
-                    @Override
-                    public void run() {
-                        listener.onActivationCreateFailed(new PowerAuthErrorException(errorCode));
-                    }
-                });
-                return null;
-            }
+            // Prepare Layer2 ECIES encryptor
+            encryptor = getActivationEncryptor(cryptoHelper);
 
             // Prepare level 2 payload
             final ActivationLayer2Request privateData = new ActivationLayer2Request();
@@ -665,6 +1053,8 @@ public class PowerAuthSDK {
                     request,
                     new CreateActivationEndpoint(),
                     cryptoHelper,
+                    null,
+                    callbackDispatcher,
                     new INetworkResponseListener<ActivationLayer1Response>() {
                         @Override
                         public void onNetworkResponse(ActivationLayer1Response response) {
@@ -714,7 +1104,7 @@ public class PowerAuthSDK {
 
         } catch (final PowerAuthErrorException e) {
             mSession.resetSession();
-            dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onActivationCreateFailed(e);
@@ -724,7 +1114,6 @@ public class PowerAuthSDK {
         }
     }
 
-
     /**
      * Create a new standard activation with given name and activation code by calling a PowerAuth Standard RESTful API.
      *
@@ -739,7 +1128,6 @@ public class PowerAuthSDK {
         return createActivation(name, activationCode, null, null, listener);
     }
 
-
     /**
      * Create a new standard activation with given name and activation code by calling a PowerAuth Standard RESTful API.
      *
@@ -755,7 +1143,6 @@ public class PowerAuthSDK {
         return createActivation(name, activationCode, extras, null, listener);
     }
 
-
     /**
      * Create a new standard activation with given name and activation code by calling a PowerAuth Standard RESTful API.
      *
@@ -787,7 +1174,6 @@ public class PowerAuthSDK {
         }
     }
 
-
     /**
      * Create a new custom activation with given name and identity attributes by calling a PowerAuth Standard RESTful API.
      *
@@ -819,7 +1205,6 @@ public class PowerAuthSDK {
         }
     }
 
-
     /**
      * Create a new recovery activation with given name, recovery code and puk, by calling a PowerAuth Standard RESTful API.
      *
@@ -852,7 +1237,6 @@ public class PowerAuthSDK {
         }
     }
 
-
     /**
      * Commit activation that was created and store related data using default authentication instance setup with provided password.
      *
@@ -1013,6 +1397,33 @@ public class PowerAuthSDK {
      */
     public @Nullable
     ICancelable fetchActivationStatusWithCallback(@NonNull final Context context, @NonNull final IActivationStatusListener listener) {
+        return fetchActivationStatusWithCallback(context, mCallbackDispatcher, listener);
+    }
+
+    /**
+     * Same as {@link #fetchActivationStatusWithCallback(Context, IActivationStatusListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context  Context
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener A callback listener with activation status result - it contains status information in case of success and error in case of failure.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    public @Nullable ICancelable fetchActivationStatusWithCallback(@NonNull final Context context, @NonNull Executor callbackExecutor, @NonNull final IActivationStatusListener listener) {
+        return fetchActivationStatusWithCallback(context, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #fetchActivationStatusWithCallback(Context, IActivationStatusListener)} with explicit callback dispatcher.
+     *
+     * @param context  Context
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener A callback listener with activation status result - it contains status information in case of success and error in case of failure.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    private @Nullable ICancelable fetchActivationStatusWithCallback(@NonNull final Context context, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IActivationStatusListener listener) {
 
         // Input validations
         checkForValidSetup();
@@ -1022,7 +1433,7 @@ public class PowerAuthSDK {
             final int errorCode = mSession.hasPendingActivation()
                                     ? PowerAuthErrorCodes.PA2ErrorCodeActivationPending
                                     : PowerAuthErrorCodes.PA2ErrorCodeMissingActivation;
-            dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onActivationStatusFailed(new PowerAuthErrorException(errorCode));
@@ -1037,7 +1448,7 @@ public class PowerAuthSDK {
         synchronized (this) {
             if (mGetActivationStatusTask != null) {
                 // There's already some pending task, try to add this listener to it.
-                task = mGetActivationStatusTask.addActivationStatusListener(listener);
+                task = mGetActivationStatusTask.addActivationStatusListener(listener, callbackDispatcher);
                 if (task == null) {
                     // Looks like the current task is already exiting. We need to create a new one
                     mGetActivationStatusTask = null;
@@ -1064,7 +1475,7 @@ public class PowerAuthSDK {
                 // Apply "disable" flag to task
                 mGetActivationStatusTask.setUpgradeDisabled(mConfiguration.isAutomaticProtocolUpgradeDisabled());
                 // And finally assign that task
-                task = mGetActivationStatusTask.addActivationStatusListener(listener);
+                task = mGetActivationStatusTask.addActivationStatusListener(listener, callbackDispatcher);
                 mGetActivationStatusTask.execute();
             }
         }
@@ -1127,13 +1538,42 @@ public class PowerAuthSDK {
      */
     public @Nullable
     ICancelable removeActivationWithAuthentication(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, @NonNull final IActivationRemoveListener listener) {
+        return removeActivationWithAuthentication(context, authentication, mCallbackDispatcher, listener);
+    }
+
+    /**
+     * Same as {@link #removeActivationWithAuthentication(Context, PowerAuthAuthentication, IActivationRemoveListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context        Context.
+     * @param authentication An authentication instance specifying what factors should be used to sign the request.
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener       A callback with activation removal result - in case of an error, an error instance is not 'nil'.
+     * @return ICancelable associated with the running request.
+     */
+    public @Nullable ICancelable removeActivationWithAuthentication(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, @NonNull Executor callbackExecutor, @NonNull final IActivationRemoveListener listener) {
+        return removeActivationWithAuthentication(context, authentication, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #removeActivationWithAuthentication(Context, PowerAuthAuthentication, IActivationRemoveListener)} with explicit callback dispatcher.
+     *
+     * @param context        Context.
+     * @param authentication An authentication instance specifying what factors should be used to sign the request.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener       A callback with activation removal result - in case of an error, an error instance is not 'nil'.
+     * @return ICancelable associated with the running request.
+     */
+    private @Nullable ICancelable removeActivationWithAuthentication(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IActivationRemoveListener listener) {
 
         // Input validations
         checkForValidSetup();
 
         // Check if there is an activation present
         if (!mSession.hasValidActivation()) {
-            dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onActivationRemoveFailed(new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeMissingActivation));
@@ -1148,6 +1588,7 @@ public class PowerAuthSDK {
                 new RemoveActivationEndpoint(),
                 getCryptoHelper(context),
                 authentication,
+                callbackDispatcher,
                 new INetworkResponseListener<Void>() {
                     @Override
                     public void onNetworkResponse(Void aVoid) {
@@ -1205,7 +1646,11 @@ public class PowerAuthSDK {
 
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.M) {
             if (removeSharedBiometryKey && mSession.hasBiometryFactor() && context != null) {
-                mBiometryKeychain.remove(mKeychainConfiguration.getKeychainBiometryDefaultKey());
+                try {
+                    getBiometryKeychain().remove(mKeychainConfiguration.getKeychainBiometryDefaultKey());
+                } catch (PowerAuthErrorException e) {
+                    PA2Log.e("PowerAuthSDK: Failed to remove shared biometry key: %s", e.getMessage());
+                }
             }
             BiometricAuthentication.getBiometricKeystore().removeBiometricKeyEncryptor();
         }
@@ -1213,8 +1658,11 @@ public class PowerAuthSDK {
         if (context != null) {
             this.getTokenStore().removeAllLocalTokens(context);
         }
+        // Remove all requests signed with the removed activation
+        this.removeOfflineQueueContent();
         // Reset C++ session
         mSession.resetSession();
+        mEciesMetadataCache.invalidate();
         // Serialize will notify state listener
         saveSerializedState();
         // Cancel possible pending activation status task
@@ -1349,7 +1797,6 @@ public class PowerAuthSDK {
         return signatureResult;
     }
 
-
     /***
      * Validates whether the data has been signed with master server private key, or personalized server's private key.
      *
@@ -1367,6 +1814,51 @@ public class PowerAuthSDK {
         return mSession.verifyServerSignedData(signedData) == ErrorCode.OK;
     }
 
+    /**
+     * Validates multiple data signed with master server private key, or personalized server's private key.
+     * The server's public key is imported only once and all signatures are validated in one native call.
+     *
+     * @param data Array of arbitrary data
+     * @param signatures Array of signatures calculated for data at the same index
+     * @param useMasterKey If true, then master server's public key is used for validation, otherwise personalized server's key.
+     * @return array with validation results, in the same order as the input data
+     * @throws IllegalArgumentException if arrays have different length
+     */
+    public @NonNull boolean[] verifyServerSignedData(@NonNull byte[][] data, @NonNull byte[][] signatures, boolean useMasterKey) {
+        final EcdsaSignatureVerifier verifier = createServerSignedDataVerifier(useMasterKey);
+        if (verifier == null) {
+            if (data.length != signatures.length) {
+                throw new IllegalArgumentException("Data and signatures must have the same length");
+            }
+            return new boolean[data.length];
+        }
+        try {
+            return verifier.verifySignatures(data, signatures);
+        } finally {
+            verifier.destroy();
+        }
+    }
+
+    /**
+     * Create verifier for data signed with master server private key, or personalized server's private key.
+     * You can use the verifier to validate a large amount of signed data, for example in parallel with
+     * {@link EcdsaSignatureVerifier#verifySignatures(byte[][], byte[][], Executor, int)}. You should destroy
+     * the verifier once it's no longer needed.
+     *
+     * @param useMasterKey If true, then master server's public key is used for validation, otherwise personalized server's key.
+     * @return verifier object, or null if there's no valid activation and personalized key is requested.
+     */
+    public @Nullable EcdsaSignatureVerifier createServerSignedDataVerifier(boolean useMasterKey) {
+
+        checkForValidSetup();
+
+        final byte[] publicKey = mSession.getServerPublicKeyForSignedData(useMasterKey);
+        if (publicKey == null) {
+            return null;
+        }
+        return EcdsaSignatureVerifier.createWithPublicKey(publicKey);
+    }
+
     /**
      * Sign provided data with a private key that is stored in secure vault.
      * @param context Context.
@@ -1377,9 +1869,40 @@ public class PowerAuthSDK {
      */
     public @Nullable
     ICancelable signDataWithDevicePrivateKey(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, @NonNull final byte[] data, @NonNull final IDataSignatureListener listener) {
+        return signDataWithDevicePrivateKey(context, authentication, data, mCallbackDispatcher, listener);
+    }
+
+    /**
+     * Same as {@link #signDataWithDevicePrivateKey(Context, PowerAuthAuthentication, byte[], IDataSignatureListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context Context.
+     * @param authentication Authentication object for vault unlock request.
+     * @param data Data to be signed.
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener Listener with callbacks to signature status.
+     * @return Async task associated with vault unlock request.
+     */
+    public @Nullable ICancelable signDataWithDevicePrivateKey(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, @NonNull final byte[] data, @NonNull Executor callbackExecutor, @NonNull final IDataSignatureListener listener) {
+        return signDataWithDevicePrivateKey(context, authentication, data, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #signDataWithDevicePrivateKey(Context, PowerAuthAuthentication, byte[], IDataSignatureListener)} with explicit callback dispatcher.
+     *
+     * @param context Context.
+     * @param authentication Authentication object for vault unlock request.
+     * @param data Data to be signed.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener Listener with callbacks to signature status.
+     * @return Async task associated with vault unlock request.
+     */
+    private @Nullable ICancelable signDataWithDevicePrivateKey(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, @NonNull final byte[] data, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IDataSignatureListener listener) {
 
         // Fetch vault encryption key using vault unlock request.
-        return this.fetchEncryptedVaultUnlockKey(context, authentication, VaultUnlockReason.SIGN_WITH_DEVICE_PRIVATE_KEY, new IFetchEncryptedVaultUnlockKeyListener() {
+        return this.fetchEncryptedVaultUnlockKey(context, authentication, VaultUnlockReason.SIGN_WITH_DEVICE_PRIVATE_KEY, callbackDispatcher, new IFetchEncryptedVaultUnlockKeyListener() {
             @Override
             public void onFetchEncryptedVaultUnlockKeySucceed(String encryptedEncryptionKey) {
                 if (encryptedEncryptionKey != null) {
@@ -1437,8 +1960,39 @@ public class PowerAuthSDK {
      */
     public @Nullable
     ICancelable changePassword(@NonNull Context context, @NonNull final String oldPassword, @NonNull final String newPassword, @NonNull final IChangePasswordListener listener) {
+        return changePassword(context, oldPassword, newPassword, mCallbackDispatcher, listener);
+    }
+
+    /**
+     * Same as {@link #changePassword(Context, String, String, IChangePasswordListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context     Context.
+     * @param oldPassword Old password, currently set to store the data.
+     * @param newPassword New password, to be set in case authentication with old password passes.
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener    The callback method with the password change result.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    public @Nullable ICancelable changePassword(@NonNull Context context, @NonNull final String oldPassword, @NonNull final String newPassword, @NonNull Executor callbackExecutor, @NonNull final IChangePasswordListener listener) {
+        return changePassword(context, oldPassword, newPassword, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #changePassword(Context, String, String, IChangePasswordListener)} with explicit callback dispatcher.
+     *
+     * @param context     Context.
+     * @param oldPassword Old password, currently set to store the data.
+     * @param newPassword New password, to be set in case authentication with old password passes.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener    The callback method with the password change result.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    private @Nullable ICancelable changePassword(@NonNull Context context, @NonNull final String oldPassword, @NonNull final String newPassword, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IChangePasswordListener listener) {
         // At first, validate the old password
-        return validatePasswordCorrect(context, oldPassword, new IValidatePasswordListener() {
+        return validatePasswordCorrect(context, oldPassword, callbackDispatcher, new IValidatePasswordListener() {
             @Override
             public void onPasswordValid() {
                 // Old password is valid, so let's change it to new one
@@ -1474,8 +2028,15 @@ public class PowerAuthSDK {
         final IBiometricKeystore keyStore = BiometricAuthentication.getBiometricKeystore();
 
         // Check if there is biometry factor in session, key in PA2Keychain and key in keystore.
-        return mSession.hasBiometryFactor() && keyStore.containsBiometricKeyEncryptor() &&
-                mBiometryKeychain.contains(mKeychainConfiguration.getKeychainBiometryDefaultKey());
+        if (!mSession.hasBiometryFactor() || !keyStore.containsBiometricKeyEncryptor()) {
+            return false;
+        }
+        try {
+            return getBiometryKeychain().contains(mKeychainConfiguration.getKeychainBiometryDefaultKey());
+        } catch (PowerAuthErrorException e) {
+            PA2Log.e("PowerAuthSDK: Failed to open biometry keychain: %s", e.getMessage());
+            return false;
+        }
     }
 
     /**
@@ -1502,7 +2063,7 @@ public class PowerAuthSDK {
 
         // Fetch vault unlock key
         final CompositeCancelableTask compositeCancelableTask = new CompositeCancelableTask(true);
-        final ICancelable httpRequest = fetchEncryptedVaultUnlockKey(context, authAuthentication, VaultUnlockReason.ADD_BIOMETRY, new IFetchEncryptedVaultUnlockKeyListener() {
+        final ICancelable httpRequest = fetchEncryptedVaultUnlockKey(context, authAuthentication, VaultUnlockReason.ADD_BIOMETRY, mCallbackDispatcher, new IFetchEncryptedVaultUnlockKeyListener() {
 
             @Override
             public void onFetchEncryptedVaultUnlockKeySucceed(final String encryptedEncryptionKey) {
@@ -1570,7 +2131,7 @@ public class PowerAuthSDK {
         authAuthentication.usePossession = true;
         authAuthentication.usePassword = password;
 
-        return fetchEncryptedVaultUnlockKey(context, authAuthentication, VaultUnlockReason.ADD_BIOMETRY, new IFetchEncryptedVaultUnlockKeyListener() {
+        return fetchEncryptedVaultUnlockKey(context, authAuthentication, VaultUnlockReason.ADD_BIOMETRY, mCallbackDispatcher, new IFetchEncryptedVaultUnlockKeyListener() {
 
             @Override
             public void onFetchEncryptedVaultUnlockKeySucceed(String encryptedEncryptionKey) {
@@ -1608,11 +2169,18 @@ public class PowerAuthSDK {
 
         checkForValidSetup();
 
+        final Keychain biometryKeychain;
+        try {
+            biometryKeychain = getBiometryKeychain();
+        } catch (PowerAuthErrorException e) {
+            PA2Log.e("PowerAuthSDK: Failed to open biometry keychain: %s", e.getMessage());
+            return false;
+        }
         final int result = mSession.removeBiometryFactor();
         if (result == ErrorCode.OK) {
             // Update state after each successful calculations
             saveSerializedState();
-            mBiometryKeychain.remove(mKeychainConfiguration.getKeychainBiometryDefaultKey());
+            biometryKeychain.remove(mKeychainConfiguration.getKeychainBiometryDefaultKey());
             BiometricAuthentication.getBiometricKeystore().removeBiometricKeyEncryptor();
         }
         return result == ErrorCode.OK;
@@ -1631,7 +2199,38 @@ public class PowerAuthSDK {
      */
     public @Nullable
     ICancelable fetchEncryptionKey(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, final long index, @NonNull final IFetchEncryptionKeyListener listener) {
-        return fetchEncryptedVaultUnlockKey(context, authentication, VaultUnlockReason.FETCH_ENCRYPTION_KEY, new IFetchEncryptedVaultUnlockKeyListener() {
+        return fetchEncryptionKey(context, authentication, index, mCallbackDispatcher, listener);
+    }
+
+    /**
+     * Same as {@link #fetchEncryptionKey(Context, PowerAuthAuthentication, long, IFetchEncryptionKeyListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context        Context.
+     * @param authentication Authentication used for vault unlocking call.
+     * @param index          Index of the derived key using KDF.
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener       The callback method with the derived encryption key.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    public @Nullable ICancelable fetchEncryptionKey(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, final long index, @NonNull Executor callbackExecutor, @NonNull final IFetchEncryptionKeyListener listener) {
+        return fetchEncryptionKey(context, index, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #fetchEncryptionKey(Context, PowerAuthAuthentication, long, IFetchEncryptionKeyListener)} with explicit callback dispatcher.
+     *
+     * @param context        Context.
+     * @param authentication Authentication used for vault unlocking call.
+     * @param index          Index of the derived key using KDF.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener       The callback method with the derived encryption key.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    private @Nullable ICancelable fetchEncryptionKey(@NonNull final Context context, @NonNull PowerAuthAuthentication authentication, final long index, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IFetchEncryptionKeyListener listener) {
+        return fetchEncryptedVaultUnlockKey(context, authentication, VaultUnlockReason.FETCH_ENCRYPTION_KEY, callbackDispatcher, new IFetchEncryptedVaultUnlockKeyListener() {
 
             @Override
             public void onFetchEncryptedVaultUnlockKeySucceed(String encryptedEncryptionKey) {
@@ -1665,6 +2264,35 @@ public class PowerAuthSDK {
      */
     public @Nullable
     ICancelable validatePasswordCorrect(@NonNull Context context, @NonNull String password, @NonNull final IValidatePasswordListener listener) {
+        return validatePasswordCorrect(context, password, mCallbackDispatcher, listener);
+    }
+
+    /**
+     * Same as {@link #validatePasswordCorrect(Context, String, IValidatePasswordListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context  Context.
+     * @param password Password to be verified.
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener The callback method with error associated with the password validation.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    public @Nullable ICancelable validatePasswordCorrect(@NonNull Context context, @NonNull String password, @NonNull Executor callbackExecutor, @NonNull final IValidatePasswordListener listener) {
+        return validatePasswordCorrect(context, password, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #validatePasswordCorrect(Context, String, IValidatePasswordListener)} with explicit callback dispatcher.
+     *
+     * @param context  Context.
+     * @param password Password to be verified.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener The callback method with error associated with the password validation.
+     * @return {@link ICancelable} object associated with the running HTTP request.
+     */
+    private @Nullable ICancelable validatePasswordCorrect(@NonNull Context context, @NonNull String password, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IValidatePasswordListener listener) {
 
         // Prepare authentication object
         PowerAuthAuthentication authentication = new PowerAuthAuthentication();
@@ -1680,6 +2308,7 @@ public class PowerAuthSDK {
                 new ValidateSignatureEndpoint(),
                 getCryptoHelper(context),
                 authentication,
+                callbackDispatcher,
                 new INetworkResponseListener<Void>() {
                     @Override
                     public void onNetworkResponse(Void aVoid) {
@@ -1734,7 +2363,19 @@ public class PowerAuthSDK {
         final byte[] rawKeyData;
         PowerAuthErrorException initialFailure = null;
 
-        if (forceGenerateNewKey) {
+        // Open the keychain before the dialog is displayed, so the failure is reported immediately.
+        Keychain keychain = null;
+        try {
+            keychain = getBiometryKeychain();
+        } catch (PowerAuthErrorException e) {
+            initialFailure = e;
+        }
+        final Keychain biometryKeychain = keychain;
+
+        if (biometryKeychain == null) {
+            rawKeyData = null;
+            encryptor = null;
+        } else if (forceGenerateNewKey) {
             // new key has to be generated
             rawKeyData = mSession.generateSignatureUnlockKey();
             encryptor = BiometricAuthentication.getBiometricKeystore().createBiometricKeyEncryptor(mKeychainConfiguration.isLinkBiometricItemsToCurrentSet(), mKeychainConfiguration.isAuthenticateOnBiometricKeySetup());
@@ -1743,7 +2384,7 @@ public class PowerAuthSDK {
             }
         } else {
             // old key should be used, if present
-            rawKeyData = mBiometryKeychain.getData(mKeychainConfiguration.getKeychainBiometryDefaultKey());
+            rawKeyData = biometryKeychain.getData(mKeychainConfiguration.getKeychainBiometryDefaultKey());
             encryptor = BiometricAuthentication.getBiometricKeystore().getBiometricKeyEncryptor();
             if (encryptor == null) {
                 initialFailure = new PowerAuthErrorException(PowerAuthErrorCodes.PA2ErrorCodeBiometryNotAvailable, "Cannot get biometric key from the keystore.");
@@ -1783,7 +2424,7 @@ public class PowerAuthSDK {
             public void onBiometricDialogSuccess(@NonNull BiometricKeyData biometricKeyData) {
                 // Store the new key, if a new key was generated
                 if (biometricKeyData.isNewKey()) {
-                    mBiometryKeychain.putData(biometricKeyData.getDataToSave(), mKeychainConfiguration.getKeychainBiometryDefaultKey());
+                    biometryKeychain.putData(biometricKeyData.getDataToSave(), mKeychainConfiguration.getKeychainBiometryDefaultKey());
                 }
                 byte[] normalizedEncryptionKey = mSession.normalizeSignatureUnlockKeyFromData(biometricKeyData.getDerivedData());
                 callback.onBiometricDialogSuccess(new BiometricKeyData(biometricKeyData.getDataToSave(), normalizedEncryptionKey, biometricKeyData.isNewKey()));
@@ -1888,6 +2529,19 @@ public class PowerAuthSDK {
         mCallbackDispatcher.dispatchCallback(runnable);
     }
 
+    /**
+     * @return {@link ICallbackDispatcher} configured in the {@link Builder}.
+     */
+    @NonNull ICallbackDispatcher getCallbackDispatcher() {
+        return mCallbackDispatcher;
+    }
+
+    /**
+     * @return {@link ICallbackDispatcher} that calls listeners directly from the worker thread.
+     */
+    @NonNull ICallbackDispatcher getWorkerCallbackDispatcher() {
+        return mWorkerCallbackDispatcher;
+    }
 
     // Recovery codes
 
@@ -1923,7 +2577,7 @@ public class PowerAuthSDK {
             return null;
         }
 
-        return fetchEncryptedVaultUnlockKey(context, authentication, VaultUnlockReason.RECOVERY_CODE, new IFetchEncryptedVaultUnlockKeyListener() {
+        return fetchEncryptedVaultUnlockKey(context, authentication, VaultUnlockReason.RECOVERY_CODE, mCallbackDispatcher, new IFetchEncryptedVaultUnlockKeyListener() {
             @Override
             public void onFetchEncryptedVaultUnlockKeySucceed(String encryptedEncryptionKey) {
                 final SignatureUnlockKeys keys = signatureKeysForAuthentication(context, authentication);
@@ -1981,6 +2635,7 @@ public class PowerAuthSDK {
                 new ConfirmRecoveryCodeEndpoint(),
                 getCryptoHelper(context),
                 authentication,
+                getCallbackDispatcher(),
                 new INetworkResponseListener<ConfirmRecoveryResponsePayload>() {
                     @Override
                     public void onNetworkResponse(ConfirmRecoveryResponsePayload confirmRecoveryResponsePayload) {
@@ -1997,4 +2652,188 @@ public class PowerAuthSDK {
                     }
                 });
     }
+
+    // Future based API
+    //
+    // Operations started from the following methods don't use the callback dispatcher configured
+    // for this instance. The listeners are called directly from the worker thread and the future
+    // then delivers the result to the executor provided by the application.
+
+    /**
+     * Create a new activation. The method is equivalent to {@link #createActivation(PowerAuthActivation, ICreateActivationListener)},
+     * but returns {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param activation {@link PowerAuthActivation} object containing all information required for the activation creation.
+     * @return {@link PowerAuthFuture} completed with the activation result.
+     * @throws PowerAuthMissingConfigException thrown in case configuration is not present.
+     */
+    public @NonNull PowerAuthFuture<CreateActivationResult> createActivationAsync(@NonNull PowerAuthActivation activation) {
+        final PowerAuthFuture<CreateActivationResult> future = new PowerAuthFuture<>();
+        future.setOperation(createActivation(activation, mWorkerCallbackDispatcher, new ICreateActivationListener() {
+            @Override
+            public void onActivationCreateSucceed(@NonNull CreateActivationResult result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onActivationCreateFailed(@NonNull Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Fetch the activation status for current activation. The method is equivalent to
+     * {@link #fetchActivationStatusWithCallback(Context, IActivationStatusListener)}, but returns
+     * {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context.
+     * @return {@link PowerAuthFuture} completed with the activation status.
+     * @throws PowerAuthMissingConfigException thrown in case configuration is not present.
+     */
+    public @NonNull PowerAuthFuture<ActivationStatus> fetchActivationStatusAsync(@NonNull Context context) {
+        final PowerAuthFuture<ActivationStatus> future = new PowerAuthFuture<>();
+        future.setOperation(fetchActivationStatusWithCallback(context, mWorkerCallbackDispatcher, new IActivationStatusListener() {
+            @Override
+            public void onActivationStatusSucceed(ActivationStatus status) {
+                future.complete(status);
+            }
+
+            @Override
+            public void onActivationStatusFailed(Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Remove current activation by calling a PowerAuth REST API endpoint. The method is equivalent to
+     * {@link #removeActivationWithAuthentication(Context, PowerAuthAuthentication, IActivationRemoveListener)},
+     * but returns {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context.
+     * @param authentication An authentication instance specifying what factors should be used to sign the request.
+     * @return {@link PowerAuthFuture} completed once the activation is removed.
+     * @throws PowerAuthMissingConfigException thrown in case configuration is not present.
+     */
+    public @NonNull PowerAuthFuture<Void> removeActivationAsync(@NonNull Context context, @NonNull PowerAuthAuthentication authentication) {
+        final PowerAuthFuture<Void> future = new PowerAuthFuture<>();
+        future.setOperation(removeActivationWithAuthentication(context, authentication, mWorkerCallbackDispatcher, new IActivationRemoveListener() {
+            @Override
+            public void onActivationRemoveSucceed() {
+                future.complete(null);
+            }
+
+            @Override
+            public void onActivationRemoveFailed(Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Sign provided data with a private key that is stored in secure vault. The method is equivalent to
+     * {@link #signDataWithDevicePrivateKey(Context, PowerAuthAuthentication, byte[], IDataSignatureListener)},
+     * but returns {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context.
+     * @param authentication Authentication object for vault unlock request.
+     * @param data Data to be signed.
+     * @return {@link PowerAuthFuture} completed with the signature.
+     */
+    public @NonNull PowerAuthFuture<byte[]> signDataWithDevicePrivateKeyAsync(@NonNull Context context, @NonNull PowerAuthAuthentication authentication, @NonNull byte[] data) {
+        final PowerAuthFuture<byte[]> future = new PowerAuthFuture<>();
+        future.setOperation(signDataWithDevicePrivateKey(context, authentication, data, mWorkerCallbackDispatcher, new IDataSignatureListener() {
+            @Override
+            public void onDataSignedSucceed(byte[] signature) {
+                future.complete(signature);
+            }
+
+            @Override
+            public void onDataSignedFailed(Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Fetch an encryption key for given index. The method is equivalent to
+     * {@link #fetchEncryptionKey(Context, PowerAuthAuthentication, long, IFetchEncryptionKeyListener)},
+     * but returns {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context.
+     * @param authentication Authentication used for vault unlocking call.
+     * @param index Index of the derived key using KDF.
+     * @return {@link PowerAuthFuture} completed with the derived encryption key.
+     */
+    public @NonNull PowerAuthFuture<byte[]> fetchEncryptionKeyAsync(@NonNull Context context, @NonNull PowerAuthAuthentication authentication, long index) {
+        final PowerAuthFuture<byte[]> future = new PowerAuthFuture<>();
+        future.setOperation(fetchEncryptionKey(context, authentication, index, mWorkerCallbackDispatcher, new IFetchEncryptionKeyListener() {
+            @Override
+            public void onFetchEncryptionKeySucceed(byte[] encryptedEncryptionKey) {
+                future.complete(encryptedEncryptionKey);
+            }
+
+            @Override
+            public void onFetchEncryptionKeyFailed(Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Validate a user password on the server. The method is equivalent to
+     * {@link #validatePasswordCorrect(Context, String, IValidatePasswordListener)}, but returns
+     * {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context.
+     * @param password Password to be verified.
+     * @return {@link PowerAuthFuture} completed once the password is validated.
+     */
+    public @NonNull PowerAuthFuture<Void> validatePasswordCorrectAsync(@NonNull Context context, @NonNull String password) {
+        final PowerAuthFuture<Void> future = new PowerAuthFuture<>();
+        future.setOperation(validatePasswordCorrect(context, password, mWorkerCallbackDispatcher, new IValidatePasswordListener() {
+            @Override
+            public void onPasswordValid() {
+                future.complete(null);
+            }
+
+            @Override
+            public void onPasswordValidationFailed(Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Change the password, validate old password by calling a PowerAuth REST API. The method is
+     * equivalent to {@link #changePassword(Context, String, String, IChangePasswordListener)}, but
+     * returns {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context.
+     * @param oldPassword Old password, currently set to store the data.
+     * @param newPassword New password, to be set in case authentication with old password passes.
+     * @return {@link PowerAuthFuture} completed once the password is changed.
+     */
+    public @NonNull PowerAuthFuture<Void> changePasswordAsync(@NonNull Context context, @NonNull String oldPassword, @NonNull String newPassword) {
+        final PowerAuthFuture<Void> future = new PowerAuthFuture<>();
+        future.setOperation(changePassword(context, oldPassword, newPassword, mWorkerCallbackDispatcher, new IChangePasswordListener() {
+            @Override
+            public void onPasswordChangeSucceed() {
+                future.complete(null);
+            }
+
+            @Override
+            public void onPasswordChangeFailed(Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk;
+
+import androidx.annotation.NonNull;
+
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
+import io.getlime.security.powerauth.sdk.impl.DefaultExecutorProvider;
+import io.getlime.security.powerauth.sdk.impl.PriorityExecutor;
+
+/**
+ * The {@code PowerAuthSharedContext} class contains a thread pool shared by multiple {@link PowerAuthSDK}
+ * instances. If the application runs several instances, for example one for each user profile, then
+ * the shared context limits the number of HTTP requests in flight for all instances together. Without
+ * the shared context, each instance creates its own thread pool.
+ * <p>
+ * Each instance still keeps its own serial queue, so the signed requests are ordered per instance,
+ * but they don't wait for requests from other instances. The HTTP connections are reused from
+ * the process-wide keep-alive pool maintained by the system's {@code HttpURLConnection}, so the limited
+ * number of threads also limits the number of sockets opened at the same time.
+ * <p>
+ * Use {@link PowerAuthSDK.Builder#sharedContext(PowerAuthSharedContext)} to assign the context to the instance.
+ */
+public class PowerAuthSharedContext {
+
+    /**
+     * Default number of threads in the shared pool.
+     */
+    public static final int DEFAULT_POOL_SIZE = DefaultExecutorProvider.DEFAULT_POOL_SIZE;
+
+    /**
+     * Default maximum number of tasks waiting for execution in one priority lane.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = DefaultExecutorProvider.DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Thread pool shared by all instances.
+     */
+    private final @NonNull PriorityExecutor priorityExecutor;
+
+    /**
+     * Number of threads in the shared pool.
+     */
+    private final int poolSize;
+
+    /**
+     * Maximum number of tasks waiting for execution in one priority lane.
+     */
+    private final int queueCapacity;
+
+    /**
+     * @return number of threads in the shared pool
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return maximum number of tasks waiting for execution in one priority lane
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param priority lane priority.
+     * @return number of tasks from all instances, waiting for execution in the requested lane
+     */
+    public int getWaitingTasksCount(@TaskPriority int priority) {
+        return priorityExecutor.getWaitingTasksCount(priority);
+    }
+
+    /**
+     * Create a new executor provider for one {@link PowerAuthSDK} instance. The provider submits
+     * tasks to the shared pool, but has its own serial executor. The method is package-private.
+     *
+     * @return New executor provider.
+     */
+    @NonNull DefaultExecutorProvider createExecutorProvider() {
+        return new DefaultExecutorProvider(priorityExecutor, queueCapacity);
+    }
+
+    /**
+     * Default private constructor. Use {@link Builder} to create a new instance of this class.
+     *
+     * @param poolSize Number of threads in the shared pool.
+     * @param queueCapacity Maximum number of tasks waiting for execution in one priority lane.
+     */
+    private PowerAuthSharedContext(int poolSize, int queueCapacity) {
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+        this.priorityExecutor = new PriorityExecutor(poolSize, queueCapacity);
+    }
+
+    /**
+     * A builder that collects arguments for {@link PowerAuthSharedContext}.
+     */
+    public static class Builder {
+
+        private int poolSize = DEFAULT_POOL_SIZE;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+        /**
+         * Creates a builder for {@link PowerAuthSharedContext}.
+         */
+        public Builder() {}
+
+        /**
+         * Sets parameters of the shared thread pool. Values lower than 1 are replaced with 1
+         * in {@link #build()}.
+         *
+         * @param poolSize maximum number of requests executed at the same time, by all instances together.
+         * @param queueCapacity maximum number of requests waiting for execution in one priority lane.
+         * @return The same {@link Builder} object instance
+         */
+        public Builder executorPool(int poolSize, int queueCapacity) {
+            this.poolSize = poolSize;
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Build a final shared context.
+         *
+         * @return Final {@link PowerAuthSharedContext} instance.
+         */
+        public PowerAuthSharedContext build() {
+            return new PowerAuthSharedContext(Math.max(1, poolSize), Math.max(1, queueCapacity));
+        }
+    }
+}
@@ -24,6 +24,8 @@ import android.util.Base64;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import io.getlime.security.powerauth.exception.PowerAuthErrorCodes;
 import io.getlime.security.powerauth.exception.PowerAuthErrorException;
@@ -37,7 +39,10 @@ import io.getlime.security.powerauth.networking.model.entity.TokenResponsePayloa
 import io.getlime.security.powerauth.networking.model.request.TokenRemoveRequest;
 import io.getlime.security.powerauth.networking.response.IGetTokenListener;
 import io.getlime.security.powerauth.networking.response.IRemoveTokenListener;
+import io.getlime.security.powerauth.sdk.impl.ExecutorCallbackDispatcher;
+import io.getlime.security.powerauth.sdk.impl.ICallbackDispatcher;
 import io.getlime.security.powerauth.sdk.impl.PowerAuthPrivateTokenData;
+import io.getlime.security.powerauth.system.PA2Log;
 
 /**
  * The {@code PowerAuthTokenStore} provides interface for managing access tokens.
@@ -70,6 +75,14 @@ public class PowerAuthTokenStore {
      * A prefix for all data stored to the keychain.
      */
     private final String keychainKeyPrefix;
+    /**
+     * If true, then all tokens are stored in one keychain entry.
+     */
+    private final boolean storeTokensInSingleEntry;
+    /**
+     * If true, then the layout of data in the keychain has been already checked and migrated.
+     */
+    private boolean storageLayoutPrepared;
 
 
     /**
@@ -84,11 +97,29 @@ public class PowerAuthTokenStore {
             @NonNull PowerAuthSDK sdk,
             @NonNull Keychain keychain,
             @NonNull HttpClient httpClient) {
+        this(sdk, keychain, httpClient, PowerAuthKeychainConfiguration.DEFAULT_STORE_TOKENS_IN_SINGLE_ENTRY);
+    }
+
+    /**
+     * Constructs a new token store with references to parent {@link PowerAuthSDK}, {@link Keychain}
+     * as storage and {@link HttpClient} for networking.
+     *
+     * @param sdk a parent object which created this instance
+     * @param keychain a keychain as persistent storage
+     * @param httpClient a HTTP client for networking
+     * @param storeTokensInSingleEntry if true, then all tokens are stored in one keychain entry
+     */
+    public PowerAuthTokenStore(
+            @NonNull PowerAuthSDK sdk,
+            @NonNull Keychain keychain,
+            @NonNull HttpClient httpClient,
+            boolean storeTokensInSingleEntry) {
         this.sdk = sdk;
         this.keychain = keychain;
         this.httpClient = httpClient;
         this.localTokens = new HashMap<>();
         this.keychainKeyPrefix = TOKENS_KEY_PREFIX + "__" + sdk.getConfiguration().getInstanceId() + "__";
+        this.storeTokensInSingleEntry = storeTokensInSingleEntry;
     }
 
     /**
@@ -115,6 +146,37 @@ public class PowerAuthTokenStore {
      */
     public @Nullable
     ICancelable requestAccessToken(@NonNull final Context context, @NonNull final String tokenName, @NonNull PowerAuthAuthentication authentication, @NonNull final IGetTokenListener listener) {
+        return requestAccessToken(context, tokenName, authentication, sdk.getCallbackDispatcher(), listener);
+    }
+
+    /**
+     * Same as {@link #requestAccessToken(Context, String, PowerAuthAuthentication, IGetTokenListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context Context
+     * @param tokenName Name of requested token.
+     * @param authentication An authentication instance specifying what factors should be used for token creation.
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener Listener with callbacks to receive a token.
+     * @return {@link ICancelable} object associated with the running HTTP request or null if request has been processed synchronously.
+     */
+    public @Nullable ICancelable requestAccessToken(@NonNull final Context context, @NonNull final String tokenName, @NonNull PowerAuthAuthentication authentication, @NonNull Executor callbackExecutor, @NonNull final IGetTokenListener listener) {
+        return requestAccessToken(context, tokenName, authentication, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #requestAccessToken(Context, String, PowerAuthAuthentication, IGetTokenListener)} with explicit callback dispatcher.
+     *
+     * @param context Context
+     * @param tokenName Name of requested token.
+     * @param authentication An authentication instance specifying what factors should be used for token creation.
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener Listener with callbacks to receive a token.
+     * @return {@link ICancelable} object associated with the running HTTP request or null if request has been processed synchronously.
+     */
+    private @Nullable ICancelable requestAccessToken(@NonNull final Context context, @NonNull final String tokenName, @NonNull PowerAuthAuthentication authentication, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IGetTokenListener listener) {
 
         Throwable error = null;
         PowerAuthPrivateTokenData tokenData = null;
@@ -130,7 +192,7 @@ public class PowerAuthTokenStore {
         // If there's private data or error available, then report that immediately to the listener.
         if (error != null) {
             final Throwable err = error;
-            sdk.dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onGetTokenFailed(err);
@@ -139,7 +201,7 @@ public class PowerAuthTokenStore {
             return null;
         } else if (tokenData != null) {
             final PowerAuthToken token = new PowerAuthToken(this, tokenData);
-            sdk.dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onGetTokenSucceeded(token);
@@ -154,6 +216,7 @@ public class PowerAuthTokenStore {
                 new CreateTokenEndpoint(),
                 sdk.getCryptoHelper(context),
                 authentication,
+                callbackDispatcher,
                 new INetworkResponseListener<TokenResponsePayload>() {
                     @Override
                     public void onNetworkResponse(TokenResponsePayload response) {
@@ -196,6 +259,35 @@ public class PowerAuthTokenStore {
      */
     public @Nullable
     ICancelable removeAccessToken(@NonNull final Context context, @NonNull final String tokenName, @NonNull final IRemoveTokenListener listener) {
+        return removeAccessToken(context, tokenName, sdk.getCallbackDispatcher(), listener);
+    }
+
+    /**
+     * Same as {@link #removeAccessToken(Context, String, IRemoveTokenListener)}, but the listener is called on
+     * the provided executor, regardless of the callback dispatch mode configured for this instance.
+     * Use an executor that runs the task immediately, to receive the callback directly on the worker
+     * thread that completed the operation.
+     *
+     * @param context Context
+     * @param tokenName Name of token to be removed
+     * @param callbackExecutor Executor for the listener callbacks.
+     * @param listener Listener with callbacks.
+     * @return {@code ICancelable} associated with the running server request or null in case of error.
+     */
+    public @Nullable ICancelable removeAccessToken(@NonNull final Context context, @NonNull final String tokenName, @NonNull Executor callbackExecutor, @NonNull final IRemoveTokenListener listener) {
+        return removeAccessToken(context, tokenName, new ExecutorCallbackDispatcher(callbackExecutor), listener);
+    }
+
+    /**
+     * Implementation of {@link #removeAccessToken(Context, String, IRemoveTokenListener)} with explicit callback dispatcher.
+     *
+     * @param context Context
+     * @param tokenName Name of token to be removed
+     * @param callbackDispatcher Dispatcher for the listener callbacks.
+     * @param listener Listener with callbacks.
+     * @return {@code ICancelable} associated with the running server request or null in case of error.
+     */
+    private @Nullable ICancelable removeAccessToken(@NonNull final Context context, @NonNull final String tokenName, @NonNull final ICallbackDispatcher callbackDispatcher, @NonNull final IRemoveTokenListener listener) {
 
         Throwable error = null;
         PowerAuthPrivateTokenData tokenData;
@@ -209,7 +301,7 @@ public class PowerAuthTokenStore {
 
         if (error != null) {
             final Throwable err = error;
-            sdk.dispatchCallback(new Runnable() {
+            callbackDispatcher.dispatchCallback(new Runnable() {
                 @Override
                 public void run() {
                     listener.onRemoveTokenFailed(err);
@@ -230,6 +322,7 @@ public class PowerAuthTokenStore {
                 new RemoveTokenEndpoint(),
                 sdk.getCryptoHelper(context),
                 authentication,
+                callbackDispatcher,
                 new INetworkResponseListener<Void>() {
                     @Override
                     public void onNetworkResponse(Void aVoid) {
@@ -250,6 +343,57 @@ public class PowerAuthTokenStore {
     }
 
 
+    /**
+     * Create a new access token with given name for requested signature factors. The method is
+     * equivalent to {@link #requestAccessToken(Context, String, PowerAuthAuthentication, IGetTokenListener)},
+     * but returns {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context
+     * @param tokenName Name of requested token.
+     * @param authentication An authentication instance specifying what factors should be used for token creation.
+     * @return {@link PowerAuthFuture} completed with a valid token.
+     */
+    public @NonNull PowerAuthFuture<PowerAuthToken> requestAccessTokenAsync(@NonNull Context context, @NonNull String tokenName, @NonNull PowerAuthAuthentication authentication) {
+        final PowerAuthFuture<PowerAuthToken> future = new PowerAuthFuture<>();
+        future.setOperation(requestAccessToken(context, tokenName, authentication, sdk.getWorkerCallbackDispatcher(), new IGetTokenListener() {
+            @Override
+            public void onGetTokenSucceeded(@NonNull PowerAuthToken token) {
+                future.complete(token);
+            }
+
+            @Override
+            public void onGetTokenFailed(@NonNull Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Remove previously created access token from the server and from local database. The method
+     * is equivalent to {@link #removeAccessToken(Context, String, IRemoveTokenListener)}, but returns
+     * {@link PowerAuthFuture} instead of calling a listener.
+     *
+     * @param context Context
+     * @param tokenName Name of token to be removed
+     * @return {@link PowerAuthFuture} completed once the token is removed.
+     */
+    public @NonNull PowerAuthFuture<Void> removeAccessTokenAsync(@NonNull Context context, @NonNull String tokenName) {
+        final PowerAuthFuture<Void> future = new PowerAuthFuture<>();
+        future.setOperation(removeAccessToken(context, tokenName, sdk.getWorkerCallbackDispatcher(), new IRemoveTokenListener() {
+            @Override
+            public void onRemoveTokenSucceeded() {
+                future.complete(null);
+            }
+
+            @Override
+            public void onRemoveTokenFailed(@NonNull Throwable t) {
+                future.fail(t);
+            }
+        }));
+        return future;
+    }
+
     /**
      * Quick check whether the token with name is in local database.
      *
@@ -284,8 +428,13 @@ public class PowerAuthTokenStore {
      * @param tokenName token to be removed
      */
     public synchronized void removeLocalToken(@NonNull final Context context, @NonNull String tokenName) {
+        this.prepareStorageLayout(context);
         String identifier = this.getLocalIdentifier(tokenName);
         this.localTokens.remove(identifier);
+        if (storeTokensInSingleEntry) {
+            this.saveTokensEntry();
+            return;
+        }
         this.keychain.remove(identifier);
         // Update index
         HashSet<String> allIdentifiers = this.loadTokensIndex(context);
@@ -301,6 +450,8 @@ public class PowerAuthTokenStore {
      */
     public synchronized void removeAllLocalTokens(@NonNull final Context context) {
         this.clearTokensIndex(context);
+        this.keychain.remove(this.getTokensEntryKey());
+        this.keychain.remove(this.getCorruptedTokensEntryKey());
         this.localTokens.clear();
     }
 
@@ -314,15 +465,14 @@ public class PowerAuthTokenStore {
      */
     private @Nullable PowerAuthPrivateTokenData getTokenData(@NonNull final Context context, @NonNull String tokenName) {
         // Note, must be called from another synchronized method...
+        this.prepareStorageLayout(context);
         String identifier = this.getLocalIdentifier(tokenName);
         PowerAuthPrivateTokenData tokenData = this.localTokens.get(identifier);
-        if (tokenData == null) {
-            byte[] tokenBytes = this.keychain.getData(identifier);
-            if (tokenBytes != null) {
-                tokenData = PowerAuthPrivateTokenData.deserializeWithData(tokenBytes);
-                if (tokenData != null) {
-                    this.localTokens.put(identifier, tokenData);
-                }
+        if (tokenData == null && !storeTokensInSingleEntry) {
+            // If all tokens are stored in one entry, then the local dictionary already contains all tokens.
+            tokenData = this.loadTokenEntry(identifier);
+            if (tokenData != null) {
+                this.localTokens.put(identifier, tokenData);
             }
         }
         return tokenData;
@@ -340,9 +490,15 @@ public class PowerAuthTokenStore {
         if (!this.canRequestForAccessToken()) {
             return;
         }
+        this.prepareStorageLayout(context);
         String identifier = this.getLocalIdentifier(tokenData.name);
         // Store data into local dictionary
         this.localTokens.put(identifier, tokenData);
+        if (storeTokensInSingleEntry) {
+            // Store all tokens into one keychain entry
+            this.saveTokensEntry();
+            return;
+        }
         // Store to keychain
         this.keychain.putData(tokenData.getSerializedData(), identifier);
 
@@ -361,6 +517,16 @@ public class PowerAuthTokenStore {
      * A constant for index entry stored in the keychain. The final key is constructed as {@code TOKENS_KEY_PREFIX + "__" + instanceId + "__" + TOKENS_INDEX_ENTRY}
      */
     private final static String TOKENS_INDEX_ENTRY = "$$index$$";
+    /**
+     * A constant for entry containing all tokens, when tokens are stored in one keychain entry.
+     * The final key is constructed as {@code TOKENS_KEY_PREFIX + "__" + instanceId + "__" + TOKENS_ALL_ENTRY}
+     */
+    private final static String TOKENS_ALL_ENTRY = "$$tokens$$";
+    /**
+     * A constant for entry containing data of all tokens that cannot be deserialized.
+     * The final key is constructed as {@code TOKENS_KEY_PREFIX + "__" + instanceId + "__" + TOKENS_CORRUPTED_ENTRY}
+     */
+    private final static String TOKENS_CORRUPTED_ENTRY = "$$tokens.corrupted$$";
 
     /**
      * Converts token name into token's local identifier.
@@ -437,4 +603,113 @@ public class PowerAuthTokenStore {
         }
         this.keychain.remove(this.getIndexKey());
     }
+
+    //
+    // Storage layout
+    //
+    // Tokens are stored either in separate keychain entries, tracked by the tokens index, or all
+    // together in one entry. The layout is migrated when the store is accessed for the first time
+    // with a different configuration. The new layout is always written before the old one is
+    // removed, so no token is lost if the application is terminated during the migration.
+    //
+
+    /**
+     * @return String with key to keychain for entry containing all tokens.
+     */
+    private String getTokensEntryKey() {
+        return keychainKeyPrefix + TOKENS_ALL_ENTRY;
+    }
+
+    /**
+     * @return String with key to keychain for entry containing tokens that cannot be deserialized.
+     */
+    private String getCorruptedTokensEntryKey() {
+        return keychainKeyPrefix + TOKENS_CORRUPTED_ENTRY;
+    }
+
+    /**
+     * Loads token stored in separate keychain entry. If the entry contains data in legacy format,
+     * then the data is migrated to the current format.
+     *
+     * @param identifier Local token identifier.
+     * @return Private data object or null if there's no such token in the keychain.
+     */
+    private @Nullable PowerAuthPrivateTokenData loadTokenEntry(@NonNull String identifier) {
+        final byte[] tokenBytes = this.keychain.getData(identifier);
+        if (tokenBytes == null) {
+            return null;
+        }
+        final PowerAuthPrivateTokenData tokenData = PowerAuthPrivateTokenData.deserializeWithData(tokenBytes);
+        if (tokenData != null && !storeTokensInSingleEntry && PowerAuthPrivateTokenData.isLegacySerializedData(tokenBytes)) {
+            this.keychain.putData(tokenData.getSerializedData(), identifier);
+        }
+        return tokenData;
+    }
+
+    /**
+     * Saves all tokens from the local dictionary into one keychain entry.
+     */
+    private void saveTokensEntry() {
+        if (this.localTokens.isEmpty()) {
+            this.keychain.remove(this.getTokensEntryKey());
+        } else {
+            this.keychain.putData(PowerAuthPrivateTokenData.serializeList(this.localTokens.values()), this.getTokensEntryKey());
+        }
+    }
+
+    /**
+     * Checks the layout of tokens in the keychain and migrates the data if the layout doesn't
+     * match the configuration. If all tokens are stored in one entry, then the method also loads
+     * all tokens into the local dictionary. Note that the method has to be called from the synchronized
+     * block.
+     *
+     * @param context Android Context object
+     */
+    private void prepareStorageLayout(@NonNull final Context context) {
+        if (storageLayoutPrepared) {
+            return;
+        }
+        storageLayoutPrepared = true;
+
+        final byte[] tokensData = this.keychain.getData(this.getTokensEntryKey());
+        final List<PowerAuthPrivateTokenData> storedTokens = tokensData != null ? PowerAuthPrivateTokenData.deserializeList(tokensData) : null;
+        if (tokensData != null && storedTokens == null) {
+            // Keep the data aside, so it's not overwritten by the next update of the tokens entry.
+            PA2Log.e("PowerAuthTokenStore: Failed to deserialize list of tokens. The data is kept in a separate entry.");
+            this.keychain.putData(tokensData, this.getCorruptedTokensEntryKey());
+        }
+        if (storeTokensInSingleEntry) {
+            if (storedTokens != null) {
+                for (PowerAuthPrivateTokenData tokenData : storedTokens) {
+                    this.localTokens.put(this.getLocalIdentifier(tokenData.name), tokenData);
+                }
+            }
+            // Move tokens stored in separate entries into one entry.
+            final HashSet<String> index = this.loadTokensIndex(context);
+            if (!index.isEmpty()) {
+                for (String identifier : index) {
+                    if (!this.localTokens.containsKey(identifier)) {
+                        final PowerAuthPrivateTokenData tokenData = this.loadTokenEntry(identifier);
+                        if (tokenData != null) {
+                            this.localTokens.put(identifier, tokenData);
+                        }
+                    }
+                }
+                this.saveTokensEntry();
+                this.clearTokensIndex(context);
+            }
+        } else if (tokensData != null) {
+            // Move tokens stored in one entry into separate entries.
+            if (storedTokens != null) {
+                final HashSet<String> index = this.loadTokensIndex(context);
+                for (PowerAuthPrivateTokenData tokenData : storedTokens) {
+                    final String identifier = this.getLocalIdentifier(tokenData.name);
+                    this.keychain.putData(tokenData.getSerializedData(), identifier);
+                    index.add(identifier);
+                }
+                this.saveTokensIndex(context, index);
+            }
+            this.keychain.remove(this.getTokensEntryKey());
+        }
+    }
 }
@@ -1,6 +1,5 @@
 /*
  * Copyright 2018 Wultra s.r.o.
- * Copyright (C) 2008 The Android Open Source Project
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,31 +16,66 @@
 
 package io.getlime.security.powerauth.sdk.impl;
 
-import android.os.AsyncTask;
 import androidx.annotation.NonNull;
 
-import java.util.ArrayDeque;
 import java.util.concurrent.Executor;
 
-import io.getlime.security.powerauth.networking.interfaces.IExecutorProvider;
+import io.getlime.security.powerauth.networking.interfaces.IPriorityExecutorProvider;
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
 
 /**
- * The {@code DefaultExecutorProvider} class implements {@link IExecutorProvider} interface.
+ * The {@code DefaultExecutorProvider} class implements {@link IPriorityExecutorProvider} interface.
  * The instance of this object is typically created internally in {@link io.getlime.security.powerauth.sdk.PowerAuthSDK}
  * object.
+ * <p>
+ * All tasks are executed in a thread pool owned by this object, so PowerAuth operations are not
+ * competing with other tasks submitted to {@code AsyncTask.THREAD_POOL_EXECUTOR}.
  */
-public class DefaultExecutorProvider implements IExecutorProvider {
+public class DefaultExecutorProvider implements IPriorityExecutorProvider {
 
-    private Executor serialExecutor;
+    /**
+     * Default number of threads in the pool.
+     */
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    /**
+     * Default maximum number of tasks waiting for execution in one priority lane.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final PriorityExecutor priorityExecutor;
+    private final int queueCapacity;
+    private SerialExecutor serialExecutor;
 
     public DefaultExecutorProvider() {
+        this(DEFAULT_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param poolSize maximum number of threads in the pool.
+     * @param queueCapacity maximum number of tasks waiting for execution in one priority lane.
+     */
+    public DefaultExecutorProvider(int poolSize, int queueCapacity) {
+        this(new PriorityExecutor(poolSize, queueCapacity), queueCapacity);
+    }
+
+    /**
+     * Creates provider using an existing thread pool. The pool can be shared by multiple providers,
+     * but each provider has its own serial executor.
+     *
+     * @param priorityExecutor thread pool in which all tasks are executed.
+     * @param queueCapacity maximum number of tasks waiting in the serial executor.
+     */
+    public DefaultExecutorProvider(@NonNull PriorityExecutor priorityExecutor, int queueCapacity) {
+        this.priorityExecutor = priorityExecutor;
+        this.queueCapacity = queueCapacity;
     }
 
     @NonNull
     @Override
-    public Executor getSerialExecutor() {
+    public synchronized Executor getSerialExecutor() {
         if (serialExecutor == null) {
-            serialExecutor = new SerialExecutor();
+            serialExecutor = new SerialExecutor(priorityExecutor, queueCapacity);
         }
         return serialExecutor;
     }
@@ -49,37 +83,22 @@ public class DefaultExecutorProvider implements IExecutorProvider {
     @NonNull
     @Override
     public Executor getConcurrentExecutor() {
-        return AsyncTask.THREAD_POOL_EXECUTOR;
+        return priorityExecutor;
+    }
+
+    @NonNull
+    @Override
+    public Executor getConcurrentExecutor(@TaskPriority int priority) {
+        return priorityExecutor.getExecutor(priority);
     }
 
     /**
-     * Implements serial executor which allows only one task to be executed at the same time.
+     * Removes cancelled tasks waiting for execution in the thread pool, so they don't
+     * occupy the priority lanes.
      *
-     * Note that the implementation is grabbed from android's private {@link AsyncTask}'s SerialExecutor.
+     * @return Number of removed tasks.
      */
-    private static class SerialExecutor implements Executor {
-        final ArrayDeque<Runnable> mTasks = new ArrayDeque<Runnable>();
-        Runnable mActive;
-
-        public synchronized void execute(final Runnable r) {
-            mTasks.offer(new Runnable() {
-                public void run() {
-                    try {
-                        r.run();
-                    } finally {
-                        scheduleNext();
-                    }
-                }
-            });
-            if (mActive == null) {
-                scheduleNext();
-            }
-        }
-
-        protected synchronized void scheduleNext() {
-            if ((mActive = mTasks.poll()) != null) {
-                AsyncTask.THREAD_POOL_EXECUTOR.execute(mActive);
-            }
-        }
+    public int purgeCancelledTasks() {
+        return priorityExecutor.purge();
     }
 }
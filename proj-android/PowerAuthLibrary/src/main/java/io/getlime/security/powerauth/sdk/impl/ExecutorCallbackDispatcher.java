@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Callback dispatcher dispatching all callbacks to the provided executor. If no executor
+ * is provided, then callbacks are executed immediately on the current thread.
+ */
+public class ExecutorCallbackDispatcher implements ICallbackDispatcher {
+
+    private final @Nullable Executor mExecutor;
+
+    /**
+     * @param executor executor for callbacks or null, if callbacks should be executed on the current thread.
+     */
+    public ExecutorCallbackDispatcher(@Nullable Executor executor) {
+        this.mExecutor = executor;
+    }
+
+    @Override
+    public void dispatchCallback(@NonNull Runnable runnable) {
+        if (mExecutor == null) {
+            runnable.run();
+        } else {
+            mExecutor.execute(runnable);
+        }
+    }
+}
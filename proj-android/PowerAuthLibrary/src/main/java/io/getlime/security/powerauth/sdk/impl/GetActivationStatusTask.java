@@ -595,9 +595,21 @@ public class GetActivationStatusTask implements ICancelable {
      * @return {@link ICancelable} object capturing the listener or null if this task is already exiting.
      */
     public @Nullable ICancelable addActivationStatusListener(@NonNull IActivationStatusListener listener) {
+        return addActivationStatusListener(listener, callbackDispacher);
+    }
+
+    /**
+     * Add a listener into the list of listeners for later completion. Unlike {@link #addActivationStatusListener(IActivationStatusListener)},
+     * the listener will be notified via provided callback dispatcher.
+     *
+     * @param listener {@link IActivationStatusListener} to be added to the list of completion listeners
+     * @param dispatcher {@link ICallbackDispatcher} used to notify the listener
+     * @return {@link ICancelable} object capturing the listener or null if this task is already exiting.
+     */
+    public @Nullable ICancelable addActivationStatusListener(@NonNull IActivationStatusListener listener, @NonNull ICallbackDispatcher dispatcher) {
         synchronized (this) {
             if (!isExiting.get()) {
-                final ChildTask task = new ChildTask(listener);
+                final ChildTask task = new ChildTask(listener, dispatcher);
                 childTasks.add(task);
                 return task;
             }
@@ -627,10 +639,12 @@ public class GetActivationStatusTask implements ICancelable {
     private class ChildTask implements ICancelable {
 
         private final IActivationStatusListener listener;
+        private final ICallbackDispatcher dispatcher;
         private final AtomicBoolean isCanceled = new AtomicBoolean();
 
-        ChildTask(@NonNull IActivationStatusListener listener) {
+        ChildTask(@NonNull IActivationStatusListener listener, @NonNull ICallbackDispatcher dispatcher) {
             this.listener = listener;
+            this.dispatcher = dispatcher;
         }
 
         @Override
@@ -652,7 +666,7 @@ public class GetActivationStatusTask implements ICancelable {
          */
         public void complete(final @Nullable ActivationStatus status, final @Nullable Throwable throwable) {
             if (!isCanceled.getAndSet(true)) {
-                callbackDispacher.dispatchCallback(new Runnable() {
+                dispatcher.dispatchCallback(new Runnable() {
                     @Override
                     public void run() {
                         if (status != null) {
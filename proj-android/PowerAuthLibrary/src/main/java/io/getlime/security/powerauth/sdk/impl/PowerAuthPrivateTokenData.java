@@ -21,7 +21,13 @@ import androidx.annotation.Nullable;
 import android.util.Base64;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
 
 /**
@@ -43,6 +49,11 @@ public class PowerAuthPrivateTokenData {
     public final byte[] secret;
 
     private static final int SECRET_LENGTH = 16;
+    /**
+     * Maximum length of identifier and name. The limit guarantees that UTF-8 representation
+     * of string fits into 16-bit length field in the serialized data.
+     */
+    private static final int MAX_STRING_LENGTH = 0xFFFF / 3;
 
     public PowerAuthPrivateTokenData(@NonNull String name, @NonNull String identifier, @NonNull byte[] secret) {
         this.name = name;
@@ -53,8 +64,8 @@ public class PowerAuthPrivateTokenData {
     public boolean hasValidData() {
         if (name != null && identifier != null && secret != null) {
             return secret.length == SECRET_LENGTH &&
-                    !identifier.isEmpty() &&
-                    !name.isEmpty();
+                    !identifier.isEmpty() && identifier.length() <= MAX_STRING_LENGTH &&
+                    !name.isEmpty() && name.length() <= MAX_STRING_LENGTH;
         }
         return false;
     }
@@ -74,22 +85,173 @@ public class PowerAuthPrivateTokenData {
         return false;
     }
 
-    public @Nullable byte[] getSerializedData() {
+    // Serialization
+    //
+    // The binary format has the following layout:
+    //
+    //   [0x00][version][type][payload]
+    //
+    // The leading zero byte never appears in the legacy, comma separated US-ASCII format,
+    // so both formats can be distinguished without any additional information. The payload
+    // for a single token contains length-prefixed identifier, secret and name. The payload
+    // for a list of tokens contains the number of tokens, followed by the token payloads.
+
+    private static final byte FORMAT_MARKER = 0x00;
+    private static final byte FORMAT_VERSION_1 = 0x01;
+    private static final byte FORMAT_TYPE_TOKEN = 'T';
+    private static final byte FORMAT_TYPE_LIST = 'L';
+    private static final int FORMAT_HEADER_SIZE = 3;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
 
+    /**
+     * @return Serialized data in binary format or null if object contains invalid data.
+     */
+    public @Nullable byte[] getSerializedData() {
         if (!this.hasValidData()) {
             return null;
         }
-        final String nameB64 = Base64.encodeToString(name.getBytes(), Base64.NO_WRAP);
-        final String secretB64 = Base64.encodeToString(secret, Base64.NO_WRAP);
-        final String dataString = identifier + "," + secretB64 + "," + nameB64;
+        final byte[] identifierBytes = identifier.getBytes(UTF8);
+        final byte[] nameBytes = name.getBytes(UTF8);
+        final ByteBuffer buffer = ByteBuffer.allocate(FORMAT_HEADER_SIZE + getPayloadSize(identifierBytes, nameBytes));
+        writeHeader(buffer, FORMAT_TYPE_TOKEN);
+        writePayload(buffer, identifierBytes, nameBytes);
+        return buffer.array();
+    }
+
+    /**
+     * Deserialize token data from bytes, previously produced by {@link #getSerializedData()}. The method
+     * also accepts data in legacy format, produced by older versions of SDK.
+     *
+     * @param data Serialized data.
+     * @return Deserialized object or null if data is not valid.
+     */
+    public static @Nullable PowerAuthPrivateTokenData deserializeWithData(@NonNull byte[] data) {
+        if (isLegacySerializedData(data)) {
+            return deserializeWithLegacyData(data);
+        }
         try {
-            return dataString.getBytes("US-ASCII");
-        } catch (UnsupportedEncodingException e) {
-            return null; // US-ASCII is guaranteed to be available.
+            final ByteBuffer buffer = ByteBuffer.wrap(data);
+            if (!readHeader(buffer, FORMAT_TYPE_TOKEN)) {
+                return null;
+            }
+            final PowerAuthPrivateTokenData tokenData = readPayload(buffer);
+            return buffer.hasRemaining() ? null : tokenData;
+        } catch (BufferUnderflowException e) {
+            return null;
         }
     }
 
-    public static @Nullable PowerAuthPrivateTokenData deserializeWithData(@NonNull byte[] data) {
+    /**
+     * Serialize list of tokens into one sequence of bytes. Tokens with invalid data are ignored.
+     *
+     * @param tokens Collection of tokens to serialize.
+     * @return Serialized list of tokens.
+     */
+    public static @NonNull byte[] serializeList(@NonNull Collection<PowerAuthPrivateTokenData> tokens) {
+        final List<PowerAuthPrivateTokenData> validTokens = new ArrayList<>(tokens.size());
+        final List<byte[][]> encodedStrings = new ArrayList<>(tokens.size());
+        int size = FORMAT_HEADER_SIZE + 4;
+        for (PowerAuthPrivateTokenData token : tokens) {
+            if (!token.hasValidData()) {
+                continue;
+            }
+            final byte[] identifierBytes = token.identifier.getBytes(UTF8);
+            final byte[] nameBytes = token.name.getBytes(UTF8);
+            validTokens.add(token);
+            encodedStrings.add(new byte[][] { identifierBytes, nameBytes });
+            size += getPayloadSize(identifierBytes, nameBytes);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        writeHeader(buffer, FORMAT_TYPE_LIST);
+        buffer.putInt(validTokens.size());
+        for (int i = 0; i < validTokens.size(); i++) {
+            final byte[][] strings = encodedStrings.get(i);
+            validTokens.get(i).writePayload(buffer, strings[0], strings[1]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Deserialize list of tokens, previously produced by {@link #serializeList(Collection)}.
+     *
+     * @param data Serialized list of tokens.
+     * @return List of tokens or null if data is not valid.
+     */
+    public static @Nullable List<PowerAuthPrivateTokenData> deserializeList(@NonNull byte[] data) {
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(data);
+            if (!readHeader(buffer, FORMAT_TYPE_LIST)) {
+                return null;
+            }
+            final int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining()) {
+                return null;
+            }
+            final List<PowerAuthPrivateTokenData> tokens = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final PowerAuthPrivateTokenData tokenData = readPayload(buffer);
+                if (tokenData == null) {
+                    return null;
+                }
+                tokens.add(tokenData);
+            }
+            return buffer.hasRemaining() ? null : tokens;
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Determine whether the serialized data is in legacy format. In this case, the data should be
+     * serialized again, to migrate it to the current format.
+     *
+     * @param data Serialized data.
+     * @return true if data is in legacy format.
+     */
+    public static boolean isLegacySerializedData(@NonNull byte[] data) {
+        return data.length > 0 && data[0] != FORMAT_MARKER;
+    }
+
+    private static int getPayloadSize(@NonNull byte[] identifierBytes, @NonNull byte[] nameBytes) {
+        return 2 + identifierBytes.length + 1 + SECRET_LENGTH + 2 + nameBytes.length;
+    }
+
+    private static void writeHeader(@NonNull ByteBuffer buffer, byte type) {
+        buffer.put(FORMAT_MARKER);
+        buffer.put(FORMAT_VERSION_1);
+        buffer.put(type);
+    }
+
+    private void writePayload(@NonNull ByteBuffer buffer, @NonNull byte[] identifierBytes, @NonNull byte[] nameBytes) {
+        buffer.putShort((short) identifierBytes.length);
+        buffer.put(identifierBytes);
+        buffer.put((byte) secret.length);
+        buffer.put(secret);
+        buffer.putShort((short) nameBytes.length);
+        buffer.put(nameBytes);
+    }
+
+    private static boolean readHeader(@NonNull ByteBuffer buffer, byte expectedType) {
+        return buffer.get() == FORMAT_MARKER &&
+                buffer.get() == FORMAT_VERSION_1 &&
+                buffer.get() == expectedType;
+    }
+
+    private static @Nullable PowerAuthPrivateTokenData readPayload(@NonNull ByteBuffer buffer) {
+        final String identifier = new String(readBytes(buffer, buffer.getShort() & 0xFFFF), UTF8);
+        final byte[] secret = readBytes(buffer, buffer.get() & 0xFF);
+        final String name = new String(readBytes(buffer, buffer.getShort() & 0xFFFF), UTF8);
+        final PowerAuthPrivateTokenData tokenData = new PowerAuthPrivateTokenData(name, identifier, secret);
+        return tokenData.hasValidData() ? tokenData : null;
+    }
+
+    private static @NonNull byte[] readBytes(@NonNull ByteBuffer buffer, int length) {
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static @Nullable PowerAuthPrivateTokenData deserializeWithLegacyData(@NonNull byte[] data) {
 
         String str;
         try {
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk.impl;
+
+import android.os.Process;
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
+
+/**
+ * The {@code PriorityExecutor} class implements a thread pool owned by the SDK, with a separate
+ * bounded queue for each {@link TaskPriority} lane. Waiting tasks from the {@link TaskPriority#INTERACTIVE}
+ * lane are always started before tasks from the {@link TaskPriority#BACKGROUND} lane. Tasks within the
+ * same lane are started in FIFO order.
+ * <p>
+ * Unlike {@code AsyncTask.THREAD_POOL_EXECUTOR}, the pool is not shared with other libraries in
+ * the application, so PowerAuth operations don't wait behind unrelated work.
+ */
+public class PriorityExecutor implements Executor {
+
+    /**
+     * Number of seconds after which idle threads are terminated.
+     */
+    private static final int KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Number of supported lanes.
+     */
+    private static final int LANES_COUNT = 2;
+
+    private final ThreadPoolExecutor threadPool;
+    private final int laneCapacity;
+    private final AtomicInteger[] waitingTasks;
+    private final Executor[] laneExecutors;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param poolSize maximum number of threads in the pool.
+     * @param laneCapacity maximum number of tasks waiting for execution in one lane.
+     */
+    public PriorityExecutor(int poolSize, int laneCapacity) {
+        if (poolSize < 1 || laneCapacity < 1) {
+            throw new IllegalArgumentException("Pool size and lane capacity must be greater than 0.");
+        }
+        this.laneCapacity = laneCapacity;
+        this.waitingTasks = new AtomicInteger[LANES_COUNT];
+        this.laneExecutors = new Executor[LANES_COUNT];
+        for (int i = 0; i < LANES_COUNT; i++) {
+            final int priority = i;
+            this.waitingTasks[i] = new AtomicInteger();
+            this.laneExecutors[i] = new Executor() {
+                @Override
+                public void execute(@NonNull Runnable command) {
+                    PriorityExecutor.this.execute(command, priority);
+                }
+            };
+        }
+        this.threadPool = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), new PoolThreadFactory());
+        this.threadPool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Executes task in {@link TaskPriority#INTERACTIVE} lane.
+     *
+     * @param command task to execute.
+     * @throws RejectedExecutionException if the lane's queue is full.
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        execute(command, TaskPriority.INTERACTIVE);
+    }
+
+    /**
+     * Executes task in the requested lane.
+     *
+     * @param command task to execute.
+     * @param priority lane in which the task will wait for execution.
+     * @throws RejectedExecutionException if the lane's queue is full.
+     */
+    public void execute(@NonNull Runnable command, @TaskPriority int priority) {
+        execute(command, priority, true);
+    }
+
+    /**
+     * Executes task in the requested lane. The method is package private, because it allows
+     * to bypass the lane's capacity check. This is useful for serial executors, which keep
+     * their own queue and submit only one task at the same time.
+     *
+     * @param command task to execute.
+     * @param priority lane in which the task will wait for execution.
+     * @param bounded if true, then the lane's capacity is checked.
+     * @throws RejectedExecutionException if the lane's queue is full.
+     */
+    void execute(@NonNull Runnable command, @TaskPriority int priority, boolean bounded) {
+        final int lane = laneIndex(priority);
+        final AtomicInteger counter = waitingTasks[lane];
+        if (counter.incrementAndGet() > laneCapacity && bounded) {
+            // The lane may be full of cancelled tasks, so try to remove them first.
+            if (purge() == 0 || counter.get() > laneCapacity) {
+                counter.decrementAndGet();
+                throw new RejectedExecutionException("PowerAuth executor queue is full.");
+            }
+        }
+        try {
+            threadPool.execute(new PrioritizedTask(command, lane, sequence.getAndIncrement(), counter));
+        } catch (RejectedExecutionException e) {
+            counter.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes all cancelled tasks waiting for execution from the queue. Only tasks implementing
+     * {@link Future} interface can be removed, like {@code FutureTask} submitted by {@code AsyncTask}.
+     *
+     * @return Number of removed tasks.
+     */
+    public int purge() {
+        int removedTasks = 0;
+        for (Runnable queuedTask : threadPool.getQueue()) {
+            final PrioritizedTask task = (PrioritizedTask) queuedTask;
+            if (task.isCancelled() && threadPool.remove(task)) {
+                // The task has been removed before a worker took it, so it will never run
+                // and its waiting counter must be decremented here.
+                task.waitingCounter.decrementAndGet();
+                removedTasks++;
+            }
+        }
+        return removedTasks;
+    }
+
+    /**
+     * Returns executor that submits all tasks into the requested lane.
+     *
+     * @param priority lane for all tasks submitted to the returned executor.
+     * @return Executor bound to the requested lane.
+     */
+    public @NonNull Executor getExecutor(@TaskPriority int priority) {
+        return laneExecutors[laneIndex(priority)];
+    }
+
+    /**
+     * @param priority lane priority.
+     * @return Number of tasks waiting for execution in the requested lane.
+     */
+    public int getWaitingTasksCount(@TaskPriority int priority) {
+        return waitingTasks[laneIndex(priority)].get();
+    }
+
+    /**
+     * Converts priority to a valid index to the lanes array.
+     *
+     * @param priority priority to convert.
+     * @return Index of lane.
+     */
+    private static int laneIndex(@TaskPriority int priority) {
+        return Math.max(0, Math.min(LANES_COUNT - 1, priority));
+    }
+
+    /**
+     * Wrapper that keeps the lane and sequence number of the submitted task.
+     */
+    private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+        private final Runnable command;
+        private final int lane;
+        private final long sequence;
+        private final AtomicInteger waitingCounter;
+
+        PrioritizedTask(@NonNull Runnable command, int lane, long sequence, @NonNull AtomicInteger waitingCounter) {
+            this.command = command;
+            this.lane = lane;
+            this.sequence = sequence;
+            this.waitingCounter = waitingCounter;
+        }
+
+        @Override
+        public void run() {
+            waitingCounter.decrementAndGet();
+            // Threads are shared by all lanes, so the priority is applied per task.
+            Process.setThreadPriority(lane == TaskPriority.INTERACTIVE ? Process.THREAD_PRIORITY_DEFAULT : Process.THREAD_PRIORITY_BACKGROUND);
+            command.run();
+        }
+
+        /**
+         * @return true if the wrapped task is a cancelled {@link Future}.
+         */
+        boolean isCancelled() {
+            return command instanceof Future && ((Future<?>) command).isCancelled();
+        }
+
+        @Override
+        public int compareTo(@NonNull PrioritizedTask other) {
+            if (lane != other.lane) {
+                return lane < other.lane ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * Thread factory creating named threads. The thread priority is set by {@link PrioritizedTask},
+     * according to the lane of the executed task.
+     */
+    private static class PoolThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            return new Thread(r, "PowerAuth #" + threadCount.getAndIncrement());
+        }
+    }
+}
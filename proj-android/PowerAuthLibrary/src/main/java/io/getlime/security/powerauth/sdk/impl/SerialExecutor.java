@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.sdk.impl;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.getlime.security.powerauth.networking.interfaces.TaskPriority;
+
+/**
+ * The {@code SerialExecutor} class implements executor which allows only one task to be executed
+ * at the same time. The submitted tasks are kept in a lock-free multiple-producer, single-consumer
+ * queue and are drained in batches by one worker running in the interactive lane of {@link PriorityExecutor}.
+ * <p>
+ * The number of pending tasks is limited by the capacity provided in the constructor. If the
+ * queue is full, then {@link #execute(Runnable)} throws {@link RejectedExecutionException}. The limit
+ * is checked without locking, so it can be slightly exceeded when multiple threads submit tasks
+ * at the same time.
+ */
+public class SerialExecutor implements Executor {
+
+    /**
+     * Default maximum number of tasks executed by one drain pass. After the batch is processed,
+     * the worker is re-submitted to the pool, so the other waiting tasks have a chance to run.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 8;
+
+    private final PriorityExecutor targetExecutor;
+    private final int capacity;
+    private final int batchSize;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Runnable drainTask;
+
+    /**
+     * Number of tasks submitted but not finished yet. The executor that changes the value
+     * from 0 to 1 is responsible for scheduling the drain task.
+     */
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private final AtomicInteger peakPendingTasks = new AtomicInteger();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong drainBatches = new AtomicLong();
+
+    /**
+     * @param targetExecutor pool in which the tasks will be executed.
+     * @param capacity maximum number of pending tasks.
+     */
+    public SerialExecutor(@NonNull PriorityExecutor targetExecutor, int capacity) {
+        this(targetExecutor, capacity, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param targetExecutor pool in which the tasks will be executed.
+     * @param capacity maximum number of pending tasks.
+     * @param batchSize maximum number of tasks executed by one drain pass.
+     */
+    public SerialExecutor(@NonNull PriorityExecutor targetExecutor, int capacity, int batchSize) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Capacity and batch size must be greater than 0.");
+        }
+        this.targetExecutor = targetExecutor;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.drainTask = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+    }
+
+    /**
+     * Executes task after all previously submitted tasks are finished.
+     *
+     * @param command task to execute.
+     * @throws RejectedExecutionException if the queue is full.
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        if (pendingTasks.get() >= capacity) {
+            rejectedTasks.incrementAndGet();
+            throw new RejectedExecutionException("PowerAuth serial executor queue is full.");
+        }
+        // The task must be in the queue before the counter is incremented, so the worker
+        // never polls an empty queue while the counter is greater than 0.
+        tasks.offer(command);
+        final int pending = pendingTasks.incrementAndGet();
+        updatePeak(pending);
+        if (pending == 1) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * @return Number of tasks submitted but not finished yet.
+     */
+    public int getQueueDepth() {
+        return pendingTasks.get();
+    }
+
+    /**
+     * @return Highest observed number of pending tasks.
+     */
+    public int getPeakQueueDepth() {
+        return peakPendingTasks.get();
+    }
+
+    /**
+     * @return Number of tasks rejected due to full queue.
+     */
+    public long getRejectedTasksCount() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * @return Number of drain passes executed in the thread pool.
+     */
+    public long getDrainBatchesCount() {
+        return drainBatches.get();
+    }
+
+    /**
+     * Submit the drain task to the interactive lane. The serial executor keeps its own
+     * queue, so the lane's capacity is not checked.
+     */
+    private void scheduleDrain() {
+        targetExecutor.execute(drainTask, TaskPriority.INTERACTIVE, false);
+    }
+
+    /**
+     * Executes up to {@code batchSize} tasks from the queue. The method is always executed
+     * by exactly one worker.
+     */
+    private void drain() {
+        drainBatches.incrementAndGet();
+        boolean hasMoreTasks = true;
+        try {
+            for (int i = 0; i < batchSize && hasMoreTasks; i++) {
+                final Runnable task = tasks.poll();
+                try {
+                    task.run();
+                } finally {
+                    hasMoreTasks = pendingTasks.decrementAndGet() != 0;
+                }
+            }
+        } finally {
+            // Keep the ownership of the queue and continue in the next pass. This is also
+            // applied when the task throws an exception, to do not block the rest of the queue.
+            if (hasMoreTasks) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    /**
+     * Update the highest observed number of pending tasks.
+     *
+     * @param pending current number of pending tasks.
+     */
+    private void updatePeak(int pending) {
+        int peak = peakPendingTasks.get();
+        while (pending > peak && !peakPendingTasks.compareAndSet(peak, pending)) {
+            peak = peakPendingTasks.get();
+        }
+    }
+}
@@ -43,6 +43,7 @@ import androidx.annotation.Nullable;
  *       Where {@code D} is digit (0 - 9)
  *   </li>
  * </ul>
+ * If you need to validate the code while the user is typing, then use {@link OtpValidator}.
  */
 public class OtpUtil {
 
@@ -128,4 +129,24 @@ public class OtpUtil {
      * @return true if PUK appears to be a valid
      */
     public native static boolean validateRecoveryPuk(@NonNull String recoveryPuk);
+
+    /**
+     * Validates multiple activation codes at once. The method is equivalent to calling
+     * {@link #validateActivationCode(String)} for each code, but crosses the JNI boundary
+     * only once.
+     *
+     * @param activationCodes array of activation codes without the signature part.
+     * @return array with validation results, in the same order as the input codes.
+     */
+    public native static @NonNull boolean[] validateActivationCodes(@NonNull String[] activationCodes);
+
+    /**
+     * Validates multiple recovery codes at once. The method is equivalent to calling
+     * {@link #validateRecoveryCode(String)} for each code, but crosses the JNI boundary
+     * only once. This is useful for bulk validation of imported recovery codes.
+     *
+     * @param recoveryCodes array of recovery codes which may, or may not contain "R:" prefix.
+     * @return array with validation results, in the same order as the input codes.
+     */
+    public native static @NonNull boolean[] validateRecoveryCodes(@NonNull String[] recoveryCodes);
 }
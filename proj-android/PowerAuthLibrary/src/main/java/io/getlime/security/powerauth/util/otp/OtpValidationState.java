@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.util.otp;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static io.getlime.security.powerauth.util.otp.OtpValidationState.INCOMPLETE;
+import static io.getlime.security.powerauth.util.otp.OtpValidationState.INVALID;
+import static io.getlime.security.powerauth.util.otp.OtpValidationState.VALID;
+
+/**
+ * The {@code OtpValidationState} constants defines result of validation
+ * performed by {@link OtpValidator}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({INCOMPLETE, VALID, INVALID})
+public @interface OtpValidationState {
+    /**
+     * The code is not complete yet.
+     */
+    int INCOMPLETE  = 0;
+    /**
+     * The code is complete and valid.
+     */
+    int VALID       = 1;
+    /**
+     * The code is complete, but its checksum doesn't match.
+     */
+    int INVALID     = 2;
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.getlime.security.powerauth.util.otp;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The {@code OtpValidator} class provides incremental validation of activation or recovery
+ * code, typed by the user character by character. Unlike {@link OtpUtil#validateActivationCode(String)},
+ * the validator keeps partially decoded code and its CRC-16 state in the native object, so
+ * the whole code is not parsed again after each keystroke.
+ * <p>
+ * The validator accepts only characters from [A-Z2-7] range, with the auto-correction performed
+ * by {@link OtpUtil#validateAndCorrectTypedCharacter(int)}. The dash characters are accepted,
+ * but not stored, so the application doesn't need to filter them. The "R:" prefix and the signature
+ * part are not supported, because they're never typed by the user.
+ * <p>
+ * The object is not thread safe. You should call {@link #destroy()} once the object is no longer needed.
+ */
+public class OtpValidator {
+
+    static {
+        System.loadLibrary("PowerAuth2Module");
+    }
+
+    /**
+     * Pointer to native underlying object
+     */
+    private long handle;
+
+    /**
+     * Constructs an empty validator.
+     */
+    public OtpValidator() {
+        this.handle = init();
+    }
+
+    /**
+     * Internal JNI initialization.
+     *
+     * @return pointer to underlying C++ object.
+     */
+    private native long init();
+
+    /**
+     * Destroys underlying native C++ object. You can call this method
+     * if you want to be sure that internal object is properly destroyed.
+     * You can't use instance of this java object anymore after this call.
+     */
+    public synchronized void destroy() {
+        if (this.handle != 0) {
+            destroy(this.handle);
+            this.handle = 0;
+        }
+    }
+
+    /**
+     * Make sure that the underlying C++ object is always destroyed.
+     */
+    protected void finalize() {
+        destroy();
+    }
+
+    /**
+     * Internal JNI destroy. You have to provide handle created during the initialization.
+     *
+     * @param handle pointer to underlying C++ object
+     */
+    private native void destroy(long handle);
+
+    /**
+     * Appends one unicode code point at the end of the code. The character is auto-corrected
+     * before it's appended.
+     *
+     * @param utfCodepoint unicode code point to add.
+     * @return false if character is not allowed, or if the code is already complete.
+     */
+    public native boolean appendCharacter(int utfCodepoint);
+
+    /**
+     * Removes the last character from the code.
+     *
+     * @return false if the code is empty.
+     */
+    public native boolean removeLastCharacter();
+
+    /**
+     * Removes all characters from the code.
+     */
+    public native void clear();
+
+    /**
+     * @return Number of typed characters, without dashes.
+     */
+    public native int length();
+
+    /**
+     * @return Current validation state.
+     */
+    @OtpValidationState
+    public native int getState();
+
+    /**
+     * @return Typed code, formatted with dashes.
+     */
+    public native @NonNull String getCode();
+}
@@ -51,6 +51,7 @@ LOCAL_SRC_FILES := \
 	PowerAuth/crypto/ECC.cpp \
 	PowerAuth/crypto/PKCS7Padding.cpp \
 	PowerAuth/crypto/PRNG.cpp \
+	PowerAuth/crypto/CryptoMetrics.cpp \
 	PowerAuth/protocol/Constants.cpp \
 	PowerAuth/protocol/PrivateTypes.cpp \
 	PowerAuth/protocol/ProtocolUtils.cpp \
@@ -104,6 +105,8 @@ LOCAL_SRC_FILES := \
 	PowerAuthTests/pa2OtpUtilTests.cpp \
 	PowerAuthTests/pa2ECIESTests.cpp \
 	PowerAuthTests/pa2CRC16Tests.cpp \
+	PowerAuthTests/pa2CryptoMetricsTests.cpp \
+	PowerAuthTests/pa2CryptoBNContextTests.cpp \
 	PowerAuthTests/TestData/pa2.generated/g_pa2Files.cpp
 
 include $(BUILD_STATIC_LIBRARY)
@@ -137,13 +140,18 @@ LOCAL_C_INCLUDES := \
 
 # JNI sources
 LOCAL_SRC_FILES := \
+	PowerAuth/jni/JniCache.cpp \
 	PowerAuth/jni/SessionJNI.cpp \
 	PowerAuth/jni/PasswordJNI.cpp \
 	PowerAuth/jni/OtpUtilJNI.cpp \
+	PowerAuth/jni/OtpValidatorJNI.cpp \
 	PowerAuth/jni/ECIESEncryptorJNI.cpp \
+	PowerAuth/jni/EciesRequestStreamJNI.cpp \
 	PowerAuth/jni/TokenCalculatorJNI.cpp \
 	PowerAuth/jni/CryptoUtilsJNI.cpp \
-	PowerAuth/jni/ProtocolVersionJNI.cpp
+	PowerAuth/jni/EcdsaSignatureVerifierJNI.cpp \
+	PowerAuth/jni/ProtocolVersionJNI.cpp \
+	PowerAuth/jni/CryptoMetricsJNI.cpp
 
 include $(BUILD_SHARED_LIBRARY)
 
@@ -193,6 +193,77 @@ namespace powerAuth
 		return error ? EC_Encryption : EC_Ok;
 	}
 	
+	// ----------------------------------------------------------------------------------------------
+	// MARK: - Request stream -
+	//
+	
+	struct ECIESRequestStream::PrivateData
+	{
+		crypto::AES_CBC_PaddingStreamEncryptor cipher;
+		crypto::HMAC_SHA256_Stream mac;
+		cc7::ByteArray shared_info2;
+		bool valid = false;
+	};
+	
+	ECIESRequestStream::ECIESRequestStream() :
+		_pd(new PrivateData())
+	{
+	}
+	
+	ECIESRequestStream::~ECIESRequestStream()
+	{
+		delete _pd;
+	}
+	
+	bool ECIESRequestStream::isValid() const
+	{
+		return _pd->valid;
+	}
+	
+	ErrorCode ECIESRequestStream::start(const ECIESEnvelopeKey & envelope_key, const cc7::ByteRange & iv, const cc7::ByteRange & shared_info2)
+	{
+		_pd->valid = false;
+		if (!envelope_key.isValid() || iv.size() != ECIESEnvelopeKey::IvSize) {
+			return EC_Encryption;
+		}
+		if (!_pd->cipher.init(envelope_key.encKey(), iv)) {
+			return EC_Encryption;
+		}
+		_pd->mac.init(envelope_key.macKey());
+		_pd->shared_info2 = shared_info2;
+		_pd->valid = true;
+		return EC_Ok;
+	}
+	
+	ErrorCode ECIESRequestStream::update(const cc7::ByteRange & data, cc7::ByteArray & out_body)
+	{
+		if (!_pd->valid) {
+			return EC_WrongState;
+		}
+		if (!_pd->cipher.update(data, out_body)) {
+			_pd->valid = false;
+			return EC_Encryption;
+		}
+		// mac = MAC(body || S2), so the body is processed as it goes
+		_pd->mac.update(out_body);
+		return EC_Ok;
+	}
+	
+	ErrorCode ECIESRequestStream::finish(cc7::ByteArray & out_body, cc7::ByteArray & out_mac)
+	{
+		if (!_pd->valid) {
+			return EC_WrongState;
+		}
+		_pd->valid = false;
+		if (!_pd->cipher.finish(out_body)) {
+			return EC_Encryption;
+		}
+		_pd->mac.update(out_body);
+		_pd->mac.update(_pd->shared_info2);
+		out_mac = _pd->mac.finish();
+		return EC_Ok;
+	}
+	
 	// ----------------------------------------------------------------------------------------------
 	// MARK: - Encryptor class -
 	//
@@ -275,6 +346,20 @@ namespace powerAuth
 		return EC_WrongState;
 	}
 	
+	ErrorCode ECIESEncryptor::beginEncryptRequest(ECIESRequestStream & out_stream, ECIESCryptogram & out_cryptogram)
+	{
+		if (canEncryptRequest()) {
+			_envelope_key = ECIESEnvelopeKey::fromPublicKey(_public_key, _shared_info1, out_cryptogram.key);
+			if (_envelope_key.isValid()) {
+				out_cryptogram.nonce = crypto::GetRandomData(ECIESEnvelopeKey::NonceSize);
+				_iv_for_decryption = _envelope_key.deriveIvForNonce(out_cryptogram.nonce);
+				return out_stream.start(_envelope_key, _iv_for_decryption, _shared_info2);
+			}
+			return EC_Encryption;
+		}
+		return EC_WrongState;
+	}
+	
 	ErrorCode ECIESEncryptor::decryptResponse(const ECIESCryptogram & cryptogram, cc7::ByteArray & out_data)
 	{
 		if (canDecryptResponse()) {
@@ -19,6 +19,7 @@
 #include <cc7/Base64.h>
 #include <cc7/Base32.h>
 #include "utils/CRC16.h"
+#include <string.h>
 
 namespace io
 {
@@ -170,6 +171,96 @@ namespace powerAuth
 		return true;
 	}
 	
+	
+	// MARK: - OtpValidator -
+	
+	OtpValidator::OtpValidator()
+	{
+		clear();
+	}
+	
+	bool OtpValidator::appendCharacter(cc7::U32 utf_codepoint)
+	{
+		if (utf_codepoint == '-') {
+			// Dashes are ignored
+			return true;
+		}
+		if (_length >= CODE_LENGTH) {
+			return false;
+		}
+		auto c = OtpUtil::validateAndCorrectTypedCharacter(utf_codepoint);
+		if (c == 0) {
+			return false;
+		}
+		// Decode Base32 character and continue with the state captured after the previous character.
+		cc7::U16 value = c >= 'A' ? (cc7::U16)(c - 'A') : (cc7::U16)(c - '2' + 26);
+		DecoderState st = _states[_length];
+		st.bits = (st.bits << 5) | value;
+		st.bits_count += 5;
+		if (st.bits_count >= 8) {
+			// 5 bits per character, so only one byte can be decoded at once.
+			st.bits_count -= 8;
+			cc7::byte b = (cc7::byte)(st.bits >> st.bits_count);
+			st.bits &= (1 << st.bits_count) - 1;
+			if (st.bytes_count < 10) {
+				st.crc = utils::CRC16_Update(st.crc, b);
+			} else {
+				st.checksum = (st.checksum << 8) | b;
+			}
+			st.bytes_count++;
+		}
+		_chars[_length] = (char)c;
+		_states[++_length] = st;
+		return true;
+	}
+	
+	bool OtpValidator::removeLastCharacter()
+	{
+		if (_length == 0) {
+			return false;
+		}
+		_chars[--_length] = 0;
+		return true;
+	}
+	
+	void OtpValidator::clear()
+	{
+		memset(_chars, 0, sizeof(_chars));
+		memset(_states, 0, sizeof(_states));
+		_length = 0;
+	}
+	
+	size_t OtpValidator::length() const
+	{
+		return _length;
+	}
+	
+	OtpValidator::State OtpValidator::state() const
+	{
+		if (_length < CODE_LENGTH) {
+			return Incomplete;
+		}
+		// 20 characters are decoded to 12 bytes and 4 remaining bits, which must be zero.
+		const DecoderState & st = _states[CODE_LENGTH];
+		if (st.bytes_count == 12 && st.bits == 0 && st.crc == st.checksum) {
+			return Valid;
+		}
+		return Invalid;
+	}
+	
+	std::string OtpValidator::code() const
+	{
+		std::string result;
+		result.reserve(_length + _length / 5);
+		for (size_t i = 0; i < _length; i++) {
+			if (i > 0 && (i % 5) == 0) {
+				result.push_back('-');
+			}
+			result.push_back(_chars[i]);
+		}
+		return result;
+	}
+	
 } // io::getlime::powerAuth
 } // io::getlime
 } // io
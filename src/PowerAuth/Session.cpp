@@ -44,7 +44,8 @@ namespace powerAuth
 		_state(SS_Empty),
 		_setup(setup),
 		_pd(nullptr),
-		_ad(nullptr)
+		_ad(nullptr),
+		_preparedAd(nullptr)
 	{
 		if (protocol::ValidateSessionSetup(_setup, false)) {
 			CC7_LOG("Session %p, %d: Object created.", this, sessionIdentifier());
@@ -58,6 +59,7 @@ namespace powerAuth
 	{
 		delete _pd;
 		delete _ad;
+		delete _preparedAd;
 		
 		CC7_LOG("Session %p, %d: Object destroyed.", this, sessionIdentifier());
 	}
@@ -66,6 +68,8 @@ namespace powerAuth
 	{
 		LOCK_GUARD();
 		commitNewPersistentState(nullptr, SS_Empty);
+		delete _preparedAd;
+		_preparedAd = nullptr;
 	}
 	
 	const SessionSetup * Session::sessionSetup() const
@@ -240,42 +244,49 @@ namespace powerAuth
 		return result;
 	}
 	
-	ErrorCode Session::startActivation(const ActivationStep1Param & param, ActivationStep1Result & result)
+	ErrorCode Session::prepareActivation()
 	{
-		LOCK_GUARD();
-		// Validate state & parameters
-		if (!hasValidSetup()) {
-			CC7_LOG("Session %p, %d: Step 1: Session has no valid setup.", this, sessionIdentifier());
-			return EC_WrongState;
+		{
+			LOCK_GUARD();
+			if (!hasValidSetup() || !canStartActivation()) {
+				CC7_LOG("Session %p, %d: Prepare: Called in wrong state.", this, sessionIdentifier());
+				return EC_WrongState;
+			}
+			if (_preparedAd) {
+				// Already prepared
+				return EC_Ok;
+			}
 		}
-		if (!canStartActivation()) {
-			CC7_LOG("Session %p, %d: Step 1: Called in wrong state.", this, sessionIdentifier());
-			return EC_WrongState;
+		// Key pair generation is performed without lock, so the session remains
+		// available for other threads.
+		auto ad = createActivationData();
+		if (!ad) {
+			return EC_Encryption;
 		}
-		if (!param.activationCode.empty()) {
-			// If activation code is present, then check whether CRC16 checksum is OK
-			if (!OtpUtil::validateActivationCode(param.activationCode)) {
-				CC7_LOG("Session %p, %d: Step 1: Wrong activation code.", this, sessionIdentifier());
-				return EC_WrongParam;
-			}
+		LOCK_GUARD();
+		if (_preparedAd == nullptr && canStartActivation()) {
+			_preparedAd = ad;
+		} else {
+			// Other thread was faster, or the activation has been already started.
+			delete ad;
 		}
-		
-		auto error_code = EC_Encryption;
+		return EC_Ok;
+	}
+	
+	protocol::ActivationData * Session::createActivationData() const
+	{
 		auto ad = new protocol::ActivationData();
+		bool success = false;
 		
 		do {
 			crypto::BNContext ctx;
 			
-			// Import master server public key & try to validate OTP+ShortID signature
+			// Import master server public key
 			ad->masterServerPublicKey = crypto::ECC_ImportPublicKeyFromB64(nullptr, _setup.masterServerPublicKey, ctx);
 			if (nullptr == ad->masterServerPublicKey) {
 				CC7_LOG("Session %p, %d: Step 1: Master server public key is invalid.", this, sessionIdentifier());
 				break;
 			}
-			if (!protocol::ValidateActivationCodeSignature(param.activationCode, param.activationSignature, ad->masterServerPublicKey)) {
-				CC7_LOG("Session %p, %d: Step 1: Invalid OTP+ShortID signature.", this, sessionIdentifier());
-				break;
-			}
 			
 			// Re-seed OpenSSL's PRNG.
 			crypto::ReseedPRNG();
@@ -291,25 +302,63 @@ namespace powerAuth
 				CC7_LOG("Session %p, %d: Step 1: Unable to export public key.", this, sessionIdentifier());
 				break;
 			}
-			
-			// V3 activation is much simpler than V2. We need to just store device's public key
-			// in Base64 format. The data encryption & protection is achieved by the ECIES.
-			result.devicePublicKey = ad->devicePublicKeyData.base64String();
-			
-			// Finally, everything is OK
-			error_code = EC_Ok;
+			success = true;
 			
 		} while (false);
 		
-		if (error_code == EC_Ok) {
-			// Keep activation data for other steps
-			_ad = ad;
-			changeState(SS_Activation1);
-		} else {
-			// Activation failed, delete AD structure
+		if (!success) {
 			delete ad;
+			return nullptr;
 		}
-		return error_code;
+		return ad;
+	}
+	
+	ErrorCode Session::startActivation(const ActivationStep1Param & param, ActivationStep1Result & result)
+	{
+		LOCK_GUARD();
+		// Validate state & parameters
+		if (!hasValidSetup()) {
+			CC7_LOG("Session %p, %d: Step 1: Session has no valid setup.", this, sessionIdentifier());
+			return EC_WrongState;
+		}
+		if (!canStartActivation()) {
+			CC7_LOG("Session %p, %d: Step 1: Called in wrong state.", this, sessionIdentifier());
+			return EC_WrongState;
+		}
+		if (!param.activationCode.empty()) {
+			// If activation code is present, then check whether CRC16 checksum is OK
+			if (!OtpUtil::validateActivationCode(param.activationCode)) {
+				CC7_LOG("Session %p, %d: Step 1: Wrong activation code.", this, sessionIdentifier());
+				return EC_WrongParam;
+			}
+		}
+		
+		// Use prepared activation data, if available. The prepared data is always
+		// consumed, even if the following validation fails.
+		auto ad = _preparedAd;
+		_preparedAd = nullptr;
+		if (!ad) {
+			ad = createActivationData();
+			if (!ad) {
+				return EC_Encryption;
+			}
+		}
+		
+		// Try to validate OTP+ShortID signature
+		if (!protocol::ValidateActivationCodeSignature(param.activationCode, param.activationSignature, ad->masterServerPublicKey)) {
+			CC7_LOG("Session %p, %d: Step 1: Invalid OTP+ShortID signature.", this, sessionIdentifier());
+			delete ad;
+			return EC_Encryption;
+		}
+		
+		// V3 activation is much simpler than V2. We need to just store device's public key
+		// in Base64 format. The data encryption & protection is achieved by the ECIES.
+		result.devicePublicKey = ad->devicePublicKeyData.base64String();
+		
+		// Keep activation data for other steps
+		_ad = ad;
+		changeState(SS_Activation1);
+		return EC_Ok;
 	}
 	
 	ErrorCode Session::validateActivationResponse(const ActivationStep2Param & param, ActivationStep2Result & result)
@@ -712,6 +761,25 @@ namespace powerAuth
 		return success ? EC_Ok : EC_Encryption;
 	}
 	
+	cc7::ByteArray Session::serverPublicKeyForSignedData(SignedData::SigningKey signing_key) const
+	{
+		LOCK_GUARD();
+		if (!hasValidSetup()) {
+			CC7_LOG("Session %p, %d: ServerKey: Session has no valid setup.", this, sessionIdentifier());
+			return cc7::ByteArray();
+		}
+		if (signing_key == SignedData::ECDSA_MasterServerKey) {
+			cc7::ByteArray master_key;
+			master_key.readFromBase64String(_setup.masterServerPublicKey);
+			return master_key;
+		}
+		if (!hasValidActivation()) {
+			CC7_LOG("Session %p, %d: ServerKey: There's no valid activation.", this, sessionIdentifier());
+			return cc7::ByteArray();
+		}
+		return _pd->serverPublicKey;
+	}
+	
 	// MARK: - Signature keys management -
 	
 	ErrorCode Session::changeUserPassword(const cc7::ByteRange & old_password, const cc7::ByteRange & new_password)
@@ -16,7 +16,10 @@
 
 #include "AES.h"
 #include "PKCS7Padding.h"
+#include "CryptoMetrics.h"
 #include <openssl/aes.h>
+#include <openssl/crypto.h>
+#include <string.h>
 
 
 namespace io
@@ -30,6 +33,7 @@ namespace crypto
 	
 	cc7::ByteArray AES_CBC_Encrypt(const cc7::ByteRange & key, const cc7::ByteRange & iv, const cc7::ByteRange & data)
 	{
+		CryptoMetricsScope metrics(CO_AES_Encrypt);
 		cc7::ByteArray out(data.size(), 0);
 		cc7::ByteArray ivec = iv;
 		AES_KEY aes_key;
@@ -47,6 +51,7 @@ namespace crypto
 	
 	cc7::ByteArray AES_CBC_Decrypt(const cc7::ByteRange & key, const cc7::ByteRange & iv, const cc7::ByteRange & data)
 	{
+		CryptoMetricsScope metrics(CO_AES_Decrypt);
 		cc7::ByteArray out(data.size(), 0);
 		cc7::ByteArray ivec(iv);
 		AES_KEY aes_key;
@@ -82,6 +87,111 @@ namespace crypto
 		return AES_CBC_Encrypt(key, iv, paddedData);
 	}
 	
+	// -------------------------------------------------------------------------------------------
+	// MARK: - Stream encryptor -
+	//
+	
+	struct AES_CBC_PaddingStreamEncryptor::PrivateData
+	{
+		AES_KEY key;
+		cc7::byte iv[AES_BLOCK_SIZE];
+		cc7::byte pending[AES_BLOCK_SIZE];
+		size_t pending_size;
+		bool valid;
+		// Time spent in all update() calls. The whole stream is recorded as one operation in finish().
+		std::chrono::steady_clock::duration elapsed;
+	};
+	
+	AES_CBC_PaddingStreamEncryptor::AES_CBC_PaddingStreamEncryptor() :
+		_pd(new PrivateData())
+	{
+		_pd->valid = false;
+		_pd->pending_size = 0;
+		_pd->elapsed = std::chrono::steady_clock::duration::zero();
+	}
+	
+	AES_CBC_PaddingStreamEncryptor::~AES_CBC_PaddingStreamEncryptor()
+	{
+		OPENSSL_cleanse(_pd, sizeof(PrivateData));
+		delete _pd;
+	}
+	
+	bool AES_CBC_PaddingStreamEncryptor::init(const cc7::ByteRange & key, const cc7::ByteRange & iv)
+	{
+		_pd->valid = false;
+		_pd->pending_size = 0;
+		_pd->elapsed = std::chrono::steady_clock::duration::zero();
+		if (iv.size() != AES_BLOCK_SIZE) {
+			CC7_LOG("AES_CBC_PaddingStreamEncryptor: Invalid IV");
+			return false;
+		}
+		if (AES_set_encrypt_key(key.data(), (int)key.size() * 8, &_pd->key) != 0) {
+			CC7_LOG("AES_set_encrypt_key failed");
+			return false;
+		}
+		memcpy(_pd->iv, iv.data(), AES_BLOCK_SIZE);
+		_pd->valid = true;
+		return true;
+	}
+	
+	bool AES_CBC_PaddingStreamEncryptor::update(const cc7::ByteRange & data, cc7::ByteArray & out_data)
+	{
+		out_data.clear();
+		if (!_pd->valid) {
+			return false;
+		}
+		const size_t total_size = _pd->pending_size + data.size();
+		if (total_size < AES_BLOCK_SIZE) {
+			// Not enough data for a whole block, just keep bytes for later.
+			memcpy(_pd->pending + _pd->pending_size, data.data(), data.size());
+			_pd->pending_size = total_size;
+			return true;
+		}
+		const auto start = std::chrono::steady_clock::now();
+		const size_t out_size = total_size - (total_size % AES_BLOCK_SIZE);
+		out_data.resize(out_size);
+		size_t data_offset = 0;
+		size_t out_offset = 0;
+		if (_pd->pending_size > 0) {
+			// Complete the pending block first
+			data_offset = AES_BLOCK_SIZE - _pd->pending_size;
+			memcpy(_pd->pending + _pd->pending_size, data.data(), data_offset);
+			AES_cbc_encrypt(_pd->pending, out_data.data(), AES_BLOCK_SIZE, &_pd->key, _pd->iv, AES_ENCRYPT);
+			out_offset = AES_BLOCK_SIZE;
+		}
+		// Encrypt the rest of complete blocks directly from the input data
+		const size_t blocks_size = out_size - out_offset;
+		if (blocks_size > 0) {
+			AES_cbc_encrypt(data.data() + data_offset, out_data.data() + out_offset, blocks_size, &_pd->key, _pd->iv, AES_ENCRYPT);
+		}
+		// Keep the remaining bytes
+		_pd->pending_size = data.size() - data_offset - blocks_size;
+		memcpy(_pd->pending, data.data() + data_offset + blocks_size, _pd->pending_size);
+		_pd->elapsed += std::chrono::steady_clock::now() - start;
+		return true;
+	}
+	
+	bool AES_CBC_PaddingStreamEncryptor::finish(cc7::ByteArray & out_data)
+	{
+		out_data.clear();
+		if (!_pd->valid) {
+			return false;
+		}
+		const auto start = std::chrono::steady_clock::now();
+		// Apply PKCS7 padding to the last block
+		const cc7::byte padding = (cc7::byte)(AES_BLOCK_SIZE - _pd->pending_size);
+		memset(_pd->pending + _pd->pending_size, padding, padding);
+		out_data.resize(AES_BLOCK_SIZE);
+		AES_cbc_encrypt(_pd->pending, out_data.data(), AES_BLOCK_SIZE, &_pd->key, _pd->iv, AES_ENCRYPT);
+		const auto elapsed = _pd->elapsed + (std::chrono::steady_clock::now() - start);
+		CryptoMetrics_Record(CO_AES_Encrypt, (cc7::U64)std::chrono::duration_cast<std::chrono::nanoseconds>(elapsed).count());
+		OPENSSL_cleanse(_pd, sizeof(PrivateData));
+		_pd->valid = false;
+		_pd->pending_size = 0;
+		_pd->elapsed = std::chrono::steady_clock::duration::zero();
+		return true;
+	}
+	
 
 } // io::getlime::powerAuth::crypto
 } // io::getlime::powerAuth
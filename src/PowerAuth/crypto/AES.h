@@ -40,6 +40,44 @@ namespace crypto
 	cc7::ByteArray AES_CBC_Decrypt_Padding(const cc7::ByteRange & key, const cc7::ByteRange & iv, const cc7::ByteRange & data, bool * error = nullptr);
 	cc7::ByteArray AES_CBC_Encrypt_Padding(const cc7::ByteRange & key, const cc7::ByteRange & iv, const cc7::ByteRange & data);
 
+	/**
+	 The AES_CBC_PaddingStreamEncryptor class implements an incremental AES-CBC
+	 encryption with PKCS7 padding. The result of all update() calls, followed
+	 by finish(), is equal to AES_CBC_Encrypt_Padding() applied to the whole
+	 input data.
+	 */
+	class AES_CBC_PaddingStreamEncryptor
+	{
+	public:
+		AES_CBC_PaddingStreamEncryptor();
+		~AES_CBC_PaddingStreamEncryptor();
+		
+		AES_CBC_PaddingStreamEncryptor(const AES_CBC_PaddingStreamEncryptor &) = delete;
+		AES_CBC_PaddingStreamEncryptor & operator=(const AES_CBC_PaddingStreamEncryptor &) = delete;
+		
+		/**
+		 Initializes the encryptor with key and IV. Returns false if key or IV
+		 is invalid.
+		 */
+		bool init(const cc7::ByteRange & key, const cc7::ByteRange & iv);
+		
+		/**
+		 Encrypts all complete blocks available after the data is appended to
+		 the internal buffer. The remaining bytes are kept for the next call.
+		 */
+		bool update(const cc7::ByteRange & data, cc7::ByteArray & out_data);
+		
+		/**
+		 Pads the remaining bytes and encrypts the last block. The encryptor
+		 can't be used after this call, until it's initialized again.
+		 */
+		bool finish(cc7::ByteArray & out_data);
+		
+	private:
+		struct PrivateData;
+		PrivateData * _pd;
+	};
+
 	
 } // io::getlime::powerAuth::crypto
 } // io::getlime::powerAuth
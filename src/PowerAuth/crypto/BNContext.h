@@ -32,11 +32,26 @@ namespace powerAuth
 {
 namespace crypto
 {	
+	/**
+	 Returns BN_CTX structure cached for the current thread. The context is created
+	 on the first use and destroyed when the thread exits. You should not use the
+	 returned context directly, use BNContext helper class instead.
+	 
+	 Returns nullptr if the context allocation failed.
+	 */
+	BN_CTX * BNContext_GetThreadContext();
+	
 	/**
 	 BNContext is a helper class for managing BN_CTX structure.
-	 If you do not provide context then the helper will create
-	 new one internally. The internally created context is
-	 automatically destroyed with the BNContext object.
+	 If you do not provide context then the helper will use
+	 a context cached for the current thread, so the repeated
+	 operations don't need to allocate a new context.
+	 
+	 The helper starts a new frame in the context, so all
+	 BIGNUMs obtained with BN_CTX_get() are released back to
+	 the context when the BNContext object is destroyed.
+	 Nested BNContext objects sharing the same context are
+	 allowed.
 	 
 	 The class implements casting operator to BN_CTX and
 	 therefore can be easily used as a parameter to
@@ -47,18 +62,15 @@ namespace crypto
 	public:
 		BNContext(BN_CTX * ctx = nullptr)
 		{
-			if (ctx == nullptr) {
-				_ctx = BN_CTX_new();
-				_delete_ctx = true;
-			} else {
-				_ctx = ctx;
-				_delete_ctx = false;
+			_ctx = ctx != nullptr ? ctx : BNContext_GetThreadContext();
+			if (_ctx) {
+				BN_CTX_start(_ctx);
 			}
 		}
 		~BNContext()
 		{
-			if (_delete_ctx && _ctx) {
-				BN_CTX_free(_ctx);
+			if (_ctx) {
+				BN_CTX_end(_ctx);
 			}
 		}
 		
@@ -68,8 +80,10 @@ namespace crypto
 		operator BN_CTX * () const	{ return _ctx; }
 		
 	private:
+		BNContext(const BNContext &) = delete;
+		BNContext & operator=(const BNContext &) = delete;
+		
 		BN_CTX * _ctx;
-		bool     _delete_ctx;
 	};
 	
 } // io::getlime::powerAuth::crypto
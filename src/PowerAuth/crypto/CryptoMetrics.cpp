@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "CryptoMetrics.h"
+#include <atomic>
+
+namespace io
+{
+namespace getlime
+{
+namespace powerAuth
+{
+namespace crypto
+{
+	// -------------------------------------------------------------------------------------------
+	// MARK: - Registry -
+	//
+
+	struct CryptoOperationCounters
+	{
+		std::atomic<cc7::U64> count;
+		std::atomic<cc7::U64> totalDurationNs;
+		std::atomic<cc7::U64> maxDurationNs;
+		std::atomic<cc7::U64> histogram[CRYPTO_METRICS_HISTOGRAM_SIZE];
+	};
+
+	// Global registry. The static storage guarantees zero initialization.
+	static CryptoOperationCounters s_counters[CO_Count];
+
+	// Upper bounds for histogram buckets, in nanoseconds. The last bucket is unbounded.
+	static const cc7::U64 s_bucket_limits[CRYPTO_METRICS_HISTOGRAM_SIZE - 1] =
+	{
+		10000ULL,		// 10us
+		100000ULL,		// 100us
+		1000000ULL,		// 1ms
+		10000000ULL,	// 10ms
+		100000000ULL,	// 100ms
+	};
+
+	static size_t _BucketIndex(cc7::U64 durationNs)
+	{
+		size_t index = 0;
+		while (index < CRYPTO_METRICS_HISTOGRAM_SIZE - 1 && durationNs >= s_bucket_limits[index]) {
+			++index;
+		}
+		return index;
+	}
+
+	// -------------------------------------------------------------------------------------------
+	// MARK: - Public functions -
+	//
+
+	void CryptoMetrics_Record(CryptoOperation operation, cc7::U64 durationNs)
+	{
+		if ((size_t)operation >= CO_Count) {
+			CC7_ASSERT(false, "Invalid crypto operation %d", (int)operation);
+			return;
+		}
+		auto & counters = s_counters[operation];
+		counters.count.fetch_add(1, std::memory_order_relaxed);
+		counters.totalDurationNs.fetch_add(durationNs, std::memory_order_relaxed);
+		counters.histogram[_BucketIndex(durationNs)].fetch_add(1, std::memory_order_relaxed);
+		// Update maximum with CAS loop
+		cc7::U64 max = counters.maxDurationNs.load(std::memory_order_relaxed);
+		while (durationNs > max) {
+			if (counters.maxDurationNs.compare_exchange_weak(max, durationNs, std::memory_order_relaxed)) {
+				break;
+			}
+		}
+	}
+
+	std::vector<CryptoOperationMetrics> CryptoMetrics_GetSnapshot()
+	{
+		std::vector<CryptoOperationMetrics> result;
+		result.reserve(CO_Count);
+		for (size_t op = 0; op < CO_Count; op++) {
+			const auto & counters = s_counters[op];
+			CryptoOperationMetrics metrics;
+			metrics.operation		= (CryptoOperation)op;
+			metrics.count			= counters.count.load(std::memory_order_relaxed);
+			metrics.totalDurationNs	= counters.totalDurationNs.load(std::memory_order_relaxed);
+			metrics.maxDurationNs	= counters.maxDurationNs.load(std::memory_order_relaxed);
+			for (size_t i = 0; i < CRYPTO_METRICS_HISTOGRAM_SIZE; i++) {
+				metrics.histogram[i] = counters.histogram[i].load(std::memory_order_relaxed);
+			}
+			result.push_back(metrics);
+		}
+		return result;
+	}
+
+	std::vector<cc7::U64> CryptoMetrics_GetHistogramBucketLimits()
+	{
+		return std::vector<cc7::U64>(s_bucket_limits, s_bucket_limits + CRYPTO_METRICS_HISTOGRAM_SIZE - 1);
+	}
+
+	void CryptoMetrics_Reset()
+	{
+		for (size_t op = 0; op < CO_Count; op++) {
+			auto & counters = s_counters[op];
+			counters.count.store(0, std::memory_order_relaxed);
+			counters.totalDurationNs.store(0, std::memory_order_relaxed);
+			counters.maxDurationNs.store(0, std::memory_order_relaxed);
+			for (size_t i = 0; i < CRYPTO_METRICS_HISTOGRAM_SIZE; i++) {
+				counters.histogram[i].store(0, std::memory_order_relaxed);
+			}
+		}
+	}
+
+} // io::getlime::powerAuth::crypto
+} // io::getlime::powerAuth
+} // io::getlime
+} // io
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#pragma once
+
+#include <cc7/Platform.h>
+#include <chrono>
+#include <vector>
+
+namespace io
+{
+namespace getlime
+{
+namespace powerAuth
+{
+namespace crypto
+{
+	/**
+	 The CryptoOperation enumeration defines all cryptographic primitives
+	 measured by the metrics registry. The numeric values are also used
+	 on the Java side, so do not reorder existing items.
+	 */
+	enum CryptoOperation
+	{
+		CO_PBKDF2			= 0,
+		CO_ECDH				= 1,
+		CO_ECDSA_Sign		= 2,
+		CO_ECDSA_Verify		= 3,
+		CO_ECC_KeyGen		= 4,
+		CO_AES_Encrypt		= 5,
+		CO_AES_Decrypt		= 6,
+
+		CO_Count
+	};
+
+	/**
+	 Number of buckets in the duration histogram. The buckets have decimal
+	 upper bounds: <10us, <100us, <1ms, <10ms, <100ms and the last bucket
+	 collects everything else.
+	 */
+	const size_t CRYPTO_METRICS_HISTOGRAM_SIZE = 6;
+
+	/**
+	 The CryptoOperationMetrics structure contains a snapshot of counters
+	 collected for one cryptographic operation.
+	 */
+	struct CryptoOperationMetrics
+	{
+		CryptoOperation operation;
+		cc7::U64 count;
+		cc7::U64 totalDurationNs;
+		cc7::U64 maxDurationNs;
+		cc7::U64 histogram[CRYPTO_METRICS_HISTOGRAM_SIZE];
+	};
+
+	/**
+	 Records one measured operation into the global registry. The function
+	 uses only atomic operations, so it's safe to call it from any thread.
+	 */
+	void CryptoMetrics_Record(CryptoOperation operation, cc7::U64 durationNs);
+
+	/**
+	 Returns snapshot of counters for all operations. Note that counters are
+	 captured one by one, so the snapshot may not be consistent across
+	 operations when other threads are recording at the same time.
+	 */
+	std::vector<CryptoOperationMetrics> CryptoMetrics_GetSnapshot();
+
+	/**
+	 Returns upper bounds of histogram buckets, in nanoseconds. The returned
+	 vector contains CRYPTO_METRICS_HISTOGRAM_SIZE - 1 items, because the last
+	 bucket is unbounded.
+	 */
+	std::vector<cc7::U64> CryptoMetrics_GetHistogramBucketLimits();
+
+	/**
+	 Resets all counters in the registry to zero.
+	 */
+	void CryptoMetrics_Reset();
+
+	/**
+	 The CryptoMetricsScope is a helper class measuring duration of its
+	 lifetime. The measured time is recorded into the registry when
+	 the object is destroyed.
+	 */
+	class CryptoMetricsScope
+	{
+	public:
+		CryptoMetricsScope(CryptoOperation operation) :
+			_operation(operation),
+			_start(std::chrono::steady_clock::now())
+		{
+		}
+		~CryptoMetricsScope()
+		{
+			auto duration = std::chrono::steady_clock::now() - _start;
+			CryptoMetrics_Record(_operation, (cc7::U64)std::chrono::duration_cast<std::chrono::nanoseconds>(duration).count());
+		}
+
+	private:
+		CryptoOperation _operation;
+		std::chrono::steady_clock::time_point _start;
+	};
+
+} // io::getlime::powerAuth::crypto
+} // io::getlime::powerAuth
+} // io::getlime
+} // io
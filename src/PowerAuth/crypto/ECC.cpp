@@ -15,6 +15,7 @@
  */
 
 #include "CryptoUtils.h"
+#include "CryptoMetrics.h"
 
 #include <openssl/evp.h>
 #include <openssl/ecdsa.h>
@@ -33,10 +34,70 @@ namespace crypto
 {
 	
 	// -------------------------------------------------------------------------------------------
-	// MARK: - ECC routines -
+	// MARK: - Cached contexts -
 	//
 	const int ECC_CURVE = NID_X9_62_prime256v1;
 	
+	namespace
+	{
+		/**
+		 Holder for BN_CTX, destroyed automatically when the thread exits.
+		 */
+		struct ThreadBNContext
+		{
+			BN_CTX * ctx = nullptr;
+			
+			~ThreadBNContext()
+			{
+				if (ctx) {
+					BN_CTX_free(ctx);
+				}
+			}
+		};
+	}
+	
+	BN_CTX * BNContext_GetThreadContext()
+	{
+		static thread_local ThreadBNContext s_context;
+		if (!s_context.ctx) {
+			s_context.ctx = BN_CTX_new();
+		}
+		return s_context.ctx;
+	}
+	
+	/**
+	 Returns EC group for the curve used in PowerAuth protocol. The group is created only
+	 once and is never modified, so it's safe to share it between threads.
+	 */
+	static const EC_GROUP * ECC_GetGroup()
+	{
+		static const EC_GROUP * s_group = EC_GROUP_new_by_curve_name(ECC_CURVE);
+		return s_group;
+	}
+	
+	/**
+	 Creates a new empty EC_KEY structure for the curve used in PowerAuth protocol.
+	 The group is copied from the cached one, so its parameters don't need to be
+	 constructed again.
+	 */
+	static EC_KEY * ECC_NewKey()
+	{
+		const EC_GROUP * group = ECC_GetGroup();
+		if (!group) {
+			return EC_KEY_new_by_curve_name(ECC_CURVE);
+		}
+		EC_KEY * key = EC_KEY_new();
+		if (key && 1 != EC_KEY_set_group(key, group)) {
+			EC_KEY_free(key);
+			key = nullptr;
+		}
+		return key;
+	}
+	
+	// -------------------------------------------------------------------------------------------
+	// MARK: - ECC routines -
+	//
+	
 	EC_KEY * ECC_ImportPublicKey(EC_KEY * key, const cc7::ByteRange & publicKey, BN_CTX * c)
 	{
 		bool result = false;
@@ -45,7 +106,7 @@ namespace crypto
 		
 		if (!key) {
 			// Create a new key if key object is null.
-			key = EC_KEY_new_by_curve_name(ECC_CURVE);
+			key = ECC_NewKey();
 		}
 		const EC_GROUP * group = key ? EC_KEY_get0_group(key) : nullptr;
 		EC_POINT *       point = key ? EC_POINT_new(group)    : nullptr;
@@ -152,12 +213,16 @@ namespace crypto
 		bool result = false;
 		BNContext ctx(c);
 		if (!key) {
-			key = EC_KEY_new_by_curve_name(ECC_CURVE);
+			key = ECC_NewKey();
 		}
 		BIGNUM * s = BN_CTX_get(ctx);
 		if (s && nullptr != BN_bin2bn(privateKeyData.data(), (int)privateKeyData.size(), s)) {
 			result = (1 == EC_KEY_set_private_key(key, s));
 		}
+		if (s) {
+			// The context is reused, so don't keep the private key in its pool.
+			BN_clear(s);
+		}
 		if (!result) {
 			EC_KEY_free(key);
 			key = nullptr;
@@ -177,7 +242,8 @@ namespace crypto
 	
 	EC_KEY * ECC_GenerateKeyPair()
 	{
-		EC_KEY * key = EC_KEY_new_by_curve_name(ECC_CURVE);
+		CryptoMetricsScope metrics(CO_ECC_KeyGen);
+		EC_KEY * key = ECC_NewKey();
 		if (key) {
 			if (1 != EC_KEY_generate_key(key)) {
 				EC_KEY_free(key);
@@ -197,6 +263,7 @@ namespace crypto
 			CC7_ASSERT(false, "Missing public key");
 			return false;
 		}
+		CryptoMetricsScope metrics(CO_ECDSA_Verify);
 		cc7::ByteArray signedDataHash = SHA256(signedData);
 		if (signedDataHash.size() == 0) {
 			return false;
@@ -214,6 +281,7 @@ namespace crypto
 			CC7_ASSERT(false, "Missing private key");
 			return false;
 		}
+		CryptoMetricsScope metrics(CO_ECDSA_Sign);
 		cc7::ByteArray dataHash = SHA256(data);
 		if (dataHash.size() == 0) {
 			return false;
@@ -235,6 +303,33 @@ namespace crypto
 		return true;
 	}
 	
+	// ECDSAVerifier
+	
+	ECDSAVerifier * ECDSAVerifier::createWithPublicKey(const cc7::ByteRange & publicKey)
+	{
+		EC_KEY * key = ECC_ImportPublicKey(nullptr, publicKey);
+		if (!key) {
+			return nullptr;
+		}
+		return new ECDSAVerifier(key);
+	}
+	
+	ECDSAVerifier::ECDSAVerifier(EC_KEY * publicKey) :
+		_publicKey(publicKey)
+	{
+	}
+	
+	ECDSAVerifier::~ECDSAVerifier()
+	{
+		EC_KEY_free(_publicKey);
+	}
+	
+	bool ECDSAVerifier::validateSignature(const cc7::ByteRange & signedData, const cc7::ByteRange & signature) const
+	{
+		return ECDSA_ValidateSignature(signedData, signature, _publicKey);
+	}
+	
+	
 	// -------------------------------------------------------------------------------------------
 	// MARK: - ECDH -
 	//
@@ -249,6 +344,7 @@ namespace crypto
 			// You have provided key without public point
 			return cc7::ByteArray();
 		}
+		CryptoMetricsScope metrics(CO_ECDH);
 		// Calculate an expected size for shared secret.
 		//  (check https://wiki.openssl.org/index.php/Elliptic_Curve_Diffie_Hellman for details)
 		
@@ -91,6 +91,34 @@ namespace crypto
 	 */
 	bool			ECDSA_ComputeSignature(const cc7::ByteRange & data, EC_KEY * privateKey, cc7::ByteArray & signature);
 	
+	/**
+	 The ECDSAVerifier class keeps an imported EC public key, so you can validate multiple
+	 signatures without importing the key again. The object is not modified during the signature
+	 validation, so it's safe to validate signatures from multiple threads at the same time.
+	 */
+	class ECDSAVerifier
+	{
+	public:
+		/**
+		 Creates a new verifier with given public key. Returns nullptr if key cannot be imported.
+		 */
+		static ECDSAVerifier * createWithPublicKey(const cc7::ByteRange & publicKey);
+		
+		~ECDSAVerifier();
+		
+		/**
+		 Validates signature for signedData.
+		 */
+		bool validateSignature(const cc7::ByteRange & signedData, const cc7::ByteRange & signature) const;
+		
+	private:
+		ECDSAVerifier(EC_KEY * publicKey);
+		ECDSAVerifier(const ECDSAVerifier &) = delete;
+		ECDSAVerifier & operator=(const ECDSAVerifier &) = delete;
+		
+		EC_KEY * _publicKey;
+	};
+	
 	// -------------------------------------------------------------------------------------------
 	// MARK: - ECDH -
 	
@@ -16,6 +16,7 @@
 
 #include "KDF.h"
 #include "Hash.h"
+#include "CryptoMetrics.h"
 #include <openssl/evp.h>
 #include <openssl/ecdh.h>
 #include <cc7/Endian.h>
@@ -35,6 +36,7 @@ namespace crypto
 	
 	cc7::ByteArray PBKDF2_HMAC_SHA1(const cc7::ByteRange & pass, const cc7::ByteRange & salt, cc7::U32 iterations, size_t output_bytes)
 	{
+		CryptoMetricsScope metrics(CO_PBKDF2);
 		cc7::ByteArray result(output_bytes, 0);
 		if (1 != PKCS5_PBKDF2_HMAC((const char*)pass.data(), (int)pass.size(), salt.data(), (int)salt.size(), (int)iterations, EVP_sha1(), (int)output_bytes, result.data())) {
 			CC7_LOG("PKCS5_PBKDF2_HMAC has failed!");
@@ -45,6 +47,7 @@ namespace crypto
 
 	cc7::ByteArray PBKDF2_HMAC_SHA256(const cc7::ByteRange & pass, const cc7::ByteRange & salt, cc7::U32 iterations, size_t output_bytes)
 	{
+		CryptoMetricsScope metrics(CO_PBKDF2);
 		cc7::ByteArray result(output_bytes, 0);
 		if (1 != PKCS5_PBKDF2_HMAC((const char*)pass.data(), (int)pass.size(), salt.data(), (int)salt.size(), (int)iterations, EVP_sha256(), (int)output_bytes, result.data())) {
 			CC7_LOG("PKCS5_PBKDF2_HMAC has failed!");
@@ -17,6 +17,7 @@
 #include "MAC.h"
 #include <openssl/sha.h>
 #include <openssl/hmac.h>
+#include <string.h>
 
 
 namespace io
@@ -50,6 +51,64 @@ namespace crypto
 		return cc7::ByteArray();
 	}	
 	
+	// -------------------------------------------------------------------------------------------
+	// MARK: - HMAC stream
+	//
+	
+	struct HMAC_SHA256_Stream::PrivateData
+	{
+		HMAC_CTX * ctx;
+		bool valid;
+	};
+	
+	HMAC_SHA256_Stream::HMAC_SHA256_Stream() :
+		_pd(new PrivateData())
+	{
+		_pd->ctx = HMAC_CTX_new();
+		_pd->valid = false;
+	}
+	
+	HMAC_SHA256_Stream::~HMAC_SHA256_Stream()
+	{
+		// HMAC_CTX_free() also cleans the key material
+		HMAC_CTX_free(_pd->ctx);
+		delete _pd;
+	}
+	
+	void HMAC_SHA256_Stream::init(const cc7::ByteRange & key)
+	{
+		// Key must be always provided, otherwise OpenSSL reuses the previous one.
+		static const cc7::byte empty_key = 0;
+		const unsigned char * key_ptr = key.empty() ? &empty_key : key.data();
+		_pd->valid = _pd->ctx != NULL && HMAC_Init_ex(_pd->ctx, key_ptr, (int)key.size(), EVP_sha256(), NULL) == 1;
+		if (!_pd->valid) {
+			CC7_LOG("HMAC_SHA256_Stream: HMAC_Init_ex has failed!");
+		}
+	}
+	
+	void HMAC_SHA256_Stream::update(const cc7::ByteRange & data)
+	{
+		if (_pd->valid && !data.empty()) {
+			_pd->valid = HMAC_Update(_pd->ctx, data.data(), data.size()) == 1;
+		}
+	}
+	
+	cc7::ByteArray HMAC_SHA256_Stream::finish()
+	{
+		cc7::ByteArray digest(SHA256_DIGEST_LENGTH, 0);
+		unsigned int digest_length = SHA256_DIGEST_LENGTH;
+		const bool success = _pd->valid && HMAC_Final(_pd->ctx, digest.data(), &digest_length) == 1 && digest_length == digest.size();
+		_pd->valid = false;
+		if (_pd->ctx) {
+			HMAC_CTX_reset(_pd->ctx);
+		}
+		if (!success) {
+			CC7_LOG("HMAC_SHA256_Stream has failed!");
+			return cc7::ByteArray();
+		}
+		return digest;
+	}
+	
 } // io::getlime::powerAuth::crypto
 } // io::getlime::powerAuth
 } // io::getlime
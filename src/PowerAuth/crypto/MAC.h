@@ -34,6 +34,40 @@ namespace crypto
 	// HMAC with SHA256
 	cc7::ByteArray HMAC_SHA256(const cc7::ByteRange & data, const cc7::ByteRange & key, size_t outputBytes = 0);
 	
+	/**
+	 The HMAC_SHA256_Stream class calculates HMAC-SHA256 over data provided
+	 in multiple chunks.
+	 */
+	class HMAC_SHA256_Stream
+	{
+	public:
+		HMAC_SHA256_Stream();
+		~HMAC_SHA256_Stream();
+		
+		HMAC_SHA256_Stream(const HMAC_SHA256_Stream &) = delete;
+		HMAC_SHA256_Stream & operator=(const HMAC_SHA256_Stream &) = delete;
+		
+		/**
+		 Initializes the calculation with given key.
+		 */
+		void init(const cc7::ByteRange & key);
+		
+		/**
+		 Appends data to the calculation.
+		 */
+		void update(const cc7::ByteRange & data);
+		
+		/**
+		 Returns the final MAC, or empty array in case of failure. The object
+		 can't be used after this call, until it's initialized again.
+		 */
+		cc7::ByteArray finish();
+		
+	private:
+		struct PrivateData;
+		PrivateData * _pd;
+	};
+	
 } // io::getlime::powerAuth::crypto
 } // io::getlime::powerAuth
 } // io::getlime
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <cc7/jni/JniHelper.h>
+#include "../crypto/CryptoMetrics.h"
+
+// Package: io.getlime.security.powerauth.core
+#define CC7_JNI_CLASS_PATH	    	"io/getlime/security/powerauth/core"
+#define CC7_JNI_CLASS_PACKAGE	    io_getlime_security_powerauth_core
+#define CC7_JNI_JAVA_CLASS  		CryptoMetrics
+#define CC7_JNI_CPP_CLASS		    NA
+#include <cc7/jni/JniModule.inl>
+
+using namespace io::getlime::powerAuth;
+
+extern "C" {
+
+//
+// private static native long[] getSnapshotData()
+//
+CC7_JNI_METHOD(jlongArray, getSnapshotData)
+{
+	if (env == NULL) {
+		CC7_ASSERT(false, "Missing required parameter.");
+		return NULL;
+	}
+	// Flatten snapshot into one array, to do not cross JNI boundary for each value.
+	// Each operation is stored as: count, totalDuration, maxDuration, histogram[]
+	const size_t recordSize = 3 + crypto::CRYPTO_METRICS_HISTOGRAM_SIZE;
+	auto snapshot = crypto::CryptoMetrics_GetSnapshot();
+	std::vector<jlong> data;
+	data.reserve(snapshot.size() * recordSize);
+	for (auto & metrics : snapshot) {
+		data.push_back((jlong)metrics.count);
+		data.push_back((jlong)metrics.totalDurationNs);
+		data.push_back((jlong)metrics.maxDurationNs);
+		for (size_t i = 0; i < crypto::CRYPTO_METRICS_HISTOGRAM_SIZE; i++) {
+			data.push_back((jlong)metrics.histogram[i]);
+		}
+	}
+	jlongArray result = env->NewLongArray((jsize)data.size());
+	if (result != NULL) {
+		env->SetLongArrayRegion(result, 0, (jsize)data.size(), data.data());
+	}
+	return result;
+}
+
+//
+// private static native int getOperationsCount()
+//
+CC7_JNI_METHOD(jint, getOperationsCount)
+{
+	return (jint)crypto::CO_Count;
+}
+
+//
+// private static native long[] getHistogramBucketLimits()
+//
+CC7_JNI_METHOD(jlongArray, getHistogramBucketLimits)
+{
+	if (env == NULL) {
+		CC7_ASSERT(false, "Missing required parameter.");
+		return NULL;
+	}
+	auto limits = crypto::CryptoMetrics_GetHistogramBucketLimits();
+	std::vector<jlong> data(limits.begin(), limits.end());
+	jlongArray result = env->NewLongArray((jsize)data.size());
+	if (result != NULL) {
+		env->SetLongArrayRegion(result, 0, (jsize)data.size(), data.data());
+	}
+	return result;
+}
+
+//
+// public static native void reset()
+//
+CC7_JNI_METHOD(void, reset)
+{
+	crypto::CryptoMetrics_Reset();
+}
+
+} // extern "C"
@@ -15,6 +15,7 @@
  */
 
 #include "ECIESEncryptorJNI.h"
+#include "JniCache.h"
 #include <cc7/Base64.h>
 
 // Package: io.getlime.security.powerauth.core
@@ -39,26 +40,26 @@ jobject CreateJavaCryptogramFromCppObject(JNIEnv * env, const ECIESCryptogram &
 		return nullptr;
 	}
 	// Create EciesCryptogram java class instance
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("EciesCryptogram");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("EciesCryptogram"), "()V");
+	const auto & resultClass  = GetJniCache().EciesCryptogram;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
 	if (!resultObject) {
 		return nullptr;
 	}
 	// ...and setup fields
-	CC7_JNI_SET_FIELD_BYTEARRAY(resultObject, resultClazz, "body", cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.body));
-	CC7_JNI_SET_FIELD_BYTEARRAY(resultObject, resultClazz, "mac",  cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.mac));
-	CC7_JNI_SET_FIELD_BYTEARRAY(resultObject, resultClazz, "key",  cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.key));
-	CC7_JNI_SET_FIELD_BYTEARRAY(resultObject, resultClazz, "nonce",  cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.nonce));
+	env->SetObjectField(resultObject, resultClass.body, cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.body));
+	env->SetObjectField(resultObject, resultClass.mac,  cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.mac));
+	env->SetObjectField(resultObject, resultClass.key,  cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.key));
+	env->SetObjectField(resultObject, resultClass.nonce,  cc7::jni::CopyToNullableJavaByteArray(env, cryptogram.nonce));
 	return resultObject;
 }
 
 void LoadCppCryptogramFromJavaObject(JNIEnv * env, jobject cryptogram, ECIESCryptogram & cppCryptogram)
 {
-	jclass clazz  = CC7_JNI_MODULE_FIND_CLASS("EciesCryptogram");
-	cppCryptogram.body	= cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(cryptogram, clazz, "body"));
-	cppCryptogram.mac	= cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(cryptogram, clazz, "mac"));
-	cppCryptogram.key	= cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(cryptogram, clazz, "key"));
-	cppCryptogram.nonce = cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(cryptogram, clazz, "nonce"));
+	const auto & cryptogramClass = GetJniCache().EciesCryptogram;
+	cppCryptogram.body	= cc7::jni::CopyFromJavaByteArray(env, JniGetByteArrayField(env, cryptogram, cryptogramClass.body));
+	cppCryptogram.mac	= cc7::jni::CopyFromJavaByteArray(env, JniGetByteArrayField(env, cryptogram, cryptogramClass.mac));
+	cppCryptogram.key	= cc7::jni::CopyFromJavaByteArray(env, JniGetByteArrayField(env, cryptogram, cryptogramClass.key));
+	cppCryptogram.nonce = cc7::jni::CopyFromJavaByteArray(env, JniGetByteArrayField(env, cryptogram, cryptogramClass.nonce));
 }
 
 jobject CreateJavaEncryptorFromCppObject(JNIEnv * env, const ECIESEncryptor & encryptor)
@@ -70,7 +71,8 @@ jobject CreateJavaEncryptorFromCppObject(JNIEnv * env, const ECIESEncryptor & en
 	// Create ECIESEncryptor java class instance
 	auto encryptor_copy = new ECIESEncryptor(encryptor);
 	auto encryptor_copy_long = reinterpret_cast<jlong>(encryptor_copy);
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("EciesEncryptor"), "(J)V", encryptor_copy_long);
+	const auto & encryptorClass = GetJniCache().EciesEncryptor;
+	jobject resultObject = env->NewObject(encryptorClass.clazz, encryptorClass.initWithHandle, encryptor_copy_long);
 	if (nullptr == resultObject) {
 		// If java object was not constructed then we delete the encryptor's copy.
 		delete encryptor_copy;
@@ -223,6 +225,37 @@ CC7_JNI_METHOD_PARAMS(jobject, encryptRequest, jbyteArray requestData)
 	return CreateJavaCryptogramFromCppObject(env, cppCryptogram);
 }
 
+//
+// public native EciesRequestStream beginEncryptRequestStream();
+//
+CC7_JNI_METHOD(jobject, beginEncryptRequestStream)
+{
+	auto encryptor = CC7_THIS_OBJ();
+	if (!encryptor) {
+		CC7_ASSERT(false, "Missing internal handle.");
+		return nullptr;
+	}
+	// Prepare stream, the key and nonce are known in advance
+	auto stream = new ECIESRequestStream();
+	ECIESCryptogram cppCryptogram;
+	auto ec = encryptor->beginEncryptRequest(*stream, cppCryptogram);
+	if (ec != EC_Ok) {
+		CC7_ASSERT(false, "ECIESCryptogram.beginEncryptRequestStream: failed with error code %d", ec);
+		delete stream;
+		return nullptr;
+	}
+	auto stream_long = reinterpret_cast<jlong>(stream);
+	jbyteArray key   = cc7::jni::CopyToJavaByteArray(env, cppCryptogram.key);
+	jbyteArray nonce = cc7::jni::CopyToJavaByteArray(env, cppCryptogram.nonce);
+	const auto & streamClass = GetJniCache().EciesRequestStream;
+	jobject resultObject = env->NewObject(streamClass.clazz, streamClass.initWithHandle, stream_long, key, nonce);
+	if (nullptr == resultObject) {
+		// If java object was not constructed then we delete the stream.
+		delete stream;
+	}
+	return resultObject;
+}
+
 //
 // public native byte[] decryptResponse(ECIESCryptogram cryptogram);
 //
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <cc7/jni/JniHelper.h>
+#include "../crypto/CryptoUtils.h"
+#include <vector>
+
+using namespace io::getlime::powerAuth::crypto;
+
+// Package: io.getlime.security.powerauth.core
+#define CC7_JNI_CLASS_PATH	    	"io/getlime/security/powerauth/core"
+#define CC7_JNI_CLASS_PACKAGE	    io_getlime_security_powerauth_core
+#define CC7_JNI_JAVA_CLASS  		EcdsaSignatureVerifier
+#define CC7_JNI_CPP_CLASS		    ECDSAVerifier
+#include <cc7/jni/JniModule.inl>
+
+CC7_JNI_MODULE_CLASS_BEGIN()
+
+// ----------------------------------------------------------------------------
+// Init & Destroy
+// ----------------------------------------------------------------------------
+
+//
+// private static native long init(byte[] publicKey)
+//
+CC7_JNI_METHOD_PARAMS(jlong, init, jbyteArray publicKey)
+{
+	if (publicKey == NULL) {
+		CC7_ASSERT(false, "Missing required parameter.");
+		return 0;
+	}
+	auto cppPublicKey = cc7::jni::CopyFromJavaByteArray(env, publicKey);
+	return (jlong) ECDSAVerifier::createWithPublicKey(cppPublicKey);
+}
+
+//
+// private native void destroy(long handle)
+//
+CC7_JNI_METHOD_PARAMS(void, destroy, jlong handle)
+{
+	auto verifier = CC7_THIS_OBJ();
+	if (!verifier || (jlong)verifier != handle) {
+		CC7_ASSERT(false, "Internal object is already destroyed, or provided handle is not ours.");
+		return;
+	}
+	delete verifier;
+}
+
+// ----------------------------------------------------------------------------
+// Validation
+// ----------------------------------------------------------------------------
+
+//
+// public native boolean verifySignature(byte[] data, byte[] signature)
+//
+CC7_JNI_METHOD_PARAMS(jboolean, verifySignature, jbyteArray data, jbyteArray signature)
+{
+	auto verifier = CC7_THIS_OBJ();
+	if (!verifier || data == NULL || signature == NULL) {
+		CC7_ASSERT(false, "Missing required parameter or internal handle.");
+		return false;
+	}
+	auto cppData = cc7::jni::CopyFromJavaByteArray(env, data);
+	auto cppSignature = cc7::jni::CopyFromJavaByteArray(env, signature);
+	return (jboolean) verifier->validateSignature(cppData, cppSignature);
+}
+
+//
+// private native boolean[] verifySignatures(byte[][] data, byte[][] signatures, int offset, int count)
+//
+CC7_JNI_METHOD_PARAMS(jbooleanArray, verifySignatures, jobjectArray data, jobjectArray signatures, jint offset, jint count)
+{
+	auto verifier = CC7_THIS_OBJ();
+	if (!verifier || data == NULL || signatures == NULL || offset < 0 || count < 0) {
+		CC7_ASSERT(false, "Missing required parameter or internal handle.");
+		return NULL;
+	}
+	if (env->GetArrayLength(data) < offset + count || env->GetArrayLength(signatures) < offset + count) {
+		CC7_ASSERT(false, "Range is out of bounds.");
+		return NULL;
+	}
+	std::vector<jboolean> results(count);
+	for (jint i = 0; i < count; i++) {
+		jbyteArray javaData = (jbyteArray) env->GetObjectArrayElement(data, offset + i);
+		jbyteArray javaSignature = (jbyteArray) env->GetObjectArrayElement(signatures, offset + i);
+		if (javaData != NULL && javaSignature != NULL) {
+			auto cppData = cc7::jni::CopyFromJavaByteArray(env, javaData);
+			auto cppSignature = cc7::jni::CopyFromJavaByteArray(env, javaSignature);
+			results[i] = (jboolean) verifier->validateSignature(cppData, cppSignature);
+		} else {
+			results[i] = false;
+		}
+		// Local references must be released, otherwise the local table overflows for large batches.
+		env->DeleteLocalRef(javaData);
+		env->DeleteLocalRef(javaSignature);
+	}
+	jbooleanArray result = env->NewBooleanArray(count);
+	if (result != NULL && count > 0) {
+		env->SetBooleanArrayRegion(result, 0, count, results.data());
+	}
+	return result;
+}
+
+CC7_JNI_MODULE_CLASS_END()
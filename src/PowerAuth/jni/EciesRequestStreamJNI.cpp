@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <cc7/jni/JniHelper.h>
+#include <PowerAuth/ECIES.h>
+#include "JniCache.h"
+
+// Package: io.getlime.security.powerauth.core
+#define CC7_JNI_CLASS_PATH	    	"io/getlime/security/powerauth/core"
+#define CC7_JNI_CLASS_PACKAGE	    io_getlime_security_powerauth_core
+#define CC7_JNI_JAVA_CLASS  		EciesRequestStream
+#define CC7_JNI_CPP_CLASS		    ECIESRequestStream
+#include <cc7/jni/JniModule.inl>
+
+using namespace io::getlime::powerAuth;
+
+CC7_JNI_MODULE_CLASS_BEGIN()
+
+// ----------------------------------------------------------------------------
+// Init & Destroy
+// ----------------------------------------------------------------------------
+
+//
+// private native void destroy(long handle)
+//
+CC7_JNI_METHOD_PARAMS(void, destroy, jlong handle)
+{
+	auto stream = CC7_THIS_OBJ();
+	if (!stream || (jlong)stream != handle) {
+		CC7_ASSERT(false, "Internal object is already destroyed, or provided handle is not ours.");
+		return;
+	}
+	delete stream;
+}
+
+// ----------------------------------------------------------------------------
+// Encryption
+// ----------------------------------------------------------------------------
+
+//
+// public native boolean isValid();
+//
+CC7_JNI_METHOD(jboolean, isValid)
+{
+	auto stream = CC7_THIS_OBJ();
+	if (!stream) {
+		return (jboolean) false;
+	}
+	return (jboolean) stream->isValid();
+}
+
+//
+// public native byte[] update(byte[] data, int offset, int length);
+//
+CC7_JNI_METHOD_PARAMS(jbyteArray, update, jbyteArray data, jint offset, jint length)
+{
+	auto stream = CC7_THIS_OBJ();
+	if (!stream || !data) {
+		CC7_ASSERT(false, "Missing internal handle or required parameter.");
+		return nullptr;
+	}
+	jsize dataLength = env->GetArrayLength(data);
+	if (offset < 0 || length < 0 || offset > dataLength - length) {
+		CC7_ASSERT(false, "EciesRequestStream.update: Invalid range.");
+		return nullptr;
+	}
+	// Copy only the requested range to the native buffer
+	cc7::ByteArray cppData(length, 0);
+	if (length > 0) {
+		env->GetByteArrayRegion(data, offset, length, (jbyte*)cppData.data());
+	}
+	cc7::ByteArray cppBody;
+	auto ec = stream->update(cppData, cppBody);
+	if (ec != EC_Ok) {
+		CC7_ASSERT(false, "EciesRequestStream.update: failed with error code %d", ec);
+		return nullptr;
+	}
+	return cc7::jni::CopyToJavaByteArray(env, cppBody);
+}
+
+//
+// private native byte[][] finishImpl();
+//
+CC7_JNI_METHOD(jobjectArray, finishImpl)
+{
+	auto stream = CC7_THIS_OBJ();
+	if (!stream) {
+		CC7_ASSERT(false, "Missing internal handle.");
+		return nullptr;
+	}
+	cc7::ByteArray cppBody, cppMac;
+	auto ec = stream->finish(cppBody, cppMac);
+	if (ec != EC_Ok) {
+		CC7_ASSERT(false, "EciesRequestStream.finish: failed with error code %d", ec);
+		return nullptr;
+	}
+	// Return [ body, mac ] pair, to do not cross JNI boundary twice.
+	jobjectArray result = env->NewObjectArray(2, GetJniCache().ByteArray.clazz, nullptr);
+	if (result != nullptr) {
+		jbyteArray body = cc7::jni::CopyToJavaByteArray(env, cppBody);
+		jbyteArray mac  = cc7::jni::CopyToJavaByteArray(env, cppMac);
+		env->SetObjectArrayElement(result, 0, body);
+		env->SetObjectArrayElement(result, 1, mac);
+		env->DeleteLocalRef(body);
+		env->DeleteLocalRef(mac);
+	}
+	return result;
+}
+
+CC7_JNI_MODULE_CLASS_END()
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "JniCache.h"
+
+#define CORE_CLASS(name)		"io/getlime/security/powerauth/core/" name
+#define CORE_SIGNATURE(name)	"L" CORE_CLASS(name) ";"
+#define STRING_SIGNATURE		"Ljava/lang/String;"
+
+// Global cache, filled in JNI_OnLoad
+static JniCache s_cache;
+
+const JniCache & GetJniCache()
+{
+	return s_cache;
+}
+
+// ----------------------------------------------------------------------------
+// Cache loader
+// ----------------------------------------------------------------------------
+
+namespace
+{
+	/**
+	 The CacheLoader helper class looks for classes and members and remembers
+	 whether some lookup did fail. The failed lookup is reported to the log.
+	 */
+	class CacheLoader
+	{
+	public:
+		CacheLoader(JNIEnv * env) : _env(env), _failed(false)
+		{
+		}
+		
+		bool failed() const
+		{
+			return _failed;
+		}
+		
+		jclass findClass(const char * name)
+		{
+			jclass localRef = _env->FindClass(name);
+			if (!check(localRef != nullptr, "class", name)) {
+				return nullptr;
+			}
+			auto globalRef = reinterpret_cast<jclass>(_env->NewGlobalRef(localRef));
+			_env->DeleteLocalRef(localRef);
+			return globalRef;
+		}
+		
+		jfieldID field(jclass clazz, const char * name, const char * signature)
+		{
+			if (!clazz) {
+				return nullptr;
+			}
+			jfieldID id = _env->GetFieldID(clazz, name, signature);
+			check(id != nullptr, "field", name);
+			return id;
+		}
+		
+		jmethodID constructor(jclass clazz, const char * signature)
+		{
+			if (!clazz) {
+				return nullptr;
+			}
+			jmethodID id = _env->GetMethodID(clazz, "<init>", signature);
+			check(id != nullptr, "constructor", signature);
+			return id;
+		}
+		
+		jobject staticObject(jclass clazz, const char * name, const char * signature)
+		{
+			if (!clazz) {
+				return nullptr;
+			}
+			jfieldID id = _env->GetStaticFieldID(clazz, name, signature);
+			if (!check(id != nullptr, "static field", name)) {
+				return nullptr;
+			}
+			jobject localRef = _env->GetStaticObjectField(clazz, id);
+			if (!check(localRef != nullptr, "static field value", name)) {
+				return nullptr;
+			}
+			jobject globalRef = _env->NewGlobalRef(localRef);
+			_env->DeleteLocalRef(localRef);
+			return globalRef;
+		}
+		
+	private:
+		
+		bool check(bool success, const char * what, const char * name)
+		{
+			if (!success) {
+				// Clear pending NoSuchFieldError or similar exception
+				_env->ExceptionClear();
+				CC7_LOG("JniCache: Failed to find %s '%s'", what, name);
+				_failed = true;
+			}
+			return success;
+		}
+		
+		JNIEnv * _env;
+		bool _failed;
+	};
+}
+
+static bool _LoadCache(JNIEnv * env, JniCache & c)
+{
+	CacheLoader l(env);
+	
+	c.ByteArray.clazz							= l.findClass("[B");
+	
+	c.Password.clazz							= l.findClass(CORE_CLASS("Password"));
+	c.Password.handle							= l.field(c.Password.clazz, "handle", "J");
+	
+	c.SessionSetup.clazz						= l.findClass(CORE_CLASS("SessionSetup"));
+	c.SessionSetup.init							= l.constructor(c.SessionSetup.clazz, "()V");
+	c.SessionSetup.applicationKey				= l.field(c.SessionSetup.clazz, "applicationKey", STRING_SIGNATURE);
+	c.SessionSetup.applicationSecret			= l.field(c.SessionSetup.clazz, "applicationSecret", STRING_SIGNATURE);
+	c.SessionSetup.masterServerPublicKey		= l.field(c.SessionSetup.clazz, "masterServerPublicKey", STRING_SIGNATURE);
+	c.SessionSetup.sessionIdentifier			= l.field(c.SessionSetup.clazz, "sessionIdentifier", "I");
+	c.SessionSetup.externalEncryptionKey		= l.field(c.SessionSetup.clazz, "externalEncryptionKey", "[B");
+	
+	c.SignatureUnlockKeys.clazz					= l.findClass(CORE_CLASS("SignatureUnlockKeys"));
+	c.SignatureUnlockKeys.possessionUnlockKey	= l.field(c.SignatureUnlockKeys.clazz, "possessionUnlockKey", "[B");
+	c.SignatureUnlockKeys.biometryUnlockKey		= l.field(c.SignatureUnlockKeys.clazz, "biometryUnlockKey", "[B");
+	c.SignatureUnlockKeys.userPassword			= l.field(c.SignatureUnlockKeys.clazz, "userPassword", CORE_SIGNATURE("Password"));
+	
+	c.ActivationStep1Param.clazz				= l.findClass(CORE_CLASS("ActivationStep1Param"));
+	c.ActivationStep1Param.activationCode		= l.field(c.ActivationStep1Param.clazz, "activationCode", STRING_SIGNATURE);
+	c.ActivationStep1Param.activationSignature	= l.field(c.ActivationStep1Param.clazz, "activationSignature", STRING_SIGNATURE);
+	
+	c.ActivationStep1Result.clazz				= l.findClass(CORE_CLASS("ActivationStep1Result"));
+	c.ActivationStep1Result.init				= l.constructor(c.ActivationStep1Result.clazz, "()V");
+	c.ActivationStep1Result.errorCode			= l.field(c.ActivationStep1Result.clazz, "errorCode", "I");
+	c.ActivationStep1Result.devicePublicKey		= l.field(c.ActivationStep1Result.clazz, "devicePublicKey", STRING_SIGNATURE);
+	
+	c.ActivationStep2Param.clazz				= l.findClass(CORE_CLASS("ActivationStep2Param"));
+	c.ActivationStep2Param.activationId			= l.field(c.ActivationStep2Param.clazz, "activationId", STRING_SIGNATURE);
+	c.ActivationStep2Param.serverPublicKey		= l.field(c.ActivationStep2Param.clazz, "serverPublicKey", STRING_SIGNATURE);
+	c.ActivationStep2Param.ctrData				= l.field(c.ActivationStep2Param.clazz, "ctrData", STRING_SIGNATURE);
+	c.ActivationStep2Param.activationRecovery	= l.field(c.ActivationStep2Param.clazz, "activationRecovery", CORE_SIGNATURE("RecoveryData"));
+	
+	c.ActivationStep2Result.clazz				= l.findClass(CORE_CLASS("ActivationStep2Result"));
+	c.ActivationStep2Result.init				= l.constructor(c.ActivationStep2Result.clazz, "()V");
+	c.ActivationStep2Result.errorCode			= l.field(c.ActivationStep2Result.clazz, "errorCode", "I");
+	c.ActivationStep2Result.activationFingerprint = l.field(c.ActivationStep2Result.clazz, "activationFingerprint", STRING_SIGNATURE);
+	
+	c.RecoveryData.clazz						= l.findClass(CORE_CLASS("RecoveryData"));
+	c.RecoveryData.init							= l.constructor(c.RecoveryData.clazz, "()V");
+	c.RecoveryData.recoveryCode					= l.field(c.RecoveryData.clazz, "recoveryCode", STRING_SIGNATURE);
+	c.RecoveryData.puk							= l.field(c.RecoveryData.clazz, "puk", STRING_SIGNATURE);
+	
+	c.EncryptedActivationStatus.clazz			= l.findClass(CORE_CLASS("EncryptedActivationStatus"));
+	c.EncryptedActivationStatus.challenge		= l.field(c.EncryptedActivationStatus.clazz, "challenge", STRING_SIGNATURE);
+	c.EncryptedActivationStatus.encryptedStatusBlob = l.field(c.EncryptedActivationStatus.clazz, "encryptedStatusBlob", STRING_SIGNATURE);
+	c.EncryptedActivationStatus.nonce			= l.field(c.EncryptedActivationStatus.clazz, "nonce", STRING_SIGNATURE);
+	
+	c.ActivationStatus.clazz					= l.findClass(CORE_CLASS("ActivationStatus"));
+	c.ActivationStatus.init						= l.constructor(c.ActivationStatus.clazz, "()V");
+	c.ActivationStatus.errorCode				= l.field(c.ActivationStatus.clazz, "errorCode", "I");
+	c.ActivationStatus.state					= l.field(c.ActivationStatus.clazz, "state", "I");
+	c.ActivationStatus.failCount				= l.field(c.ActivationStatus.clazz, "failCount", "I");
+	c.ActivationStatus.maxFailCount				= l.field(c.ActivationStatus.clazz, "maxFailCount", "I");
+	c.ActivationStatus.currentVersion			= l.field(c.ActivationStatus.clazz, "currentVersion", CORE_SIGNATURE("ProtocolVersion"));
+	c.ActivationStatus.upgradeVersion			= l.field(c.ActivationStatus.clazz, "upgradeVersion", CORE_SIGNATURE("ProtocolVersion"));
+	c.ActivationStatus.isUpgradeAvailable		= l.field(c.ActivationStatus.clazz, "isUpgradeAvailable", "Z");
+	c.ActivationStatus.isSignatureCalculationRecommended = l.field(c.ActivationStatus.clazz, "isSignatureCalculationRecommended", "Z");
+	c.ActivationStatus.needsSerializeSessionState = l.field(c.ActivationStatus.clazz, "needsSerializeSessionState", "Z");
+	
+	jclass versionClazz							= l.findClass(CORE_CLASS("ProtocolVersion"));
+	c.ProtocolVersion.V2						= l.staticObject(versionClazz, "V2", CORE_SIGNATURE("ProtocolVersion"));
+	c.ProtocolVersion.V3						= l.staticObject(versionClazz, "V3", CORE_SIGNATURE("ProtocolVersion"));
+	c.ProtocolVersion.NA						= l.staticObject(versionClazz, "NA", CORE_SIGNATURE("ProtocolVersion"));
+	if (versionClazz) {
+		// Enum values are kept as global references, so the class is no longer needed.
+		env->DeleteGlobalRef(versionClazz);
+	}
+	
+	c.SignedData.clazz							= l.findClass(CORE_CLASS("SignedData"));
+	c.SignedData.useMasterKey					= l.field(c.SignedData.clazz, "useMasterKey", "Z");
+	c.SignedData.data							= l.field(c.SignedData.clazz, "data", "[B");
+	c.SignedData.signature						= l.field(c.SignedData.clazz, "signature", "[B");
+	
+	c.ProtocolUpgradeData.clazz					= l.findClass(CORE_CLASS("ProtocolUpgradeData"));
+	c.ProtocolUpgradeData.toVersion				= l.field(c.ProtocolUpgradeData.clazz, "toVersion", "I");
+	c.ProtocolUpgradeData.v3CtrData				= l.field(c.ProtocolUpgradeData.clazz, "v3CtrData", STRING_SIGNATURE);
+	
+	c.EciesCryptogram.clazz						= l.findClass(CORE_CLASS("EciesCryptogram"));
+	c.EciesCryptogram.init						= l.constructor(c.EciesCryptogram.clazz, "()V");
+	c.EciesCryptogram.body						= l.field(c.EciesCryptogram.clazz, "body", "[B");
+	c.EciesCryptogram.mac						= l.field(c.EciesCryptogram.clazz, "mac", "[B");
+	c.EciesCryptogram.key						= l.field(c.EciesCryptogram.clazz, "key", "[B");
+	c.EciesCryptogram.nonce						= l.field(c.EciesCryptogram.clazz, "nonce", "[B");
+	
+	c.EciesEncryptor.clazz						= l.findClass(CORE_CLASS("EciesEncryptor"));
+	c.EciesEncryptor.initWithHandle				= l.constructor(c.EciesEncryptor.clazz, "(J)V");
+	
+	c.EciesRequestStream.clazz					= l.findClass(CORE_CLASS("EciesRequestStream"));
+	c.EciesRequestStream.initWithHandle			= l.constructor(c.EciesRequestStream.clazz, "(J[B[B)V");
+	
+	c.Otp.clazz									= l.findClass("io/getlime/security/powerauth/util/otp/Otp");
+	c.Otp.init									= l.constructor(c.Otp.clazz, "()V");
+	c.Otp.activationCode						= l.field(c.Otp.clazz, "activationCode", STRING_SIGNATURE);
+	c.Otp.activationSignature					= l.field(c.Otp.clazz, "activationSignature", STRING_SIGNATURE);
+	
+	return !l.failed();
+}
+
+// ----------------------------------------------------------------------------
+// Library entry point
+// ----------------------------------------------------------------------------
+
+extern "C" {
+
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM * vm, void * reserved)
+{
+	JNIEnv * env = nullptr;
+	if (vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_6) != JNI_OK) {
+		return JNI_ERR;
+	}
+	if (!_LoadCache(env, s_cache)) {
+		// Some class or member is missing, typically due to misconfigured code shrinking.
+		return JNI_ERR;
+	}
+	return JNI_VERSION_1_6;
+}
+
+} // extern "C"
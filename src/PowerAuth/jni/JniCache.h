@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#pragma once
+
+#include <cc7/jni/JniHelper.h>
+
+/**
+ The JniCache structure contains global references to all java classes bridged
+ to the native code, together with field and method IDs used by the JNI glue.
+ The cache is filled once, in JNI_OnLoad, so the JNI functions don't need to
+ look for classes and members on each call.
+ */
+struct JniCache
+{
+	struct {
+		jclass		clazz;
+	} ByteArray;
+	
+	struct {
+		jclass		clazz;
+		jfieldID	handle;
+	} Password;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	init;
+		jfieldID	applicationKey;
+		jfieldID	applicationSecret;
+		jfieldID	masterServerPublicKey;
+		jfieldID	sessionIdentifier;
+		jfieldID	externalEncryptionKey;
+	} SessionSetup;
+	
+	struct {
+		jclass		clazz;
+		jfieldID	possessionUnlockKey;
+		jfieldID	biometryUnlockKey;
+		jfieldID	userPassword;
+	} SignatureUnlockKeys;
+	
+	struct {
+		jclass		clazz;
+		jfieldID	activationCode;
+		jfieldID	activationSignature;
+	} ActivationStep1Param;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	init;
+		jfieldID	errorCode;
+		jfieldID	devicePublicKey;
+	} ActivationStep1Result;
+	
+	struct {
+		jclass		clazz;
+		jfieldID	activationId;
+		jfieldID	serverPublicKey;
+		jfieldID	ctrData;
+		jfieldID	activationRecovery;
+	} ActivationStep2Param;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	init;
+		jfieldID	errorCode;
+		jfieldID	activationFingerprint;
+	} ActivationStep2Result;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	init;
+		jfieldID	recoveryCode;
+		jfieldID	puk;
+	} RecoveryData;
+	
+	struct {
+		jclass		clazz;
+		jfieldID	challenge;
+		jfieldID	encryptedStatusBlob;
+		jfieldID	nonce;
+	} EncryptedActivationStatus;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	init;
+		jfieldID	errorCode;
+		jfieldID	state;
+		jfieldID	failCount;
+		jfieldID	maxFailCount;
+		jfieldID	currentVersion;
+		jfieldID	upgradeVersion;
+		jfieldID	isUpgradeAvailable;
+		jfieldID	isSignatureCalculationRecommended;
+		jfieldID	needsSerializeSessionState;
+	} ActivationStatus;
+	
+	struct {
+		jobject		V2;
+		jobject		V3;
+		jobject		NA;
+	} ProtocolVersion;
+	
+	struct {
+		jclass		clazz;
+		jfieldID	useMasterKey;
+		jfieldID	data;
+		jfieldID	signature;
+	} SignedData;
+	
+	struct {
+		jclass		clazz;
+		jfieldID	toVersion;
+		jfieldID	v3CtrData;
+	} ProtocolUpgradeData;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	init;
+		jfieldID	body;
+		jfieldID	mac;
+		jfieldID	key;
+		jfieldID	nonce;
+	} EciesCryptogram;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	initWithHandle;
+	} EciesEncryptor;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	initWithHandle;
+	} EciesRequestStream;
+	
+	struct {
+		jclass		clazz;
+		jmethodID	init;
+		jfieldID	activationCode;
+		jfieldID	activationSignature;
+	} Otp;
+};
+
+/**
+ Returns String object stored in the field.
+ */
+inline jstring JniGetStringField(JNIEnv * env, jobject object, jfieldID field)
+{
+	return reinterpret_cast<jstring>(env->GetObjectField(object, field));
+}
+
+/**
+ Returns byte[] object stored in the field.
+ */
+inline jbyteArray JniGetByteArrayField(JNIEnv * env, jobject object, jfieldID field)
+{
+	return reinterpret_cast<jbyteArray>(env->GetObjectField(object, field));
+}
+
+/**
+ Returns cache with global class references and member IDs. The content is valid
+ after the native library is loaded.
+ */
+const JniCache & GetJniCache();
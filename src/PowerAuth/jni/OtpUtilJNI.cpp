@@ -16,6 +16,8 @@
 
 #include <PowerAuth/OtpUtil.h>
 #include <cc7/jni/JniHelper.h>
+#include "JniCache.h"
+#include <vector>
 
 // Package: io.getlime.security.powerauth.util.otp
 #define CC7_JNI_CLASS_PATH	    	"io/getlime/security/powerauth/util/otp"
@@ -46,10 +48,10 @@ CC7_JNI_METHOD_PARAMS(jobject, parseFromActivationCode, jstring activationCode)
 		return NULL;
 	}
 	// Copy cppResult into java result object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("Otp");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("Otp"), "()V");
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "activationCode",	cc7::jni::CopyToJavaString(env, cppComponents.activationCode));
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "activationSignature",	cc7::jni::CopyToNullableJavaString(env, cppComponents.activationSignature));
+	const auto & resultClass  = GetJniCache().Otp;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
+	env->SetObjectField(resultObject, resultClass.activationCode,	cc7::jni::CopyToJavaString(env, cppComponents.activationCode));
+	env->SetObjectField(resultObject, resultClass.activationSignature,	cc7::jni::CopyToNullableJavaString(env, cppComponents.activationSignature));
 	return resultObject;
 }
 
@@ -64,9 +66,9 @@ CC7_JNI_METHOD_PARAMS(jobject, parseFromRecoveryCode, jstring activationCode)
 		return NULL;
 	}
 	// Copy cppResult into java result object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("Otp");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("Otp"), "()V");
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "activationCode",	cc7::jni::CopyToJavaString(env, cppComponents.activationCode));
+	const auto & resultClass  = GetJniCache().Otp;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
+	env->SetObjectField(resultObject, resultClass.activationCode,	cc7::jni::CopyToJavaString(env, cppComponents.activationCode));
 	return resultObject;
 }
 
@@ -117,4 +119,50 @@ CC7_JNI_METHOD_PARAMS(jboolean, validateRecoveryPuk, jstring recoveryPuk)
 	return (jboolean) OtpUtil::validateRecoveryPuk(cppRecoveryPuk);
 }
 
+// ----------------------------------------------------------------------------
+// Batch validations
+// ----------------------------------------------------------------------------
+
+template <typename Validator>
+static jbooleanArray ValidateCodes(JNIEnv * env, jobjectArray codes, Validator validator)
+{
+	if (!env || !codes) {
+		CC7_ASSERT(false, "Missing required parameter or java environment is not valid.");
+		return NULL;
+	}
+	jsize count = env->GetArrayLength(codes);
+	std::vector<jboolean> results(count);
+	for (jsize i = 0; i < count; i++) {
+		jstring code = (jstring) env->GetObjectArrayElement(codes, i);
+		results[i] = (jboolean) (code != NULL && validator(cc7::jni::CopyFromJavaString(env, code)));
+		// Local references must be released, otherwise the local table overflows for large batches.
+		env->DeleteLocalRef(code);
+	}
+	jbooleanArray result = env->NewBooleanArray(count);
+	if (result != NULL && count > 0) {
+		env->SetBooleanArrayRegion(result, 0, count, results.data());
+	}
+	return result;
+}
+
+//
+// public native static boolean[] validateActivationCodes(String[] activationCodes)
+//
+CC7_JNI_METHOD_PARAMS(jbooleanArray, validateActivationCodes, jobjectArray activationCodes)
+{
+	return ValidateCodes(env, activationCodes, [](const std::string & code) {
+		return OtpUtil::validateActivationCode(code);
+	});
+}
+
+//
+// public native static boolean[] validateRecoveryCodes(String[] recoveryCodes)
+//
+CC7_JNI_METHOD_PARAMS(jbooleanArray, validateRecoveryCodes, jobjectArray recoveryCodes)
+{
+	return ValidateCodes(env, recoveryCodes, [](const std::string & code) {
+		return OtpUtil::validateRecoveryCode(code);
+	});
+}
+
 } // extern "C"
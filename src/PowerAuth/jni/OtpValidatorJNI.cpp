@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <PowerAuth/OtpUtil.h>
+#include <cc7/jni/JniHelper.h>
+
+// Package: io.getlime.security.powerauth.util.otp
+#define CC7_JNI_CLASS_PATH	    	"io/getlime/security/powerauth/util/otp"
+#define CC7_JNI_CLASS_PACKAGE	    io_getlime_security_powerauth_util_otp
+#define CC7_JNI_JAVA_CLASS  		OtpValidator
+#define CC7_JNI_CPP_CLASS		    OtpValidator
+#include <cc7/jni/JniModule.inl>
+
+using namespace io::getlime::powerAuth;
+
+CC7_JNI_MODULE_CLASS_BEGIN()
+
+// ----------------------------------------------------------------------------
+// Init & Destroy
+// ----------------------------------------------------------------------------
+
+//
+// private native long init()
+//
+CC7_JNI_METHOD(jlong, init)
+{
+	auto validator = new OtpValidator();
+	return (jlong)validator;
+}
+
+//
+// private native void destroy(long handle)
+//
+CC7_JNI_METHOD_PARAMS(void, destroy, jlong handle)
+{
+	auto validator = CC7_THIS_OBJ();
+	if (!validator || (jlong)validator != handle) {
+		CC7_ASSERT(false, "Internal object is already destroyed, or provided handle is not ours.");
+		return;
+	}
+	delete validator;
+}
+
+// ----------------------------------------------------------------------------
+// Validation
+// ----------------------------------------------------------------------------
+
+//
+// public native boolean appendCharacter(int utfCodepoint)
+//
+CC7_JNI_METHOD_PARAMS(jboolean, appendCharacter, jint utfCodepoint)
+{
+	auto validator = CC7_THIS_OBJ();
+	return validator ? validator->appendCharacter((cc7::U32)utfCodepoint) : false;
+}
+
+//
+// public native boolean removeLastCharacter()
+//
+CC7_JNI_METHOD(jboolean, removeLastCharacter)
+{
+	auto validator = CC7_THIS_OBJ();
+	return validator ? validator->removeLastCharacter() : false;
+}
+
+//
+// public native void clear()
+//
+CC7_JNI_METHOD(void, clear)
+{
+	auto validator = CC7_THIS_OBJ();
+	if (validator) {
+		validator->clear();
+	}
+}
+
+//
+// public native int length()
+//
+CC7_JNI_METHOD(jint, length)
+{
+	auto validator = CC7_THIS_OBJ();
+	return validator ? (jint)validator->length() : 0;
+}
+
+//
+// public native int getState()
+//
+CC7_JNI_METHOD(jint, getState)
+{
+	auto validator = CC7_THIS_OBJ();
+	return validator ? (jint)validator->state() : (jint)OtpValidator::Incomplete;
+}
+
+//
+// public native String getCode()
+//
+CC7_JNI_METHOD(jstring, getCode)
+{
+	auto validator = CC7_THIS_OBJ();
+	return cc7::jni::CopyToJavaString(env, validator ? validator->code() : std::string());
+}
+
+CC7_JNI_MODULE_CLASS_END()
@@ -15,6 +15,7 @@
  */
 
 #include "PasswordJNI.h"
+#include "JniCache.h"
 #include <algorithm>
 
 // Package: io.getlime.security.powerauth.core
@@ -38,7 +39,7 @@ Password * GetCppPasswordFromJavaObject(JNIEnv * env, jobject passwordObject)
 		CC7_ASSERT(false, "Missing required parameter or java environment is not valid.");
 		return NULL;
 	}
-	auto cppPass = reinterpret_cast<Password*>(env->GetLongField(passwordObject, GetHandleFieldID(env)));
+	auto cppPass = reinterpret_cast<Password*>(env->GetLongField(passwordObject, GetJniCache().Password.handle));
 	if (!cppPass) {
 		CC7_ASSERT(false, "Unable to get C++ object from 'Password' java object.");
 		return NULL;
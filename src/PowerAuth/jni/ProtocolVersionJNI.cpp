@@ -15,6 +15,7 @@
  */
 
 #include "ProtocolVersionJNI.h"
+#include "JniCache.h"
 
 // Package: io.getlime.security.powerauth.core
 #define CC7_JNI_CLASS_PATH	    	"io/getlime/security/powerauth/core"
@@ -33,26 +34,21 @@ jobject CreateJavaProtocolVersion(JNIEnv * env, int v)
 		CC7_ASSERT(false, "Missing required parameter or java environment is not valid.");
 		return NULL;
 	}
-	// Convert version to name of static field in ProtocolVersion java enum
-	const char * field_name;
+	// Enum values are cached as global references
+	const auto & versions = GetJniCache().ProtocolVersion;
+	jobject caseObject;
 	switch (v) {
 		case io::getlime::powerAuth::Version_V2:
-			field_name = "V2"; 
+			caseObject = versions.V2;
 			break;
 		case io::getlime::powerAuth::Version_V3:
-			field_name = "V3";
-			 break;
-		default: 
-			field_name = "NA";
+			caseObject = versions.V3;
+			break;
+		default:
+			caseObject = versions.NA;
 			break;
 	}
-	// Find enum class
-	jclass versionClass	= env->FindClass(CC7_JNI_MODULE_CLASS_PATH("ProtocolVersion"));
-	// Find static field for required case
-	jfieldID caseField 	= env->GetStaticFieldID(versionClass , field_name, CC7_JNI_MODULE_CLASS_SIGNATURE("ProtocolVersion"));
-	// Get object from static field
-	jobject caseObject  = env->GetStaticObjectField(versionClass, caseField);
-	CC7_ASSERT(caseObject != NULL, "Cannot convert version %d to java field '%s'", v, field_name);
+	CC7_ASSERT(caseObject != NULL, "Cannot convert version %d to java object", v);
 	return caseObject;
 }
 
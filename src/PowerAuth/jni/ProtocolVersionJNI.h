@@ -20,6 +20,7 @@
 #include <PowerAuth/PublicTypes.h>
 
 /**
- Returns underlying C++ object, stored in java Password class instance. 
+ Returns ProtocolVersion java enum object for given version. The returned object
+ is a global reference, so the caller must not delete it.
  */
 CC7_EXTERN_C jobject CreateJavaProtocolVersion(JNIEnv * env, int v);
\ No newline at end of file
@@ -17,6 +17,7 @@
 #include "PasswordJNI.h"
 #include "ECIESEncryptorJNI.h"
 #include "ProtocolVersionJNI.h"
+#include "JniCache.h"
 #include <PowerAuth/Session.h>
 #include <PowerAuth/Debug.h>
 #include <map>
@@ -36,16 +37,10 @@ CC7_JNI_MODULE_CLASS_BEGIN()
 // Local helper functions
 // ----------------------------------------------------------------------------
 
-static bool LoadSignatureUnlockKeys(SignatureUnlockKeys & out, JNIEnv * env, jobject unlockKeys)
+static bool LoadSignatureUnlockKeysFlat(SignatureUnlockKeys & out, JNIEnv * env, jbyteArray possessionUnlockKey, jbyteArray biometryUnlockKey, jobject userPasswordObject)
 {
-	if (!unlockKeys) {
-		CC7_ASSERT(false, "SignatureUnlockKeys java object should not be null.");
-		return false;
-	}
-	jclass keysClazz  = CC7_JNI_MODULE_FIND_CLASS("SignatureUnlockKeys");
-	out.possessionUnlockKey	= cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(unlockKeys, keysClazz, "possessionUnlockKey"));
-	out.biometryUnlockKey	= cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(unlockKeys, keysClazz, "biometryUnlockKey"));
-	jobject userPasswordObject = CC7_JNI_GET_FIELD_OBJECT(unlockKeys, keysClazz, "userPassword", CC7_JNI_MODULE_CLASS_SIGNATURE("Password"));
+	out.possessionUnlockKey	= cc7::jni::CopyFromJavaByteArray(env, possessionUnlockKey);
+	out.biometryUnlockKey	= cc7::jni::CopyFromJavaByteArray(env, biometryUnlockKey);
 	if (userPasswordObject != NULL) {
 		auto cppPassword = GetCppPasswordFromJavaObject(env, userPasswordObject);
 		if (!cppPassword) {
@@ -56,6 +51,19 @@ static bool LoadSignatureUnlockKeys(SignatureUnlockKeys & out, JNIEnv * env, job
 	return true;
 }
 
+static bool LoadSignatureUnlockKeys(SignatureUnlockKeys & out, JNIEnv * env, jobject unlockKeys)
+{
+	if (!unlockKeys) {
+		CC7_ASSERT(false, "SignatureUnlockKeys java object should not be null.");
+		return false;
+	}
+	const auto & keysClass  = GetJniCache().SignatureUnlockKeys;
+	return LoadSignatureUnlockKeysFlat(out, env,
+									   JniGetByteArrayField(env, unlockKeys, keysClass.possessionUnlockKey),
+									   JniGetByteArrayField(env, unlockKeys, keysClass.biometryUnlockKey),
+									   env->GetObjectField(unlockKeys, keysClass.userPassword));
+}
+
 
 // ----------------------------------------------------------------------------
 // Init & Destroy
@@ -71,13 +79,13 @@ CC7_JNI_METHOD_PARAMS(jlong, init, jobject setup)
 		return 0;
 	}
 	// Copy data from java SessionSetup to backing C++ structure
-	jclass setupClazz  = CC7_JNI_MODULE_FIND_CLASS("SessionSetup");
+	const auto & setupClass  = GetJniCache().SessionSetup;
 	SessionSetup cppSetup;
-	cppSetup.applicationKey			= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(setup, setupClazz, "applicationKey"));
-	cppSetup.applicationSecret		= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(setup, setupClazz, "applicationSecret"));
-	cppSetup.masterServerPublicKey	= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(setup, setupClazz, "masterServerPublicKey"));
-	cppSetup.sessionIdentifier		= CC7_JNI_GET_FIELD_INT(setup, setupClazz, "sessionIdentifier");
-	cppSetup.externalEncryptionKey	= cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(setup, setupClazz, "externalEncryptionKey"));
+	cppSetup.applicationKey			= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, setup, setupClass.applicationKey));
+	cppSetup.applicationSecret		= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, setup, setupClass.applicationSecret));
+	cppSetup.masterServerPublicKey	= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, setup, setupClass.masterServerPublicKey));
+	cppSetup.sessionIdentifier		= env->GetIntField(setup, setupClass.sessionIdentifier);
+	cppSetup.externalEncryptionKey	= cc7::jni::CopyFromJavaByteArray(env, JniGetByteArrayField(env, setup, setupClass.externalEncryptionKey));
 
 	auto session = new Session(cppSetup);
 	return (jlong)session;
@@ -111,14 +119,14 @@ CC7_JNI_METHOD(jobject, getSessionSetup)
 		return NULL;
 	}
 	// Copy cppResult into java result object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("SessionSetup");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("SessionSetup"), "()V");
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "applicationKey",  			cc7::jni::CopyToJavaString(env, cppSetup->applicationKey));
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "applicationSecret", 		cc7::jni::CopyToJavaString(env, cppSetup->applicationSecret));
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "masterServerPublicKey",	cc7::jni::CopyToJavaString(env, cppSetup->masterServerPublicKey));
-	CC7_JNI_SET_FIELD_INT   (resultObject, resultClazz, "sessionIdentifier", 		cppSetup->sessionIdentifier);
+	const auto & resultClass  = GetJniCache().SessionSetup;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
+	env->SetObjectField(resultObject, resultClass.applicationKey,  			cc7::jni::CopyToJavaString(env, cppSetup->applicationKey));
+	env->SetObjectField(resultObject, resultClass.applicationSecret, 		cc7::jni::CopyToJavaString(env, cppSetup->applicationSecret));
+	env->SetObjectField(resultObject, resultClass.masterServerPublicKey,	cc7::jni::CopyToJavaString(env, cppSetup->masterServerPublicKey));
+	env->SetIntField(resultObject, resultClass.sessionIdentifier, 		cppSetup->sessionIdentifier);
 	if (session->hasExternalEncryptionKey()) {
-		CC7_JNI_SET_FIELD_BYTEARRAY(resultObject, resultClazz, "externalEncryptionKey",	cc7::jni::CopyToJavaByteArray(env, cppSetup->externalEncryptionKey));
+		env->SetObjectField(resultObject, resultClass.externalEncryptionKey,	cc7::jni::CopyToJavaByteArray(env, cppSetup->externalEncryptionKey));
 	}
 	return resultObject;
 }
@@ -259,23 +267,36 @@ CC7_JNI_METHOD_PARAMS(jobject, startActivation, jobject param)
 	// Copy params to C++ struct
 	ActivationStep1Param cppParam;
 	if (param != NULL) {
-		jclass paramClazz  = CC7_JNI_MODULE_FIND_CLASS("ActivationStep1Param");
-		cppParam.activationCode		    = cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(param, paramClazz, "activationCode"));
-		cppParam.activationSignature    = cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(param, paramClazz, "activationSignature"));
+		const auto & paramClass  = GetJniCache().ActivationStep1Param;
+		cppParam.activationCode		    = cc7::jni::CopyFromJavaString(env, JniGetStringField(env, param, paramClass.activationCode));
+		cppParam.activationSignature    = cc7::jni::CopyFromJavaString(env, JniGetStringField(env, param, paramClass.activationSignature));
 	}
 	// Call session
 	ActivationStep1Result cppResult;
 	ErrorCode code = session->startActivation(cppParam, cppResult);
 	// Copy cppResult into java result object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("ActivationStep1Result");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("ActivationStep1Result"), "()V");
-	CC7_JNI_SET_FIELD_INT(resultObject, resultClazz, "errorCode", code);
+	const auto & resultClass  = GetJniCache().ActivationStep1Result;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
+	env->SetIntField(resultObject, resultClass.errorCode, code);
 	if (code == EC_Ok) {
-		CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "devicePublicKey",  	cc7::jni::CopyToJavaString(env, cppResult.devicePublicKey));
+		env->SetObjectField(resultObject, resultClass.devicePublicKey,  	cc7::jni::CopyToJavaString(env, cppResult.devicePublicKey));
 	}
 	return resultObject;
 }
 
+//
+// public native int prepareActivation();
+//
+CC7_JNI_METHOD(jint, prepareActivation)
+{
+	auto session = CC7_THIS_OBJ();
+	if (!session) {
+		CC7_ASSERT(false, "Missing internal handle.");
+		return EC_WrongState;
+	}
+	return session->prepareActivation();
+}
+
 //
 // public native ActivationStep2Result validateActivationResponse(ActivationStep2Param param);
 //
@@ -288,26 +309,26 @@ CC7_JNI_METHOD_PARAMS(jobject, validateActivationResponse, jobject param)
 	}
 	// Copy data from param jobject into cppParam.
 	ActivationStep2Param cppParam;	
-	jclass paramClazz  = CC7_JNI_MODULE_FIND_CLASS("ActivationStep2Param");
-	cppParam.activationId       = cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(param, paramClazz, "activationId"));
-	cppParam.serverPublicKey	= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(param, paramClazz, "serverPublicKey"));
-	cppParam.ctrData			= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(param, paramClazz, "ctrData"));
+	const auto & paramClass  = GetJniCache().ActivationStep2Param;
+	cppParam.activationId       = cc7::jni::CopyFromJavaString(env, JniGetStringField(env, param, paramClass.activationId));
+	cppParam.serverPublicKey	= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, param, paramClass.serverPublicKey));
+	cppParam.ctrData			= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, param, paramClass.ctrData));
 	// Copy optional recovery data
-	jobject recoveryData        = CC7_JNI_GET_FIELD_OBJECT(param, paramClazz, "activationRecovery", CC7_JNI_MODULE_CLASS_SIGNATURE("RecoveryData"));
+	jobject recoveryData        = env->GetObjectField(param, paramClass.activationRecovery);
 	if (recoveryData != NULL) {
-		jclass recoveryDataClazz = CC7_JNI_MODULE_FIND_CLASS("RecoveryData");
-		cppParam.activationRecovery.recoveryCode    = cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(recoveryData, recoveryDataClazz, "recoveryCode"));
-		cppParam.activationRecovery.puk             = cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(recoveryData, recoveryDataClazz, "puk"));
+		const auto & recoveryDataClass = GetJniCache().RecoveryData;
+		cppParam.activationRecovery.recoveryCode    = cc7::jni::CopyFromJavaString(env, JniGetStringField(env, recoveryData, recoveryDataClass.recoveryCode));
+		cppParam.activationRecovery.puk             = cc7::jni::CopyFromJavaString(env, JniGetStringField(env, recoveryData, recoveryDataClass.puk));
 	}
 	// Call C++ session
 	ActivationStep2Result cppResult;
 	ErrorCode code = session->validateActivationResponse(cppParam, cppResult);
 	// Copy cppResult into java result object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("ActivationStep2Result");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("ActivationStep2Result"), "()V");
-	CC7_JNI_SET_FIELD_INT(resultObject, resultClazz, "errorCode", code);
+	const auto & resultClass  = GetJniCache().ActivationStep2Result;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
+	env->SetIntField(resultObject, resultClass.errorCode, code);
 	if (code == EC_Ok) {
-		CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "activationFingerprint",  cc7::jni::CopyToJavaString(env, cppResult.activationFingerprint));
+		env->SetObjectField(resultObject, resultClass.activationFingerprint,  cc7::jni::CopyToJavaString(env, cppResult.activationFingerprint));
 	}
 	return resultObject;
 }
@@ -349,10 +370,10 @@ CC7_JNI_METHOD_PARAMS(jobject, decodeActivationStatus, jobject encryptedStatus,
 	}
 	// Load parameters into C++ structures
 	EncryptedActivationStatus cppEncStatus;
-	jclass encStatusClazz = CC7_JNI_MODULE_FIND_CLASS("EncryptedActivationStatus");
-	cppEncStatus.challenge				= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(encryptedStatus, encStatusClazz, "challenge"));
-	cppEncStatus.encryptedStatusBlob	= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(encryptedStatus, encStatusClazz, "encryptedStatusBlob"));
-	cppEncStatus.nonce					= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(encryptedStatus, encStatusClazz, "nonce"));
+	const auto & encStatusClass = GetJniCache().EncryptedActivationStatus;
+	cppEncStatus.challenge				= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, encryptedStatus, encStatusClass.challenge));
+	cppEncStatus.encryptedStatusBlob	= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, encryptedStatus, encStatusClass.encryptedStatusBlob));
+	cppEncStatus.nonce					= cc7::jni::CopyFromJavaString(env, JniGetStringField(env, encryptedStatus, encStatusClass.nonce));
 	//
 	SignatureUnlockKeys cppUnlockKeys;
 	if (false == LoadSignatureUnlockKeys(cppUnlockKeys, env, unlockKeys)) {
@@ -362,21 +383,20 @@ CC7_JNI_METHOD_PARAMS(jobject, decodeActivationStatus, jobject encryptedStatus,
 	ActivationStatus cppStatus;
 	ErrorCode code = session->decodeActivationStatus(cppEncStatus, cppUnlockKeys, cppStatus);
 	// Copy result to java object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("ActivationStatus");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("ActivationStatus"), "()V");
-	CC7_JNI_SET_FIELD_INT(resultObject, resultClazz, "errorCode", code);
+	const auto & resultClass  = GetJniCache().ActivationStatus;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
+	env->SetIntField(resultObject, resultClass.errorCode, code);
 	if (code == EC_Ok) {
-		const char * versionSig = CC7_JNI_MODULE_CLASS_SIGNATURE("ProtocolVersion");
 		jobject currentVersionObject = CreateJavaProtocolVersion(env, cppStatus.currentVersion);
 		jobject upgradeVersionObject = CreateJavaProtocolVersion(env, cppStatus.upgradeVersion);
-		CC7_JNI_SET_FIELD_INT	(resultObject, resultClazz, "state", 	 			cppStatus.state);
-		CC7_JNI_SET_FIELD_INT	(resultObject, resultClazz, "failCount", 			cppStatus.failCount);
-		CC7_JNI_SET_FIELD_INT	(resultObject, resultClazz, "maxFailCount",			cppStatus.maxFailCount);
-		CC7_JNI_SET_FIELD_OBJECT(resultObject, resultClazz, "currentVersion", versionSig, currentVersionObject);
-		CC7_JNI_SET_FIELD_OBJECT(resultObject, resultClazz, "upgradeVersion", versionSig, upgradeVersionObject);
-		CC7_JNI_SET_FIELD_BOOL	(resultObject, resultClazz, "isUpgradeAvailable",					cppStatus.isProtocolUpgradeAvailable());
-		CC7_JNI_SET_FIELD_BOOL	(resultObject, resultClazz, "isSignatureCalculationRecommended",	cppStatus.isSignatureCalculationRecommended());
-		CC7_JNI_SET_FIELD_BOOL	(resultObject, resultClazz, "needsSerializeSessionState",			cppStatus.needsSerializeSessionState());
+		env->SetIntField(resultObject, resultClass.state, 	 			cppStatus.state);
+		env->SetIntField(resultObject, resultClass.failCount, 			cppStatus.failCount);
+		env->SetIntField(resultObject, resultClass.maxFailCount,			cppStatus.maxFailCount);
+		env->SetObjectField(resultObject, resultClass.currentVersion, currentVersionObject);
+		env->SetObjectField(resultObject, resultClass.upgradeVersion, upgradeVersionObject);
+		env->SetBooleanField(resultObject, resultClass.isUpgradeAvailable,					cppStatus.isProtocolUpgradeAvailable());
+		env->SetBooleanField(resultObject, resultClass.isSignatureCalculationRecommended,	cppStatus.isSignatureCalculationRecommended());
+		env->SetBooleanField(resultObject, resultClass.needsSerializeSessionState,			cppStatus.needsSerializeSessionState());
 	}
 	return resultObject;
 }
@@ -416,39 +436,43 @@ CC7_JNI_METHOD_PARAMS(jbyteArray, prepareKeyValueDictionaryForDataSigning, jobje
 }
 
 //
-// public native SignatureResult signHTTPRequest(SignatureRequest request, SignatureUnlockKeys unlockKeys, int signatureFactor);
+// private native int signHTTPRequestFlat(byte[] body, String method, String uriIdentifier, String offlineNonce,
+//                                        byte[] possessionUnlockKey, byte[] biometryUnlockKey, Password userPassword,
+//                                        int signatureFactor, String[] output);
 //
-CC7_JNI_METHOD_PARAMS(jobject, signHTTPRequest, jobject request, jobject unlockKeys, jint signatureFactor)
+CC7_JNI_METHOD_PARAMS(jint, signHTTPRequestFlat, jbyteArray body, jstring method, jstring uriIdentifier, jstring offlineNonce,
+					  jbyteArray possessionUnlockKey, jbyteArray biometryUnlockKey, jobject userPassword,
+					  jint signatureFactor, jobjectArray output)
 {
 	auto session = CC7_THIS_OBJ();
-	if (!session || !request || !unlockKeys) {
+	if (!session || !output || env->GetArrayLength(output) < 2) {
 		CC7_ASSERT(false, "Missing param or internal handle.");
-		return NULL;
-	}	
-	// Load parameters into C++ objects 
+		return EC_WrongParam;
+	}
+	// Load parameters into C++ objects
 	HTTPRequestData cppRequest;
-	jclass requestClazz		= CC7_JNI_MODULE_FIND_CLASS("SignatureRequest");
-	cppRequest.body			= cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(request, requestClazz, "body"));
-	cppRequest.method		= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(request, requestClazz, "method"));
-	cppRequest.uri			= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(request, requestClazz, "uriIdentifier"));
-	cppRequest.offlineNonce	= cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(request, requestClazz, "offlineNonce"));
+	cppRequest.body			= cc7::jni::CopyFromJavaByteArray(env, body);
+	cppRequest.method		= cc7::jni::CopyFromJavaString(env, method);
+	cppRequest.uri			= cc7::jni::CopyFromJavaString(env, uriIdentifier);
+	cppRequest.offlineNonce	= cc7::jni::CopyFromJavaString(env, offlineNonce);
 	SignatureFactor cppSignatureFactor = (SignatureFactor)signatureFactor;
 	SignatureUnlockKeys cppUnlockKeys;
-	if (false == LoadSignatureUnlockKeys(cppUnlockKeys, env, unlockKeys)) {
-		return NULL;
+	if (false == LoadSignatureUnlockKeysFlat(cppUnlockKeys, env, possessionUnlockKey, biometryUnlockKey, userPassword)) {
+		return EC_WrongParam;
 	}
 	// Call C++ session
 	HTTPRequestDataSignature cppSignature;
 	ErrorCode code = session->signHTTPRequestData(cppRequest, cppUnlockKeys, cppSignatureFactor, cppSignature);
-	// Copy result to java object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("SignatureResult");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("SignatureResult"), "()V");
-	CC7_JNI_SET_FIELD_INT(resultObject, resultClazz, "errorCode", code);
 	if (code == EC_Ok) {
-		CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "authHeaderValue",  cc7::jni::CopyToJavaString(env, cppSignature.buildAuthHeaderValue()));
-		CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "signatureCode",  	cc7::jni::CopyToJavaString(env, cppSignature.signature));
+		// Store header value and signature code to the output array
+		jstring authHeaderValue = cc7::jni::CopyToJavaString(env, cppSignature.buildAuthHeaderValue());
+		jstring signatureCode   = cc7::jni::CopyToJavaString(env, cppSignature.signature);
+		env->SetObjectArrayElement(output, 0, authHeaderValue);
+		env->SetObjectArrayElement(output, 1, signatureCode);
+		env->DeleteLocalRef(authHeaderValue);
+		env->DeleteLocalRef(signatureCode);
 	}
-	return resultObject;
+	return code;
 }
 
 //
@@ -474,17 +498,34 @@ CC7_JNI_METHOD_PARAMS(jint, verifyServerSignedData, jobject signedData)
 		return EC_WrongParam;
 	}
 	// Load parameters into C++ objects
-	jclass requestClazz		    = CC7_JNI_MODULE_FIND_CLASS("SignedData");
+	const auto & requestClass		    = GetJniCache().SignedData;
 	// Get type of key
-	bool useMasterKey           = CC7_JNI_GET_FIELD_BOOL(signedData, requestClazz, "useMasterKey");
+	bool useMasterKey           = env->GetBooleanField(signedData, requestClass.useMasterKey);
 	// Prepare cpp structure
 	SignedData cppSignedData;
 	cppSignedData.signingKey    = useMasterKey ? SignedData::ECDSA_MasterServerKey : SignedData::ECDSA_PersonalizedKey;
-	cppSignedData.data		    = cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(signedData, requestClazz, "data"));
-	cppSignedData.signature	    = cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(signedData, requestClazz, "signature"));
+	cppSignedData.data		    = cc7::jni::CopyFromJavaByteArray(env, JniGetByteArrayField(env, signedData, requestClass.data));
+	cppSignedData.signature	    = cc7::jni::CopyFromJavaByteArray(env, JniGetByteArrayField(env, signedData, requestClass.signature));
 	return (jint) session->verifyServerSignedData(cppSignedData);
 }
 
+//
+// public native byte[] getServerPublicKeyForSignedData(boolean useMasterKey);
+//
+CC7_JNI_METHOD_PARAMS(jbyteArray, getServerPublicKeyForSignedData, jboolean useMasterKey)
+{
+	auto session = CC7_THIS_OBJ();
+	if (!session) {
+		CC7_ASSERT(false, "Missing internal handle.");
+		return NULL;
+	}
+	auto cppKey = session->serverPublicKeyForSignedData(useMasterKey ? SignedData::ECDSA_MasterServerKey : SignedData::ECDSA_PersonalizedKey);
+	if (cppKey.empty()) {
+		return NULL;
+	}
+	return cc7::jni::CopyToJavaByteArray(env, cppKey);
+}
+
 // ----------------------------------------------------------------------------
 // Signature keys management
 // ----------------------------------------------------------------------------
@@ -810,13 +851,13 @@ CC7_JNI_METHOD_PARAMS(jint, applyProtocolUpgradeData, jobject md)
 	}
 	// Load parameters into C++ struct
 
-	jclass mdClazz = CC7_JNI_MODULE_FIND_CLASS("ProtocolUpgradeData");
-	auto cpp_version = (Version) CC7_JNI_GET_FIELD_INT(md, mdClazz, "toVersion");
+	const auto & mdClass = GetJniCache().ProtocolUpgradeData;
+	auto cpp_version = (Version) env->GetIntField(md, mdClass.toVersion);
 
 	ProtocolUpgradeData cpp_upd;
 	if (cpp_version == Version_V3) {
 		// Load V3 fields...
-		cpp_upd.toV3.ctrData = cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(md, mdClazz, "v3CtrData"));
+		cpp_upd.toV3.ctrData = cc7::jni::CopyFromJavaString(env, JniGetStringField(env, md, mdClass.v3CtrData));
 	}
 	return (jint) session->applyProtocolUpgradeData(cpp_upd);
 }
@@ -874,10 +915,10 @@ CC7_JNI_METHOD_PARAMS(jobject , getActivationRecoveryData, jstring cVaultKey, jo
 		return NULL;
 	}
 	// Copy cppResult into java result object
-	jclass  resultClazz  = CC7_JNI_MODULE_FIND_CLASS("RecoveryData");
-	jobject resultObject = cc7::jni::CreateJavaObject(env, CC7_JNI_MODULE_CLASS_PATH("RecoveryData"), "()V");
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "recoveryCode", cc7::jni::CopyToJavaString(env, cppRecoveryData.recoveryCode));
-	CC7_JNI_SET_FIELD_STRING(resultObject, resultClazz, "puk",			cc7::jni::CopyToJavaString(env, cppRecoveryData.puk));
+	const auto & resultClass  = GetJniCache().RecoveryData;
+	jobject resultObject = env->NewObject(resultClass.clazz, resultClass.init);
+	env->SetObjectField(resultObject, resultClass.recoveryCode, cc7::jni::CopyToJavaString(env, cppRecoveryData.recoveryCode));
+	env->SetObjectField(resultObject, resultClass.puk,			cc7::jni::CopyToJavaString(env, cppRecoveryData.puk));
 	return resultObject;
 }
 
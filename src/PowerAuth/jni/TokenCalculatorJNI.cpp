@@ -17,6 +17,7 @@
 #include <cc7/jni/JniHelper.h>
 #include "../crypto/CryptoUtils.h"
 #include "../protocol/Constants.h"
+#include <openssl/crypto.h>
 #include <sys/time.h>
 
 // Package: io.getlime.security.powerauth.core
@@ -47,22 +48,23 @@ static std::string _GetTimestamp()
 }
 
 //
-// public static native String calculateTokenValue(PowerAuthPrivateTokenData tokenData)
+// private static native String calculateTokenValueFlat(String identifier, byte[] secret)
 //
-CC7_JNI_METHOD_PARAMS(jstring, calculateTokenValue, jobject privateData)
+CC7_JNI_METHOD_PARAMS(jstring, calculateTokenValueFlat, jstring identifier, jbyteArray secret)
 {
-	if (privateData == NULL || env == NULL) {
-		CC7_ASSERT(false, "Missing parameter privateData.");
+	if (identifier == NULL || secret == NULL || env == NULL) {
+		CC7_ASSERT(false, "Missing parameter identifier or secret.");
 		return NULL;
 	}
-	// Look for io.getlime.security.powerauth.sdk.impl.PowerAuthPrivateTokenData
-	jclass privateDataClazz = env->FindClass("io/getlime/security/powerauth/sdk/impl/PowerAuthPrivateTokenData");
-
-	// Load parameters into C++ objects
-	auto cppTokenSecret = cc7::jni::CopyFromJavaByteArray(env, CC7_JNI_GET_FIELD_BYTEARRAY(privateData, privateDataClazz, "secret"));
-	auto cppTokenIdentifier = cc7::jni::CopyFromJavaString(env, CC7_JNI_GET_FIELD_STRING(privateData, privateDataClazz, "identifier"));
-
-	if (cppTokenSecret.size() != 16 || cppTokenIdentifier.empty()) {
+	// Validate all parameters before the secret is copied, so there's no early
+	// return between the copy and the cleanup of the secret.
+	cc7::byte secretBytes[16];
+	if (env->GetArrayLength(secret) != sizeof(secretBytes)) {
+		CC7_ASSERT(false, "PowerAuthPrivateTokenData is not valid.");
+		return NULL;
+	}
+	auto cppTokenIdentifier = cc7::jni::CopyFromJavaString(env, identifier);
+	if (cppTokenIdentifier.empty()) {
 		CC7_ASSERT(false, "PowerAuthPrivateTokenData is not valid.");
 		return NULL;
 	}
@@ -78,7 +80,11 @@ CC7_JNI_METHOD_PARAMS(jstring, calculateTokenValue, jobject privateData)
 	data.assign(nonce);
 	data.append(cc7::MakeRange(protocol::AMP));
 	data.append(cc7::MakeRange(timestamp));
-	auto digest = crypto::HMAC_SHA256(data, cppTokenSecret, 0);
+
+	// Copy secret directly to the stack buffer, the secret has always 16 bytes.
+	env->GetByteArrayRegion(secret, 0, sizeof(secretBytes), reinterpret_cast<jbyte*>(secretBytes));
+	auto digest = crypto::HMAC_SHA256(data, cc7::ByteRange(secretBytes, sizeof(secretBytes)), 0);
+	OPENSSL_cleanse(secretBytes, sizeof(secretBytes));
 	if (digest.size() == 0) {
 		CC7_ASSERT(false, "Unable to calculate HMAC for data.");
 		return NULL;
@@ -64,11 +64,16 @@ namespace utils
 	{
 		cc7::U16 crc = 0;
 		for (size_t i = 0; i < bytes.size(); ++i) {
-			crc = (crc >> 8) ^ s_crc_table[(crc ^ bytes[i]) & 0xFF];
+			crc = CRC16_Update(crc, bytes[i]);
 		}
 		return crc;
 	}
 	
+	cc7::U16 CRC16_Update(cc7::U16 crc, cc7::byte byte)
+	{
+		return (crc >> 8) ^ s_crc_table[(crc ^ byte) & 0xFF];
+	}
+	
 	bool CRC16_Validate(const cc7::ByteRange & bytes)
 	{
 		const size_t count = bytes.size();
@@ -31,6 +31,12 @@ namespace utils
 	 */
 	cc7::U16 CRC16_Calculate(const cc7::ByteRange & bytes);
 	
+	/**
+	 Updates CRC-16/ARC checksum |crc| with one additional |byte| and returns
+	 the new value. The initial value of the checksum is 0.
+	 */
+	cc7::U16 CRC16_Update(cc7::U16 crc, cc7::byte byte);
+	
 	/**
 	 Validates CRC-16/ARC checksum from given |bytes|. The function is expecting
 	 that the last two bytes, contains the checksum in big endian order, calculated
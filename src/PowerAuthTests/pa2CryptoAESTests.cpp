@@ -18,6 +18,7 @@
 #include <cc7/HexString.h>
 #include "crypto/CryptoUtils.h"
 #include "crypto/PKCS7Padding.h"
+#include <algorithm>
 
 using namespace cc7;
 using namespace cc7::tests;
@@ -153,6 +154,22 @@ namespace powerAuthTests
 				bool decrypted_eqal = ourDEC == plain;
 				ccstAssertTrue(encrypted_eqal, "Failed at plain %s", td->plain);
 				ccstAssertTrue(decrypted_eqal, "Failed at plain %s", td->plain);
+				
+				// Stream encryption, with various chunk sizes
+				for (size_t chunk_size = 1; chunk_size <= plain.size() + 1; chunk_size += 3) {
+					crypto::AES_CBC_PaddingStreamEncryptor stream;
+					ccstAssertTrue(stream.init(key, iv));
+					cc7::ByteArray streamENC, chunk;
+					for (size_t offset = 0; offset < plain.size(); offset += chunk_size) {
+						size_t size = std::min(chunk_size, plain.size() - offset);
+						ccstAssertTrue(stream.update(plain.byteRange().subRange(offset, size), chunk));
+						streamENC.append(chunk);
+					}
+					ccstAssertTrue(stream.finish(chunk));
+					streamENC.append(chunk);
+					ccstAssertTrue(streamENC == enc, "Failed at plain %s, chunk %d", td->plain, (int)chunk_size);
+					ccstAssertFalse(stream.update(plain, chunk));
+				}
 				td++;
 			}
 		}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <cc7tests/CC7Tests.h>
+#include "crypto/CryptoUtils.h"
+#include <thread>
+
+using namespace cc7;
+using namespace cc7::tests;
+using namespace io::getlime::powerAuth;
+
+namespace io
+{
+namespace getlime
+{
+namespace powerAuthTests
+{
+	class pa2CryptoBNContextTests : public UnitTest
+	{
+	public:
+		
+		pa2CryptoBNContextTests()
+		{
+			CC7_REGISTER_TEST_METHOD(testThreadContext)
+			CC7_REGISTER_TEST_METHOD(testNestedFrames)
+			CC7_REGISTER_TEST_METHOD(testKeyImportExport)
+		}
+		
+		// unit tests
+		
+		void testThreadContext()
+		{
+			BN_CTX * this_thread_ctx;
+			{
+				crypto::BNContext ctx1;
+				crypto::BNContext ctx2;
+				ccstAssertNotNull(ctx1.ctx());
+				ccstAssertTrue(ctx1.ctx() == ctx2.ctx());
+				this_thread_ctx = ctx1.ctx();
+			}
+			// Explicitly provided context must be used
+			BN_CTX * own_ctx = BN_CTX_new();
+			{
+				crypto::BNContext ctx(own_ctx);
+				ccstAssertTrue(ctx.ctx() == own_ctx);
+			}
+			BN_CTX_free(own_ctx);
+			
+			// Other thread has its own context
+			BN_CTX * other_thread_ctx = nullptr;
+			std::thread thread([&other_thread_ctx]() {
+				crypto::BNContext ctx;
+				other_thread_ctx = ctx.ctx();
+			});
+			thread.join();
+			ccstAssertNotNull(other_thread_ctx);
+			ccstAssertTrue(other_thread_ctx != this_thread_ctx);
+		}
+		
+		void testNestedFrames()
+		{
+			crypto::BNContext outer;
+			BIGNUM * x = BN_CTX_get(outer);
+			ccstAssertNotNull(x);
+			BN_set_word(x, 42);
+			{
+				crypto::BNContext inner(outer);
+				BIGNUM * y = BN_CTX_get(inner);
+				ccstAssertNotNull(y);
+				ccstAssertTrue(x != y);
+				BN_set_word(y, 7);
+			}
+			{
+				crypto::BNContext inner;
+				BIGNUM * z = BN_CTX_get(inner);
+				ccstAssertNotNull(z);
+				ccstAssertTrue(x != z);
+				BN_zero(z);
+			}
+			ccstAssertEqual(BN_get_word(x), 42);
+		}
+		
+		void testKeyImportExport()
+		{
+			for (int i = 0; i < 32; i++) {
+				EC_KEY * key_pair = crypto::ECC_GenerateKeyPair();
+				ccstAssertNotNull(key_pair);
+				auto public_key = crypto::ECC_ExportPublicKey(key_pair);
+				auto private_key = crypto::ECC_ExportPrivateKey(key_pair);
+				ccstAssertFalse(public_key.empty());
+				ccstAssertFalse(private_key.empty());
+				
+				EC_KEY * imported_public = crypto::ECC_ImportPublicKey(nullptr, public_key);
+				ccstAssertNotNull(imported_public);
+				ccstAssertEqual(public_key, crypto::ECC_ExportPublicKey(imported_public));
+				EC_KEY * imported_private = crypto::ECC_ImportPrivateKey(nullptr, private_key);
+				ccstAssertNotNull(imported_private);
+				
+				auto data = crypto::GetRandomData(32);
+				cc7::ByteArray signature;
+				ccstAssertTrue(crypto::ECDSA_ComputeSignature(data, imported_private, signature));
+				ccstAssertTrue(crypto::ECDSA_ValidateSignature(data, signature, imported_public));
+				ccstAssertTrue(crypto::ECDSA_ValidateSignature(data, signature, key_pair));
+				
+				EC_KEY_free(key_pair);
+				EC_KEY_free(imported_public);
+				EC_KEY_free(imported_private);
+			}
+		}
+	};
+	
+	CC7_CREATE_UNIT_TEST(pa2CryptoBNContextTests, "pa2")
+	
+} // io::getlime::powerAuthTests
+} // io::getlime
+} // io
@@ -192,6 +192,16 @@ namespace powerAuthTests
 					ccstMessage("exp %s", exp.hexString().c_str());
 					ccstMessage("our %s", hmac.hexString().c_str());
 				}
+				if (exp.size() == 32) {
+					// Stream calculation, split data into two parts
+					for (size_t split = 0; split <= data.size(); split += 7) {
+						crypto::HMAC_SHA256_Stream stream;
+						stream.init(key);
+						stream.update(data.byteRange().subRange(0, split));
+						stream.update(data.byteRange().subRange(split, data.size() - split));
+						ccstAssertTrue(stream.finish() == exp);
+					}
+				}
 				td++;
 			}
 		}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Wultra s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <cc7tests/CC7Tests.h>
+#include "crypto/CryptoUtils.h"
+#include "crypto/CryptoMetrics.h"
+
+using namespace cc7;
+using namespace cc7::tests;
+using namespace io::getlime::powerAuth;
+
+namespace io
+{
+namespace getlime
+{
+namespace powerAuthTests
+{
+	class pa2CryptoMetricsTests : public UnitTest
+	{
+	public:
+		
+		pa2CryptoMetricsTests()
+		{
+			CC7_REGISTER_TEST_METHOD(testRecordAndReset)
+			CC7_REGISTER_TEST_METHOD(testInstrumentedPrimitives)
+		}
+		
+		// unit tests
+		
+		void testRecordAndReset()
+		{
+			crypto::CryptoMetrics_Reset();
+			crypto::CryptoMetrics_Record(crypto::CO_PBKDF2, 5000);			// 5us
+			crypto::CryptoMetrics_Record(crypto::CO_PBKDF2, 2000000);		// 2ms
+			crypto::CryptoMetrics_Record(crypto::CO_PBKDF2, 500000000);		// 500ms
+			
+			auto snapshot = crypto::CryptoMetrics_GetSnapshot();
+			ccstAssertEqual(snapshot.size(), (size_t)crypto::CO_Count);
+			auto & pbkdf2 = snapshot[crypto::CO_PBKDF2];
+			ccstAssertEqual(pbkdf2.operation, crypto::CO_PBKDF2);
+			ccstAssertEqual(pbkdf2.count, 3);
+			ccstAssertEqual(pbkdf2.totalDurationNs, 502005000ULL);
+			ccstAssertEqual(pbkdf2.maxDurationNs, 500000000ULL);
+			ccstAssertEqual(pbkdf2.histogram[0], 1);
+			ccstAssertEqual(pbkdf2.histogram[1], 0);
+			ccstAssertEqual(pbkdf2.histogram[2], 0);
+			ccstAssertEqual(pbkdf2.histogram[3], 1);
+			ccstAssertEqual(pbkdf2.histogram[4], 0);
+			ccstAssertEqual(pbkdf2.histogram[5], 1);
+			// Other operations must not be affected
+			ccstAssertEqual(snapshot[crypto::CO_ECDH].count, 0);
+			
+			crypto::CryptoMetrics_Reset();
+			snapshot = crypto::CryptoMetrics_GetSnapshot();
+			for (auto & metrics : snapshot) {
+				ccstAssertEqual(metrics.count, 0);
+				ccstAssertEqual(metrics.totalDurationNs, 0);
+				ccstAssertEqual(metrics.maxDurationNs, 0);
+			}
+		}
+		
+		void testInstrumentedPrimitives()
+		{
+			crypto::CryptoMetrics_Reset();
+			
+			EC_KEY * key1 = crypto::ECC_GenerateKeyPair();
+			EC_KEY * key2 = crypto::ECC_GenerateKeyPair();
+			ccstAssertNotNull(key1);
+			ccstAssertNotNull(key2);
+			
+			auto secret = crypto::ECDH_SharedSecret(key1, key2);
+			ccstAssertFalse(secret.empty());
+			
+			cc7::ByteArray signature;
+			auto data = crypto::GetRandomData(64);
+			ccstAssertTrue(crypto::ECDSA_ComputeSignature(data, key1, signature));
+			ccstAssertTrue(crypto::ECDSA_ValidateSignature(data, signature, key1));
+			
+			auto key = crypto::GetRandomData(16);
+			auto iv  = crypto::GetRandomData(16);
+			auto encrypted = crypto::AES_CBC_Encrypt_Padding(key, iv, data);
+			auto decrypted = crypto::AES_CBC_Decrypt_Padding(key, iv, encrypted);
+			ccstAssertEqual(decrypted, data);
+			
+			auto derived = crypto::PBKDF2_HMAC_SHA1(data, iv, 100, 16);
+			ccstAssertEqual(derived.size(), 16);
+			
+			EC_KEY_free(key1);
+			EC_KEY_free(key2);
+			
+			auto snapshot = crypto::CryptoMetrics_GetSnapshot();
+			ccstAssertEqual(snapshot[crypto::CO_ECC_KeyGen].count, 2);
+			ccstAssertEqual(snapshot[crypto::CO_ECDH].count, 1);
+			ccstAssertEqual(snapshot[crypto::CO_ECDSA_Sign].count, 1);
+			ccstAssertEqual(snapshot[crypto::CO_ECDSA_Verify].count, 1);
+			ccstAssertEqual(snapshot[crypto::CO_AES_Encrypt].count, 1);
+			ccstAssertEqual(snapshot[crypto::CO_AES_Decrypt].count, 1);
+			ccstAssertEqual(snapshot[crypto::CO_PBKDF2].count, 1);
+		}
+		
+	};
+	
+	CC7_CREATE_UNIT_TEST(pa2CryptoMetricsTests, "pa2")
+	
+} // io::getlime::powerAuthTests
+} // io::getlime
+} // io
@@ -19,6 +19,7 @@
 #include <PowerAuth/ECIES.h>
 #include <cc7/HexString.h>
 #include "../PowerAuth/crypto/CryptoUtils.h"
+#include <algorithm>
 
 using namespace cc7;
 using namespace cc7::tests;
@@ -47,6 +48,7 @@ namespace powerAuthTests
 		{
 			CC7_REGISTER_TEST_METHOD(testEncryptorDecryptor)
 			CC7_REGISTER_TEST_METHOD(testInvalidCurve)
+			CC7_REGISTER_TEST_METHOD(testRequestStream)
 		}
 		
 		void testEncryptorDecryptor()
@@ -177,6 +179,76 @@ namespace powerAuthTests
 			TLOG("}");
 		}
 		
+		void testRequestStream()
+		{
+			ErrorCode ec;
+			
+			EC_KEY * master_keypair = crypto::ECC_GenerateKeyPair();
+			cc7::ByteArray master_public_key = crypto::ECC_ExportPublicKey(master_keypair);
+			cc7::ByteArray master_private_key = crypto::ECC_ExportPrivateKey(master_keypair);
+			EC_KEY_free(master_keypair);
+			
+			auto shared_info1 = cc7::MakeRange("stream-info1");
+			auto shared_info2 = cc7::MakeRange("stream-info2");
+			auto client_encryptor = ECIESEncryptor(master_public_key, shared_info1, shared_info2);
+			auto server_decryptor = ECIESDecryptor(master_private_key, shared_info1, shared_info2);
+			
+			static const size_t s_data_sizes[] = { 0, 1, 15, 16, 17, 100, 4096, 10001 };
+			static const size_t s_chunk_sizes[] = { 1, 7, 16, 33, 1000 };
+			for (size_t data_size : s_data_sizes) {
+				auto request_data = crypto::GetRandomData(data_size);
+				for (size_t chunk_size : s_chunk_sizes) {
+					ECIESRequestStream stream;
+					ccstAssertFalse(stream.isValid());
+					ECIESCryptogram request;
+					ec = client_encryptor.beginEncryptRequest(stream, request);
+					ccstAssertEqual(ec, EC_Ok);
+					ccstAssertTrue(stream.isValid());
+					ccstAssertFalse(request.key.empty());
+					ccstAssertFalse(request.nonce.empty());
+					// Encrypt data in chunks
+					cc7::ByteArray chunk;
+					size_t offset = 0;
+					while (offset < data_size) {
+						size_t size = std::min(chunk_size, data_size - offset);
+						ec = stream.update(request_data.byteRange().subRange(offset, size), chunk);
+						ccstAssertEqual(ec, EC_Ok);
+						request.body.append(chunk);
+						offset += size;
+					}
+					ec = stream.finish(chunk, request.mac);
+					ccstAssertEqual(ec, EC_Ok);
+					ccstAssertFalse(stream.isValid());
+					request.body.append(chunk);
+					ccstAssertEqual(request.body.size(), (data_size / 16 + 1) * 16);
+					// Finished stream can't be used
+					ec = stream.update(request_data, chunk);
+					ccstAssertEqual(ec, EC_WrongState);
+					// Server must be able to decrypt the request
+					cc7::ByteArray server_received_data;
+					ec = server_decryptor.decryptRequest(request, server_received_data);
+					ccstAssertEqual(ec, EC_Ok);
+					ccstAssertTrue(request_data == server_received_data);
+					// ...and encryptor is able to decrypt the response
+					ECIESCryptogram response;
+					ec = server_decryptor.encryptResponse(request_data, response);
+					ccstAssertEqual(ec, EC_Ok);
+					cc7::ByteArray client_received_data;
+					ec = client_encryptor.decryptResponse(response, client_received_data);
+					ccstAssertEqual(ec, EC_Ok);
+					ccstAssertTrue(request_data == client_received_data);
+				}
+			}
+			
+			// Encryptor without public key can't start the stream
+			ECIESRequestStream stream;
+			ECIESCryptogram request;
+			auto decrypt_only = ECIESEncryptor(client_encryptor.envelopeKey(), client_encryptor.ivForDecryption(), shared_info2);
+			ec = decrypt_only.beginEncryptRequest(stream, request);
+			ccstAssertEqual(ec, EC_WrongState);
+			ccstAssertFalse(stream.isValid());
+		}
+		
 		void testInvalidCurve()
 		{
 			auto invalid_public_key = cc7::FromHexString("02B70BF043C144935756F8F4578C369CF960EE510A5A0F90E93A373A21F0D1397F");
@@ -45,6 +45,7 @@ namespace powerAuthTests
 			CC7_REGISTER_TEST_METHOD(testRecoveryCodeValidation)
 			CC7_REGISTER_TEST_METHOD(testRecoveryPukValidation)
 			CC7_REGISTER_TEST_METHOD(testRecoveryCodeParser)
+			CC7_REGISTER_TEST_METHOD(testOtpValidator)
 			CC7_REGISTER_TEST_METHOD(niceCodeGenerator)
 		}
 		
@@ -380,6 +381,87 @@ namespace powerAuthTests
 		
 		//////
 		
+		void testOtpValidator()
+		{
+			const char * valid_codes[] = {
+				"AAAAA-AAAAA-AAAAA-AAAAA",
+				"VVVVV-VVVVV-VVVVV-VTFVA",
+				"55555-55555-55555-55YMA",
+				"W65WE-3T7VI-7FBS2-A4OYA",
+				"XHGSM-KYQDT-URE34-UZGWQ",
+				"NQHGX-LNM2S-EQ4NT-G3NAA",
+				NULL
+			};
+			const char ** p = valid_codes;
+			while (const char * code = *p++) {
+				std::string code_str(code);
+				OtpValidator validator;
+				for (size_t i = 0; i < code_str.length(); i++) {
+					ccstAssertEqual(OtpValidator::Incomplete, validator.state());
+					ccstAssertTrue(validator.appendCharacter((cc7::U32)code_str[i]));
+				}
+				ccstAssertEqual(20, validator.length());
+				ccstAssertEqual(OtpValidator::Valid, validator.state(), "Code '%s' should be valid", code);
+				ccstAssertEqual(code_str, validator.code());
+				// No more characters are allowed
+				ccstAssertFalse(validator.appendCharacter('A'));
+				// Remove & append again
+				ccstAssertTrue(validator.removeLastCharacter());
+				ccstAssertEqual(OtpValidator::Incomplete, validator.state());
+				ccstAssertTrue(validator.appendCharacter((cc7::U32)code_str.back()));
+				ccstAssertEqual(OtpValidator::Valid, validator.state());
+				
+				// Compare result with OtpUtil for all codes with one changed character.
+				// The last character is skipped, because it contains also unused bits.
+				for (size_t i = 0; i < code_str.length() - 1; i++) {
+					if (code_str[i] == '-') {
+						continue;
+					}
+					std::string modified = code_str;
+					modified[i] = modified[i] == 'B' ? 'C' : 'B';
+					// Rewind validator to changed position
+					while (validator.code().length() > i) {
+						ccstAssertTrue(validator.removeLastCharacter());
+					}
+					for (size_t j = i; j < modified.length(); j++) {
+						ccstAssertTrue(validator.appendCharacter((cc7::U32)modified[j]));
+					}
+					bool expected = OtpUtil::validateActivationCode(modified);
+					bool result = validator.state() == OtpValidator::Valid;
+					ccstAssertEqual(expected, result, "Validator result doesn't match for '%s'", modified.c_str());
+					ccstAssertEqual(modified, validator.code());
+				}
+			}
+			
+			// Unused bits in the last character must be zero
+			OtpValidator validator;
+			for (const char * c = "AAAAA-AAAAA-AAAAA-AAAAB"; *c; c++) {
+				ccstAssertTrue(validator.appendCharacter((cc7::U32)*c));
+			}
+			ccstAssertEqual(OtpValidator::Invalid, validator.state());
+			validator.clear();
+			
+			// Autocorrection and invalid characters
+			ccstAssertFalse(validator.removeLastCharacter());
+			ccstAssertFalse(validator.appendCharacter('8'));
+			ccstAssertFalse(validator.appendCharacter('#'));
+			ccstAssertEqual(0, validator.length());
+			const char * lowercase = "vvvvvvvvvvvvvvvvvtfva";
+			for (const char * c = lowercase; *c; c++) {
+				if (validator.length() == 20) {
+					ccstAssertFalse(validator.appendCharacter((cc7::U32)*c));
+					break;
+				}
+				ccstAssertTrue(validator.appendCharacter((cc7::U32)*c));
+			}
+			ccstAssertEqual(std::string("VVVVV-VVVVV-VVVVV-VVTFV"), validator.code());
+			ccstAssertEqual(OtpValidator::Invalid, validator.state());
+			validator.clear();
+			ccstAssertEqual(0, validator.length());
+			ccstAssertEqual(OtpValidator::Incomplete, validator.state());
+			ccstAssertTrue(validator.code().empty());
+		}
+		
 		void niceCodeGenerator()
 		{
 			std::string chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
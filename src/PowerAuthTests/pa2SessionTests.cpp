@@ -27,6 +27,7 @@
 #include <PowerAuth/Session.h>
 #include <PowerAuth/ECIES.h>
 #include <map>
+#include <memory>
 
 using namespace cc7;
 using namespace cc7::tests;
@@ -48,6 +49,7 @@ namespace powerAuthTests
 		{
 			CC7_REGISTER_TEST_METHOD(testKeyValueMapNormalization);
 			CC7_REGISTER_TEST_METHOD(testBeforeActivation);
+			CC7_REGISTER_TEST_METHOD(testPrepareActivation);
 			CC7_REGISTER_TEST_METHOD(testActivationWithoutEEK);
 			CC7_REGISTER_TEST_METHOD(testActivationWithEEKUsingSetup);
 			CC7_REGISTER_TEST_METHOD(testActivationWithEEKUsingSetter);
@@ -183,6 +185,61 @@ namespace powerAuthTests
 			}
 		}
 		
+		void testPrepareActivation()
+		{
+			ErrorCode ec;
+			Session s1(_setup);
+			// Prepare keys twice, second call must be no-op
+			ec = s1.prepareActivation();
+			ccstAssertEqual(ec, EC_Ok);
+			ec = s1.prepareActivation();
+			ccstAssertEqual(ec, EC_Ok);
+			ccstAssertTrue(s1.canStartActivation());
+			ccstAssertFalse(s1.hasPendingActivation());
+			
+			// Start activation with prepared keys
+			ActivationStep1Param param1;
+			param1.activationCode		= _activation_code;
+			param1.activationSignature	= T_calculateActivationSignature(_activation_code);
+			ActivationStep1Result result1;
+			ec = s1.startActivation(param1, result1);
+			ccstAssertEqual(ec, EC_Ok);
+			ccstAssertTrue(s1.hasPendingActivation());
+			ccstAssertFalse(result1.devicePublicKey.empty());
+			
+			// Prepare is not allowed during the pending activation
+			ec = s1.prepareActivation();
+			ccstAssertEqual(ec, EC_WrongState);
+			
+			// Prepared keys must not be reused for the next activation
+			s1.resetSession();
+			ec = s1.prepareActivation();
+			ccstAssertEqual(ec, EC_Ok);
+			ActivationStep1Result result2;
+			ec = s1.startActivation(param1, result2);
+			ccstAssertEqual(ec, EC_Ok);
+			ccstAssertFalse(result2.devicePublicKey.empty());
+			ccstAssertTrue(result1.devicePublicKey != result2.devicePublicKey);
+			
+			// Invalid signature consumes prepared keys and fails
+			s1.resetSession();
+			ec = s1.prepareActivation();
+			ccstAssertEqual(ec, EC_Ok);
+			ActivationStep1Param wrong_param;
+			wrong_param.activationCode		= _activation_code;
+			wrong_param.activationSignature	= T_calculateActivationSignature("AAAAA-AAAAA-AAAAA-AAAAA");
+			ActivationStep1Result wrong_result;
+			ec = s1.startActivation(wrong_param, wrong_result);
+			ccstAssertEqual(ec, EC_Encryption);
+			ccstAssertTrue(s1.canStartActivation());
+			
+			// Invalid setup
+			SessionSetup wrong_setup;
+			Session s2(wrong_setup);
+			ec = s2.prepareActivation();
+			ccstAssertEqual(ec, EC_WrongState);
+		}
+		
 		void testActivationWithoutEEK()
 		{
 			testActivation(nullptr, false, "Without EEK");
@@ -255,6 +312,11 @@ namespace powerAuthTests
 				//  ...process param1 & produce result1
 				ActivationStep1Result result1;
 				{
+					if (break_in_step & 1) {
+						// Use prepared keys in some iterations
+						ec = s1.prepareActivation();
+						ccstAssertEqual(ec, EC_Ok);
+					}
 					ec = s1.startActivation(param1, result1);
 					ccstAssertEqual(ec, EC_Ok);
 					ccstAssertTrue(s1.hasValidSetup());
@@ -982,6 +1044,22 @@ namespace powerAuthTests
 			signedData.signature.clear();
 			ec = s1.verifyServerSignedData(signedData);
 			ccstAssertTrue(ec == EC_WrongParam);
+			
+			// Batch validation with verifier
+			auto master_key = s1.serverPublicKeyForSignedData(SignedData::ECDSA_MasterServerKey);
+			ccstAssertFalse(master_key.empty());
+			ccstAssertTrue(s1.serverPublicKeyForSignedData(SignedData::ECDSA_PersonalizedKey).empty());
+			std::unique_ptr<crypto::ECDSAVerifier> verifier(crypto::ECDSAVerifier::createWithPublicKey(master_key));
+			ccstAssertNotNull(verifier.get());
+			for (int i = 0; i < 16; i++) {
+				auto data = crypto::GetRandomData(16 + i);
+				auto signature = T_calculateServerSignature(data);
+				ccstAssertTrue(verifier->validateSignature(data, signature));
+				data[0] ^= 0x55;
+				ccstAssertFalse(verifier->validateSignature(data, signature));
+			}
+			std::unique_ptr<crypto::ECDSAVerifier> invalid_verifier(crypto::ECDSAVerifier::createWithPublicKey(cc7::MakeRange("not a key")));
+			ccstAssertNull(invalid_verifier.get());
 		}
 		
 		// DATA_MIGRATION_TAG